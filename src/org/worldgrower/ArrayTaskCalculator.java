@@ -0,0 +1,322 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.worldgrower.RegionGraph.RegionPath;
+import org.worldgrower.actions.Actions;
+import org.worldgrower.condition.Condition;
+import org.worldgrower.terrain.TerrainType;
+
+/**
+ * This TaskCalculator calculates the same tasks as TaskCalculatorImpl, but doesn't allocate objects per visited location.
+ * The state of the search is kept in int arrays which are reused by each thread,
+ * and the open set is a binary heap of location indices which is ordered the same way as the PriorityQueue in TaskCalculatorImpl.
+ * 
+ * Targets that are too far away to be reached within maxDepth moves are approached using the RegionGraph:
+ * only the moves to the next entrance on the path are calculated, the next part of the path is calculated
+ * when those moves are performed and the goal still can't be executed.
+ */
+public class ArrayTaskCalculator implements TaskCalculator, Serializable {
+
+	private static final ThreadLocal<SearchState> SEARCH_STATE = new ThreadLocal<>();
+	
+	// largest distance from which an action can be performed on its target, this is checked for all actions by UTestArrayTaskCalculator
+	static final int MAX_ACTION_DISTANCE = 20;
+	
+	private int maxDepth = 50;
+	
+	@Override
+	public List<OperationInfo> calculateTask(WorldObject performer, World world, OperationInfo goal) {
+		LocationWorldObjectsCache zone = (LocationWorldObjectsCache) world.getWorldObjectsCache(Constants.X, Constants.Y);
+		int width = world.getWidth();
+		int height = world.getHeight();
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		if (performerX < 0 || performerX >= width || performerY < 0 || performerY >= height) {
+			return new TaskCalculatorImpl().calculateTask(performer, world, goal);
+		}
+		
+		WorldObject copyPerformer = performer.shallowCopy();
+		boolean canMoveOnWater = copyPerformer.getProperty(Constants.CONDITIONS).hasCondition(Condition.WATER_WALK_CONDITION);
+		
+		int startDistance = distance(goal, copyPerformer, performerX, performerY, world);
+		int targetDistance = getTargetDistance(performerX, performerY, goal.getTarget());
+		if (startDistance != 0 && !canMoveOnWater && targetDistance > maxDepth + MAX_ACTION_DISTANCE) {
+			// no need to search, the target can't be reached within maxDepth moves
+			return calculateTaskOverRegions(performer, world, goal, zone, copyPerformer);
+		}
+		
+		List<OperationInfo> tasks = calculateTask(performer, world, goal, zone, copyPerformer, canMoveOnWater, startDistance, -1, -1);
+		if (tasks.isEmpty() && !canMoveOnWater && targetDistance > maxDepth) {
+			return calculateTaskOverRegions(performer, world, goal, zone, copyPerformer);
+		} else {
+			return tasks;
+		}
+	}
+	
+	/**
+	 * Calculates the moves towards the location (waypointX, waypointY) followed by the goal,
+	 * or the moves towards the goal itself if waypointX is -1.
+	 */
+	private List<OperationInfo> calculateTask(WorldObject performer, World world, OperationInfo goal, LocationWorldObjectsCache zone, WorldObject copyPerformer, boolean canMoveOnWater, int startDistance, int waypointX, int waypointY) {
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		SearchState state = getSearchState(world.getWidth(), world.getHeight());
+		state.startSearch(waypointX, waypointY);
+		int startIndex = state.index(performerX, performerY);
+		state.open(startIndex, 0, startDistance, -1);
+		
+		while(!state.isOpenSetEmpty()) {
+			int current = state.poll();
+			
+			if (state.h[current] == 0) {
+				return createTasks(performer, goal, current, state);
+			}
+			
+			int currentG = state.g[current];
+			if (currentG < maxDepth) {
+				int currentX = state.x(current);
+				int currentY = state.y(current);
+				int newG = currentG + 1;
+				// same order of neighbours as TaskCalculatorImpl, to get the same tasks
+				addNeighbour(current, currentX - 1, currentY - 1, newG, copyPerformer, canMoveOnWater, goal, world, zone, state);
+				addNeighbour(current, currentX - 1, currentY, newG, copyPerformer, canMoveOnWater, goal, world, zone, state);
+				addNeighbour(current, currentX - 1, currentY + 1, newG, copyPerformer, canMoveOnWater, goal, world, zone, state);
+				addNeighbour(current, currentX, currentY - 1, newG, copyPerformer, canMoveOnWater, goal, world, zone, state);
+				addNeighbour(current, currentX, currentY + 1, newG, copyPerformer, canMoveOnWater, goal, world, zone, state);
+				addNeighbour(current, currentX + 1, currentY - 1, newG, copyPerformer, canMoveOnWater, goal, world, zone, state);
+				addNeighbour(current, currentX + 1, currentY, newG, copyPerformer, canMoveOnWater, goal, world, zone, state);
+				addNeighbour(current, currentX + 1, currentY + 1, newG, copyPerformer, canMoveOnWater, goal, world, zone, state);
+			}
+		}
+		
+		return new ArrayList<>();
+	}
+	
+	private void addNeighbour(int parent, int x, int y, int g, WorldObject copyPerformer, boolean canMoveOnWater, OperationInfo goal, World world, LocationWorldObjectsCache zone, SearchState state) {
+		if ((x >= 0) && (x < state.width) && 
+				(y >= 0) && (y < state.height) && 
+				zone.value(x, y) == 0 &&
+				(canMoveOnWater || world.getTerrain().getTerrainInfo(x, y).getTerrainType() != TerrainType.WATER)) {
+			
+			int index = state.index(x, y);
+			// a visited location is either in the open or the closed set, and in both cases TaskCalculatorImpl skips it
+			if (!state.isVisited(index)) {
+				state.open(index, g, distance(goal, copyPerformer, x, y, world, state), parent);
+			}
+		}
+	}
+	
+	private int distance(OperationInfo goal, WorldObject copyPerformer, int x, int y, World world, SearchState state) {
+		if (state.waypointX != -1) {
+			return Reach.distance(x, y, state.waypointX, state.waypointY);
+		} else {
+			return distance(goal, copyPerformer, x, y, world);
+		}
+	}
+	
+	private int distance(OperationInfo goal, WorldObject copyPerformer, int x, int y, World world) {
+		copyPerformer.setPropertyUnchecked(Constants.X, x);
+		copyPerformer.setPropertyUnchecked(Constants.Y, y);
+		return goal.distance(copyPerformer, world);
+	}
+	
+	/**
+	 * Returns the number of moves needed to get to the target if there are no obstacles,
+	 * or 0 if the target has no location.
+	 */
+	private int getTargetDistance(int performerX, int performerY, WorldObject target) {
+		if (!target.hasProperty(Constants.X) || !target.hasProperty(Constants.WIDTH) || target.getProperty(Constants.X).intValue() < 0) {
+			return 0;
+		}
+		int targetX = target.getProperty(Constants.X);
+		int targetY = target.getProperty(Constants.Y);
+		int distanceX = Math.max(0, Math.max(targetX - performerX, performerX - (targetX + target.getProperty(Constants.WIDTH) - 1)));
+		int distanceY = Math.max(0, Math.max(targetY - performerY, performerY - (targetY + target.getProperty(Constants.HEIGHT) - 1)));
+		return Math.max(distanceX, distanceY);
+	}
+	
+	private List<OperationInfo> calculateTaskOverRegions(WorldObject performer, World world, OperationInfo goal, LocationWorldObjectsCache zone, WorldObject copyPerformer) {
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		WorldObject target = goal.getTarget();
+		RegionPath regionPath = zone.getRegionGraph().findPath(performerX, performerY, target.getProperty(Constants.X), target.getProperty(Constants.Y), target.getProperty(Constants.WIDTH), target.getProperty(Constants.HEIGHT), zone, world.getTerrain());
+		if (regionPath == null || regionPath.getCost(0) > maxDepth) {
+			return new ArrayList<>();
+		}
+		
+		int waypoint = 0;
+		while (waypoint + 1 < regionPath.size() && regionPath.getCost(waypoint + 1) <= maxDepth) {
+			waypoint++;
+		}
+		int waypointX = regionPath.getX(waypoint);
+		int waypointY = regionPath.getY(waypoint);
+		return calculateTask(performer, world, goal, zone, copyPerformer, false, Reach.distance(performerX, performerY, waypointX, waypointY), waypointX, waypointY);
+	}
+	
+	private List<OperationInfo> createTasks(WorldObject performer, OperationInfo goal, int goalIndex, SearchState state) {
+		int pathLength = state.g[goalIndex];
+		int[] path = new int[pathLength + 1];
+		int index = goalIndex;
+		for(int i=pathLength; i>=0; i--) {
+			path[i] = index;
+			index = state.parent[index];
+		}
+		
+		List<OperationInfo> result = new ArrayList<>(pathLength + 1);
+		for(int i=0; i<pathLength; i++) {
+			int xMovement = state.x(path[i+1]) - state.x(path[i]);
+			int yMovement = state.y(path[i+1]) - state.y(path[i]);
+			int[] args = new int[] { xMovement, yMovement };
+			result.add(new OperationInfo(performer, performer, args, Actions.MOVE_ACTION));
+		}
+		result.add(goal);
+		return result;
+	}
+	
+	private static SearchState getSearchState(int width, int height) {
+		SearchState state = SEARCH_STATE.get();
+		if (state == null || state.width != width || state.height != height) {
+			state = new SearchState(width, height);
+			SEARCH_STATE.set(state);
+		}
+		return state;
+	}
+	
+	/**
+	 * Holds the g, h and parent values of all locations in the world.
+	 * Values are only valid for locations that are visited during the current search,
+	 * which is tracked by comparing visitedSearch with the number of the current search,
+	 * so that the arrays don't need to be cleared between searches.
+	 */
+	private static final class SearchState {
+		private final int width;
+		private final int height;
+		
+		private final int[] g;
+		private final int[] h;
+		private final int[] parent;
+		private final int[] visitedSearch;
+		private int currentSearch = 0;
+		private int waypointX;
+		private int waypointY;
+		
+		private final int[] openSet;
+		private int openSetSize = 0;
+		
+		public SearchState(int width, int height) {
+			this.width = width;
+			this.height = height;
+			
+			int size = width * height;
+			this.g = new int[size];
+			this.h = new int[size];
+			this.parent = new int[size];
+			this.visitedSearch = new int[size];
+			this.openSet = new int[size];
+		}
+		
+		public int index(int x, int y) {
+			return y * width + x;
+		}
+		
+		public int x(int index) {
+			return index % width;
+		}
+		
+		public int y(int index) {
+			return index / width;
+		}
+		
+		public void startSearch(int waypointX, int waypointY) {
+			this.waypointX = waypointX;
+			this.waypointY = waypointY;
+
+			currentSearch++;
+			if (currentSearch == 0) {
+				Arrays.fill(visitedSearch, 0);
+				currentSearch = 1;
+			}
+			openSetSize = 0;
+		}
+		
+		public boolean isVisited(int index) {
+			return visitedSearch[index] == currentSearch;
+		}
+		
+		public boolean isOpenSetEmpty() {
+			return openSetSize == 0;
+		}
+		
+		public void open(int index, int newG, int newH, int parentIndex) {
+			visitedSearch[index] = currentSearch;
+			g[index] = newG;
+			h[index] = newH;
+			parent[index] = parentIndex;
+			siftUp(openSetSize++, index);
+		}
+		
+		// the sift operations are the same as the ones in java.util.PriorityQueue, so that locations with equal cost are polled in the same order
+		public int poll() {
+			int result = openSet[0];
+			int last = openSet[--openSetSize];
+			if (openSetSize > 0) {
+				siftDown(0, last);
+			}
+			return result;
+		}
+		
+		private int compare(int index1, int index2) {
+			return (g[index1] + h[index1]) - (g[index2] + h[index2]);
+		}
+		
+		private void siftUp(int k, int index) {
+			while (k > 0) {
+				int parentPosition = (k - 1) >>> 1;
+				int parentIndex = openSet[parentPosition];
+				if (compare(index, parentIndex) >= 0) {
+					break;
+				}
+				openSet[k] = parentIndex;
+				k = parentPosition;
+			}
+			openSet[k] = index;
+		}
+		
+		private void siftDown(int k, int index) {
+			int half = openSetSize >>> 1;
+			while (k < half) {
+				int child = (k << 1) + 1;
+				int childIndex = openSet[child];
+				int right = child + 1;
+				if (right < openSetSize && compare(childIndex, openSet[right]) > 0) {
+					child = right;
+					childIndex = openSet[child];
+				}
+				if (compare(index, childIndex) <= 0) {
+					break;
+				}
+				openSet[k] = childIndex;
+				k = child;
+			}
+			openSet[k] = index;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Saves the world every few turns without stalling the turn loop.
+ * At the end of a turn the state of the world that can change is copied, after which the copy is serialized,
+ * compressed and written to the autosave file on a background thread.
+ * If the previous autosave is still being written, the autosave for that turn is skipped.
+ * 
+ * Only the first autosave of a world writes the complete world, which is the checkpoint.
+ * The next autosaves only write the WorldObjects that changed since the checkpoint to the delta file
+ * of the autosave file, until a new checkpoint is written after a number of deltas.
+ * When writing an autosave fails, the failure is printed and the next autosave writes a new checkpoint.
+ */
+public class AutoSave {
+
+	private static final int DEFAULT_DELTAS_BETWEEN_CHECKPOINTS = 10;
+	
+	private final File autoSaveFile;
+	private final int turnsBetweenSaves;
+	private final int deltasBetweenCheckpoints;
+	private final ExecutorService executorService;
+	private Future<?> pendingSave = null;
+	private WorldImpl checkpointWorld = null;
+	private int checkpointTurn;
+	private int checkpointHistorySize;
+	private int deltasSinceCheckpoint;
+	
+	public AutoSave(File autoSaveFile, int turnsBetweenSaves) {
+		this(autoSaveFile, turnsBetweenSaves, DEFAULT_DELTAS_BETWEEN_CHECKPOINTS);
+	}
+	
+	public AutoSave(File autoSaveFile, int turnsBetweenSaves, int deltasBetweenCheckpoints) {
+		if (turnsBetweenSaves <= 0) {
+			throw new IllegalArgumentException("turnsBetweenSaves should be positive: " + turnsBetweenSaves);
+		}
+		if (deltasBetweenCheckpoints < 0) {
+			throw new IllegalArgumentException("deltasBetweenCheckpoints shouldn't be negative: " + deltasBetweenCheckpoints);
+		}
+		this.autoSaveFile = autoSaveFile;
+		this.turnsBetweenSaves = turnsBetweenSaves;
+		this.deltasBetweenCheckpoints = deltasBetweenCheckpoints;
+		this.executorService = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "AutoSave");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Should be called after DungeonMaster.runWorld has finished.
+	 */
+	public void turnFinished(World world) {
+		if (world.getCurrentTurn().getValue() % turnsBetweenSaves == 0) {
+			save(world);
+		}
+	}
+	
+	public void save(World world) {
+		if (world instanceof WorldImpl && !isSaveInProgress()) {
+			checkPendingSave();
+			WorldImpl worldImpl = (WorldImpl) world;
+			if (worldImpl != checkpointWorld || deltasSinceCheckpoint >= deltasBetweenCheckpoints) {
+				SaveGameFormat.Snapshot snapshot = SaveGameFormat.createSnapshot(worldImpl);
+				worldImpl.checkpoint();
+				checkpointWorld = worldImpl;
+				checkpointTurn = worldImpl.getCurrentTurn().getValue();
+				checkpointHistorySize = worldImpl.getHistory().size();
+				deltasSinceCheckpoint = 0;
+				pendingSave = executorService.submit(() -> write(snapshot));
+			} else {
+				SaveGameFormat.Delta delta = SaveGameFormat.createDelta(worldImpl, checkpointTurn, checkpointHistorySize);
+				deltasSinceCheckpoint++;
+				pendingSave = executorService.submit(() -> write(delta));
+			}
+		}
+	}
+	
+	// the delta of the previous checkpoint is deleted before the new checkpoint replaces it
+	private void write(SaveGameFormat.Snapshot snapshot) {
+		try {
+			File temporaryFile = getTemporaryFile(autoSaveFile);
+			SaveGameFormat.write(snapshot, temporaryFile, true);
+			Files.deleteIfExists(SaveGameFormat.getDeltaFile(autoSaveFile).toPath());
+			Files.move(temporaryFile.toPath(), autoSaveFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(IOException ex) {
+			throw new IllegalStateException("Problem moving autosave to " + autoSaveFile, ex);
+		}
+	}
+	
+	private void write(SaveGameFormat.Delta delta) {
+		File deltaFile = SaveGameFormat.getDeltaFile(autoSaveFile);
+		try {
+			File temporaryFile = getTemporaryFile(deltaFile);
+			SaveGameFormat.write(delta, temporaryFile, true);
+			Files.move(temporaryFile.toPath(), deltaFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(IOException ex) {
+			throw new IllegalStateException("Problem moving autosave to " + deltaFile, ex);
+		}
+	}
+	
+	private static File getTemporaryFile(File file) {
+		return new File(file.getPath() + ".tmp");
+	}
+	
+	private boolean isSaveInProgress() {
+		return pendingSave != null && !pendingSave.isDone();
+	}
+	
+	/**
+	 * Waits until the autosave that is being written is finished.
+	 */
+	public void waitForPendingSave() {
+		checkPendingSave();
+	}
+	
+	// a failed autosave shouldn't stop the game, it is printed like other uncaught exceptions
+	private void checkPendingSave() {
+		if (pendingSave != null) {
+			try {
+				pendingSave.get();
+			} catch (ExecutionException ex) {
+				new IllegalStateException("Problem autosaving to " + autoSaveFile, ex.getCause()).printStackTrace();
+				checkpointWorld = null;
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				checkpointWorld = null;
+			} finally {
+				pendingSave = null;
+			}
+		}
+	}
+}
@@ -18,6 +18,14 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.worldgrower.actions.Actions;
 import org.worldgrower.condition.WorldStateChangedListeners;
@@ -31,14 +39,23 @@ public class DungeonMaster implements Serializable {
 	
 	private final GoalCalculator goalCalculator = new GoalCalculator();
 	private TaskCalculator taskCalculator = new TaskCalculatorImpl();
+	private boolean parallelPlanning = false;
+	private transient int planningThreadCount = 0;
+	private transient ExecutorService planningExecutorService;
 	
 	public void runWorld(World world, WorldStateChangedListeners worldStateChangedListeners) {
 		List<WorldObject> worldObjects = new ArrayList<>(world.getWorldObjects());
+		TurnPlan[] turnPlans = parallelPlanning ? planTurns(worldObjects, world) : null;
 		
-		for(WorldObject worldObject : worldObjects) {
+		for(int i=0; i<worldObjects.size(); i++) {
+			WorldObject worldObject = worldObjects.get(i);
 			if (world.exists(worldObject)) {
 				if (worldObject.hasIntelligence() && worldObject.isControlledByAI()) {
-					runWorldObject(worldObject, world);
+					if (turnPlans != null && turnPlans[i] != null && turnPlans[i].isStillValid(world)) {
+						runTurnPlan(turnPlans[i], world);
+					} else {
+						runWorldObject(worldObject, world);
+					}
 				}			
 				worldObject.onTurn(world, worldStateChangedListeners);
 			}
@@ -49,49 +66,123 @@ public class DungeonMaster implements Serializable {
 	void runWorldObject(WorldObject worldObject, World world) {
 		MetaInformation metaInformation = getMetaInformation(worldObject);
 		
+		planTasks(worldObject, world, metaInformation, goalCalculator);
+		
+		OperationInfo operationInfo = metaInformation.getCurrentTask().poll();
+		operationInfo.perform(world);
+	}
+	
+	private void runTurnPlan(TurnPlan turnPlan, World world) {
+		MetaInformation metaInformation = getMetaInformation(turnPlan.getWorldObject());
+		
+		turnPlan.apply(metaInformation, world);
+		
+		OperationInfo operationInfo = metaInformation.getCurrentTask().poll();
+		operationInfo.perform(world);
+	}
+	
+	/**
+	 * Calculates the TurnPlans of all non-player characters at the same time.
+	 * Calculating a TurnPlan doesn't change the world, so the TurnPlans only depend on the state of the world at the start of the turn.
+	 */
+	TurnPlan[] planTurns(List<WorldObject> worldObjects, World world) {
+		TurnPlan[] turnPlans = new TurnPlan[worldObjects.size()];
+		List<Callable<Object>> planningTasks = new ArrayList<>();
+		for(int i=0; i<worldObjects.size(); i++) {
+			WorldObject worldObject = worldObjects.get(i);
+			if (worldObject.hasIntelligence() && worldObject.isControlledByAI()) {
+				TurnPlan turnPlan = new TurnPlan(worldObject);
+				turnPlans[i] = turnPlan;
+				planningTasks.add(Executors.callable(() -> turnPlan.plan(this, world)));
+			}
+		}
+		
+		try {
+			for(Future<Object> planningTask : getPlanningExecutorService().invokeAll(planningTasks)) {
+				planningTask.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("Problem planning turn " + world.getCurrentTurn(), e);
+		}
+		
+		return turnPlans;
+	}
+	
+	// the planning threads stop when they have been idle for a second, so a DungeonMaster that is no longer used doesn't keep any threads
+	private synchronized ExecutorService getPlanningExecutorService() {
+		if (planningExecutorService == null) {
+			int threadCount = planningThreadCount > 0 ? planningThreadCount : Runtime.getRuntime().availableProcessors();
+			ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threadCount, threadCount, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+				Thread thread = new Thread(runnable, "planning");
+				thread.setDaemon(true);
+				return thread;
+			});
+			threadPoolExecutor.allowCoreThreadTimeOut(true);
+			planningExecutorService = threadPoolExecutor;
+		}
+		return planningExecutorService;
+	}
+	
+	/**
+	 * Stops the planning threads, they are started again when a turn is planned in parallel.
+	 */
+	public synchronized void shutdownPlanning() {
+		if (planningExecutorService != null) {
+			planningExecutorService.shutdown();
+			planningExecutorService = null;
+		}
+	}
+	
+	void planTasks(WorldObject worldObject, World world, MetaInformation metaInformation, GoalCalculator goalCalculator) {
 		World worldFacade = createWorldFacade(worldObject, world);
 		
+		goalCalculator.startCachingGoalEvaluations(worldObject, worldFacade);
+		try {
+			planTasks(worldObject, world, worldFacade, metaInformation, goalCalculator);
+		} finally {
+			goalCalculator.stopCachingGoalEvaluations();
+		}
+	}
+	
+	private void planTasks(WorldObject worldObject, World world, World worldFacade, MetaInformation metaInformation, GoalCalculator goalCalculator) {
 		if (metaInformation.isEmpty()) {
-			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.EMPTY_META_INFORMATION);
+			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.EMPTY_META_INFORMATION, goalCalculator);
 		} else {
 			Goal finalGoal = metaInformation.getFinalGoal();
-			if (finalGoal.isGoalMet(worldObject, worldFacade)) {
-				calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.FINAL_GOAL_WAS_MET);
+			if (goalCalculator.isGoalMet(finalGoal, worldObject, worldFacade)) {
+				calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.FINAL_GOAL_WAS_MET, goalCalculator);
 			}
 		}
 
 		if (!metaInformation.getImmediateGoal().isValidTarget(worldFacade)) {
-			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.TARGET_NO_LONGER_VALID);
+			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.TARGET_NO_LONGER_VALID, goalCalculator);
 		}
 		
-		if (moreUrgentImportantGoalIsNotMet(worldObject, worldFacade)) {
-			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.MORE_IMPORTANT_GOAL_NOT_MET);
+		if (goalCalculator.moreUrgentImportantGoalIsNotMet(worldObject, worldFacade, metaInformation.getFinalGoal())) {
+			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.MORE_IMPORTANT_GOAL_NOT_MET, goalCalculator);
 		}
 		
 		OperationInfo finalOperationInfo = metaInformation.getFinalTask();
 		if (!finalOperationInfo.canExecuteIgnoringDistance(worldObject, worldFacade)) {
-			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.FINAL_OPERATION_NOT_POSSIBLE);
+			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.FINAL_OPERATION_NOT_POSSIBLE, goalCalculator);
 		}
 		
 		if (finalOperationInfo.getTarget().hasProperty(Constants.ID) && !world.exists(finalOperationInfo.getTarget())) {
-			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.TARGET_NO_LONGER_EXISTS);
+			calculateGoalAndTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.TARGET_NO_LONGER_EXISTS, goalCalculator);
 		}
 		
 		OperationInfo peekOperationInfo = metaInformation.getCurrentTask().peek();
 		if (!peekOperationInfo.canExecute(worldObject, worldFacade)) {
-			recalculateTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.OPERATION_NOT_POSSIBLE);
+			recalculateTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.OPERATION_NOT_POSSIBLE, goalCalculator);
 		}
 		
 		if (finalOperationInfo.targetMoved(worldFacade)) {
-			recalculateTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.TARGET_MOVED);
+			recalculateTasks(worldObject, worldFacade, metaInformation, GoalChangedReason.TARGET_MOVED, goalCalculator);
 		}
 		
 		if (isDeceivedByWorldFacade(metaInformation.getCurrentTask().peek(), worldObject, world, worldFacade)) {
-			recalculateTasks(worldObject, world, metaInformation, GoalChangedReason.DECEIVED);
+			recalculateTasks(worldObject, world, metaInformation, GoalChangedReason.DECEIVED, goalCalculator);
 		}
-		
-		OperationInfo operationInfo = metaInformation.getCurrentTask().poll();
-		operationInfo.perform(world);
 	}
 	
 	private boolean isDeceivedByWorldFacade(OperationInfo operationInfo, WorldObject worldObject, World world, World worldFacade) {
@@ -109,11 +200,6 @@ public class DungeonMaster implements Serializable {
 		return new WorldFacade(worldObject, world);
 	}
 
-	private boolean moreUrgentImportantGoalIsNotMet(WorldObject worldObject, World world) {
-		Goal currentGoal = getMetaInformation(worldObject).getFinalGoal();
-		return goalCalculator.moreUrgentImportantGoalIsNotMet(worldObject, world, currentGoal);
-	}
-
 	private MetaInformation getMetaInformation(WorldObject worldObject) {
 		MetaInformation metaInformation = worldObject.getProperty(Constants.META_INFORMATION);
 		if (metaInformation == null) {
@@ -124,12 +210,13 @@ public class DungeonMaster implements Serializable {
 		return metaInformation;
 	}
 
-	private void calculateGoalAndTasks(WorldObject worldObject, World world, MetaInformation metaInformation, GoalChangedReason goalChangedReason) {
+	private void calculateGoalAndTasks(WorldObject worldObject, World world, MetaInformation metaInformation, GoalChangedReason goalChangedReason, GoalCalculator goalCalculator) {
 		boolean goalFound = false;
 		List<Goal> triedGoals = new ArrayList<>();
 		
 		if (!worldObject.getProperty(Constants.CONDITIONS).canTakeAction()) {
 			metaInformation.setNoActionPossible();
+			goalCalculator.metaInformationChanged();
 			return;
 		}
 		
@@ -140,6 +227,7 @@ public class DungeonMaster implements Serializable {
 			if (tasks.size() > 0) {
 				setMetaInformationTasks(worldObject, metaInformation, goalChangedReason, tasks, world);
 				metaInformation.setFinalGoal(finalGoal);
+				goalCalculator.metaInformationChanged();
 				goalFound = true;
 				//	System.out.println(worldObject.getProperty(Constants.NAME) + " : final goal : " + finalGoal + " , immediateGoal : " + immediateGoal);
 			} else {
@@ -164,7 +252,7 @@ public class DungeonMaster implements Serializable {
 		metaInformation.setCurrentTask(tasks, goalChangedReason);
 	}
 
-	private void recalculateTasks(WorldObject worldObject, World world, MetaInformation metaInformation, GoalChangedReason goalChangedReason) {
+	private void recalculateTasks(WorldObject worldObject, World world, MetaInformation metaInformation, GoalChangedReason goalChangedReason, GoalCalculator goalCalculator) {
 		if (metaInformation.isEmpty()) {
 			throw new IllegalStateException("WorldObject " + worldObject + " has no goal");
 		}
@@ -178,9 +266,10 @@ public class DungeonMaster implements Serializable {
 		
 		if (tasks.size() == 0) {
 			// for now, try another goal
-			calculateGoalAndTasks(worldObject, world, metaInformation, goalChangedReason);
+			calculateGoalAndTasks(worldObject, world, metaInformation, goalChangedReason, goalCalculator);
 		} else {
 			setMetaInformationTasks(worldObject, metaInformation, goalChangedReason, tasks, world);
+			goalCalculator.metaInformationChanged();
 		}
 	}
 	
@@ -219,7 +308,30 @@ public class DungeonMaster implements Serializable {
 		}
 	}
 	
-	void setTaskCalculator(TaskCalculator taskCalculator) {
+	public void setTaskCalculator(TaskCalculator taskCalculator) {
 		this.taskCalculator = taskCalculator;
 	}
+	
+	/**
+	 * When parallel planning is enabled, all non-player characters calculate their goal and tasks at the same time
+	 * at the start of each turn, after which the tasks are performed one after another in the usual order.
+	 * Tasks that can no longer be performed because of earlier actions in the same turn are recalculated.
+	 * The resulting history doesn't depend on the number of threads, but it differs from the history
+	 * when parallel planning is disabled, which is the default.
+	 * The game enables parallel planning when the PARALLEL_PLANNING system property is set.
+	 */
+	public void setParallelPlanning(boolean parallelPlanning) {
+		this.parallelPlanning = parallelPlanning;
+		if (!parallelPlanning) {
+			shutdownPlanning();
+		}
+	}
+	
+	/**
+	 * Sets the number of threads that plan turns, by default there is one thread for each processor.
+	 */
+	void setPlanningThreadCount(int planningThreadCount) {
+		shutdownPlanning();
+		this.planningThreadCount = planningThreadCount;
+	}
 }
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.io.Serializable;
+
+import org.worldgrower.goal.Position;
+import org.worldgrower.terrain.Terrain;
+import org.worldgrower.terrain.TerrainType;
+
+/**
+ * The FreeSpaceIndex keeps track of which locations are occupied by impassable WorldObjects.
+ * Occupied locations are counted in a two-dimensional binary indexed tree,
+ * so the number of occupied locations in any rectangle can be calculated without visiting each location.
+ * 
+ * Because the terrain doesn't change, water locations are counted once in a two-dimensional prefix sum.
+ */
+class FreeSpaceIndex implements Serializable {
+
+	private final int width;
+	private final int height;
+	private final int[] tree;
+	private final int[] waterLocations;
+	
+	public FreeSpaceIndex(int width, int height) {
+		this(width, height, null);
+	}
+	
+	public FreeSpaceIndex(Terrain terrain) {
+		this(terrain.getWidth(), terrain.getHeight(), terrain);
+	}
+	
+	private FreeSpaceIndex(int width, int height, Terrain terrain) {
+		this.width = width;
+		this.height = height;
+		this.tree = new int[(width + 1) * (height + 1)];
+		this.waterLocations = new int[(width + 1) * (height + 1)];
+		if (terrain != null) {
+			for(int i=1; i<=width; i++) {
+				for(int j=1; j<=height; j++) {
+					int water = terrain.getTerrainInfo(i - 1, j - 1).getTerrainType() == TerrainType.WATER ? 1 : 0;
+					waterLocations[i * (height + 1) + j] = water + waterLocations[(i - 1) * (height + 1) + j] + waterLocations[i * (height + 1) + j - 1] - waterLocations[(i - 1) * (height + 1) + j - 1];
+				}
+			}
+		}
+	}
+	
+	public void locationOccupied(int x, int y) {
+		update(x, y, 1);
+	}
+	
+	public void locationFreed(int x, int y) {
+		update(x, y, -1);
+	}
+	
+	private void update(int x, int y, int delta) {
+		for(int i=x+1; i<=width; i += i & -i) {
+			for(int j=y+1; j<=height; j += j & -j) {
+				tree[i * (height + 1) + j] += delta;
+			}
+		}
+	}
+	
+	// returns the number of occupied locations with coordinates smaller than x and y
+	private int countOccupiedLocations(int x, int y) {
+		int count = 0;
+		for(int i=x; i>0; i -= i & -i) {
+			for(int j=y; j>0; j -= j & -j) {
+				count += tree[i * (height + 1) + j];
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Returns true if the given rectangle lies within the world and none of its locations are occupied.
+	 */
+	public boolean isFree(int x, int y, int rectangleWidth, int rectangleHeight) {
+		if (rectangleWidth <= 0 || rectangleHeight <= 0) {
+			return true;
+		}
+		if (x < 0 || y < 0 || x + rectangleWidth > width || y + rectangleHeight > height) {
+			return false;
+		}
+		int right = x + rectangleWidth;
+		int bottom = y + rectangleHeight;
+		int occupiedLocations = countOccupiedLocations(right, bottom) - countOccupiedLocations(x, bottom) - countOccupiedLocations(right, y) + countOccupiedLocations(x, y);
+		return occupiedLocations == 0;
+	}
+	
+	/**
+	 * Returns true if the given rectangle lies within the world and none of its locations are occupied or water.
+	 */
+	public boolean isFreeOfWater(int x, int y, int rectangleWidth, int rectangleHeight) {
+		if (!isFree(x, y, rectangleWidth, rectangleHeight)) {
+			return false;
+		}
+		if (rectangleWidth <= 0 || rectangleHeight <= 0) {
+			return true;
+		}
+		int right = x + rectangleWidth;
+		int bottom = y + rectangleHeight;
+		int water = countWaterLocations(right, bottom) - countWaterLocations(x, bottom) - countWaterLocations(right, y) + countWaterLocations(x, y);
+		return water == 0;
+	}
+	
+	// returns the number of water locations with coordinates smaller than x and y
+	private int countWaterLocations(int x, int y) {
+		return waterLocations[x * (height + 1) + y];
+	}
+	
+	/**
+	 * Returns the top left location of the free rectangle without water which is nearest to the given location,
+	 * or null if there is no such rectangle.
+	 * The rings around the given location are searched one by one, within the nearest ring the location
+	 * with the smallest x coordinate and then the smallest y coordinate is returned.
+	 */
+	public Position findNearestFreeOfWater(int x, int y, int rectangleWidth, int rectangleHeight) {
+		int maxDistance = Math.max(Math.max(x, width - 1 - x), Math.max(y, height - 1 - y));
+		for(int distance=0; distance<=maxDistance; distance++) {
+			for(int rx=x-distance; rx<=x+distance; rx++) {
+				boolean onVerticalEdge = (rx == x - distance || rx == x + distance);
+				int step = onVerticalEdge ? 1 : 2 * distance;
+				for(int ry=y-distance; ry<=y+distance; ry += Math.max(step, 1)) {
+					if (isFreeOfWater(rx, ry, rectangleWidth, rectangleHeight)) {
+						return new Position(rx, ry);
+					}
+				}
+			}
+		}
+		return null;
+	}
+}
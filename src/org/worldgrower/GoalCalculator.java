@@ -25,6 +25,41 @@ import org.worldgrower.goal.Goal;
  */
 public class GoalCalculator implements Serializable {
 
+	private transient GoalEvaluationCache goalEvaluationCache;
+	
+	/**
+	 * Caches goal evaluations for the given performer and world until stopCachingGoalEvaluations is called.
+	 * Goal evaluations aren't cached while the accessed properties are already being recorded.
+	 * When goalMetOrNot changes the world, goal evaluations are only cached if tracking is enabled:
+	 * goalMetOrNot is called between almost all evaluations, and without knowing which properties an evaluation read
+	 * every change would remove all cached results.
+	 */
+	void startCachingGoalEvaluations(WorldObject performer, World world) {
+		if (!PropertyAccessRecorder.isRecording() && (!goalMetOrNotChangesWorld() || PropertyAccessRecorder.isTrackingEnabled())) {
+			goalEvaluationCache = new GoalEvaluationCache(performer, world, goalMetOrNotChangesWorld());
+		}
+	}
+	
+	void stopCachingGoalEvaluations() {
+		goalEvaluationCache = null;
+	}
+	
+	/**
+	 * Returns true if goalMetOrNot changes the world, so that cached goal evaluations need to be checked.
+	 */
+	protected boolean goalMetOrNotChangesWorld() {
+		return true;
+	}
+	
+	/**
+	 * Called when the MetaInformation of the performer changes.
+	 */
+	void metaInformationChanged() {
+		if (goalEvaluationCache != null) {
+			goalEvaluationCache.propertyChanged(Constants.META_INFORMATION);
+		}
+	}
+
 	public GoalAndOperationInfo calculateGoal(WorldObject performer, World world, List<Goal> triedGoals) {
 		GoalAndOperationInfo goalAndOperationInfo = calculateGoalInternal(performer, world, triedGoals);
 		return changeTargetToRealTarget(goalAndOperationInfo, performer, world);
@@ -47,11 +82,11 @@ public class GoalCalculator implements Serializable {
 		List<Goal> prioritizedGoals = performer.getPriorities(world);
 		
 		for (Goal prioritizedGoal : prioritizedGoals) {
-			if (prioritizedGoal.isGoalMet(performer, world)) {
-				prioritizedGoal.goalMetOrNot(performer, world, true);
+			if (isGoalMet(prioritizedGoal, performer, world)) {
+				cachedGoalMetOrNot(prioritizedGoal, performer, world, true);
 			} else {
-				prioritizedGoal.goalMetOrNot(performer, world, false);
-				OperationInfo goal = prioritizedGoal.calculateGoal(performer, world);
+				cachedGoalMetOrNot(prioritizedGoal, performer, world, false);
+				OperationInfo goal = calculateGoal(prioritizedGoal, performer, world);
 				if ((goal != null) && (!triedGoals.contains(prioritizedGoal))) {
 					return new GoalAndOperationInfo(prioritizedGoal, goal);
 				}
@@ -61,14 +96,29 @@ public class GoalCalculator implements Serializable {
 		throw new IllegalStateException("No goal could be calculated for " + performer);
 	}
 	
+	private void cachedGoalMetOrNot(Goal goal, WorldObject performer, World world, boolean goalMet) {
+		if (goalEvaluationCache != null) {
+			goalEvaluationCache.change(() -> goalMetOrNot(goal, performer, world, goalMet));
+		} else {
+			goalMetOrNot(goal, performer, world, goalMet);
+		}
+	}
+	
+	/**
+	 * Called for every goal that is checked while calculating the goal, subclasses can postpone the changes the goal makes.
+	 */
+	protected void goalMetOrNot(Goal goal, WorldObject performer, World world, boolean goalMet) {
+		goal.goalMetOrNot(performer, world, goalMet);
+	}
+	
 	public boolean moreUrgentImportantGoalIsNotMet(WorldObject performer, World world, Goal currentGoal) {
 		List<Goal> prioritizedGoals = performer.getPriorities(world);
 		
 		for (Goal prioritizedGoal : prioritizedGoals) {
 			if (prioritizedGoal == currentGoal) {
 				return false;
-			} else if (!prioritizedGoal.isUrgentGoalMet(performer, world)) {
-				if (prioritizedGoal.calculateGoal(performer, world) != null) {
+			} else if (!isUrgentGoalMet(prioritizedGoal, performer, world)) {
+				if (calculateGoal(prioritizedGoal, performer, world) != null) {
 					//System.out.println("performer " + performer.getProperty(Constants.NAME) + " with current goal " + currentGoal + " has unmet goal in " + prioritizedGoal);
 					return true;
 				}
@@ -82,10 +132,34 @@ public class GoalCalculator implements Serializable {
 		List<Goal> prioritizedGoals = performer.getPriorities(world);
 		for(int i=0; i<prioritizedGoals.size(); i++) {
 			Goal goal = prioritizedGoals.get(i);
-			if (!goal.isGoalMet(performer, world)) {
+			if (!isGoalMet(goal, performer, world)) {
 				return i;
 			}
 		}
 		return prioritizedGoals.size() - 1;
 	}
+
+	boolean isGoalMet(Goal goal, WorldObject performer, World world) {
+		if (goalEvaluationCache != null) {
+			return goalEvaluationCache.isGoalMet(goal, performer, world);
+		} else {
+			return goal.isGoalMet(performer, world);
+		}
+	}
+	
+	private boolean isUrgentGoalMet(Goal goal, WorldObject performer, World world) {
+		if (goalEvaluationCache != null) {
+			return goalEvaluationCache.isUrgentGoalMet(goal, performer, world);
+		} else {
+			return goal.isUrgentGoalMet(performer, world);
+		}
+	}
+	
+	private OperationInfo calculateGoal(Goal goal, WorldObject performer, World world) {
+		if (goalEvaluationCache != null) {
+			return goalEvaluationCache.calculateGoal(goal, performer, world);
+		} else {
+			return goal.calculateGoal(performer, world);
+		}
+	}
 }
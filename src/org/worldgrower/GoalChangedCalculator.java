@@ -25,14 +25,27 @@ import org.worldgrower.goal.Goal;
 /**
  * This code checks whether any goals of a npc have gotten worse.
  * And if that's the case how the npc is going to react.
+ * 
+ * When tracking changes, the properties read by each goal evaluation and the properties
+ * changed by the action are recorded, and only goal evaluations whose inputs were changed are evaluated again.
+ * This results in the same calls to the GoalObstructedHandler as evaluating all goals again.
  */
 public class GoalChangedCalculator {
 
 	private final GoalObstructedHandler goalObstructedHandler;
+	private final boolean trackChanges;
 	private Map<Integer, List<GoalEvaluation>> targetGoalEvaluations;
+	private PropertyAccessRecorder changesRecorder;
+	private PropertyAccessRecorder previousRecorder;
+	private boolean recordingChanges = false;
 	
 	public GoalChangedCalculator(GoalObstructedHandler goalObstructedHandler) {
+		this(goalObstructedHandler, false);
+	}
+	
+	public GoalChangedCalculator(GoalObstructedHandler goalObstructedHandler, boolean trackChanges) {
 		this.goalObstructedHandler = goalObstructedHandler;
+		this.trackChanges = trackChanges;
 	}
 
 	public void recordStartState(WorldObject performer, WorldObject target, World world) {
@@ -42,10 +55,46 @@ public class GoalChangedCalculator {
 			List<Goal> targetGoals = actor.getPriorities(world);
 			List<GoalEvaluation> actorGoalEvaluations = new ArrayList<>();
 			for(Goal targetGoal : targetGoals) {
-				actorGoalEvaluations.add(new GoalEvaluation(targetGoal, targetGoal.evaluate(actor, world)));
+				actorGoalEvaluations.add(evaluate(targetGoal, actor, world));
 			}
 			targetGoalEvaluations.put(actor.getProperty(Constants.ID), actorGoalEvaluations);
 		}
+		
+		if (trackChanges) {
+			changesRecorder = PropertyAccessRecorder.createWriteRecorder();
+			startRecordingChanges();
+		}
+	}
+	
+	private GoalEvaluation evaluate(Goal goal, WorldObject actor, World world) {
+		if (trackChanges) {
+			PropertyAccessRecorder inputsRecorder = PropertyAccessRecorder.createReadRecorder();
+			PropertyAccessRecorder previousInputsRecorder = inputsRecorder.activate();
+			try {
+				return new GoalEvaluation(goal, goal.evaluate(actor, world), inputsRecorder);
+			} finally {
+				inputsRecorder.deactivate(previousInputsRecorder);
+			}
+		} else {
+			return new GoalEvaluation(goal, goal.evaluate(actor, world), null);
+		}
+	}
+	
+	private void startRecordingChanges() {
+		previousRecorder = changesRecorder.activate();
+		recordingChanges = true;
+	}
+	
+	/**
+	 * Stops recording the changes made after calling recordStartState.
+	 * This method does nothing if no changes are being recorded.
+	 */
+	public void stopRecordingChanges() {
+		if (recordingChanges) {
+			changesRecorder.deactivate(previousRecorder);
+			previousRecorder = null;
+			recordingChanges = false;
+		}
 	}
 
 	private List<WorldObject> getActors(WorldObject performer, World world) {
@@ -54,6 +103,8 @@ public class GoalChangedCalculator {
 	}
 	
 	public void recordEndState(WorldObject performer, WorldObject target, ManagedOperation managedOperation, int[] args, World world) {
+		stopRecordingChanges();
+		
 		List<WorldObject> actors = getActors(performer, world);
 		for(WorldObject actor : actors) {
 			List<GoalEvaluation> targetGoalEval = targetGoalEvaluations.get(actor.getProperty(Constants.ID));
@@ -64,12 +115,12 @@ public class GoalChangedCalculator {
 					GoalEvaluation oldGoalEval = targetGoalEval.get(i);
 					Goal targetGoal = oldGoalEval.getGoal();
 					
-					if (oldGoalEval != null) {
+					if (oldGoalEval != null && isGoalEvaluationChanged(oldGoalEval)) {
 						int oldGoalEvaluation = oldGoalEval.getEvaluation();
 						int newGoalEvaluation = targetGoal.evaluate(actor, world);
 						
 						if (newGoalEvaluation < oldGoalEvaluation) {
-							goalObstructedHandler.goalHindered(targetGoal, performer, actor, targetGoalEval.size() - i, oldGoalEvaluation - newGoalEvaluation, target, managedOperation, args, world);
+							goalHindered(targetGoal, performer, actor, targetGoalEval.size() - i, oldGoalEvaluation - newGoalEvaluation, target, managedOperation, args, world);
 						}
 					}
 				}
@@ -77,14 +128,38 @@ public class GoalChangedCalculator {
 		}
 	}
 	
+	private boolean isGoalEvaluationChanged(GoalEvaluation goalEvaluation) {
+		if (trackChanges) {
+			return changesRecorder.affects(goalEvaluation.getInputsRecorder());
+		} else {
+			return true;
+		}
+	}
+	
+	// the GoalObstructedHandler changes the world, so these changes are also recorded
+	private void goalHindered(Goal targetGoal, WorldObject performer, WorldObject actor, int stepsUntilLastGoal, int goalEvaluationDecrease, WorldObject target, ManagedOperation managedOperation, int[] args, World world) {
+		if (trackChanges) {
+			startRecordingChanges();
+			try {
+				goalObstructedHandler.goalHindered(targetGoal, performer, actor, stepsUntilLastGoal, goalEvaluationDecrease, target, managedOperation, args, world);
+			} finally {
+				stopRecordingChanges();
+			}
+		} else {
+			goalObstructedHandler.goalHindered(targetGoal, performer, actor, stepsUntilLastGoal, goalEvaluationDecrease, target, managedOperation, args, world);
+		}
+	}
+	
 	private static class GoalEvaluation {
 		private final Goal goal;
 		private final int evaluation;
+		private final PropertyAccessRecorder inputsRecorder;
 		
-		public GoalEvaluation(Goal goal, int evaluation) {
+		public GoalEvaluation(Goal goal, int evaluation, PropertyAccessRecorder inputsRecorder) {
 			super();
 			this.goal = goal;
 			this.evaluation = evaluation;
+			this.inputsRecorder = inputsRecorder;
 		}
 
 		public Goal getGoal() {
@@ -93,7 +168,11 @@ public class GoalChangedCalculator {
 
 		public int getEvaluation() {
 			return evaluation;
-		}		
+		}
+
+		public PropertyAccessRecorder getInputsRecorder() {
+			return inputsRecorder;
+		}
 	}
 
 	public void checkLegality(WorldObject performer, WorldObject target, ManagedOperation managedOperation, int[] args, World world) {
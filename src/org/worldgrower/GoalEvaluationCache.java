@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.worldgrower.attribute.ManagedProperty;
+import org.worldgrower.goal.Goal;
+
+/**
+ * A GoalEvaluationCache remembers the results of isGoalMet, isUrgentGoalMet and calculateGoal while a non-player character
+ * plans its tasks, because the same goals are checked several times during planning.
+ * 
+ * Results are only cached for the performer and world the cache was created for.
+ * When the world can change during planning, all results are removed after each change.
+ * If property access tracking is enabled, the properties read by each evaluation are recorded instead
+ * and only the results that read a changed property are removed.
+ */
+public final class GoalEvaluationCache {
+
+	private static final LongAdder HITS = new LongAdder();
+	private static final LongAdder MISSES = new LongAdder();
+	
+	private final WorldObject performer;
+	private final World world;
+	private final boolean trackChanges;
+	private final boolean recordProperties;
+	private final Map<Goal, CachedResult<Boolean>> goalsMet = new HashMap<>();
+	private final Map<Goal, CachedResult<Boolean>> urgentGoalsMet = new HashMap<>();
+	private final Map<Goal, CachedResult<OperationInfo>> calculatedGoals = new HashMap<>();
+	
+	GoalEvaluationCache(WorldObject performer, World world, boolean trackChanges) {
+		this.performer = performer;
+		this.world = world;
+		this.trackChanges = trackChanges;
+		this.recordProperties = trackChanges && PropertyAccessRecorder.isTrackingEnabled();
+	}
+	
+	boolean isGoalMet(Goal goal, WorldObject performer, World world) {
+		return getResult(goalsMet, goal, performer, world, () -> goal.isGoalMet(performer, world));
+	}
+	
+	boolean isUrgentGoalMet(Goal goal, WorldObject performer, World world) {
+		return getResult(urgentGoalsMet, goal, performer, world, () -> goal.isUrgentGoalMet(performer, world));
+	}
+	
+	OperationInfo calculateGoal(Goal goal, WorldObject performer, World world) {
+		return getResult(calculatedGoals, goal, performer, world, () -> goal.calculateGoal(performer, world));
+	}
+	
+	private <T> T getResult(Map<Goal, CachedResult<T>> cachedResults, Goal goal, WorldObject performer, World world, Supplier<T> evaluation) {
+		if (performer != this.performer || world != this.world) {
+			return evaluation.get();
+		}
+		
+		CachedResult<T> cachedResult = cachedResults.get(goal);
+		if (cachedResult != null) {
+			HITS.increment();
+			return cachedResult.result;
+		}
+		MISSES.increment();
+		
+		if (recordProperties) {
+			PropertyAccessRecorder inputsRecorder = PropertyAccessRecorder.createReadRecorder();
+			PropertyAccessRecorder previousRecorder = inputsRecorder.activate();
+			T result;
+			try {
+				result = evaluation.get();
+			} finally {
+				inputsRecorder.deactivate(previousRecorder);
+			}
+			cachedResults.put(goal, new CachedResult<>(result, inputsRecorder));
+			return result;
+		} else {
+			T result = evaluation.get();
+			cachedResults.put(goal, new CachedResult<>(result, null));
+			return result;
+		}
+	}
+	
+	/**
+	 * Calls the given code, which can change the world, and removes the results which could have been changed by it.
+	 */
+	void change(Runnable change) {
+		if (recordProperties) {
+			PropertyAccessRecorder changesRecorder = PropertyAccessRecorder.createWriteRecorder();
+			PropertyAccessRecorder previousRecorder = changesRecorder.activate();
+			try {
+				change.run();
+			} finally {
+				changesRecorder.deactivate(previousRecorder);
+			}
+			removeAffectedResults(changesRecorder);
+		} else {
+			change.run();
+			if (trackChanges) {
+				removeAllResults();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the results which could depend on the given property.
+	 * This is used for properties with values that are changed without being read, such as MetaInformation.
+	 */
+	void propertyChanged(ManagedProperty<?> managedProperty) {
+		if (recordProperties) {
+			change(() -> PropertyAccessRecorder.propertyWritten(managedProperty));
+		} else if (trackChanges) {
+			removeAllResults();
+		}
+	}
+	
+	private void removeAllResults() {
+		goalsMet.clear();
+		urgentGoalsMet.clear();
+		calculatedGoals.clear();
+	}
+	
+	private void removeAffectedResults(PropertyAccessRecorder changesRecorder) {
+		removeAffectedResults(goalsMet, changesRecorder);
+		removeAffectedResults(urgentGoalsMet, changesRecorder);
+		removeAffectedResults(calculatedGoals, changesRecorder);
+	}
+	
+	private static <T> void removeAffectedResults(Map<Goal, CachedResult<T>> cachedResults, PropertyAccessRecorder changesRecorder) {
+		Iterator<CachedResult<T>> cachedResultIterator = cachedResults.values().iterator();
+		while (cachedResultIterator.hasNext()) {
+			if (changesRecorder.affects(cachedResultIterator.next().inputsRecorder)) {
+				cachedResultIterator.remove();
+			}
+		}
+	}
+	
+	public static long getHitCount() {
+		return HITS.sum();
+	}
+	
+	public static long getMissCount() {
+		return MISSES.sum();
+	}
+	
+	public static void resetCounts() {
+		HITS.reset();
+		MISSES.reset();
+	}
+	
+	private static class CachedResult<T> {
+		private final T result;
+		private final PropertyAccessRecorder inputsRecorder;
+		
+		public CachedResult(T result, PropertyAccessRecorder inputsRecorder) {
+			this.result = result;
+			this.inputsRecorder = inputsRecorder;
+		}
+	}
+}
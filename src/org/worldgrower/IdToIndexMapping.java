@@ -22,6 +22,7 @@ import java.util.List;
 /**
  * This mapping adds a mapping between Constants.ID and the index in the list of WorldObjects.
  * The list can have WorldObjects removed, which makes a one-on-one mapping harder.
+ * Removed WorldObjects leave an empty slot in the list until it is compacted, at which point the moved indices are updated.
  */
 class IdToIndexMapping implements Serializable {
 
@@ -39,12 +40,12 @@ class IdToIndexMapping implements Serializable {
 		idToIndexMapping.put(lastWorldObject.getProperty(Constants.ID).intValue(), lastIndex);
 	}
 
-	public void idRemoved(List<WorldObject> worldObjects) {
-		idToIndexMapping.clear();
-		for(int index = 0; index < worldObjects.size(); index++) {
-			WorldObject worldObject = worldObjects.get(index);
-			idToIndexMapping.put(worldObject.getProperty(Constants.ID).intValue(), index);
-		}
+	public void idRemoved(int id) {
+		idToIndexMapping.remove(id);
+	}
+	
+	public void indexChanged(int id, int index) {
+		idToIndexMapping.put(id, index);
 	}
 
 	public int getIndex(int id) {
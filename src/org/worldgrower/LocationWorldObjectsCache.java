@@ -19,12 +19,26 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import org.worldgrower.goal.Position;
+import org.worldgrower.terrain.Terrain;
+
 class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 
 	private final WorldObjectsList[][] cache;
 	private final int[][] zone;
+	private final WorldObjectsGrid worldObjectsGrid;
+	private final FreeSpaceIndex freeSpaceIndex;
+	private transient RegionGraph regionGraph;
 	
 	public LocationWorldObjectsCache(int width, int height) {
+		this(width, height, new FreeSpaceIndex(width, height));
+	}
+	
+	public LocationWorldObjectsCache(Terrain terrain) {
+		this(terrain.getWidth(), terrain.getHeight(), new FreeSpaceIndex(terrain));
+	}
+	
+	private LocationWorldObjectsCache(int width, int height, FreeSpaceIndex freeSpaceIndex) {
 		cache = new WorldObjectsList[width][height];
 		
 		for(int i=0; i<width; i++) {
@@ -34,6 +48,8 @@ class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 		}
 		
 		this.zone = new int[width][height];
+		this.worldObjectsGrid = new WorldObjectsGrid(width, height);
+		this.freeSpaceIndex = freeSpaceIndex;
 	}
 	
 	private boolean isPassable(WorldObject target) {
@@ -42,6 +58,10 @@ class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 	
 	@Override
 	public void add(WorldObject worldObject) {
+		PropertyAccessRecorder.worldObjectsChanged();
+		if (worldObject.hasProperty(Constants.X)) {
+			worldObjectsGrid.add(worldObject, worldObject.getProperty(Constants.X), worldObject.getProperty(Constants.Y));
+		}
 		if (isPhysicalObject(worldObject)) {
 			int x = worldObject.getProperty(Constants.X);
 			int y = worldObject.getProperty(Constants.Y);
@@ -51,7 +71,7 @@ class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 				for(int j=y; j<y+height; j++) {
 					cache[i][j].add(worldObject);
 					if (!isPassable(worldObject)) {
-						zone[i][j]++;
+						incrementZone(i, j);
 					}
 				}
 			}
@@ -64,6 +84,10 @@ class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 	
 	@Override
 	public void remove(WorldObject worldObject) {
+		PropertyAccessRecorder.worldObjectsChanged();
+		if (worldObject.hasProperty(Constants.X)) {
+			worldObjectsGrid.remove(worldObject, worldObject.getProperty(Constants.X), worldObject.getProperty(Constants.Y));
+		}
 		if (isPhysicalObject(worldObject)) {
 			int x = worldObject.getProperty(Constants.X);
 			int y = worldObject.getProperty(Constants.Y);
@@ -73,7 +97,7 @@ class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 				for(int j=y; j<y+height; j++) {
 					cache[i][j].remove(worldObject);
 					if (!isPassable(worldObject)) {
-						zone[i][j]--;
+						decrementZone(i, j);
 					}
 				}
 			}
@@ -87,7 +111,9 @@ class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 	
 	@Override
 	public void update(WorldObject worldObject, int newX, int newY) {
+		PropertyAccessRecorder.worldObjectsChanged();
 		remove(worldObject);
+		worldObjectsGrid.add(worldObject, newX, newY);
 
 		int width = worldObject.getProperty(Constants.WIDTH);
 		int height = worldObject.getProperty(Constants.HEIGHT);
@@ -95,7 +121,7 @@ class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 			for(int j=newY; j<newY+height; j++) {
 				cache[i][j].add(worldObject);
 				if (!isPassable(worldObject)) {
-					zone[i][j]++;
+					incrementZone(i, j);
 				}
 			}
 		}
@@ -103,21 +129,73 @@ class LocationWorldObjectsCache implements WorldObjectsCache, Serializable {
 
 	@Override
 	public void update(WorldObject worldObject, int newX, int newY, int newWidth, int newHeight) {
+		PropertyAccessRecorder.worldObjectsChanged();
 		remove(worldObject);
+		worldObjectsGrid.add(worldObject, newX, newY);
 
 		for(int i=newX; i<newX+newWidth; i++) {
 			for(int j=newY; j<newY+newHeight; j++) {
 				cache[i][j].add(worldObject);
 				if (!isPassable(worldObject)) {
-					zone[i][j]++;
+					incrementZone(i, j);
 				}
 			}
 		}
 	}
 	
+	private void incrementZone(int x, int y) {
+		zone[x][y]++;
+		if (zone[x][y] == 1) {
+			freeSpaceIndex.locationOccupied(x, y);
+			if (regionGraph != null) {
+				regionGraph.locationChanged(x, y);
+			}
+		}
+	}
+	
+	private void decrementZone(int x, int y) {
+		zone[x][y]--;
+		if (zone[x][y] == 0) {
+			freeSpaceIndex.locationFreed(x, y);
+			if (regionGraph != null) {
+				regionGraph.locationChanged(x, y);
+			}
+		}
+	}
+	
 	public int value(int x, int y) {
 		return zone[x][y];
 	}
+	
+	/**
+	 * Returns at most maxCount WorldObjects which satisfy the given condition, sorted by their distance to the given location.
+	 */
+	public List<WorldObject> findNearestWorldObjects(int x, int y, int maxCount, WorldObjectCondition worldObjectCondition, IdToIndexMapping idToIndexMapping) {
+		return worldObjectsGrid.findNearestWorldObjects(x, y, maxCount, worldObjectCondition, idToIndexMapping);
+	}
+	
+	public List<WorldObject> findWorldObjectsWithinDistance(int x, int y, int distance, WorldObjectCondition worldObjectCondition, IdToIndexMapping idToIndexMapping) {
+		return worldObjectsGrid.findWorldObjectsWithinDistance(x, y, distance, worldObjectCondition, idToIndexMapping);
+	}
+	
+	public boolean isOpenSpace(int x, int y, int width, int height) {
+		return freeSpaceIndex.isFree(x, y, width, height);
+	}
+	
+	public boolean isOpenNonWaterSpace(int x, int y, int width, int height) {
+		return freeSpaceIndex.isFreeOfWater(x, y, width, height);
+	}
+	
+	public Position findNearestOpenNonWaterSpace(int x, int y, int width, int height) {
+		return freeSpaceIndex.findNearestFreeOfWater(x, y, width, height);
+	}
+	
+	public synchronized RegionGraph getRegionGraph() {
+		if (regionGraph == null) {
+			regionGraph = new RegionGraph(zone.length, zone[0].length);
+		}
+		return regionGraph;
+	}
 
 	private static class WorldObjectsList implements Serializable {
 		private final List<WorldObject> worldObjects = new ArrayList<>();
@@ -35,6 +35,7 @@ class MetaInformation implements Serializable {
 	private final WorldObject worldObject;
 	
 	private final List<GoalChangedListener> goalChangedListeners = new ArrayList<>();
+	private transient List<Goal> plannedGoals = null;
 	
 	public MetaInformation(WorldObject worldObject) {
 		this.worldObject = worldObject;
@@ -70,10 +71,51 @@ class MetaInformation implements Serializable {
 		for(GoalChangedListener goalChangedListener : goalChangedListeners) {
 			goalChangedListener.goalChanged(worldObject, this.finalGoal, finalGoal);
 		}
+		if (plannedGoals != null) {
+			plannedGoals.add(finalGoal);
+		}
 		
 		this.finalGoal = finalGoal;
 	}
 	
+	/**
+	 * Returns a copy which can be used to plan goal and tasks without notifying the GoalChangedListeners.
+	 * The planned goal and tasks can be copied back by calling applyPlan.
+	 */
+	MetaInformation copyForPlanning() {
+		MetaInformation copy = new MetaInformation(worldObject);
+		copy.currentTask.addAll(currentTask);
+		copy.goalChangedReason = goalChangedReason;
+		copy.finalGoal = finalGoal;
+		copy.plannedGoals = new ArrayList<>();
+		return copy;
+	}
+	
+	/**
+	 * Returns a copy which can be saved while this MetaInformation keeps changing.
+	 */
+	MetaInformation copyForSave() {
+		MetaInformation copy = new MetaInformation(worldObject);
+		copy.currentTask.addAll(currentTask);
+		copy.goalChangedReason = goalChangedReason;
+		copy.finalGoal = finalGoal;
+		copy.goalChangedListeners.addAll(goalChangedListeners);
+		return copy;
+	}
+	
+	void applyPlan(MetaInformation plannedMetaInformation) {
+		if (plannedMetaInformation.plannedGoals == null) {
+			throw new IllegalArgumentException("MetaInformation " + plannedMetaInformation + " wasn't created by copyForPlanning");
+		}
+		for(Goal plannedGoal : plannedMetaInformation.plannedGoals) {
+			setFinalGoal(plannedGoal);
+		}
+		currentTask.clear();
+		currentTask.addAll(plannedMetaInformation.currentTask);
+		goalChangedReason = plannedMetaInformation.goalChangedReason;
+		finalGoal = plannedMetaInformation.finalGoal;
+	}
+	
 	@Override
 	public String toString() {
 		StringBuilder currentTasksBuilder = new StringBuilder();
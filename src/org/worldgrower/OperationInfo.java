@@ -61,12 +61,16 @@ public class OperationInfo implements Serializable {
 	public void perform(World world) {
 		boolean actionCanAngerOthers = actionCanAngerOthers();
 		
-		GoalChangedCalculator goalChangedCalculator = new GoalChangedCalculator(new DefaultGoalObstructedHandler());
+		GoalChangedCalculator goalChangedCalculator = new GoalChangedCalculator(new DefaultGoalObstructedHandler(), PropertyAccessRecorder.isTrackingEnabled());
 		if (actionCanAngerOthers) {
 			goalChangedCalculator.recordStartState(performer, target, world);
 		}
 		
-		performImpl(world);
+		try {
+			performImpl(world);
+		} finally {
+			goalChangedCalculator.stopRecordingChanges();
+		}
 		
 		if (actionCanAngerOthers) {
 			goalChangedCalculator.recordEndState(performer, target, managedOperation, args, world);
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.worldgrower.attribute.ManagedProperty;
+
+/**
+ * A PropertyAccessRecorder records which properties are accessed while it is active.
+ * In read mode it records the inputs of a calculation, in write mode it records what could have been changed.
+ * Property values which aren't immutable can be changed without calling setProperty,
+ * so in write mode reading such a value counts as writing it.
+ *
+ * Each thread has its own active recorder, so planning threads don't record into the recorder of another thread.
+ *
+ * Recording the inputs of every goal evaluation usually costs more time than skipping evaluations saves,
+ * so the game only tracks changes this way when the TRACK_PROPERTY_ACCESS system property is set.
+ * Without it the static methods return immediately, and recorders can't be activated.
+ */
+public final class PropertyAccessRecorder {
+
+	private static final boolean TRACKING_ENABLED = Boolean.getBoolean("TRACK_PROPERTY_ACCESS");
+	private static final ThreadLocal<PropertyAccessRecorder> ACTIVE_RECORDER = new ThreadLocal<>();
+	private static final AtomicInteger RECORDING_THREAD_COUNT = new AtomicInteger();
+
+	private final boolean recordWrites;
+	private final BitSet propertyOrdinals = new BitSet();
+	private boolean worldObjectsAccessed = false;
+	private boolean historyAccessed = false;
+
+	private PropertyAccessRecorder(boolean recordWrites) {
+		this.recordWrites = recordWrites;
+	}
+
+	public static PropertyAccessRecorder createReadRecorder() {
+		return new PropertyAccessRecorder(false);
+	}
+
+	public static PropertyAccessRecorder createWriteRecorder() {
+		return new PropertyAccessRecorder(true);
+	}
+
+	/**
+	 * Makes this recorder the active recorder of the current thread and returns the previously active recorder,
+	 * which should be restored by calling deactivate on the same thread.
+	 */
+	public PropertyAccessRecorder activate() {
+		if (!TRACKING_ENABLED) {
+			throw new IllegalStateException("Recording property access requires the TRACK_PROPERTY_ACCESS system property");
+		}
+		PropertyAccessRecorder previousRecorder = ACTIVE_RECORDER.get();
+		ACTIVE_RECORDER.set(this);
+		if (previousRecorder == null) {
+			RECORDING_THREAD_COUNT.incrementAndGet();
+		}
+		return previousRecorder;
+	}
+
+	public void deactivate(PropertyAccessRecorder previousRecorder) {
+		if (ACTIVE_RECORDER.get() != this) {
+			throw new IllegalStateException("PropertyAccessRecorder " + this + " isn't the active recorder");
+		}
+		if (previousRecorder == null) {
+			ACTIVE_RECORDER.remove();
+			RECORDING_THREAD_COUNT.decrementAndGet();
+		} else {
+			ACTIVE_RECORDER.set(previousRecorder);
+		}
+	}
+	
+	private static PropertyAccessRecorder getActiveRecorder() {
+		if (RECORDING_THREAD_COUNT.get() == 0) {
+			return null;
+		} else {
+			return ACTIVE_RECORDER.get();
+		}
+	}
+
+	public static void propertyRead(ManagedProperty<?> managedProperty, Object value) {
+		if (!TRACKING_ENABLED) {
+			return;
+		}
+		PropertyAccessRecorder recorder = getActiveRecorder();
+		if (recorder != null) {
+			if (!recorder.recordWrites || !isImmutable(value)) {
+				recorder.propertyOrdinals.set(managedProperty.getOrdinal());
+			}
+		}
+	}
+
+	public static void propertyWritten(ManagedProperty<?> managedProperty) {
+		if (!TRACKING_ENABLED) {
+			return;
+		}
+		PropertyAccessRecorder recorder = getActiveRecorder();
+		if (recorder != null && recorder.recordWrites) {
+			recorder.propertyOrdinals.set(managedProperty.getOrdinal());
+		}
+	}
+
+	/**
+	 * Called when the list of WorldObjects or their locations are searched.
+	 */
+	public static void worldObjectsSearched() {
+		if (!TRACKING_ENABLED) {
+			return;
+		}
+		PropertyAccessRecorder recorder = getActiveRecorder();
+		if (recorder != null && !recorder.recordWrites) {
+			recorder.worldObjectsAccessed = true;
+		}
+	}
+
+	/**
+	 * Called when WorldObjects are added, removed or change location.
+	 */
+	public static void worldObjectsChanged() {
+		if (!TRACKING_ENABLED) {
+			return;
+		}
+		PropertyAccessRecorder recorder = getActiveRecorder();
+		if (recorder != null && recorder.recordWrites) {
+			recorder.worldObjectsAccessed = true;
+		}
+	}
+
+	public static void historySearched() {
+		if (!TRACKING_ENABLED) {
+			return;
+		}
+		PropertyAccessRecorder recorder = getActiveRecorder();
+		if (recorder != null && !recorder.recordWrites) {
+			recorder.historyAccessed = true;
+		}
+	}
+
+	public static void historyChanged() {
+		if (!TRACKING_ENABLED) {
+			return;
+		}
+		PropertyAccessRecorder recorder = getActiveRecorder();
+		if (recorder != null && recorder.recordWrites) {
+			recorder.historyAccessed = true;
+		}
+	}
+
+	/**
+	 * Returns true if goal evaluations should be tracked with a PropertyAccessRecorder.
+	 */
+	public static boolean isTrackingEnabled() {
+		return TRACKING_ENABLED;
+	}
+	
+	public static boolean isRecording() {
+		return TRACKING_ENABLED && getActiveRecorder() != null;
+	}
+	
+	private static boolean isImmutable(Object value) {
+		return value == null
+				|| value instanceof Integer
+				|| value instanceof String
+				|| value instanceof Boolean
+				|| value instanceof Enum;
+	}
+
+	/**
+	 * Returns true if the changes recorded by this write recorder can have changed the outcome
+	 * of the calculation recorded by the given read recorder.
+	 */
+	public boolean affects(PropertyAccessRecorder readRecorder) {
+		if (!recordWrites || readRecorder.recordWrites) {
+			throw new IllegalStateException("affects should be called on a write recorder with a read recorder as argument");
+		}
+		return propertyOrdinals.intersects(readRecorder.propertyOrdinals)
+				|| (worldObjectsAccessed && readRecorder.worldObjectsAccessed)
+				|| (historyAccessed && readRecorder.historyAccessed);
+	}
+
+	@Override
+	public String toString() {
+		return "PropertyAccessRecorder [recordWrites=" + recordWrites + ", propertyOrdinals=" + propertyOrdinals
+				+ ", worldObjectsAccessed=" + worldObjectsAccessed + ", historyAccessed=" + historyAccessed + "]";
+	}
+}
@@ -16,54 +16,471 @@ package org.worldgrower;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.stream.Collectors;
 
+import org.worldgrower.attribute.IdContainer;
+import org.worldgrower.attribute.IdContainerUtils;
+import org.worldgrower.attribute.IdList;
 import org.worldgrower.attribute.ManagedProperty;
+import org.worldgrower.attribute.WorldObjectContainer;
+import org.worldgrower.condition.Conditions;
+import org.worldgrower.creaturetype.CreatureType;
+import org.worldgrower.deity.Deity;
+import org.worldgrower.profession.Profession;
 
 /**
- * This class holds info about which WorldObjects have a certain ManagedProperty.
+ * This class holds info about which WorldObjects have a certain ManagedProperty, and optionally which WorldObjects
+ * have a certain value for a ManagedProperty.
+ * Indexes are created the first time a ManagedProperty is searched, after which they are kept up to date
+ * when WorldObjects are added or removed and when properties of WorldObjects change.
+ * 
+ * Value indexes should only be used for ManagedProperties with immutable values, such as enums or singletons.
+ * For ManagedProperties with IdList values an index of the contained ids can be used, these IdLists report
+ * their changes through the WorldObject holding them.
+ * For ManagedProperties with WorldObjectContainer values an index of the sellable WorldObjects can be used,
+ * keyed by their item ids and by their properties. The containers report changes to their sellable WorldObjects
+ * in the same way as IdLists.
+ * 
+ * The reference index keeps track of which WorldObjects refer to an id through one of their id properties.
+ * It may contain WorldObjects that no longer refer to an id, but never misses one that does.
+ * 
+ * The changes of the current turn are kept as the ids of the WorldObjects that were added, removed or changed,
+ * each changed WorldObject marks its own changed properties. Property values which can be changed in place
+ * without reporting it are seen as changed in every turn. The changes are cleared when the turn ends,
+ * after they are added to the changes since the last checkpoint.
  */
-class PropertyCache implements Serializable {
+class PropertyCache implements PropertyChangedListener, Serializable {
 
-	private final Map<ManagedProperty<?>, List<Integer>> propertyToIdsMapping = new HashMap<>();
+	private PropertyIndex[] propertyIndexes = new PropertyIndex[0];
+	private transient volatile Map<Integer, BitSet> holdersByReferencedId = null;
+	private final BitSet changedIds = new BitSet();
+	private final BitSet idsWithUnreportedChanges = new BitSet();
+	private final BitSet idsChangedSinceCheckpoint = new BitSet();
+	private long epoch = 0;
 	
-	public void idAdded(WorldObject worldObject) {
+	public synchronized void idAdded(WorldObject worldObject) {
+		int id = worldObject.getProperty(Constants.ID);
+		epoch++;
+		changedIds.set(id);
+		idsWithUnreportedChanges.set(id, !getPropertiesWithUnreportedChanges(worldObject).isEmpty());
+
 		// only add properties to already cached properties
-		for(Entry<ManagedProperty<?>, List<Integer>> entry : propertyToIdsMapping.entrySet()) {
-			ManagedProperty<?> property = entry.getKey();
-			if (worldObject.hasProperty(property)) {
-				List<Integer> ids = entry.getValue();
-				ids.add(worldObject.getProperty(Constants.ID));
+		for(PropertyIndex propertyIndex : propertyIndexes) {
+			if (propertyIndex != null) {
+				propertyIndex.add(worldObject);
+			}
+		}
+		if (holdersByReferencedId != null) {
+			addReferences(worldObject);
+		}
+	}
+	
+	public synchronized void idRemoved(WorldObject worldObjectToRemove) {
+		int id = worldObjectToRemove.getProperty(Constants.ID);
+		epoch++;
+		changedIds.set(id);
+		idsWithUnreportedChanges.clear(id);
+		for(PropertyIndex propertyIndex : propertyIndexes) {
+			if (propertyIndex != null) {
+				propertyIndex.remove(id);
+			}
+		}
+	}
+	
+	@Override
+	public boolean isListeningTo(ManagedProperty<?> managedProperty) {
+		PropertyIndex[] currentPropertyIndexes = propertyIndexes;
+		int ordinal = managedProperty.getOrdinal();
+		return (ordinal < currentPropertyIndexes.length && currentPropertyIndexes[ordinal] != null)
+				|| (holdersByReferencedId != null && managedProperty instanceof IdContainer);
+	}
+	
+	@Override
+	public synchronized void propertyChanged(WorldObject worldObject, ManagedProperty<?> managedProperty, Object oldValue) {
+		int ordinal = managedProperty.getOrdinal();
+		int id = worldObject.getProperty(Constants.ID);
+		if (ordinal < propertyIndexes.length && propertyIndexes[ordinal] != null) {
+			PropertyIndex propertyIndex = propertyIndexes[ordinal];
+			propertyIndex.remove(id, oldValue);
+			propertyIndex.add(worldObject);
+		}
+		
+		// values that are changed in place already report the ids added to them
+		Object value = worldObject.getProperty(managedProperty);
+		if (holdersByReferencedId != null && managedProperty instanceof IdContainer && value != null && value != oldValue) {
+			((IdContainer) managedProperty).listenToIds(worldObject, managedProperty, referencedId -> idReferenced(referencedId, id));
+		}
+	}
+	
+	@Override
+	public synchronized void worldObjectChanged(WorldObject worldObject) {
+		epoch++;
+		changedIds.set(worldObject.getProperty(Constants.ID));
+	}
+	
+	public synchronized long getEpoch() {
+		return epoch;
+	}
+	
+	public List<WorldObject> findWorldObjectsChangedThisTurn(List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		BitSet ids = new BitSet();
+		synchronized (this) {
+			ids.or(changedIds);
+			ids.or(idsWithUnreportedChanges);
+		}
+		return getExistingWorldObjects(ids, worldObjects, idToIndexMapping);
+	}
+	
+	private static List<WorldObject> getExistingWorldObjects(BitSet ids, List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		for(int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+			if (!idToIndexMapping.idExists(id)) {
+				ids.clear(id);
 			}
 		}
+		return getWorldObjects(ids, w -> true, worldObjects, idToIndexMapping);
 	}
 	
-	public void idRemoved(WorldObject worldObjectToRemove) {
-		Integer id = worldObjectToRemove.getProperty(Constants.ID);
-		for(Entry<ManagedProperty<?>, List<Integer>> entry : propertyToIdsMapping.entrySet()) {
-			List<Integer> ids = entry.getValue();
-			//make sure that id is an Integer, not an int
-			ids.remove(id);
+	public static BitSet getPropertiesChangedThisTurn(WorldObject worldObject) {
+		BitSet changedProperties = getPropertiesWithUnreportedChanges(worldObject);
+		if (worldObject instanceof WorldObjectImpl) {
+			changedProperties.or(((WorldObjectImpl) worldObject).getWorldObjectProperties().getChangedProperties());
 		}
+		return changedProperties;
 	}
 	
-	public List<WorldObject> findWorldObjectsByProperty(ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition, World world) {
-		List<Integer> ids = propertyToIdsMapping.get(managedProperty);
-		if (ids == null) {
-			ids = new ArrayList<>();
-			for(WorldObject worldObject : world.getWorldObjects()) {
-				if (worldObject.hasProperty(managedProperty)) {
-					ids.add(worldObject.getProperty(Constants.ID));
+	/**
+	 * Clears the changes of the current turn, the given WorldObjects should no longer contain removed WorldObjects.
+	 */
+	public synchronized void turnEnded(List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		for(int id = changedIds.nextSetBit(0); id >= 0; id = changedIds.nextSetBit(id + 1)) {
+			if (idToIndexMapping.idExists(id)) {
+				WorldObject worldObject = worldObjects.get(idToIndexMapping.getIndex(id));
+				if (worldObject instanceof WorldObjectImpl) {
+					((WorldObjectImpl) worldObject).getWorldObjectProperties().clearChangedProperties();
 				}
+				idsWithUnreportedChanges.set(id, !getPropertiesWithUnreportedChanges(worldObject).isEmpty());
 			}
-
-			propertyToIdsMapping.put(managedProperty, ids);
 		}
-		return ids.stream().map(i -> world.findWorldObjectById(i)).filter(w -> worldObjectCondition.isWorldObjectValid(w)).collect(Collectors.toList());
+		idsChangedSinceCheckpoint.or(changedIds);
+		changedIds.clear();
+		epoch++;
+	}
+	
+	/**
+	 * Returns the ids of the WorldObjects that may have been added, removed or changed since the last checkpoint.
+	 */
+	public synchronized BitSet getIdsChangedSinceCheckpoint() {
+		BitSet ids = (BitSet) idsChangedSinceCheckpoint.clone();
+		ids.or(changedIds);
+		ids.or(idsWithUnreportedChanges);
+		return ids;
+	}
+	
+	public List<WorldObject> findWorldObjectsChangedSinceCheckpoint(List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		return getExistingWorldObjects(getIdsChangedSinceCheckpoint(), worldObjects, idToIndexMapping);
+	}
+	
+	public synchronized void checkpoint() {
+		idsChangedSinceCheckpoint.clear();
+	}
+	
+	private static BitSet getPropertiesWithUnreportedChanges(WorldObject worldObject) {
+		BitSet ordinals = new BitSet();
+		for(ManagedProperty<?> managedProperty : worldObject.getPropertyKeys()) {
+			if (!isChangeReported(worldObject.getProperty(managedProperty))) {
+				ordinals.set(managedProperty.getOrdinal());
+			}
+		}
+		return ordinals;
+	}
+	
+	// values that are immutable, or that report changes in place through the WorldObject holding them
+	private static boolean isChangeReported(Object value) {
+		return value == null
+				|| value instanceof Integer
+				|| value instanceof String
+				|| value instanceof Boolean
+				|| value instanceof Enum
+				|| value instanceof IdList
+				|| value instanceof Conditions
+				|| value instanceof CreatureType
+				|| value instanceof Profession
+				|| value instanceof Deity;
+	}
+	
+	/**
+	 * Returns the WorldObjects that may refer to the given id, and forgets about them.
+	 * This is meant to be called when the WorldObject with the given id is removed.
+	 */
+	public List<WorldObject> removeWorldObjectsReferringTo(int referencedId, List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		BitSet holderIds = new BitSet();
+		synchronized (this) {
+			if (holdersByReferencedId == null) {
+				holdersByReferencedId = new HashMap<>();
+				for(WorldObject worldObject : worldObjects) {
+					if (worldObject != null) {
+						addReferences(worldObject);
+					}
+				}
+			}
+			BitSet holders = holdersByReferencedId.remove(referencedId);
+			if (holders != null) {
+				for(int holderId = holders.nextSetBit(0); holderId >= 0; holderId = holders.nextSetBit(holderId + 1)) {
+					if (idToIndexMapping.idExists(holderId)) {
+						holderIds.set(holderId);
+					}
+				}
+			}
+		}
+		return getWorldObjects(holderIds, w -> true, worldObjects, idToIndexMapping);
+	}
+	
+	private void addReferences(WorldObject worldObject) {
+		int id = worldObject.getProperty(Constants.ID);
+		IdContainerUtils.listenToIds(worldObject, referencedId -> idReferenced(referencedId, id));
+	}
+	
+	private synchronized void idReferenced(int referencedId, int holderId) {
+		holdersByReferencedId.computeIfAbsent(referencedId, i -> new BitSet()).set(holderId);
+	}
+	
+	public List<WorldObject> findWorldObjectsByProperty(ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition, List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		BitSet ids;
+		synchronized (this) {
+			PropertyIndex propertyIndex = getPropertyIndex(managedProperty, worldObjects);
+			ids = (BitSet) propertyIndex.ids.clone();
+		}
+		return getWorldObjects(ids, worldObjectCondition, worldObjects, idToIndexMapping);
+	}
+	
+	public synchronized int countWorldObjectsByProperty(ManagedProperty<?> managedProperty, List<WorldObject> worldObjects) {
+		return getPropertyIndex(managedProperty, worldObjects).ids.cardinality();
+	}
+	
+	public<T> List<WorldObject> findWorldObjectsByPropertyValue(ManagedProperty<T> managedProperty, T value, WorldObjectCondition worldObjectCondition, List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		BitSet ids;
+		synchronized (this) {
+			PropertyIndex propertyIndex = getPropertyIndex(managedProperty, worldObjects);
+			ids = (BitSet) propertyIndex.getIdsWithValue(value, worldObjects).clone();
+		}
+		return getWorldObjects(ids, worldObjectCondition, worldObjects, idToIndexMapping);
+	}
+	
+	public List<WorldObject> findWorldObjectsContainingAnyId(ManagedProperty<IdList> managedProperty, IdList ids, WorldObjectCondition worldObjectCondition, List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		BitSet worldObjectIds = new BitSet();
+		synchronized (this) {
+			PropertyIndex propertyIndex = getPropertyIndex(managedProperty, worldObjects);
+			for(int id : ids.getIds()) {
+				worldObjectIds.or(propertyIndex.getIdsContaining(id, worldObjects));
+			}
+		}
+		return getWorldObjects(worldObjectIds, worldObjectCondition, worldObjects, idToIndexMapping);
+	}
+	
+	/**
+	 * Returns the WorldObjects with a WorldObjectContainer property holding a sellable WorldObject with the given key,
+	 * which is an item id or a property of the sellable WorldObject.
+	 */
+	public List<WorldObject> findWorldObjectsSelling(ManagedProperty<WorldObjectContainer> managedProperty, Object sellableKey, WorldObjectCondition worldObjectCondition, List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		BitSet ids;
+		synchronized (this) {
+			PropertyIndex propertyIndex = getPropertyIndex(managedProperty, worldObjects);
+			ids = propertyIndex.getIdsSelling(sellableKey, worldObjects);
+		}
+		return getWorldObjects(ids, worldObjectCondition, worldObjects, idToIndexMapping);
+	}
+	
+	private PropertyIndex getPropertyIndex(ManagedProperty<?> managedProperty, List<WorldObject> worldObjects) {
+		int ordinal = managedProperty.getOrdinal();
+		if (ordinal >= propertyIndexes.length) {
+			propertyIndexes = Arrays.copyOf(propertyIndexes, ordinal + 1);
+		}
+		PropertyIndex propertyIndex = propertyIndexes[ordinal];
+		if (propertyIndex == null) {
+			propertyIndex = new PropertyIndex(managedProperty);
+			for(WorldObject worldObject : worldObjects) {
+				if (worldObject != null) {
+					propertyIndex.add(worldObject);
+				}
+			}
+			propertyIndexes[ordinal] = propertyIndex;
+		}
+		return propertyIndex;
+	}
+	
+	// WorldObjects are returned in the order of the list of WorldObjects
+	private static List<WorldObject> getWorldObjects(BitSet ids, WorldObjectCondition worldObjectCondition, List<WorldObject> worldObjects, IdToIndexMapping idToIndexMapping) {
+		int[] indices = new int[ids.cardinality()];
+		int count = 0;
+		for(int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+			indices[count++] = idToIndexMapping.getIndex(id);
+		}
+		Arrays.sort(indices);
+		
+		List<WorldObject> result = new ArrayList<>();
+		for(int index : indices) {
+			WorldObject worldObject = worldObjects.get(index);
+			if (worldObjectCondition.isWorldObjectValid(worldObject)) {
+				result.add(worldObject);
+			}
+		}
+		return result;
+	}
+	
+	private static class PropertyIndex implements Serializable {
+		private final ManagedProperty<?> managedProperty;
+		private final BitSet ids = new BitSet();
+		private Map<Object, BitSet> idsByValue = null;
+		private Map<Integer, BitSet> idsByContainedId = null;
+		private transient Map<Object, BitSet> idsBySellableKey = null;
+		private transient BitSet idsWithUnreportedSellables = null;
+		
+		public PropertyIndex(ManagedProperty<?> managedProperty) {
+			this.managedProperty = managedProperty;
+		}
 		
+		public void add(WorldObject worldObject) {
+			if (worldObject.hasProperty(managedProperty)) {
+				int id = worldObject.getProperty(Constants.ID);
+				ids.set(id);
+				if (idsByValue != null) {
+					getIdsByValue(worldObject.getProperty(managedProperty)).set(id);
+				}
+				if (idsByContainedId != null) {
+					addContainedIds(worldObject);
+				}
+				if (idsBySellableKey != null) {
+					addSellableKeys(worldObject);
+				}
+			}
+		}
+		
+		public void remove(int id) {
+			if (ids.get(id)) {
+				ids.clear(id);
+				if (idsByValue != null) {
+					for(BitSet idsWithValue : idsByValue.values()) {
+						idsWithValue.clear(id);
+					}
+				}
+				removeContainedIds(id);
+				removeSellableKeys(id);
+			}
+		}
+		
+		public void remove(int id, Object oldValue) {
+			ids.clear(id);
+			if (idsByValue != null) {
+				BitSet idsWithValue = idsByValue.get(oldValue);
+				if (idsWithValue != null) {
+					idsWithValue.clear(id);
+				}
+			}
+			// oldValue can be the changed IdList or WorldObjectContainer itself, so what it contained isn't known anymore
+			removeContainedIds(id);
+			removeSellableKeys(id);
+		}
+		
+		private void removeContainedIds(int id) {
+			if (idsByContainedId != null) {
+				for(BitSet idsContaining : idsByContainedId.values()) {
+					idsContaining.clear(id);
+				}
+			}
+		}
+		
+		public BitSet getIdsContaining(int containedId, List<WorldObject> worldObjects) {
+			if (idsByContainedId == null) {
+				idsByContainedId = new HashMap<>();
+				for(WorldObject worldObject : worldObjects) {
+					if (worldObject != null && worldObject.hasProperty(managedProperty)) {
+						addContainedIds(worldObject);
+					}
+				}
+			}
+			BitSet idsContaining = idsByContainedId.get(containedId);
+			return idsContaining != null ? idsContaining : new BitSet();
+		}
+		
+		private void addContainedIds(WorldObject worldObject) {
+			IdList idList = (IdList) worldObject.getProperty(managedProperty);
+			if (idList != null) {
+				int id = worldObject.getProperty(Constants.ID);
+				for(int containedId : idList.getIds()) {
+					idsByContainedId.computeIfAbsent(containedId, i -> new BitSet()).set(id);
+				}
+			}
+		}
+		
+		public BitSet getIdsWithValue(Object value, List<WorldObject> worldObjects) {
+			if (idsByValue == null) {
+				idsByValue = new HashMap<>();
+				for(WorldObject worldObject : worldObjects) {
+					if (worldObject != null && worldObject.hasProperty(managedProperty)) {
+						getIdsByValue(worldObject.getProperty(managedProperty)).set(worldObject.getProperty(Constants.ID));
+					}
+				}
+			}
+			BitSet idsWithValue = idsByValue.get(value);
+			return idsWithValue != null ? idsWithValue : new BitSet();
+		}
+		
+		private BitSet getIdsByValue(Object value) {
+			return idsByValue.computeIfAbsent(value, v -> new BitSet());
+		}
+		
+		// like the reference index, the sellable keys aren't saved and are built again the first time they're searched
+		public BitSet getIdsSelling(Object sellableKey, List<WorldObject> worldObjects) {
+			if (idsBySellableKey == null) {
+				idsBySellableKey = new HashMap<>();
+				idsWithUnreportedSellables = new BitSet();
+				for(WorldObject worldObject : worldObjects) {
+					if (worldObject != null && worldObject.hasProperty(managedProperty)) {
+						addSellableKeys(worldObject);
+					}
+				}
+			}
+			BitSet idsSelling = (BitSet) idsWithUnreportedSellables.clone();
+			BitSet idsWithSellableKey = idsBySellableKey.get(sellableKey);
+			if (idsWithSellableKey != null) {
+				idsSelling.or(idsWithSellableKey);
+			}
+			return idsSelling;
+		}
+		
+		private void addSellableKeys(WorldObject worldObject) {
+			WorldObjectContainer worldObjectContainer = (WorldObjectContainer) worldObject.getProperty(managedProperty);
+			if (worldObjectContainer != null) {
+				int id = worldObject.getProperty(Constants.ID);
+				if (!worldObjectContainer.reportsSellableWorldObjectsChanges()) {
+					idsWithUnreportedSellables.set(id);
+				}
+				for(WorldObject sellableWorldObject : worldObjectContainer.getWorldObjects(Constants.SELLABLE, Boolean.TRUE)) {
+					if (sellableWorldObject.hasProperty(Constants.ITEM_ID)) {
+						getIdsBySellableKey(sellableWorldObject.getProperty(Constants.ITEM_ID)).set(id);
+					}
+					for(ManagedProperty<?> sellableProperty : sellableWorldObject.getPropertyKeys()) {
+						getIdsBySellableKey(sellableProperty).set(id);
+					}
+				}
+			}
+		}
+		
+		private void removeSellableKeys(int id) {
+			if (idsBySellableKey != null) {
+				for(BitSet idsWithSellableKey : idsBySellableKey.values()) {
+					idsWithSellableKey.clear(id);
+				}
+				idsWithUnreportedSellables.clear(id);
+			}
+		}
+		
+		private BitSet getIdsBySellableKey(Object sellableKey) {
+			return idsBySellableKey.computeIfAbsent(sellableKey, k -> new BitSet());
+		}
 	}
 }
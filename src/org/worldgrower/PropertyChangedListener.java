@@ -0,0 +1,34 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import org.worldgrower.attribute.ManagedProperty;
+
+/**
+ * A PropertyChangedListener is notified when a property of a WorldObject is set or removed.
+ * To keep setting properties fast, only properties for which isListeningTo returns true are reported
+ * with their old value.
+ */
+public interface PropertyChangedListener {
+
+	public boolean isListeningTo(ManagedProperty<?> managedProperty);
+	public void propertyChanged(WorldObject worldObject, ManagedProperty<?> managedProperty, Object oldValue);
+	
+	/**
+	 * Is called the first time a property of the given WorldObject is set, removed or changed in place during a turn.
+	 */
+	public default void worldObjectChanged(WorldObject worldObject) {
+	}
+}
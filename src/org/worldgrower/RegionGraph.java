@@ -0,0 +1,457 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.worldgrower.terrain.Terrain;
+import org.worldgrower.terrain.TerrainType;
+
+/**
+ * The RegionGraph divides the world in square clusters and connects neighbouring clusters through entrances
+ * on their shared border, so that paths over long distances can be found without searching every location.
+ * Clusters are marked dirty when the passable locations in them change, and are only rebuilt when the graph is used.
+ * Dirty clusters are rebuilt while holding the lock, after which paths are searched without it
+ * in a copy of the entrances which isn't changed anymore.
+ * 
+ * Calculated paths are a list of entrance locations, the path between two entrances is calculated when needed.
+ */
+final class RegionGraph {
+
+	static final int CLUSTER_SIZE = 10;
+	
+	private final int width;
+	private final int height;
+	private final int clustersX;
+	private final int clustersY;
+	
+	private final boolean[] dirtyClusters;
+	private boolean hasDirtyClusters;
+	
+	// entrance pairs with the cluster to the right and the cluster below, stored as location indices { inThisCluster, inNeighbourCluster, ... }
+	private final int[][] rightEntrances;
+	private final int[][] bottomEntrances;
+	
+	// entrance locations of each cluster and the distances between them
+	private final int[][] clusterEntrances;
+	private final int[][][] clusterDistances;
+	
+	// copy of the entrances and distances after the last rebuild
+	private Clusters clusters;
+	
+	public RegionGraph(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.clustersX = (width + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+		this.clustersY = (height + CLUSTER_SIZE - 1) / CLUSTER_SIZE;
+		
+		int clusterCount = clustersX * clustersY;
+		this.dirtyClusters = new boolean[clusterCount];
+		this.rightEntrances = new int[clusterCount][];
+		this.bottomEntrances = new int[clusterCount][];
+		this.clusterEntrances = new int[clusterCount][];
+		this.clusterDistances = new int[clusterCount][][];
+		
+		Arrays.fill(dirtyClusters, true);
+		this.hasDirtyClusters = true;
+	}
+	
+	/**
+	 * Called whenever the passability of the given location changes.
+	 */
+	public synchronized void locationChanged(int x, int y) {
+		dirtyClusters[clusterIndex(x / CLUSTER_SIZE, y / CLUSTER_SIZE)] = true;
+		hasDirtyClusters = true;
+	}
+	
+	/**
+	 * Returns the entrance locations to pass through to get from the start location to within CLUSTER_SIZE of the target area,
+	 * together with the distance from the start location to each entrance.
+	 * Returns null if no such path exists.
+	 */
+	public RegionPath findPath(int startX, int startY, int targetX, int targetY, int targetWidth, int targetHeight, LocationWorldObjectsCache zone, Terrain terrain) {
+		Clusters clusters = getUpdatedClusters(zone, terrain);
+		int[][] clusterEntrances = clusters.clusterEntrances;
+		int[][][] clusterDistances = clusters.clusterDistances;
+		
+		int startIndex = index(startX, startY);
+		int startCluster = clusterIndexOf(startIndex);
+		
+		Map<Integer, Integer> costs = new HashMap<>();
+		Map<Integer, Integer> parents = new HashMap<>();
+		PriorityQueue<int[]> openSet = new PriorityQueue<>((node1, node2) -> node1[1] - node2[1]);
+		
+		// the start location is connected to the entrances of its cluster
+		int[] startDistances = calculateDistances(startIndex, startCluster, clusterEntrances[startCluster], zone, terrain);
+		for(int i=0; i<startDistances.length; i++) {
+			int entrance = clusterEntrances[startCluster][i];
+			if (startDistances[i] != Integer.MAX_VALUE) {
+				addToOpenSet(entrance, startDistances[i], startIndex, targetX, targetY, targetWidth, targetHeight, costs, parents, openSet);
+			}
+		}
+		
+		while(!openSet.isEmpty()) {
+			int[] current = openSet.poll();
+			int location = current[0];
+			int cost = costs.get(location);
+			if (current[1] != cost + distanceToTarget(location, targetX, targetY, targetWidth, targetHeight)) {
+				// a cheaper path to this location was already handled
+				continue;
+			}
+			
+			if (distanceToTarget(location, targetX, targetY, targetWidth, targetHeight) <= CLUSTER_SIZE) {
+				return createPath(location, startIndex, costs, parents);
+			}
+			
+			int cluster = clusterIndexOf(location);
+			int[] entrances = clusterEntrances[cluster];
+			int entranceIndex = indexOf(entrances, location);
+			int[] distances = clusterDistances[cluster][entranceIndex];
+			for(int i=0; i<entrances.length; i++) {
+				if (i != entranceIndex && distances[i] != Integer.MAX_VALUE) {
+					addToOpenSet(entrances[i], cost + distances[i], location, targetX, targetY, targetWidth, targetHeight, costs, parents, openSet);
+				}
+			}
+			
+			addNeighbourEntrances(location, cost, targetX, targetY, targetWidth, targetHeight, costs, parents, openSet, clusters);
+		}
+		
+		return null;
+	}
+	
+	private synchronized Clusters getUpdatedClusters(LocationWorldObjectsCache zone, Terrain terrain) {
+		updateDirtyClusters(zone, terrain);
+		return clusters;
+	}
+	
+	private void addNeighbourEntrances(int location, int cost, int targetX, int targetY, int targetWidth, int targetHeight, Map<Integer, Integer> costs, Map<Integer, Integer> parents, PriorityQueue<int[]> openSet, Clusters clusters) {
+		int[][] rightEntrances = clusters.rightEntrances;
+		int[][] bottomEntrances = clusters.bottomEntrances;
+		int clusterX = x(location) / CLUSTER_SIZE;
+		int clusterY = y(location) / CLUSTER_SIZE;
+		
+		addNeighbourEntrances(location, rightEntrances[clusterIndex(clusterX, clusterY)], 0, cost, targetX, targetY, targetWidth, targetHeight, costs, parents, openSet);
+		addNeighbourEntrances(location, bottomEntrances[clusterIndex(clusterX, clusterY)], 0, cost, targetX, targetY, targetWidth, targetHeight, costs, parents, openSet);
+		if (clusterX > 0) {
+			addNeighbourEntrances(location, rightEntrances[clusterIndex(clusterX - 1, clusterY)], 1, cost, targetX, targetY, targetWidth, targetHeight, costs, parents, openSet);
+		}
+		if (clusterY > 0) {
+			addNeighbourEntrances(location, bottomEntrances[clusterIndex(clusterX, clusterY - 1)], 1, cost, targetX, targetY, targetWidth, targetHeight, costs, parents, openSet);
+		}
+	}
+
+	private void addNeighbourEntrances(int location, int[] entrancePairs, int side, int cost, int targetX, int targetY, int targetWidth, int targetHeight, Map<Integer, Integer> costs, Map<Integer, Integer> parents, PriorityQueue<int[]> openSet) {
+		for(int i=0; i<entrancePairs.length; i+=2) {
+			if (entrancePairs[i + side] == location) {
+				addToOpenSet(entrancePairs[i + 1 - side], cost + 1, location, targetX, targetY, targetWidth, targetHeight, costs, parents, openSet);
+			}
+		}
+	}
+	
+	private void addToOpenSet(int location, int cost, int parent, int targetX, int targetY, int targetWidth, int targetHeight, Map<Integer, Integer> costs, Map<Integer, Integer> parents, PriorityQueue<int[]> openSet) {
+		Integer oldCost = costs.get(location);
+		if (oldCost == null || cost < oldCost) {
+			costs.put(location, cost);
+			parents.put(location, parent);
+			openSet.add(new int[] { location, cost + distanceToTarget(location, targetX, targetY, targetWidth, targetHeight) });
+		}
+	}
+	
+	private RegionPath createPath(int location, int startIndex, Map<Integer, Integer> costs, Map<Integer, Integer> parents) {
+		List<Integer> locations = new ArrayList<>();
+		while (location != startIndex) {
+			locations.add(0, location);
+			location = parents.get(location);
+		}
+		
+		int[] xs = new int[locations.size()];
+		int[] ys = new int[locations.size()];
+		int[] pathCosts = new int[locations.size()];
+		for(int i=0; i<locations.size(); i++) {
+			xs[i] = x(locations.get(i));
+			ys[i] = y(locations.get(i));
+			pathCosts[i] = costs.get(locations.get(i));
+		}
+		return new RegionPath(xs, ys, pathCosts);
+	}
+	
+	private int distanceToTarget(int location, int targetX, int targetY, int targetWidth, int targetHeight) {
+		int x = x(location);
+		int y = y(location);
+		int distanceX = Math.max(0, Math.max(targetX - x, x - (targetX + targetWidth - 1)));
+		int distanceY = Math.max(0, Math.max(targetY - y, y - (targetY + targetHeight - 1)));
+		return Math.max(distanceX, distanceY);
+	}
+
+	private void updateDirtyClusters(LocationWorldObjectsCache zone, Terrain terrain) {
+		if (!hasDirtyClusters) {
+			return;
+		}
+		
+		boolean[] clustersToUpdate = new boolean[dirtyClusters.length];
+		for(int clusterX=0; clusterX<clustersX; clusterX++) {
+			for(int clusterY=0; clusterY<clustersY; clusterY++) {
+				if (dirtyClusters[clusterIndex(clusterX, clusterY)]) {
+					// the entrances on the borders with the neighbouring clusters change, so their distances need to be updated too
+					updateRightEntrances(clusterX, clusterY, zone, terrain);
+					updateBottomEntrances(clusterX, clusterY, zone, terrain);
+					clustersToUpdate[clusterIndex(clusterX, clusterY)] = true;
+					if (clusterX > 0) {
+						updateRightEntrances(clusterX - 1, clusterY, zone, terrain);
+						clustersToUpdate[clusterIndex(clusterX - 1, clusterY)] = true;
+					}
+					if (clusterY > 0) {
+						updateBottomEntrances(clusterX, clusterY - 1, zone, terrain);
+						clustersToUpdate[clusterIndex(clusterX, clusterY - 1)] = true;
+					}
+					if (clusterX < clustersX - 1) {
+						clustersToUpdate[clusterIndex(clusterX + 1, clusterY)] = true;
+					}
+					if (clusterY < clustersY - 1) {
+						clustersToUpdate[clusterIndex(clusterX, clusterY + 1)] = true;
+					}
+				}
+			}
+		}
+		
+		for(int clusterX=0; clusterX<clustersX; clusterX++) {
+			for(int clusterY=0; clusterY<clustersY; clusterY++) {
+				int cluster = clusterIndex(clusterX, clusterY);
+				if (clustersToUpdate[cluster]) {
+					updateClusterDistances(clusterX, clusterY, zone, terrain);
+				}
+			}
+		}
+		
+		Arrays.fill(dirtyClusters, false);
+		hasDirtyClusters = false;
+		// updates replace the arrays of a cluster, so copying the outer arrays is enough
+		clusters = new Clusters(rightEntrances.clone(), bottomEntrances.clone(), clusterEntrances.clone(), clusterDistances.clone());
+	}
+	
+	private void updateRightEntrances(int clusterX, int clusterY, LocationWorldObjectsCache zone, Terrain terrain) {
+		int x = (clusterX + 1) * CLUSTER_SIZE - 1;
+		if (x + 1 >= width) {
+			rightEntrances[clusterIndex(clusterX, clusterY)] = new int[0];
+			return;
+		}
+		
+		List<Integer> entrancePairs = new ArrayList<>();
+		int startY = clusterY * CLUSTER_SIZE;
+		int endY = Math.min(startY + CLUSTER_SIZE, height);
+		int runStart = -1;
+		for(int y=startY; y<=endY; y++) {
+			boolean open = y < endY && isPassable(x, y, zone, terrain) && isPassable(x + 1, y, zone, terrain);
+			if (open && runStart == -1) {
+				runStart = y;
+			} else if (!open && runStart != -1) {
+				int entranceY = (runStart + y - 1) / 2;
+				entrancePairs.add(index(x, entranceY));
+				entrancePairs.add(index(x + 1, entranceY));
+				runStart = -1;
+			}
+		}
+		rightEntrances[clusterIndex(clusterX, clusterY)] = toArray(entrancePairs);
+	}
+	
+	private void updateBottomEntrances(int clusterX, int clusterY, LocationWorldObjectsCache zone, Terrain terrain) {
+		int y = (clusterY + 1) * CLUSTER_SIZE - 1;
+		if (y + 1 >= height) {
+			bottomEntrances[clusterIndex(clusterX, clusterY)] = new int[0];
+			return;
+		}
+		
+		List<Integer> entrancePairs = new ArrayList<>();
+		int startX = clusterX * CLUSTER_SIZE;
+		int endX = Math.min(startX + CLUSTER_SIZE, width);
+		int runStart = -1;
+		for(int x=startX; x<=endX; x++) {
+			boolean open = x < endX && isPassable(x, y, zone, terrain) && isPassable(x, y + 1, zone, terrain);
+			if (open && runStart == -1) {
+				runStart = x;
+			} else if (!open && runStart != -1) {
+				int entranceX = (runStart + x - 1) / 2;
+				entrancePairs.add(index(entranceX, y));
+				entrancePairs.add(index(entranceX, y + 1));
+				runStart = -1;
+			}
+		}
+		bottomEntrances[clusterIndex(clusterX, clusterY)] = toArray(entrancePairs);
+	}
+	
+	private void updateClusterDistances(int clusterX, int clusterY, LocationWorldObjectsCache zone, Terrain terrain) {
+		int cluster = clusterIndex(clusterX, clusterY);
+		List<Integer> entranceList = new ArrayList<>();
+		addEntrances(entranceList, rightEntrances[cluster], 0);
+		addEntrances(entranceList, bottomEntrances[cluster], 0);
+		if (clusterX > 0) {
+			addEntrances(entranceList, rightEntrances[clusterIndex(clusterX - 1, clusterY)], 1);
+		}
+		if (clusterY > 0) {
+			addEntrances(entranceList, bottomEntrances[clusterIndex(clusterX, clusterY - 1)], 1);
+		}
+		
+		int[] entrances = toArray(entranceList);
+		int[][] distances = new int[entrances.length][];
+		for(int i=0; i<entrances.length; i++) {
+			distances[i] = calculateDistances(entrances[i], cluster, entrances, zone, terrain);
+		}
+		
+		clusterEntrances[cluster] = entrances;
+		clusterDistances[cluster] = distances;
+	}
+	
+	private void addEntrances(List<Integer> entranceList, int[] entrancePairs, int side) {
+		for(int i=0; i<entrancePairs.length; i+=2) {
+			Integer entrance = entrancePairs[i + side];
+			if (!entranceList.contains(entrance)) {
+				entranceList.add(entrance);
+			}
+		}
+	}
+	
+	/**
+	 * Calculates the distances from the given location to the given locations, moving only within the cluster.
+	 * The start location itself doesn't need to be passable.
+	 */
+	private int[] calculateDistances(int startLocation, int cluster, int[] locations, LocationWorldObjectsCache zone, Terrain terrain) {
+		int clusterStartX = (cluster % clustersX) * CLUSTER_SIZE;
+		int clusterStartY = (cluster / clustersX) * CLUSTER_SIZE;
+		int clusterEndX = Math.min(clusterStartX + CLUSTER_SIZE, width);
+		int clusterEndY = Math.min(clusterStartY + CLUSTER_SIZE, height);
+		int clusterWidth = clusterEndX - clusterStartX;
+		
+		int[] locationDistances = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+		Arrays.fill(locationDistances, Integer.MAX_VALUE);
+		int[] queue = new int[CLUSTER_SIZE * CLUSTER_SIZE];
+		int queueStart = 0;
+		int queueEnd = 0;
+		
+		int start = (x(startLocation) - clusterStartX) + (y(startLocation) - clusterStartY) * clusterWidth;
+		locationDistances[start] = 0;
+		queue[queueEnd++] = start;
+		while (queueStart < queueEnd) {
+			int current = queue[queueStart++];
+			int currentX = current % clusterWidth + clusterStartX;
+			int currentY = current / clusterWidth + clusterStartY;
+			for(int x=Math.max(currentX - 1, clusterStartX); x<=Math.min(currentX + 1, clusterEndX - 1); x++) {
+				for(int y=Math.max(currentY - 1, clusterStartY); y<=Math.min(currentY + 1, clusterEndY - 1); y++) {
+					int neighbour = (x - clusterStartX) + (y - clusterStartY) * clusterWidth;
+					if (locationDistances[neighbour] == Integer.MAX_VALUE && isPassable(x, y, zone, terrain)) {
+						locationDistances[neighbour] = locationDistances[current] + 1;
+						queue[queueEnd++] = neighbour;
+					}
+				}
+			}
+		}
+		
+		int[] result = new int[locations.length];
+		for(int i=0; i<locations.length; i++) {
+			result[i] = locationDistances[(x(locations[i]) - clusterStartX) + (y(locations[i]) - clusterStartY) * clusterWidth];
+		}
+		return result;
+	}
+	
+	private boolean isPassable(int x, int y, LocationWorldObjectsCache zone, Terrain terrain) {
+		return zone.value(x, y) == 0 && terrain.getTerrainInfo(x, y).getTerrainType() != TerrainType.WATER;
+	}
+	
+	private static int[] toArray(List<Integer> list) {
+		int[] result = new int[list.size()];
+		for(int i=0; i<result.length; i++) {
+			result[i] = list.get(i);
+		}
+		return result;
+	}
+	
+	private static int indexOf(int[] values, int value) {
+		for(int i=0; i<values.length; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("value " + value + " not found in " + Arrays.toString(values));
+	}
+	
+	private int clusterIndex(int clusterX, int clusterY) {
+		return clusterY * clustersX + clusterX;
+	}
+	
+	private int clusterIndexOf(int location) {
+		return clusterIndex(x(location) / CLUSTER_SIZE, y(location) / CLUSTER_SIZE);
+	}
+	
+	private int index(int x, int y) {
+		return y * width + x;
+	}
+	
+	private int x(int index) {
+		return index % width;
+	}
+	
+	private int y(int index) {
+		return index / width;
+	}
+	
+	private static final class Clusters {
+		private final int[][] rightEntrances;
+		private final int[][] bottomEntrances;
+		private final int[][] clusterEntrances;
+		private final int[][][] clusterDistances;
+		
+		public Clusters(int[][] rightEntrances, int[][] bottomEntrances, int[][] clusterEntrances, int[][][] clusterDistances) {
+			this.rightEntrances = rightEntrances;
+			this.bottomEntrances = bottomEntrances;
+			this.clusterEntrances = clusterEntrances;
+			this.clusterDistances = clusterDistances;
+		}
+	}
+	
+	/**
+	 * A path of entrance locations, with for each entrance the length of the path from the start location.
+	 */
+	static final class RegionPath {
+		private final int[] xs;
+		private final int[] ys;
+		private final int[] costs;
+		
+		public RegionPath(int[] xs, int[] ys, int[] costs) {
+			this.xs = xs;
+			this.ys = ys;
+			this.costs = costs;
+		}
+		
+		public int size() {
+			return xs.length;
+		}
+		
+		public int getX(int index) {
+			return xs[index];
+		}
+		
+		public int getY(int index) {
+			return ys[index];
+		}
+		
+		public int getCost(int index) {
+			return costs[index];
+		}
+	}
+}
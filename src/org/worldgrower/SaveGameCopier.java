@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.worldgrower.actions.legal.LegalActions;
+import org.worldgrower.attribute.Background;
+import org.worldgrower.attribute.BuildingList;
+import org.worldgrower.attribute.IdList;
+import org.worldgrower.attribute.IdMap;
+import org.worldgrower.attribute.ItemCountMap;
+import org.worldgrower.attribute.KnowledgeMap;
+import org.worldgrower.attribute.ManagedProperty;
+import org.worldgrower.attribute.Prices;
+import org.worldgrower.attribute.PropertyCountMap;
+import org.worldgrower.attribute.Reasons;
+import org.worldgrower.attribute.Skill;
+import org.worldgrower.attribute.WorldObjectContainer;
+import org.worldgrower.attribute.WorldObjectProperties;
+import org.worldgrower.condition.Conditions;
+import org.worldgrower.deity.DeityAttributes;
+import org.worldgrower.personality.Personality;
+
+/**
+ * Copies the WorldObjects of a world for a save game, so that they can be written while the world keeps changing.
+ * 
+ * Property values that can change are copied, other values like Integers, Strings, enums and goals are shared.
+ * WorldObjects in the world aren't copied when they are referred to, since these references are written as ids.
+ * Other WorldObjects, like items in an inventory, are copied once, so that for example an equipped item
+ * is still the same WorldObject as the item in the inventory.
+ */
+final class SaveGameCopier {
+
+	private final Map<WorldObject, Integer> idsByWorldObject = new IdentityHashMap<>();
+	private final Map<WorldObject, WorldObject> copiesByWorldObject = new IdentityHashMap<>();
+	
+	public SaveGameCopier(List<WorldObject> worldObjects) {
+		for(WorldObject worldObject : worldObjects) {
+			idsByWorldObject.put(worldObject, worldObject.getProperty(Constants.ID));
+		}
+	}
+	
+	/**
+	 * Returns copies of the given WorldObjects, WorldObjects which don't hold their properties
+	 * in a WorldObjectImpl are returned as they are.
+	 */
+	public List<WorldObject> copyWorldObjects(List<WorldObject> worldObjects) {
+		List<WorldObject> copies = new ArrayList<>(worldObjects.size());
+		for(WorldObject worldObject : worldObjects) {
+			if (worldObject instanceof WorldObjectImpl) {
+				copies.add(copyWorldObjectImpl((WorldObjectImpl) worldObject));
+			} else {
+				copies.add(worldObject);
+			}
+		}
+		return copies;
+	}
+	
+	/**
+	 * Returns the id of the given WorldObject if it's in the world, otherwise null is returned.
+	 */
+	public Integer getId(WorldObject worldObject) {
+		return idsByWorldObject.get(worldObject);
+	}
+	
+	/**
+	 * Returns the copy of the given WorldObject if it was copied, otherwise null is returned.
+	 */
+	public WorldObject getCopy(WorldObject worldObject) {
+		return copiesByWorldObject.get(worldObject);
+	}
+	
+	private WorldObject copyWorldObjectImpl(WorldObjectImpl worldObject) {
+		Map<ManagedProperty<?>, Object> properties = new HashMap<>();
+		for(Entry<ManagedProperty<?>, Object> entry : worldObject.getWorldObjectProperties().entrySet()) {
+			properties.put(entry.getKey(), copyValue(entry.getValue()));
+		}
+		return new WorldObjectImpl(new WorldObjectProperties(properties), worldObject.getOperations(), worldObject.getOnTurn(), worldObject.getWorldObjectPriorities(), false);
+	}
+	
+	private WorldObject copyWorldObject(WorldObject worldObject) {
+		if (idsByWorldObject.containsKey(worldObject) || !(worldObject instanceof WorldObjectImpl)) {
+			return worldObject;
+		}
+		WorldObject copy = copiesByWorldObject.get(worldObject);
+		if (copy == null) {
+			copy = copyWorldObjectImpl((WorldObjectImpl) worldObject);
+			copiesByWorldObject.put(worldObject, copy);
+		}
+		return copy;
+	}
+	
+	private Object copyValue(Object value) {
+		if (value instanceof WorldObject) {
+			return copyWorldObject((WorldObject) value);
+		} else if (value instanceof WorldObjectContainer) {
+			return ((WorldObjectContainer) value).copy(this::copyWorldObject);
+		} else if (value instanceof MetaInformation) {
+			return ((MetaInformation) value).copyForSave();
+		} else if (value instanceof KnowledgeMap) {
+			return ((KnowledgeMap) value).copyForSave();
+		} else if (value instanceof Background) {
+			return ((Background) value).copyForSave();
+		} else if (value instanceof Conditions) {
+			return ((Conditions) value).copyForSave();
+		} else if (value instanceof Skill) {
+			return ((Skill) value).copy();
+		} else if (value instanceof IdList) {
+			return ((IdList) value).copy();
+		} else if (value instanceof IdMap) {
+			return ((IdMap) value).copy();
+		} else if (value instanceof BuildingList) {
+			return ((BuildingList) value).copy();
+		} else if (value instanceof PropertyCountMap) {
+			return ((PropertyCountMap<?>) value).copy();
+		} else if (value instanceof Personality) {
+			return ((Personality) value).copy();
+		} else if (value instanceof Prices) {
+			return ((Prices) value).copy();
+		} else if (value instanceof Reasons) {
+			return ((Reasons) value).copy();
+		} else if (value instanceof ItemCountMap) {
+			return ((ItemCountMap) value).copy();
+		} else if (value instanceof DeityAttributes) {
+			return ((DeityAttributes) value).copy();
+		} else if (value instanceof LegalActions) {
+			return new LegalActions(((LegalActions) value).getLegalActions());
+		} else if (value instanceof List) {
+			return new ArrayList<>((List<?>) value);
+		} else {
+			return value;
+		}
+	}
+}
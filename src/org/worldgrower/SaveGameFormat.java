@@ -0,0 +1,776 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.awt.Rectangle;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.worldgrower.attribute.KnowledgeMap;
+import org.worldgrower.attribute.ManagedProperty;
+import org.worldgrower.attribute.WorldObjectProperties;
+import org.worldgrower.gui.ImageIds;
+import org.worldgrower.history.HistoryImpl;
+import org.worldgrower.history.Turn;
+import org.worldgrower.terrain.Terrain;
+import org.worldgrower.terrain.TerrainImpl;
+
+/**
+ * Reads and writes save games.
+ * 
+ * A save game starts with an uncompressed header containing the version and the SaveGameStatistics,
+ * followed by length prefixed sections for the terrain, the WorldObjects, their knowledge maps, the history
+ * and the remaining world state. Each section can be compressed and is deserialized on its own,
+ * straight from the file.
+ * WorldObject properties are written by ordinal, with primitive encodings for the most common values.
+ * From the WorldObjects section on, references to WorldObjects in the world are written as ids.
+ * The WorldObjects are created before their properties are read, so that these ids can be resolved
+ * to the same WorldObjects as the ones in the world.
+ * 
+ * A save game can have a delta file next to it, which contains the WorldObjects that were added, removed or changed
+ * since the save game was written, the history items added since then and the current world state.
+ * When a save game is loaded, its delta is applied if it was written for the turn of the save game.
+ */
+final class SaveGameFormat {
+
+	private static final int MAGIC = 0x57475356;
+	private static final int DELTA_MAGIC = 0x57475344;
+	private static final int FORMAT_VERSION = 2;
+	
+	private static final int TERRAIN_SECTION = 1;
+	private static final int WORLD_OBJECTS_SECTION = 2;
+	private static final int KNOWLEDGE_MAPS_SECTION = 3;
+	private static final int HISTORY_SECTION = 4;
+	private static final int WORLD_STATE_SECTION = 5;
+	
+	private static final byte NULL_VALUE = 0;
+	private static final byte INTEGER_VALUE = 1;
+	private static final byte STRING_VALUE = 2;
+	private static final byte BOOLEAN_VALUE = 3;
+	private static final byte OBJECT_VALUE = 4;
+	
+	private static final byte PROPERTIES_WORLD_OBJECT = 0;
+	private static final byte SERIALIZED_WORLD_OBJECT = 1;
+	
+	private SaveGameFormat() {
+	}
+	
+	public static void save(WorldImpl world, File fileToSave, boolean compressed) {
+		write(createSnapshot(world), fileToSave, compressed);
+		try {
+			Files.deleteIfExists(getDeltaFile(fileToSave).toPath());
+		} catch(IOException ex) {
+			throw new IllegalStateException("Problem deleting delta of file " + fileToSave, ex);
+		}
+	}
+	
+	static File getDeltaFile(File saveGameFile) {
+		return new File(saveGameFile.getPath() + ".delta");
+	}
+	
+	/**
+	 * Copies the state of the world that can change, after which the world can change again
+	 * while the snapshot is serialized, compressed and written.
+	 */
+	public static Snapshot createSnapshot(WorldImpl world) {
+		List<WorldObject> worldObjects = world.getWorldObjects();
+		SaveGameCopier saveGameCopier = new SaveGameCopier(worldObjects);
+		Terrain terrain = world.getTerrain();
+		return new Snapshot(
+				world.createSaveGameStatistics(),
+				terrain instanceof TerrainImpl ? ((TerrainImpl) terrain).copy() : terrain,
+				saveGameCopier.copyWorldObjects(worldObjects),
+				saveGameCopier,
+				((HistoryImpl) world.getHistory()).copyForSave(),
+				world.getNextId(),
+				world.getCurrentTurn(),
+				world.getDungeonMaster(),
+				world.getWorldOnTurn());
+	}
+	
+	/**
+	 * Copies the WorldObjects that were added or changed since the last checkpoint of the world,
+	 * together with the history items from the given history id on and the world state.
+	 * The delta can be applied to the save game that was written at the given turn.
+	 */
+	public static Delta createDelta(WorldImpl world, int baseTurn, int firstHistoryId) {
+		BitSet removedIds = world.getIdsChangedSinceCheckpoint();
+		for(int id = removedIds.nextSetBit(0); id >= 0; id = removedIds.nextSetBit(id + 1)) {
+			if (world.exists(id)) {
+				removedIds.clear(id);
+			}
+		}
+		SaveGameCopier saveGameCopier = new SaveGameCopier(world.getWorldObjects());
+		Rectangle exploredBounds = world.getTerrain().getExploredBoundsInSquares();
+		return new Delta(
+				world.createSaveGameStatistics(),
+				baseTurn,
+				exploredBounds != null ? new Rectangle(exploredBounds) : null,
+				removedIds,
+				saveGameCopier.copyWorldObjects(world.findWorldObjectsChangedSinceCheckpoint()),
+				saveGameCopier,
+				((HistoryImpl) world.getHistory()).copyForSave(firstHistoryId),
+				world.getNextId(),
+				world.getCurrentTurn(),
+				world.getDungeonMaster(),
+				world.getWorldOnTurn());
+	}
+	
+	public static void write(Snapshot snapshot, File fileToSave, boolean compressed) {
+		try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileToSave)))) {
+			SaveGameCopier saveGameCopier = snapshot.saveGameCopier;
+			List<WorldObject> worldObjects = snapshot.worldObjects;
+			writeHeader(outputStream, MAGIC, compressed, snapshot.saveGameStatistics);
+			writeSection(outputStream, TERRAIN_SECTION, createSection(null, s -> s.writeObject(snapshot.terrain)), compressed);
+			writeSection(outputStream, WORLD_OBJECTS_SECTION, createSection(saveGameCopier, s -> writeWorldObjects(worldObjects, s)), compressed);
+			writeSection(outputStream, KNOWLEDGE_MAPS_SECTION, createSection(saveGameCopier, s -> writeKnowledgeMaps(worldObjects, s)), compressed);
+			writeSection(outputStream, HISTORY_SECTION, createSection(saveGameCopier, s -> snapshot.history.writeHistory(s)), compressed);
+			writeSection(outputStream, WORLD_STATE_SECTION, createSection(saveGameCopier, s -> WorldImpl.writeWorldState(s, snapshot.nextId, snapshot.currentTurn, snapshot.dungeonMaster, snapshot.worldOnTurn)), compressed);
+		} catch(IOException ex) {
+			throw new IllegalStateException("Problem saving file " + fileToSave, ex);
+		}
+	}
+	
+	public static void write(Delta delta, File fileToSave, boolean compressed) {
+		try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileToSave)))) {
+			SaveGameCopier saveGameCopier = delta.saveGameCopier;
+			List<WorldObject> worldObjects = delta.worldObjects;
+			writeHeader(outputStream, DELTA_MAGIC, compressed, delta.saveGameStatistics);
+			outputStream.writeInt(delta.baseTurn);
+			writeSection(outputStream, TERRAIN_SECTION, createSection(null, s -> s.writeObject(delta.exploredBounds)), compressed);
+			writeSection(outputStream, WORLD_OBJECTS_SECTION, createSection(saveGameCopier, s -> writeChangedWorldObjects(delta.removedIds, worldObjects, s)), compressed);
+			writeSection(outputStream, KNOWLEDGE_MAPS_SECTION, createSection(saveGameCopier, s -> writeKnowledgeMaps(worldObjects, s)), compressed);
+			writeSection(outputStream, HISTORY_SECTION, createSection(saveGameCopier, s -> delta.history.writeHistory(s)), compressed);
+			writeSection(outputStream, WORLD_STATE_SECTION, createSection(saveGameCopier, s -> WorldImpl.writeWorldState(s, delta.nextId, delta.currentTurn, delta.dungeonMaster, delta.worldOnTurn)), compressed);
+		} catch(IOException ex) {
+			throw new IllegalStateException("Problem saving file " + fileToSave, ex);
+		}
+	}
+	
+	public static WorldImpl load(File fileToLoad) {
+		try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(fileToLoad)))) {
+			boolean compressed = readFormat(inputStream, fileToLoad, MAGIC);
+			readVersion(inputStream, fileToLoad);
+			SaveGameStatistics saveGameStatistics = readSaveGameStatistics(inputStream);
+			
+			Terrain terrain = (Terrain) readSection(inputStream, TERRAIN_SECTION, compressed, null, s -> s.readObject());
+			Map<Integer, WorldObject> worldObjectsById = new HashMap<>();
+			List<WorldObject> worldObjects = readSection(inputStream, WORLD_OBJECTS_SECTION, compressed, worldObjectsById, s -> readWorldObjects(worldObjectsById, s));
+			readSection(inputStream, KNOWLEDGE_MAPS_SECTION, compressed, worldObjectsById, s -> readKnowledgeMaps(worldObjectsById, s));
+			HistoryImpl history = readSection(inputStream, HISTORY_SECTION, compressed, worldObjectsById, s -> HistoryImpl.readHistory(s));
+			if (readDeltaStatistics(fileToLoad, saveGameStatistics.getTurn()) != null) {
+				return applyDelta(getDeltaFile(fileToLoad), terrain, worldObjectsById, worldObjects, history);
+			} else {
+				return readSection(inputStream, WORLD_STATE_SECTION, compressed, worldObjectsById, s -> WorldImpl.readWorldState(s, terrain, history, worldObjects));
+			}
+		} catch(IOException | ClassNotFoundException ex) {
+			throw new IllegalStateException("Problem loading file " + fileToLoad, ex);
+		}
+	}
+	
+	private static WorldImpl applyDelta(File deltaFile, Terrain terrain, Map<Integer, WorldObject> worldObjectsById, List<WorldObject> worldObjects, HistoryImpl history) throws IOException, ClassNotFoundException {
+		try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile)))) {
+			boolean compressed = readFormat(inputStream, deltaFile, DELTA_MAGIC);
+			readVersion(inputStream, deltaFile);
+			readSaveGameStatistics(inputStream);
+			inputStream.readInt();
+			
+			Rectangle exploredBounds = (Rectangle) readSection(inputStream, TERRAIN_SECTION, compressed, null, s -> s.readObject());
+			if (exploredBounds != null) {
+				int radius = exploredBounds.width / 2;
+				terrain.explore(exploredBounds.x + radius, exploredBounds.y + radius, radius);
+			}
+			readSection(inputStream, WORLD_OBJECTS_SECTION, compressed, worldObjectsById, s -> readChangedWorldObjects(worldObjectsById, worldObjects, s));
+			readSection(inputStream, KNOWLEDGE_MAPS_SECTION, compressed, worldObjectsById, s -> readKnowledgeMaps(worldObjectsById, s));
+			readSection(inputStream, HISTORY_SECTION, compressed, worldObjectsById, s -> { history.appendHistory(s); return null; });
+			return readSection(inputStream, WORLD_STATE_SECTION, compressed, worldObjectsById, s -> WorldImpl.readWorldState(s, terrain, history, worldObjects));
+		}
+	}
+	
+	/**
+	 * Only reads the header of the save game, or of its delta if it has one.
+	 */
+	public static SaveGameStatistics getSaveGameStatistics(File fileToLoad) throws IncompatibleVersionException {
+		try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(fileToLoad)))) {
+			readFormat(inputStream, fileToLoad, MAGIC);
+			inputStream.readUTF();
+			SaveGameStatistics saveGameStatistics = readSaveGameStatistics(inputStream);
+			SaveGameStatistics deltaStatistics = readDeltaStatistics(fileToLoad, saveGameStatistics.getTurn());
+			return deltaStatistics != null ? deltaStatistics : saveGameStatistics;
+		} catch(IllegalStateException ex) {
+			throw new IncompatibleVersionException(ex);
+		} catch(IOException ex) {
+			throw new IllegalStateException("Problem loading file " + fileToLoad, ex);
+		}
+	}
+	
+	/**
+	 * Returns the statistics of the delta of the given save game, or null if it has no delta for the given turn.
+	 */
+	private static SaveGameStatistics readDeltaStatistics(File saveGameFile, int baseTurn) throws IOException {
+		File deltaFile = getDeltaFile(saveGameFile);
+		if (deltaFile.exists()) {
+			try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile)))) {
+				readFormat(inputStream, deltaFile, DELTA_MAGIC);
+				inputStream.readUTF();
+				SaveGameStatistics saveGameStatistics = readSaveGameStatistics(inputStream);
+				if (inputStream.readInt() == baseTurn) {
+					return saveGameStatistics;
+				}
+			}
+		}
+		return null;
+	}
+	
+	private static void readVersion(DataInputStream inputStream, File fileToLoad) throws IOException {
+		String versionFromFile = inputStream.readUTF();
+		if (!versionFromFile.equals( Version.getVersion() )) {
+			throw new IllegalStateException("Version in file " + fileToLoad + " doesn't match: " + versionFromFile + " isn't equal to " + Version.getVersion());
+		}
+	}
+	
+	private static void writeHeader(DataOutputStream outputStream, int magic, boolean compressed, SaveGameStatistics saveGameStatistics) throws IOException {
+		outputStream.writeInt(magic);
+		outputStream.writeInt(FORMAT_VERSION);
+		outputStream.writeBoolean(compressed);
+		outputStream.writeUTF(Version.getVersion());
+		
+		ImageIds playerCharacterImageId = saveGameStatistics.getPlayerCharacterImageId();
+		writeNullableString(outputStream, saveGameStatistics.getPlayerCharacterName());
+		outputStream.writeInt(saveGameStatistics.getPlayerCharacterLevel());
+		outputStream.writeInt(saveGameStatistics.getTurn());
+		writeNullableString(outputStream, playerCharacterImageId != null ? playerCharacterImageId.name() : null);
+	}
+	
+	private static void writeNullableString(DataOutputStream outputStream, String value) throws IOException {
+		outputStream.writeBoolean(value != null);
+		if (value != null) {
+			outputStream.writeUTF(value);
+		}
+	}
+	
+	private static String readNullableString(DataInputStream inputStream) throws IOException {
+		return inputStream.readBoolean() ? inputStream.readUTF() : null;
+	}
+	
+	private static boolean readFormat(DataInputStream inputStream, File fileToLoad, int expectedMagic) throws IOException {
+		int magic = inputStream.readInt();
+		if (magic != expectedMagic) {
+			throw new IllegalStateException("File " + fileToLoad + " isn't a save game");
+		}
+		int formatVersion = inputStream.readInt();
+		if (formatVersion != FORMAT_VERSION) {
+			throw new IllegalStateException("Format version " + formatVersion + " in file " + fileToLoad + " isn't supported");
+		}
+		return inputStream.readBoolean();
+	}
+	
+	private static SaveGameStatistics readSaveGameStatistics(DataInputStream inputStream) throws IOException {
+		String playerCharacterName = readNullableString(inputStream);
+		int playerCharacterLevel = inputStream.readInt();
+		int turn = inputStream.readInt();
+		String playerCharacterImageIdName = readNullableString(inputStream);
+		ImageIds playerCharacterImageId = playerCharacterImageIdName != null ? ImageIds.valueOf(playerCharacterImageIdName) : null;
+		
+		return new SaveGameStatistics(playerCharacterName, playerCharacterLevel, turn, playerCharacterImageId);
+	}
+	
+	private static byte[] createSection(SaveGameCopier saveGameCopier, SectionWriter sectionWriter) throws IOException {
+		ByteArrayOutputStream sectionBytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOutputStream = new WorldObjectReferenceOutputStream(sectionBytes, saveGameCopier)) {
+			sectionWriter.write(objectOutputStream);
+		}
+		return sectionBytes.toByteArray();
+	}
+	
+	private static void writeSection(DataOutputStream outputStream, int sectionType, byte[] sectionBytes, boolean compressed) throws IOException {
+		if (compressed) {
+			ByteArrayOutputStream compressedSectionBytes = new ByteArrayOutputStream();
+			try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(compressedSectionBytes)) {
+				deflaterOutputStream.write(sectionBytes);
+			}
+			sectionBytes = compressedSectionBytes.toByteArray();
+		}
+		
+		outputStream.writeInt(sectionType);
+		outputStream.writeInt(sectionBytes.length);
+		outputStream.write(sectionBytes);
+	}
+	
+	private static<T> T readSection(DataInputStream inputStream, int sectionType, boolean compressed, Map<Integer, WorldObject> worldObjectsById, SectionReader<T> sectionReader) throws IOException, ClassNotFoundException {
+		int sectionTypeFromFile = inputStream.readInt();
+		if (sectionTypeFromFile != sectionType) {
+			throw new IllegalStateException("Expected section " + sectionType + " but found section " + sectionTypeFromFile);
+		}
+		InputStream sectionInputStream = new SectionInputStream(inputStream, inputStream.readInt());
+		if (compressed) {
+			sectionInputStream = new InflaterInputStream(sectionInputStream);
+		}
+		try (ObjectInputStream objectInputStream = new WorldObjectReferenceInputStream(sectionInputStream, worldObjectsById)) {
+			return sectionReader.read(objectInputStream);
+		}
+	}
+	
+	// knowledge maps are written in their own section
+	private static void writeWorldObjects(List<WorldObject> worldObjects, ObjectOutputStream objectOutputStream) throws IOException {
+		objectOutputStream.writeInt(worldObjects.size());
+		for(WorldObject worldObject : worldObjects) {
+			if (worldObject instanceof WorldObjectImpl) {
+				WorldObjectImpl worldObjectImpl = (WorldObjectImpl) worldObject;
+				objectOutputStream.writeByte(PROPERTIES_WORLD_OBJECT);
+				objectOutputStream.writeInt(worldObject.getProperty(Constants.ID));
+				objectOutputStream.writeObject(worldObjectImpl.getOperations());
+				objectOutputStream.writeObject(worldObjectImpl.getOnTurn());
+				objectOutputStream.writeObject(worldObjectImpl.getWorldObjectPriorities());
+			} else {
+				objectOutputStream.writeByte(SERIALIZED_WORLD_OBJECT);
+				objectOutputStream.writeObject(worldObject);
+			}
+		}
+		
+		for(WorldObject worldObject : worldObjects) {
+			if (worldObject instanceof WorldObjectImpl) {
+				writeProperties(((WorldObjectImpl) worldObject).getWorldObjectProperties(), objectOutputStream);
+			}
+		}
+	}
+	
+	private static void writeProperties(WorldObjectProperties properties, ObjectOutputStream objectOutputStream) throws IOException {
+		List<Entry<ManagedProperty<?>, Object>> entries = new ArrayList<>();
+		for(Entry<ManagedProperty<?>, Object> entry : properties.entrySet()) {
+			if (entry.getKey() != Constants.KNOWLEDGE_MAP) {
+				entries.add(entry);
+			}
+		}
+		
+		objectOutputStream.writeInt(entries.size());
+		for(Entry<ManagedProperty<?>, Object> entry : entries) {
+			objectOutputStream.writeShort(entry.getKey().getOrdinal());
+			writeValue(entry.getValue(), objectOutputStream);
+		}
+	}
+	
+	private static void writeValue(Object value, ObjectOutputStream objectOutputStream) throws IOException {
+		if (value == null) {
+			objectOutputStream.writeByte(NULL_VALUE);
+		} else if (value instanceof Integer) {
+			objectOutputStream.writeByte(INTEGER_VALUE);
+			objectOutputStream.writeInt((Integer) value);
+		} else if (value instanceof String) {
+			objectOutputStream.writeByte(STRING_VALUE);
+			objectOutputStream.writeUTF((String) value);
+		} else if (value instanceof Boolean) {
+			objectOutputStream.writeByte(BOOLEAN_VALUE);
+			objectOutputStream.writeBoolean((Boolean) value);
+		} else {
+			objectOutputStream.writeByte(OBJECT_VALUE);
+			objectOutputStream.writeObject(value);
+		}
+	}
+	
+	/**
+	 * All WorldObjects are created and added to worldObjectsById before their properties are read,
+	 * so that references in their properties resolve to WorldObjects in the world.
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<WorldObject> readWorldObjects(Map<Integer, WorldObject> worldObjectsById, ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		ManagedProperty<?>[] propertiesByOrdinal = getPropertiesByOrdinal();
+		int numberOfWorldObjects = objectInputStream.readInt();
+		List<WorldObject> worldObjects = new ArrayList<>(numberOfWorldObjects);
+		List<WorldObjectProperties> propertiesToRead = new ArrayList<>(numberOfWorldObjects);
+		for(int i=0; i<numberOfWorldObjects; i++) {
+			byte worldObjectType = objectInputStream.readByte();
+			WorldObject worldObject;
+			if (worldObjectType == PROPERTIES_WORLD_OBJECT) {
+				int id = objectInputStream.readInt();
+				List<ManagedOperation> operations = (List<ManagedOperation>) objectInputStream.readObject();
+				OnTurn onTurn = (OnTurn) objectInputStream.readObject();
+				WorldObjectPriorities worldObjectPriorities = (WorldObjectPriorities) objectInputStream.readObject();
+				WorldObjectProperties properties = new WorldObjectProperties(new HashMap<>());
+				properties.put(Constants.ID, id);
+				propertiesToRead.add(properties);
+				worldObject = new WorldObjectImpl(properties, operations, onTurn, worldObjectPriorities, false);
+			} else {
+				worldObject = (WorldObject) objectInputStream.readObject();
+			}
+			worldObjects.add(worldObject);
+			worldObjectsById.put(worldObject.getProperty(Constants.ID), worldObject);
+		}
+		
+		for(WorldObjectProperties properties : propertiesToRead) {
+			readProperties(properties, propertiesByOrdinal, objectInputStream);
+		}
+		return worldObjects;
+	}
+	
+	private static void writeChangedWorldObjects(BitSet removedIds, List<WorldObject> changedWorldObjects, ObjectOutputStream objectOutputStream) throws IOException {
+		objectOutputStream.writeInt(removedIds.cardinality());
+		for(int id = removedIds.nextSetBit(0); id >= 0; id = removedIds.nextSetBit(id + 1)) {
+			objectOutputStream.writeInt(id);
+		}
+		writeWorldObjects(changedWorldObjects, objectOutputStream);
+	}
+	
+	/**
+	 * Removes the WorldObjects that were removed since the save game was written and reads the changed WorldObjects.
+	 * Changed WorldObjects that already exist get their properties replaced, so that references to them stay valid.
+	 * Added WorldObjects are added at the end of the given WorldObjects.
+	 */
+	@SuppressWarnings("unchecked")
+	private static Void readChangedWorldObjects(Map<Integer, WorldObject> worldObjectsById, List<WorldObject> worldObjects, ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		Map<WorldObject, WorldObject> replacedWorldObjects = new IdentityHashMap<>();
+		int numberOfRemovedWorldObjects = objectInputStream.readInt();
+		for(int i=0; i<numberOfRemovedWorldObjects; i++) {
+			WorldObject removedWorldObject = worldObjectsById.remove(objectInputStream.readInt());
+			if (removedWorldObject != null) {
+				replacedWorldObjects.put(removedWorldObject, null);
+			}
+		}
+		
+		ManagedProperty<?>[] propertiesByOrdinal = getPropertiesByOrdinal();
+		int numberOfWorldObjects = objectInputStream.readInt();
+		List<WorldObject> addedWorldObjects = new ArrayList<>();
+		List<WorldObjectProperties> propertiesToRead = new ArrayList<>(numberOfWorldObjects);
+		for(int i=0; i<numberOfWorldObjects; i++) {
+			byte worldObjectType = objectInputStream.readByte();
+			WorldObject worldObject;
+			if (worldObjectType == PROPERTIES_WORLD_OBJECT) {
+				int id = objectInputStream.readInt();
+				List<ManagedOperation> operations = (List<ManagedOperation>) objectInputStream.readObject();
+				OnTurn onTurn = (OnTurn) objectInputStream.readObject();
+				WorldObjectPriorities worldObjectPriorities = (WorldObjectPriorities) objectInputStream.readObject();
+				WorldObject existingWorldObject = worldObjectsById.get(id);
+				WorldObjectProperties properties;
+				if (existingWorldObject instanceof WorldObjectImpl) {
+					worldObject = existingWorldObject;
+					properties = ((WorldObjectImpl) existingWorldObject).getWorldObjectProperties();
+					for(ManagedProperty<?> managedProperty : properties.keySet()) {
+						properties.remove(managedProperty);
+					}
+				} else {
+					properties = new WorldObjectProperties(new HashMap<>());
+					worldObject = new WorldObjectImpl(properties, operations, onTurn, worldObjectPriorities, false);
+				}
+				properties.put(Constants.ID, id);
+				propertiesToRead.add(properties);
+			} else {
+				worldObject = (WorldObject) objectInputStream.readObject();
+			}
+			
+			WorldObject existingWorldObject = worldObjectsById.put(worldObject.getProperty(Constants.ID), worldObject);
+			if (existingWorldObject == null) {
+				addedWorldObjects.add(worldObject);
+			} else if (existingWorldObject != worldObject) {
+				replacedWorldObjects.put(existingWorldObject, worldObject);
+			}
+		}
+		
+		for(WorldObjectProperties properties : propertiesToRead) {
+			readProperties(properties, propertiesByOrdinal, objectInputStream);
+		}
+		
+		if (!replacedWorldObjects.isEmpty()) {
+			for(int i=0; i<worldObjects.size(); i++) {
+				WorldObject worldObject = worldObjects.get(i);
+				if (replacedWorldObjects.containsKey(worldObject)) {
+					worldObjects.set(i, replacedWorldObjects.get(worldObject));
+				}
+			}
+			worldObjects.removeAll(Collections.singleton(null));
+		}
+		worldObjects.addAll(addedWorldObjects);
+		return null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static void readProperties(WorldObjectProperties properties, ManagedProperty<?>[] propertiesByOrdinal, ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		int numberOfProperties = objectInputStream.readInt();
+		for(int i=0; i<numberOfProperties; i++) {
+			int ordinal = objectInputStream.readShort();
+			if (ordinal >= propertiesByOrdinal.length || propertiesByOrdinal[ordinal] == null) {
+				throw new IllegalStateException("No property found with ordinal " + ordinal);
+			}
+			properties.put((ManagedProperty<Object>) propertiesByOrdinal[ordinal], readValue(objectInputStream));
+		}
+	}
+	
+	private static Object readValue(ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		byte valueType = objectInputStream.readByte();
+		switch (valueType) {
+			case NULL_VALUE:
+				return null;
+			case INTEGER_VALUE:
+				return objectInputStream.readInt();
+			case STRING_VALUE:
+				return objectInputStream.readUTF();
+			case BOOLEAN_VALUE:
+				return objectInputStream.readBoolean();
+			case OBJECT_VALUE:
+				return objectInputStream.readObject();
+			default:
+				throw new IllegalStateException("Unknown value type " + valueType);
+		}
+	}
+	
+	private static ManagedProperty<?>[] getPropertiesByOrdinal() {
+		int maxOrdinal = 0;
+		for(ManagedProperty<?> managedProperty : Constants.ALL_PROPERTIES) {
+			maxOrdinal = Math.max(maxOrdinal, managedProperty.getOrdinal());
+		}
+		ManagedProperty<?>[] propertiesByOrdinal = new ManagedProperty<?>[maxOrdinal + 1];
+		for(ManagedProperty<?> managedProperty : Constants.ALL_PROPERTIES) {
+			propertiesByOrdinal[managedProperty.getOrdinal()] = managedProperty;
+		}
+		return propertiesByOrdinal;
+	}
+	
+	private static void writeKnowledgeMaps(List<WorldObject> worldObjects, ObjectOutputStream objectOutputStream) throws IOException {
+		List<WorldObject> worldObjectsWithKnowledgeMap = new ArrayList<>();
+		for(WorldObject worldObject : worldObjects) {
+			if (worldObject instanceof WorldObjectImpl && worldObject.hasProperty(Constants.KNOWLEDGE_MAP)) {
+				worldObjectsWithKnowledgeMap.add(worldObject);
+			}
+		}
+		
+		objectOutputStream.writeInt(worldObjectsWithKnowledgeMap.size());
+		for(WorldObject worldObject : worldObjectsWithKnowledgeMap) {
+			objectOutputStream.writeInt(worldObject.getProperty(Constants.ID));
+			objectOutputStream.writeObject(worldObject.getProperty(Constants.KNOWLEDGE_MAP));
+		}
+	}
+	
+	private static Void readKnowledgeMaps(Map<Integer, WorldObject> worldObjectsById, ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		int numberOfKnowledgeMaps = objectInputStream.readInt();
+		for(int i=0; i<numberOfKnowledgeMaps; i++) {
+			int id = objectInputStream.readInt();
+			KnowledgeMap knowledgeMap = (KnowledgeMap) objectInputStream.readObject();
+			worldObjectsById.get(id).setProperty(Constants.KNOWLEDGE_MAP, knowledgeMap);
+		}
+		return null;
+	}
+	
+	/**
+	 * A copy of the state of a world at a certain turn.
+	 */
+	public static final class Snapshot {
+		private final SaveGameStatistics saveGameStatistics;
+		private final Terrain terrain;
+		private final List<WorldObject> worldObjects;
+		private final SaveGameCopier saveGameCopier;
+		private final HistoryImpl history;
+		private final int nextId;
+		private final Turn currentTurn;
+		private final DungeonMaster dungeonMaster;
+		private final WorldOnTurn worldOnTurn;
+		
+		private Snapshot(SaveGameStatistics saveGameStatistics, Terrain terrain, List<WorldObject> worldObjects, SaveGameCopier saveGameCopier, HistoryImpl history, int nextId, Turn currentTurn, DungeonMaster dungeonMaster, WorldOnTurn worldOnTurn) {
+			this.saveGameStatistics = saveGameStatistics;
+			this.terrain = terrain;
+			this.worldObjects = worldObjects;
+			this.saveGameCopier = saveGameCopier;
+			this.history = history;
+			this.nextId = nextId;
+			this.currentTurn = currentTurn;
+			this.dungeonMaster = dungeonMaster;
+			this.worldOnTurn = worldOnTurn;
+		}
+	}
+	
+	/**
+	 * A copy of the changes of a world since the last checkpoint.
+	 */
+	public static final class Delta {
+		private final SaveGameStatistics saveGameStatistics;
+		private final int baseTurn;
+		private final Rectangle exploredBounds;
+		private final BitSet removedIds;
+		private final List<WorldObject> worldObjects;
+		private final SaveGameCopier saveGameCopier;
+		private final HistoryImpl history;
+		private final int nextId;
+		private final Turn currentTurn;
+		private final DungeonMaster dungeonMaster;
+		private final WorldOnTurn worldOnTurn;
+		
+		private Delta(SaveGameStatistics saveGameStatistics, int baseTurn, Rectangle exploredBounds, BitSet removedIds, List<WorldObject> worldObjects, SaveGameCopier saveGameCopier, HistoryImpl history, int nextId, Turn currentTurn, DungeonMaster dungeonMaster, WorldOnTurn worldOnTurn) {
+			this.saveGameStatistics = saveGameStatistics;
+			this.baseTurn = baseTurn;
+			this.exploredBounds = exploredBounds;
+			this.removedIds = removedIds;
+			this.worldObjects = worldObjects;
+			this.saveGameCopier = saveGameCopier;
+			this.history = history;
+			this.nextId = nextId;
+			this.currentTurn = currentTurn;
+			this.dungeonMaster = dungeonMaster;
+			this.worldOnTurn = worldOnTurn;
+		}
+	}
+	
+	@FunctionalInterface
+	private static interface SectionWriter {
+		public void write(ObjectOutputStream objectOutputStream) throws IOException;
+	}
+	
+	@FunctionalInterface
+	private static interface SectionReader<T> {
+		public T read(ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException;
+	}
+	
+	/**
+	 * Reads a section straight from the save game, without reading past the end of the section.
+	 * Closing it skips the rest of the section, but leaves the save game open.
+	 */
+	private static class SectionInputStream extends FilterInputStream {
+		private long remaining;
+		
+		public SectionInputStream(InputStream inputStream, int length) {
+			super(inputStream);
+			this.remaining = length;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int result = in.read();
+			if (result != -1) {
+				remaining--;
+			}
+			return result;
+		}
+		
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int result = in.read(bytes, offset, (int) Math.min(length, remaining));
+			if (result != -1) {
+				remaining -= result;
+			}
+			return result;
+		}
+		
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+		
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(in.available(), remaining);
+		}
+		
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			while (remaining > 0) {
+				if (skip(remaining) == 0) {
+					if (read() == -1) {
+						throw new IOException("Unexpected end of section");
+					}
+				}
+			}
+		}
+	}
+	
+	private static class WorldObjectReference implements Serializable {
+		private final int id;
+
+		public WorldObjectReference(int id) {
+			this.id = id;
+		}
+	}
+	
+	/**
+	 * Writes references to WorldObjects in the world as ids, and other WorldObjects that were copied
+	 * for the snapshot as their copy.
+	 */
+	private static class WorldObjectReferenceOutputStream extends ObjectOutputStream {
+		private final SaveGameCopier saveGameCopier;
+		
+		public WorldObjectReferenceOutputStream(OutputStream outputStream, SaveGameCopier saveGameCopier) throws IOException {
+			super(outputStream);
+			this.saveGameCopier = saveGameCopier;
+			enableReplaceObject(saveGameCopier != null);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (obj instanceof WorldObjectImpl) {
+				WorldObject worldObject = (WorldObject) obj;
+				Integer id = saveGameCopier.getId(worldObject);
+				if (id != null) {
+					return new WorldObjectReference(id);
+				}
+				WorldObject copy = saveGameCopier.getCopy(worldObject);
+				if (copy != null) {
+					return copy;
+				}
+			}
+			return obj;
+		}
+	}
+	
+	private static class WorldObjectReferenceInputStream extends ObjectInputStream {
+		private final Map<Integer, WorldObject> worldObjectsById;
+		
+		public WorldObjectReferenceInputStream(InputStream inputStream, Map<Integer, WorldObject> worldObjectsById) throws IOException {
+			super(inputStream);
+			this.worldObjectsById = worldObjectsById;
+			enableResolveObject(worldObjectsById != null);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (obj instanceof WorldObjectReference) {
+				return worldObjectsById.get(((WorldObjectReference) obj).id);
+			}
+			return obj;
+		}
+	}
+}
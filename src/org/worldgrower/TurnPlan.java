@@ -0,0 +1,115 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.worldgrower.goal.Goal;
+
+/**
+ * A TurnPlan holds the goal and tasks a non-player character calculates at the start of a turn,
+ * before any actions of that turn are performed.
+ * Calculating a TurnPlan doesn't change the world: the goal and tasks are calculated on a copy of the MetaInformation
+ * and changes that goals make to the non-player character are postponed until the TurnPlan is applied.
+ */
+final class TurnPlan {
+
+	private final WorldObject worldObject;
+	private final MetaInformation plannedMetaInformation;
+	private final PostponingGoalCalculator goalCalculator = new PostponingGoalCalculator();
+	private RuntimeException planningException = null;
+	
+	public TurnPlan(WorldObject worldObject) {
+		this.worldObject = worldObject;
+		
+		MetaInformation metaInformation = worldObject.getProperty(Constants.META_INFORMATION);
+		if (metaInformation == null) {
+			metaInformation = new MetaInformation(worldObject);
+		}
+		this.plannedMetaInformation = metaInformation.copyForPlanning();
+	}
+
+	public void plan(DungeonMaster dungeonMaster, World world) {
+		try {
+			dungeonMaster.planTasks(worldObject, world, plannedMetaInformation, goalCalculator);
+		} catch(RuntimeException e) {
+			// the non-player character plans again when it is its turn, which throws the exception if the problem still exists
+			planningException = e;
+		}
+	}
+	
+	/**
+	 * Returns whether the planned task can still be performed after the actions that were performed earlier in the turn.
+	 */
+	public boolean isStillValid(World world) {
+		if (planningException != null) {
+			return false;
+		}
+		
+		World worldFacade = new WorldFacade(worldObject, world);
+		OperationInfo finalOperationInfo = plannedMetaInformation.getFinalTask();
+		OperationInfo peekOperationInfo = plannedMetaInformation.getCurrentTask().peek();
+		
+		if (plannedMetaInformation.getGoalChangedReason() != GoalChangedReason.NO_ACTION_POSSIBLE && !worldObject.getProperty(Constants.CONDITIONS).canTakeAction()) {
+			return false;
+		}
+		if (!finalOperationInfo.canExecuteIgnoringDistance(worldObject, worldFacade)) {
+			return false;
+		}
+		if (finalOperationInfo.getTarget().hasProperty(Constants.ID) && !world.exists(finalOperationInfo.getTarget())) {
+			return false;
+		}
+		if (!peekOperationInfo.canExecute(worldObject, worldFacade) || !peekOperationInfo.canExecute(worldObject, world)) {
+			return false;
+		}
+		return !finalOperationInfo.targetMoved(worldFacade);
+	}
+	
+	public void apply(MetaInformation metaInformation, World world) {
+		goalCalculator.applyPostponedGoalMetOrNot(worldObject, new WorldFacade(worldObject, world));
+		metaInformation.applyPlan(plannedMetaInformation);
+	}
+	
+	public WorldObject getWorldObject() {
+		return worldObject;
+	}
+	
+	MetaInformation getPlannedMetaInformation() {
+		return plannedMetaInformation;
+	}
+
+	private static final class PostponingGoalCalculator extends GoalCalculator {
+		private final List<Goal> goals = new ArrayList<>();
+		private final List<Boolean> goalsMet = new ArrayList<>();
+		
+		@Override
+		protected void goalMetOrNot(Goal goal, WorldObject performer, World world, boolean goalMet) {
+			goals.add(goal);
+			goalsMet.add(goalMet);
+		}
+		
+		@Override
+		protected boolean goalMetOrNotChangesWorld() {
+			return false;
+		}
+		
+		public void applyPostponedGoalMetOrNot(WorldObject performer, World world) {
+			for(int i=0; i<goals.size(); i++) {
+				goals.get(i).goalMetOrNot(performer, world, goalsMet.get(i));
+			}
+		}
+	}
+}
@@ -15,13 +15,17 @@
 package org.worldgrower;
 
 import java.io.File;
+import java.util.BitSet;
 import java.util.List;
 
+import org.worldgrower.attribute.IdList;
 import org.worldgrower.attribute.IntProperty;
 import org.worldgrower.attribute.ManagedProperty;
 import org.worldgrower.condition.WorldStateChangedListener;
 import org.worldgrower.condition.WorldStateChangedListeners;
+import org.worldgrower.generator.Item;
 import org.worldgrower.goal.Goal;
+import org.worldgrower.goal.Position;
 import org.worldgrower.history.History;
 import org.worldgrower.history.Turn;
 import org.worldgrower.terrain.Terrain;
@@ -41,6 +45,51 @@ public interface World {
 	public List<WorldObject> findWorldObjects(WorldObjectCondition worldObjectCondition);
 	public WorldObject findWorldObjectById(int id);
 	public List<WorldObject> findWorldObjectsByProperty(ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition);
+	public<T> List<WorldObject> findWorldObjectsByPropertyValue(ManagedProperty<T> managedProperty, T value, WorldObjectCondition worldObjectCondition);
+	
+	/**
+	 * Returns the WorldObjects which satisfy the given condition and whose IdList property contains at least one of the given ids.
+	 */
+	public List<WorldObject> findWorldObjectsContainingAnyId(ManagedProperty<IdList> managedProperty, IdList ids, WorldObjectCondition worldObjectCondition);
+	
+	/**
+	 * Returns at most maxCount WorldObjects which satisfy the given condition, nearest to the given location first.
+	 */
+	public List<WorldObject> findNearestWorldObjects(int x, int y, int maxCount, WorldObjectCondition worldObjectCondition);
+	/**
+	 * Returns at most maxCount WorldObjects which have the given property and satisfy the given condition, nearest to the given location first.
+	 * WorldObjects with a location outside the world, such as offscreen WorldObjects, are included.
+	 */
+	public List<WorldObject> findNearestWorldObjectsByProperty(int x, int y, int maxCount, ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition);
+	
+	/**
+	 * Returns at most maxCount WorldObjects which satisfy the given condition and sell a WorldObject with the given property from their inventory,
+	 * nearest to the given location first.
+	 */
+	public List<WorldObject> findNearestSellers(int x, int y, int maxCount, ManagedProperty<?> sellableProperty, WorldObjectCondition worldObjectCondition);
+	public List<WorldObject> findNearestSellers(int x, int y, int maxCount, Item item, WorldObjectCondition worldObjectCondition);
+	
+	/**
+	 * Returns the WorldObjects which satisfy the given condition and sell the given Item from their inventory.
+	 */
+	public List<WorldObject> findSellers(Item item, WorldObjectCondition worldObjectCondition);
+	/**
+	 * Returns the WorldObjects which satisfy the given condition and are at most the given distance away from the given location.
+	 */
+	public List<WorldObject> findWorldObjectsWithinDistance(int x, int y, int distance, WorldObjectCondition worldObjectCondition);
+	/**
+	 * Returns true if the given rectangle lies within the world and none of its locations contain impassable WorldObjects.
+	 */
+	public boolean isOpenSpace(int x, int y, int width, int height);
+	/**
+	 * Returns true if the given rectangle is open space and none of its locations are water.
+	 */
+	public boolean isOpenNonWaterSpace(int x, int y, int width, int height);
+	/**
+	 * Returns the top left location of the open rectangle without water that is nearest to the given location,
+	 * or null if there is no such rectangle.
+	 */
+	public Position findNearestOpenNonWaterSpace(int x, int y, int width, int height);
 	
 	public int generateUniqueId();
 	public<T> void logAction(ManagedOperation managedOperation, WorldObject performer, WorldObject target, int[] args, T value);
@@ -57,6 +106,21 @@ public interface World {
 	public Turn getCurrentTurn();
 	public void nextTurn();
 	
+	/**
+	 * Returns the current epoch of this World, which increases every time the WorldObjects changed this turn change.
+	 */
+	public long getEpoch();
+	/**
+	 * Returns the WorldObjects which were added or had a property change during the current turn.
+	 * Property values which can be changed in place without reporting it are seen as changed in every turn,
+	 * so the result may contain WorldObjects that didn't change, but never misses one that did.
+	 */
+	public List<WorldObject> findWorldObjectsChangedThisTurn();
+	/**
+	 * Returns the ordinals of the properties of the given WorldObject which changed during the current turn.
+	 */
+	public BitSet getPropertiesChangedThisTurn(WorldObject worldObject);
+	
 	public History getHistory();
 	public void save(File fileToSave);
 	public WorldOnTurn getWorldOnTurn();
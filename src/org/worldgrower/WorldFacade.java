@@ -16,15 +16,19 @@ package org.worldgrower;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 
+import org.worldgrower.attribute.IdList;
 import org.worldgrower.attribute.IntProperty;
 import org.worldgrower.attribute.ManagedProperty;
 import org.worldgrower.condition.Condition;
 import org.worldgrower.condition.WorldStateChangedListener;
 import org.worldgrower.condition.WorldStateChangedListeners;
+import org.worldgrower.generator.Item;
 import org.worldgrower.goal.Goal;
+import org.worldgrower.goal.Position;
 import org.worldgrower.history.History;
 import org.worldgrower.history.Turn;
 import org.worldgrower.terrain.Terrain;
@@ -67,18 +71,19 @@ public class WorldFacade implements World {
 		Iterator<WorldObject> worldObjectIterator = worldObjects.iterator();
 		while(worldObjectIterator.hasNext()) {
 			WorldObject worldObject = worldObjectIterator.next();
-			if (worldObject.hasProperty(Constants.ILLUSION_CREATOR_ID)) {
-				if (!illusionIsBelievedBy(personViewingWorld, worldObject, world)) {
-					worldObjectIterator.remove();
-				}
-			}
-			if (isInvisible(worldObject)) {
+			if (!isVisible(worldObject)) {
 				worldObjectIterator.remove();
 			}
-			if (isMaskedByIllusion(worldObject, world)) {
-				worldObjectIterator.remove();
+		}
+	}
+	
+	private boolean isVisible(WorldObject worldObject) {
+		if (worldObject.hasProperty(Constants.ILLUSION_CREATOR_ID)) {
+			if (!illusionIsBelievedBy(personViewingWorld, worldObject, world)) {
+				return false;
 			}
 		}
+		return !isInvisible(worldObject) && !isMaskedByIllusion(worldObject, world);
 	}
 
 	public boolean isMaskedByIllusion(WorldObject worldObject, World world) {
@@ -153,6 +158,67 @@ public class WorldFacade implements World {
 		filter(worldObjects);
 		return worldObjects;
 	}
+	
+	@Override
+	public <T> List<WorldObject> findWorldObjectsByPropertyValue(ManagedProperty<T> managedProperty, T value, WorldObjectCondition worldObjectCondition) {
+		List<WorldObject> worldObjects = world.findWorldObjectsByPropertyValue(managedProperty, value, worldObjectCondition);
+		filter(worldObjects);
+		return worldObjects;
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsContainingAnyId(ManagedProperty<IdList> managedProperty, IdList ids, WorldObjectCondition worldObjectCondition) {
+		List<WorldObject> worldObjects = world.findWorldObjectsContainingAnyId(managedProperty, ids, worldObjectCondition);
+		filter(worldObjects);
+		return worldObjects;
+	}
+	
+	@Override
+	public List<WorldObject> findNearestWorldObjects(int x, int y, int maxCount, WorldObjectCondition worldObjectCondition) {
+		return world.findNearestWorldObjects(x, y, maxCount, w -> worldObjectCondition.isWorldObjectValid(w) && isVisible(w));
+	}
+	
+	@Override
+	public List<WorldObject> findNearestWorldObjectsByProperty(int x, int y, int maxCount, ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition) {
+		return world.findNearestWorldObjectsByProperty(x, y, maxCount, managedProperty, w -> worldObjectCondition.isWorldObjectValid(w) && isVisible(w));
+	}
+	
+	@Override
+	public List<WorldObject> findNearestSellers(int x, int y, int maxCount, ManagedProperty<?> sellableProperty, WorldObjectCondition worldObjectCondition) {
+		return world.findNearestSellers(x, y, maxCount, sellableProperty, w -> worldObjectCondition.isWorldObjectValid(w) && isVisible(w));
+	}
+	
+	@Override
+	public List<WorldObject> findNearestSellers(int x, int y, int maxCount, Item item, WorldObjectCondition worldObjectCondition) {
+		return world.findNearestSellers(x, y, maxCount, item, w -> worldObjectCondition.isWorldObjectValid(w) && isVisible(w));
+	}
+	
+	@Override
+	public List<WorldObject> findSellers(Item item, WorldObjectCondition worldObjectCondition) {
+		List<WorldObject> worldObjects = world.findSellers(item, worldObjectCondition);
+		filter(worldObjects);
+		return worldObjects;
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsWithinDistance(int x, int y, int distance, WorldObjectCondition worldObjectCondition) {
+		return world.findWorldObjectsWithinDistance(x, y, distance, w -> worldObjectCondition.isWorldObjectValid(w) && isVisible(w));
+	}
+	
+	@Override
+	public boolean isOpenSpace(int x, int y, int width, int height) {
+		return world.isOpenSpace(x, y, width, height);
+	}
+	
+	@Override
+	public boolean isOpenNonWaterSpace(int x, int y, int width, int height) {
+		return world.isOpenNonWaterSpace(x, y, width, height);
+	}
+	
+	@Override
+	public Position findNearestOpenNonWaterSpace(int x, int y, int width, int height) {
+		return world.findNearestOpenNonWaterSpace(x, y, width, height);
+	}
 
 	@Override
 	public WorldObject findWorldObjectById(int id) {
@@ -254,6 +320,23 @@ public class WorldFacade implements World {
 	public void nextTurn() {
 		throw new IllegalStateException("WorldFacade is read-only, cannot goto next turn");
 	}
+	
+	@Override
+	public long getEpoch() {
+		return world.getEpoch();
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsChangedThisTurn() {
+		List<WorldObject> worldObjects = world.findWorldObjectsChangedThisTurn();
+		filter(worldObjects);
+		return worldObjects;
+	}
+	
+	@Override
+	public BitSet getPropertiesChangedThisTurn(WorldObject worldObject) {
+		return world.getPropertiesChangedThisTurn(worldObject);
+	}
 
 	@Override
 	public WorldOnTurn getWorldOnTurn() {
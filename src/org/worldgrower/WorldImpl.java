@@ -14,30 +14,29 @@
  *******************************************************************************/
 package org.worldgrower;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InvalidClassException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.worldgrower.attribute.IdContainerUtils;
+import org.worldgrower.attribute.IdList;
 import org.worldgrower.attribute.IntProperty;
 import org.worldgrower.attribute.ManagedProperty;
 import org.worldgrower.condition.WorldStateChangedListener;
 import org.worldgrower.condition.WorldStateChangedListeners;
 import org.worldgrower.creaturetype.CreatureType;
 import org.worldgrower.generator.CommonerGenerator;
+import org.worldgrower.generator.Item;
 import org.worldgrower.goal.Goal;
-import org.worldgrower.gui.ImageIds;
+import org.worldgrower.goal.Position;
 import org.worldgrower.history.History;
 import org.worldgrower.history.HistoryImpl;
 import org.worldgrower.history.Turn;
@@ -48,13 +47,16 @@ import org.worldgrower.terrain.TerrainMapper;
 public class WorldImpl implements World, Serializable {
 
 	private final List<WorldObject> worldObjects = new ArrayList<>();
+	private int removedWorldObjectCount = 0;
+	// the WorldObjects without empty slots, only used while there are empty slots
+	private transient List<WorldObject> existingWorldObjects = null;
 	private final IdToIndexMapping idToIndexMapping = new IdToIndexMapping();
 	private final PropertyCache propertyCache = new PropertyCache();
 	private int nextId;
 	private transient List<ManagedOperationListener> listeners = new ArrayList<>();
 	private final Terrain terrain;
 	private final DungeonMaster dungeonMaster;
-	private final History history = new HistoryImpl();
+	private final History history;
 	private Turn currentTurn = new Turn();
 	private final WorldOnTurn worldOnTurn;
 	private transient WorldStateChangedListeners worldStateChangedListeners = new WorldStateChangedListeners();
@@ -69,55 +71,219 @@ public class WorldImpl implements World, Serializable {
 	}
 	
 	public WorldImpl(Terrain terrain, DungeonMaster dungeonMaster, WorldOnTurn worldOnTurn) {
+		this(terrain, dungeonMaster, worldOnTurn, new HistoryImpl());
+	}
+	
+	private WorldImpl(Terrain terrain, DungeonMaster dungeonMaster, WorldOnTurn worldOnTurn, History history) {
 		this.terrain = terrain;
+		this.history = history;
 		this.dungeonMaster = dungeonMaster;
 		this.worldOnTurn = worldOnTurn;
-		this.locationWorldObjectsCache = new LocationWorldObjectsCache(terrain.getWidth(), terrain.getHeight());
+		this.locationWorldObjectsCache = new LocationWorldObjectsCache(terrain);
 	}
 
 	@Override
 	public void addWorldObject(WorldObject worldObject) {
+		PropertyAccessRecorder.worldObjectsChanged();
 		worldObjects.add(worldObject);
+		existingWorldObjects = null;
 		idToIndexMapping.idAdded(worldObjects);
 		propertyCache.idAdded(worldObject);
+		setPropertyChangedListener(worldObject, propertyCache);
 		locationWorldObjectsCache.add(worldObject);
 		jailCache.add(worldObject);
 	}
 	
 	@Override
 	public void removeWorldObject(WorldObject worldObjectToRemove) {
-		worldObjects.remove(worldObjectToRemove);
-		idToIndexMapping.idRemoved(worldObjects);
-		
-		IdContainerUtils.removeIdContainers(worldObjectToRemove, this);
+		PropertyAccessRecorder.worldObjectsChanged();
+		int id = worldObjectToRemove.getProperty(Constants.ID);
+		if (idToIndexMapping.idExists(id)) {
+			worldObjects.set(idToIndexMapping.getIndex(id), null);
+			idToIndexMapping.idRemoved(id);
+			removedWorldObjectCount++;
+			existingWorldObjects = null;
+		}
 		
 		propertyCache.idRemoved(worldObjectToRemove);
+		setPropertyChangedListener(worldObjectToRemove, null);
+		
+		IdContainerUtils.removeIdContainers(id, propertyCache.removeWorldObjectsReferringTo(id, worldObjects, idToIndexMapping));
 		
-		removedIds.add(worldObjectToRemove.getProperty(Constants.ID));
+		removedIds.add(id);
 		locationWorldObjectsCache.remove(worldObjectToRemove);
 		jailCache.remove(worldObjectToRemove);
 	}
+	
+	/**
+	 * Removing a WorldObject leaves an empty slot in the list of WorldObjects.
+	 * The empty slots are removed once at the end of the turn, and before the world is saved.
+	 */
+	private void compactWorldObjects() {
+		if (removedWorldObjectCount > 0) {
+			int newIndex = 0;
+			for(int index = 0; index < worldObjects.size(); index++) {
+				WorldObject worldObject = worldObjects.get(index);
+				if (worldObject != null) {
+					if (newIndex != index) {
+						worldObjects.set(newIndex, worldObject);
+						idToIndexMapping.indexChanged(worldObject.getProperty(Constants.ID), newIndex);
+					}
+					newIndex++;
+				}
+			}
+			worldObjects.subList(newIndex, worldObjects.size()).clear();
+			removedWorldObjectCount = 0;
+			existingWorldObjects = null;
+		}
+	}
+	
+	private static void setPropertyChangedListener(WorldObject worldObject, PropertyChangedListener propertyChangedListener) {
+		if (worldObject instanceof WorldObjectImpl) {
+			((WorldObjectImpl) worldObject).setPropertyChangedListener(propertyChangedListener);
+		}
+	}
 
 	@Override
 	public List<WorldObject> getWorldObjects() {
-		return Collections.unmodifiableList(worldObjects);
+		PropertyAccessRecorder.worldObjectsSearched();
+		if (removedWorldObjectCount > 0) {
+			List<WorldObject> result = existingWorldObjects;
+			if (result == null) {
+				result = Collections.unmodifiableList(worldObjects.stream().filter(w -> w != null).collect(Collectors.toList()));
+				existingWorldObjects = result;
+			}
+			return result;
+		} else {
+			return Collections.unmodifiableList(worldObjects);
+		}
 	}
 
 	@Override
 	public List<WorldObject> findWorldObjects(WorldObjectCondition worldObjectCondition) {
+		PropertyAccessRecorder.worldObjectsSearched();
 		return worldObjects
 			.stream()
-			.filter(w -> worldObjectCondition.isWorldObjectValid(w))
+			.filter(w -> w != null && worldObjectCondition.isWorldObjectValid(w))
 			.collect(Collectors.toList());
 	}
 	
 	@Override
 	public List<WorldObject> findWorldObjectsByProperty(ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition) {
-		return propertyCache.findWorldObjectsByProperty(managedProperty, worldObjectCondition, this);
+		PropertyAccessRecorder.worldObjectsSearched();
+		PropertyAccessRecorder.propertyRead(managedProperty, null);
+		return propertyCache.findWorldObjectsByProperty(managedProperty, worldObjectCondition, worldObjects, idToIndexMapping);
+	}
+	
+	@Override
+	public <T> List<WorldObject> findWorldObjectsByPropertyValue(ManagedProperty<T> managedProperty, T value, WorldObjectCondition worldObjectCondition) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		PropertyAccessRecorder.propertyRead(managedProperty, null);
+		return propertyCache.findWorldObjectsByPropertyValue(managedProperty, value, worldObjectCondition, worldObjects, idToIndexMapping);
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsContainingAnyId(ManagedProperty<IdList> managedProperty, IdList ids, WorldObjectCondition worldObjectCondition) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		PropertyAccessRecorder.propertyRead(managedProperty, null);
+		return propertyCache.findWorldObjectsContainingAnyId(managedProperty, ids, worldObjectCondition, worldObjects, idToIndexMapping);
+	}
+	
+	@Override
+	public List<WorldObject> findNearestWorldObjects(int x, int y, int maxCount, WorldObjectCondition worldObjectCondition) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		return locationWorldObjectsCache.findNearestWorldObjects(x, y, maxCount, worldObjectCondition, idToIndexMapping);
+	}
+	
+	@Override
+	public List<WorldObject> findNearestWorldObjectsByProperty(int x, int y, int maxCount, ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		PropertyAccessRecorder.propertyRead(managedProperty, null);
+		// when most WorldObjects have the property, searching the cells around the location is cheaper than sorting all of them
+		if (propertyCache.countWorldObjectsByProperty(managedProperty, worldObjects) * 2 > worldObjects.size()) {
+			return locationWorldObjectsCache.findNearestWorldObjects(x, y, maxCount, w -> w.hasProperty(managedProperty) && worldObjectCondition.isWorldObjectValid(w), idToIndexMapping);
+		} else {
+			List<WorldObject> worldObjectsWithProperty = propertyCache.findWorldObjectsByProperty(managedProperty, w -> w.hasProperty(Constants.X), worldObjects, idToIndexMapping);
+			return findNearestWorldObjects(x, y, maxCount, worldObjectsWithProperty, worldObjectCondition);
+		}
+	}
+	
+	@Override
+	public List<WorldObject> findNearestSellers(int x, int y, int maxCount, ManagedProperty<?> sellableProperty, WorldObjectCondition worldObjectCondition) {
+		return findNearestWorldObjectsSelling(x, y, maxCount, sellableProperty, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findNearestSellers(int x, int y, int maxCount, Item item, WorldObjectCondition worldObjectCondition) {
+		return findNearestWorldObjectsSelling(x, y, maxCount, item, worldObjectCondition);
+	}
+	
+	private List<WorldObject> findNearestWorldObjectsSelling(int x, int y, int maxCount, Object sellableKey, WorldObjectCondition worldObjectCondition) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		PropertyAccessRecorder.propertyRead(Constants.INVENTORY, null);
+		List<WorldObject> sellers = propertyCache.findWorldObjectsSelling(Constants.INVENTORY, sellableKey, w -> w.hasProperty(Constants.X), worldObjects, idToIndexMapping);
+		return findNearestWorldObjects(x, y, maxCount, sellers, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findSellers(Item item, WorldObjectCondition worldObjectCondition) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		PropertyAccessRecorder.propertyRead(Constants.INVENTORY, null);
+		return propertyCache.findWorldObjectsSelling(Constants.INVENTORY, item, worldObjectCondition, worldObjects, idToIndexMapping);
+	}
+	
+	/**
+	 * Sorts the given WorldObjects by distance and only checks the condition until maxCount WorldObjects are found.
+	 * There are usually far fewer WorldObjects with a property than WorldObjects in the cells around a location,
+	 * and the condition costs much more than calculating a distance.
+	 * WorldObjects at the same distance keep the order of the given list.
+	 */
+	private static List<WorldObject> findNearestWorldObjects(int x, int y, int maxCount, List<WorldObject> worldObjects, WorldObjectCondition worldObjectCondition) {
+		long[] distancesAndPositions = new long[worldObjects.size()];
+		for(int i=0; i<worldObjects.size(); i++) {
+			WorldObject worldObject = worldObjects.get(i);
+			long distance = Reach.distance(x, y, worldObject.getProperty(Constants.X), worldObject.getProperty(Constants.Y));
+			distancesAndPositions[i] = (distance << 32) | i;
+		}
+		Arrays.sort(distancesAndPositions);
+		
+		List<WorldObject> result = new ArrayList<>();
+		for(int i=0; i<distancesAndPositions.length && result.size() < maxCount; i++) {
+			WorldObject worldObject = worldObjects.get((int) distancesAndPositions[i]);
+			if (worldObjectCondition.isWorldObjectValid(worldObject)) {
+				result.add(worldObject);
+			}
+		}
+		return result;
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsWithinDistance(int x, int y, int distance, WorldObjectCondition worldObjectCondition) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		return locationWorldObjectsCache.findWorldObjectsWithinDistance(x, y, distance, worldObjectCondition, idToIndexMapping);
+	}
+	
+	@Override
+	public boolean isOpenSpace(int x, int y, int width, int height) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		return locationWorldObjectsCache.isOpenSpace(x, y, width, height);
+	}
+	
+	@Override
+	public boolean isOpenNonWaterSpace(int x, int y, int width, int height) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		return locationWorldObjectsCache.isOpenNonWaterSpace(x, y, width, height);
+	}
+	
+	@Override
+	public Position findNearestOpenNonWaterSpace(int x, int y, int width, int height) {
+		PropertyAccessRecorder.worldObjectsSearched();
+		return locationWorldObjectsCache.findNearestOpenNonWaterSpace(x, y, width, height);
 	}
 	
 	@Override
 	public WorldObject findWorldObjectById(int id) {
+		PropertyAccessRecorder.worldObjectsSearched();
 		try {
 			int index = idToIndexMapping.getIndex(id);
 			return worldObjects.get(index);
@@ -128,11 +294,13 @@ public class WorldImpl implements World, Serializable {
 	
 	@Override
 	public boolean exists(WorldObject worldObject) {
+		PropertyAccessRecorder.worldObjectsSearched();
 		return idToIndexMapping.idExists(worldObject.getProperty(Constants.ID));
 	}
 	
 	@Override
 	public boolean exists(int id) {
+		PropertyAccessRecorder.worldObjectsSearched();
 		return idToIndexMapping.idExists(id);
 	}
 	
@@ -194,54 +362,62 @@ public class WorldImpl implements World, Serializable {
 
 	@Override
 	public History getHistory() {
+		PropertyAccessRecorder.historySearched();
 		return history;
 	}
 	
 	@Override
 	public void save(File fileToSave) {
-		try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(fileToSave)))) {
-
-			objectOutputStream.writeObject ( Version.getVersion() );
-			saveGameStatistics(objectOutputStream);
-	    	objectOutputStream.writeObject ( this );
-	    	
-		} catch(IOException ex) {
-			throw new IllegalStateException("Problem saving file " + fileToSave, ex);
-		}
+		save(fileToSave, true);
+	}
+	
+	public void save(File fileToSave, boolean compressed) {
+		compactWorldObjects();
+		SaveGameFormat.save(this, fileToSave, compressed);
 	}
 	
 	public static World load(File fileToLoad) {
-		try (ObjectInputStream objectInputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(fileToLoad)))) {
-			String versionFromFile = (String) objectInputStream.readObject();
-			
-			if (!versionFromFile.equals( Version.getVersion() )) {
-				throw new IllegalStateException("Version in file " + fileToLoad + " doesn't match: " + versionFromFile + " isn't equal to " + Version.getVersion());
-			}
-			loadGameStatistics(objectInputStream);
-			
-			WorldImpl world = (WorldImpl) objectInputStream.readObject();
-			world.listeners = new ArrayList<>();
-			world.worldStateChangedListeners = new WorldStateChangedListeners();
-			world.removedIds = new ArrayList<>();
-			return world;
-			
-		} catch(IOException | ClassNotFoundException ex) {
-			throw new IllegalStateException("Problem loading file " + fileToLoad, ex);
+		return SaveGameFormat.load(fileToLoad);
+	}
+	
+	int getNextId() {
+		return nextId;
+	}
+	
+	DungeonMaster getDungeonMaster() {
+		return dungeonMaster;
+	}
+	
+	static void writeWorldState(ObjectOutputStream objectOutputStream, int nextId, Turn currentTurn, DungeonMaster dungeonMaster, WorldOnTurn worldOnTurn) throws IOException {
+		objectOutputStream.writeInt(nextId);
+		objectOutputStream.writeInt(currentTurn.getValue());
+		objectOutputStream.writeObject(dungeonMaster);
+		objectOutputStream.writeObject(worldOnTurn);
+	}
+	
+	static WorldImpl readWorldState(ObjectInputStream objectInputStream, Terrain terrain, History history, List<WorldObject> worldObjects) throws IOException, ClassNotFoundException {
+		int nextId = objectInputStream.readInt();
+		Turn currentTurn = Turn.valueOf(objectInputStream.readInt());
+		DungeonMaster dungeonMaster = (DungeonMaster) objectInputStream.readObject();
+		WorldOnTurn worldOnTurn = (WorldOnTurn) objectInputStream.readObject();
+		
+		WorldImpl world = new WorldImpl(terrain, dungeonMaster, worldOnTurn, history);
+		world.nextId = nextId;
+		world.currentTurn = currentTurn;
+		for(WorldObject worldObject : worldObjects) {
+			world.addWorldObject(worldObject);
 		}
+		return world;
 	}
 	
-	private void saveGameStatistics(ObjectOutputStream objectOutputStream) throws IOException {
+	SaveGameStatistics createSaveGameStatistics() {
 		WorldObject playerCharacter = getPlayerCharacter();
-		
-		objectOutputStream.writeObject(playerCharacter.getProperty(Constants.NAME));
-		objectOutputStream.writeInt(playerCharacter.getProperty(Constants.LEVEL));
-		objectOutputStream.writeInt(currentTurn.getValue());
-		objectOutputStream.writeObject(playerCharacter.getProperty(Constants.IMAGE_ID));
+		return new SaveGameStatistics(playerCharacter.getProperty(Constants.NAME), playerCharacter.getProperty(Constants.LEVEL), currentTurn.getValue(), playerCharacter.getProperty(Constants.IMAGE_ID));
 	}
 	
 	private WorldObject getPlayerCharacter() {
 		for(WorldObject worldObject : worldObjects) {
-			if (worldObject.hasIntelligence() && !worldObject.isControlledByAI()) {
+			if (worldObject != null && worldObject.hasIntelligence() && !worldObject.isControlledByAI()) {
 				return worldObject;
 			}
 		}
@@ -249,25 +425,7 @@ public class WorldImpl implements World, Serializable {
 	}
 
 	public static SaveGameStatistics getSaveGameStatistics(File fileToLoad) throws IncompatibleVersionException {
-		try (ObjectInputStream objectInputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(fileToLoad)))) {
-			String versionFromFile = (String) objectInputStream.readObject();
-			return loadGameStatistics(objectInputStream);
-		} catch(InvalidClassException ex) {
-			throw new IncompatibleVersionException(ex);
-		} catch(IOException | ClassNotFoundException ex) {
-			throw new IllegalStateException("Problem loading file " + fileToLoad, ex);
-		}
-	}
-
-	private static SaveGameStatistics loadGameStatistics(ObjectInputStream objectInputStream)
-			throws IOException, ClassNotFoundException {
-
-		String playerCharacterName = (String) objectInputStream.readObject();
-		int playerCharacterLevel = objectInputStream.readInt();
-		int turn = objectInputStream.readInt();
-		ImageIds playerCharacterImageId = (ImageIds) objectInputStream.readObject();
-		
-		return new SaveGameStatistics(playerCharacterName, playerCharacterLevel, turn, playerCharacterImageId);
+		return SaveGameFormat.getSaveGameStatistics(fileToLoad);
 	}
 	
 	@Override
@@ -279,6 +437,45 @@ public class WorldImpl implements World, Serializable {
 	public void nextTurn() {
 		worldOnTurn.onTurn(this);
 		currentTurn = currentTurn.next();
+		compactWorldObjects();
+		propertyCache.turnEnded(worldObjects, idToIndexMapping);
+	}
+	
+	@Override
+	public long getEpoch() {
+		return propertyCache.getEpoch();
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsChangedThisTurn() {
+		return propertyCache.findWorldObjectsChangedThisTurn(worldObjects, idToIndexMapping);
+	}
+	
+	@Override
+	public BitSet getPropertiesChangedThisTurn(WorldObject worldObject) {
+		return PropertyCache.getPropertiesChangedThisTurn(worldObject);
+	}
+	
+	/**
+	 * Returns the ids of the WorldObjects that may have been added, removed or changed since the last checkpoint.
+	 * Ids of removed WorldObjects no longer exist in this world.
+	 */
+	BitSet getIdsChangedSinceCheckpoint() {
+		return propertyCache.getIdsChangedSinceCheckpoint();
+	}
+	
+	/**
+	 * Returns the WorldObjects that may have been added or changed since the last checkpoint, in the order of this world.
+	 */
+	List<WorldObject> findWorldObjectsChangedSinceCheckpoint() {
+		return propertyCache.findWorldObjectsChangedSinceCheckpoint(worldObjects, idToIndexMapping);
+	}
+	
+	/**
+	 * Starts keeping track of the changes since now, this is called when the complete world is saved.
+	 */
+	void checkpoint() {
+		propertyCache.checkpoint();
 	}
 
 	@Override
@@ -298,11 +495,13 @@ public class WorldImpl implements World, Serializable {
 
 	@Override
 	public WorldObjectsCache getWorldObjectsCache(IntProperty intProperty1, IntProperty intProperty2) {
+		PropertyAccessRecorder.worldObjectsSearched();
 		return locationWorldObjectsCache;
 	}
 	
 	@Override
 	public WorldObjectsCache getWorldObjectsCache() {
+		PropertyAccessRecorder.worldObjectsSearched();
 		return jailCache;
 	}
 	
@@ -311,7 +510,7 @@ public class WorldImpl implements World, Serializable {
 		List<WorldObject> worldObjectsToIterate = new ArrayList<WorldObject>(worldObjects);
 		
 		for(WorldObject worldObject : worldObjectsToIterate) {
-			Integer hitPoints = worldObject.getProperty(Constants.HIT_POINTS);
+			Integer hitPoints = worldObject != null ? worldObject.getProperty(Constants.HIT_POINTS) : null;
 			if (hitPoints != null && hitPoints.intValue() == 0) {
 				if (worldObject.hasIntelligence() && worldObject.getProperty(Constants.CREATURE_TYPE) == CreatureType.HUMAN_CREATURE_TYPE) {
 					CommonerGenerator.generateSkeletalRemains(worldObject, this);
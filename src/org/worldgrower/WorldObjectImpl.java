@@ -22,8 +22,10 @@ import java.util.Map.Entry;
 
 import org.worldgrower.actions.Actions;
 import org.worldgrower.actions.magic.MagicSpell;
+import org.worldgrower.attribute.IdList;
 import org.worldgrower.attribute.IntProperty;
 import org.worldgrower.attribute.ManagedProperty;
+import org.worldgrower.attribute.WorldObjectContainer;
 import org.worldgrower.attribute.WorldObjectProperties;
 import org.worldgrower.condition.Conditions;
 import org.worldgrower.condition.WorldStateChangedListeners;
@@ -37,12 +39,14 @@ public class WorldObjectImpl implements WorldObject, Serializable {
 	private final List<ManagedOperation> operations;
 	private final OnTurn onTurn;
 	private final WorldObjectPriorities worldObjectPriorities;
+	private transient PropertyChangedListener propertyChangedListener;
+	private transient List<PropertyChangedListener> containerListeners;
 
 	public WorldObjectImpl(Map<ManagedProperty<?>, Object> properties, List<ManagedOperation> operations, OnTurn onTurn, WorldObjectPriorities worldObjectPriorities) {
 		this(new WorldObjectProperties(properties), operations, onTurn, worldObjectPriorities, true);
 	}
 	
-	private WorldObjectImpl(WorldObjectProperties properties, List<ManagedOperation> operations, OnTurn onTurn, WorldObjectPriorities worldObjectPriorities, boolean checkProperties) {
+	WorldObjectImpl(WorldObjectProperties properties, List<ManagedOperation> operations, OnTurn onTurn, WorldObjectPriorities worldObjectPriorities, boolean checkProperties) {
 		this.properties = properties;
 		this.operations = operations; 
 		this.onTurn = onTurn;
@@ -97,17 +101,120 @@ public class WorldObjectImpl implements WorldObject, Serializable {
 	@Override
 	public<T> void setProperty(ManagedProperty<T> propertyKey, T value) {
 		propertyKey.checkValue(value);
-		properties.put(propertyKey, value);
+		setPropertyUnchecked(propertyKey, value);
 	}
 	
 	@Override
 	public<T> void setPropertyUnchecked(ManagedProperty<T> propertyKey, T value) {
-		properties.put(propertyKey, value);
+		if (value instanceof IdList && propertyChangedListener != null) {
+			listenToIdList(propertyKey, (IdList) value);
+		}
+		if (value instanceof WorldObjectContainer && propertyChangedListener != null) {
+			listenToWorldObjectContainer(propertyKey, (WorldObjectContainer) value);
+		}
+		if (hasListenerFor(propertyKey)) {
+			T oldValue = properties.get(propertyKey);
+			properties.put(propertyKey, value);
+			notifyListeners(propertyKey, oldValue);
+		} else {
+			properties.put(propertyKey, value);
+		}
+		propertyWritten(propertyKey);
 	}
 	
 	@Override
 	public<T> void removeProperty(ManagedProperty<T> propertyKey) {
-		properties.remove(propertyKey);
+		if (hasListenerFor(propertyKey)) {
+			T oldValue = properties.get(propertyKey);
+			properties.remove(propertyKey);
+			notifyListeners(propertyKey, oldValue);
+		} else {
+			properties.remove(propertyKey);
+		}
+		propertyWritten(propertyKey);
+	}
+	
+	private void propertyWritten(ManagedProperty<?> propertyKey) {
+		if (propertyChangedListener != null && properties.markChanged(propertyKey)) {
+			propertyChangedListener.worldObjectChanged(this);
+		}
+		if (worldObjectPriorities != null) {
+			worldObjectPriorities.propertyChanged(this, propertyKey);
+		}
+	}
+	
+	private boolean hasListenerFor(ManagedProperty<?> propertyKey) {
+		return (propertyChangedListener != null && propertyChangedListener.isListeningTo(propertyKey)) || containerListeners != null;
+	}
+	
+	private void notifyListeners(ManagedProperty<?> propertyKey, Object oldValue) {
+		if (propertyChangedListener != null && propertyChangedListener.isListeningTo(propertyKey)) {
+			propertyChangedListener.propertyChanged(this, propertyKey, oldValue);
+		}
+		if (containerListeners != null) {
+			for(PropertyChangedListener containerListener : containerListeners) {
+				if (containerListener.isListeningTo(propertyKey)) {
+					containerListener.propertyChanged(this, propertyKey, oldValue);
+				}
+			}
+		}
+	}
+	
+	void setPropertyChangedListener(PropertyChangedListener propertyChangedListener) {
+		this.propertyChangedListener = propertyChangedListener;
+		properties.clearChangedProperties();
+		if (propertyChangedListener != null) {
+			properties.forEachIdList(this::listenToIdList);
+			properties.forEachWorldObjectContainer(this::listenToWorldObjectContainer);
+		}
+	}
+	
+	/**
+	 * Returns the number of times a property of this WorldObject was set, removed or changed in place.
+	 */
+	public int getModificationCount() {
+		return properties.getModificationCount();
+	}
+	
+	// IdLists are changed without calling setProperty, so they report their changes as the property being set to the same IdList
+	private void listenToIdList(ManagedProperty<?> propertyKey, IdList idList) {
+		idList.setChangedListener(changedIdList -> {
+			properties.modified();
+			if (hasListenerFor(propertyKey)) {
+				notifyListeners(propertyKey, changedIdList);
+			}
+			propertyWritten(propertyKey);
+		});
+	}
+	
+	// changes to the sellable WorldObjects of a WorldObjectContainer are reported in the same way as changes to an IdList
+	private void listenToWorldObjectContainer(ManagedProperty<?> propertyKey, WorldObjectContainer worldObjectContainer) {
+		worldObjectContainer.setChangedListener(changedWorldObjectContainer -> {
+			properties.modified();
+			if (hasListenerFor(propertyKey)) {
+				notifyListeners(propertyKey, changedWorldObjectContainer);
+			}
+			propertyWritten(propertyKey);
+		});
+	}
+	
+	/**
+	 * Adds a listener for a WorldObjectContainer holding this WorldObject, it is added once for every time this WorldObject is added.
+	 */
+	public void addContainerListener(PropertyChangedListener containerListener) {
+		if (containerListeners == null) {
+			containerListeners = new ArrayList<>(1);
+		}
+		containerListeners.add(containerListener);
+	}
+	
+	public void removeContainerListener(PropertyChangedListener containerListener) {
+		if (containerListeners != null) {
+			containerListeners.remove(containerListener);
+			if (containerListeners.isEmpty()) {
+				containerListeners = null;
+			}
+		}
 	}
 	
 	@Override
@@ -233,4 +340,12 @@ public class WorldObjectImpl implements WorldObject, Serializable {
 	public OnTurn getOnTurn() {
 		return onTurn;
 	}
+	
+	WorldObjectProperties getWorldObjectProperties() {
+		return properties;
+	}
+	
+	WorldObjectPriorities getWorldObjectPriorities() {
+		return worldObjectPriorities;
+	}
 }
@@ -17,6 +17,7 @@ package org.worldgrower;
 import java.io.Serializable;
 import java.util.List;
 
+import org.worldgrower.attribute.ManagedProperty;
 import org.worldgrower.goal.Goal;
 
 /**
@@ -25,4 +26,11 @@ import org.worldgrower.goal.Goal;
 public interface WorldObjectPriorities extends Serializable {
 
 	public List<Goal> getPriorities(WorldObject performer, World world);
+	
+	/**
+	 * Called when a property of the performer is set or removed, so that cached priorities can be invalidated.
+	 * IdList properties which change in place are only reported while the performer is part of a World.
+	 */
+	public default void propertyChanged(WorldObject performer, ManagedProperty<?> managedProperty) {
+	}
 }
\ No newline at end of file
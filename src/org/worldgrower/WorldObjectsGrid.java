@@ -0,0 +1,215 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The WorldObjectsGrid divides the world in square cells and keeps track of which WorldObjects have their location in each cell.
+ * This allows searching for the WorldObjects nearest to a location by only looking at the cells around that location.
+ * WorldObjects with a location outside the world, for example offscreen WorldObjects, are kept in a separate list.
+ */
+class WorldObjectsGrid implements Serializable {
+
+	static final int CELL_SIZE = 8;
+	
+	private final int cellsX;
+	private final int cellsY;
+	private final List<List<WorldObject>> cells;
+	private final List<WorldObject> offGridWorldObjects = new ArrayList<>();
+	
+	public WorldObjectsGrid(int width, int height) {
+		this.cellsX = (width + CELL_SIZE - 1) / CELL_SIZE;
+		this.cellsY = (height + CELL_SIZE - 1) / CELL_SIZE;
+		this.cells = new ArrayList<>(cellsX * cellsY);
+		for(int i=0; i<cellsX * cellsY; i++) {
+			cells.add(new ArrayList<>());
+		}
+	}
+	
+	public void add(WorldObject worldObject, int x, int y) {
+		getWorldObjects(x, y).add(worldObject);
+	}
+	
+	public void remove(WorldObject worldObject, int x, int y) {
+		getWorldObjects(x, y).remove(worldObject);
+	}
+
+	private List<WorldObject> getWorldObjects(int x, int y) {
+		if (x >= 0 && y >= 0 && x / CELL_SIZE < cellsX && y / CELL_SIZE < cellsY) {
+			return cells.get(cellIndex(x / CELL_SIZE, y / CELL_SIZE));
+		} else {
+			return offGridWorldObjects;
+		}
+	}
+	
+	private int cellIndex(int cellX, int cellY) {
+		return cellY * cellsX + cellX;
+	}
+	
+	/**
+	 * Returns at most maxCount WorldObjects which satisfy the given condition, sorted by their distance to the given location.
+	 * WorldObjects at the same distance are sorted by their index in the list of WorldObjects.
+	 * The cells are searched in rings around the location and the search stops as soon as maxCount WorldObjects are found
+	 * which are nearer than anything in the unsearched cells.
+	 */
+	public List<WorldObject> findNearestWorldObjects(int x, int y, int maxCount, WorldObjectCondition worldObjectCondition, IdToIndexMapping idToIndexMapping) {
+		List<WorldObject> result = new ArrayList<>();
+		List<Candidate> candidates = new ArrayList<>();
+		if (maxCount <= 0) {
+			return result;
+		}
+		
+		for(WorldObject worldObject : offGridWorldObjects) {
+			addCandidate(worldObject, x, y, worldObjectCondition, idToIndexMapping, candidates);
+		}
+		
+		int centerX = Math.floorDiv(x, CELL_SIZE);
+		int centerY = Math.floorDiv(y, CELL_SIZE);
+		int firstRing = Math.max(ringsOutsideGrid(centerX, cellsX), ringsOutsideGrid(centerY, cellsY));
+		for(int ring = firstRing; ; ring++) {
+			int minCellX = centerX - ring;
+			int maxCellX = centerX + ring;
+			int minCellY = centerY - ring;
+			int maxCellY = centerY + ring;
+			
+			for(int cellX = Math.max(minCellX, 0); cellX <= Math.min(maxCellX, cellsX - 1); cellX++) {
+				addCandidates(cellX, minCellY, x, y, worldObjectCondition, idToIndexMapping, candidates);
+				if (ring > 0) {
+					addCandidates(cellX, maxCellY, x, y, worldObjectCondition, idToIndexMapping, candidates);
+				}
+			}
+			for(int cellY = Math.max(minCellY + 1, 0); cellY <= Math.min(maxCellY - 1, cellsY - 1); cellY++) {
+				addCandidates(minCellX, cellY, x, y, worldObjectCondition, idToIndexMapping, candidates);
+				if (ring > 0) {
+					addCandidates(maxCellX, cellY, x, y, worldObjectCondition, idToIndexMapping, candidates);
+				}
+			}
+			
+			// every WorldObject outside the searched cells is at least this far away
+			int unsearchedDistance = Integer.MAX_VALUE;
+			if (minCellX > 0) {
+				unsearchedDistance = Math.min(unsearchedDistance, x - minCellX * CELL_SIZE + 1);
+			}
+			if (maxCellX < cellsX - 1) {
+				unsearchedDistance = Math.min(unsearchedDistance, (maxCellX + 1) * CELL_SIZE - x);
+			}
+			if (minCellY > 0) {
+				unsearchedDistance = Math.min(unsearchedDistance, y - minCellY * CELL_SIZE + 1);
+			}
+			if (maxCellY < cellsY - 1) {
+				unsearchedDistance = Math.min(unsearchedDistance, (maxCellY + 1) * CELL_SIZE - y);
+			}
+			
+			Collections.sort(candidates);
+			int foundCount = 0;
+			while (foundCount < candidates.size() && result.size() < maxCount && candidates.get(foundCount).distance < unsearchedDistance) {
+				result.add(candidates.get(foundCount).worldObject);
+				foundCount++;
+			}
+			candidates.subList(0, foundCount).clear();
+			
+			if (result.size() == maxCount || unsearchedDistance == Integer.MAX_VALUE) {
+				return result;
+			}
+		}
+	}
+	
+	/**
+	 * Returns the WorldObjects which satisfy the given condition and are at most the given distance away from the given location,
+	 * in the order of the list of WorldObjects.
+	 */
+	public List<WorldObject> findWorldObjectsWithinDistance(int x, int y, int distance, WorldObjectCondition worldObjectCondition, IdToIndexMapping idToIndexMapping) {
+		List<Candidate> candidates = new ArrayList<>();
+		addCandidatesWithinDistance(offGridWorldObjects, x, y, distance, worldObjectCondition, idToIndexMapping, candidates);
+		
+		int minCellX = Math.max(Math.floorDiv(x - distance, CELL_SIZE), 0);
+		int maxCellX = Math.min(Math.floorDiv(x + distance, CELL_SIZE), cellsX - 1);
+		int minCellY = Math.max(Math.floorDiv(y - distance, CELL_SIZE), 0);
+		int maxCellY = Math.min(Math.floorDiv(y + distance, CELL_SIZE), cellsY - 1);
+		for(int cellY = minCellY; cellY <= maxCellY; cellY++) {
+			for(int cellX = minCellX; cellX <= maxCellX; cellX++) {
+				addCandidatesWithinDistance(cells.get(cellIndex(cellX, cellY)), x, y, distance, worldObjectCondition, idToIndexMapping, candidates);
+			}
+		}
+		
+		candidates.sort((candidate1, candidate2) -> Integer.compare(candidate1.index, candidate2.index));
+		List<WorldObject> result = new ArrayList<>(candidates.size());
+		for(Candidate candidate : candidates) {
+			result.add(candidate.worldObject);
+		}
+		return result;
+	}
+	
+	private static void addCandidatesWithinDistance(List<WorldObject> worldObjects, int x, int y, int distance, WorldObjectCondition worldObjectCondition, IdToIndexMapping idToIndexMapping, List<Candidate> candidates) {
+		for(WorldObject worldObject : worldObjects) {
+			int worldObjectDistance = Reach.distance(x, y, worldObject.getProperty(Constants.X), worldObject.getProperty(Constants.Y));
+			if (worldObjectDistance <= distance && worldObjectCondition.isWorldObjectValid(worldObject)) {
+				int index = idToIndexMapping.getIndex(worldObject.getProperty(Constants.ID));
+				candidates.add(new Candidate(worldObject, worldObjectDistance, index));
+			}
+		}
+	}
+	
+	private static int ringsOutsideGrid(int center, int cellCount) {
+		if (center < 0) {
+			return -center;
+		} else if (center >= cellCount) {
+			return center - cellCount + 1;
+		} else {
+			return 0;
+		}
+	}
+
+	private void addCandidates(int cellX, int cellY, int x, int y, WorldObjectCondition worldObjectCondition, IdToIndexMapping idToIndexMapping, List<Candidate> candidates) {
+		if (cellX >= 0 && cellY >= 0 && cellX < cellsX && cellY < cellsY) {
+			for(WorldObject worldObject : cells.get(cellIndex(cellX, cellY))) {
+				addCandidate(worldObject, x, y, worldObjectCondition, idToIndexMapping, candidates);
+			}
+		}
+	}
+	
+	private static void addCandidate(WorldObject worldObject, int x, int y, WorldObjectCondition worldObjectCondition, IdToIndexMapping idToIndexMapping, List<Candidate> candidates) {
+		if (worldObjectCondition.isWorldObjectValid(worldObject)) {
+			int distance = Reach.distance(x, y, worldObject.getProperty(Constants.X), worldObject.getProperty(Constants.Y));
+			int index = idToIndexMapping.getIndex(worldObject.getProperty(Constants.ID));
+			candidates.add(new Candidate(worldObject, distance, index));
+		}
+	}
+	
+	private static class Candidate implements Comparable<Candidate> {
+		private final WorldObject worldObject;
+		private final int distance;
+		private final int index;
+		
+		public Candidate(WorldObject worldObject, int distance, int index) {
+			this.worldObject = worldObject;
+			this.distance = distance;
+			this.index = index;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			if (distance != other.distance) {
+				return Integer.compare(distance, other.distance);
+			} else {
+				return Integer.compare(index, other.index);
+			}
+		}
+	}
+}
@@ -35,6 +35,7 @@ public abstract class AbstractIdMap implements IdMap {
 	}
 
 	private final Map<Integer, Integer> idsToValue = new HashMap<>();
+	private transient IdReferenceListener idReferenceListener;
 	
 	@Override
 	public final void incrementValue(int id, int value) {
@@ -44,7 +45,9 @@ public abstract class AbstractIdMap implements IdMap {
 		if (normalize) {
 			newValue = Constants.RELATIONSHIP_VALUE.normalize(newValue);
 		}
-		idsToValue.put(id, newValue);
+		if (idsToValue.put(id, newValue) == null && idReferenceListener != null) {
+			idReferenceListener.idReferenced(id);
+		}
 	}
 	
 	@Override
@@ -169,6 +172,14 @@ public abstract class AbstractIdMap implements IdMap {
 		idsToValue.remove(worldObject.getProperty(Constants.ID));
 	}
 	
+	@Override
+	public final void listenToIds(IdReferenceListener idReferenceListener) {
+		this.idReferenceListener = idReferenceListener;
+		for(int id : idsToValue.keySet()) {
+			idReferenceListener.idReferenced(id);
+		}
+	}
+	
 	protected final void copyContent(AbstractIdMap idMap) {
 		idMap.idsToValue.putAll(this.idsToValue);
 	}
@@ -178,4 +189,10 @@ public abstract class AbstractIdMap implements IdMap {
 		IdMapProperty idMapProperty = (IdMapProperty) property;
 		worldObject.getProperty(idMapProperty).remove(id);
 	}
-}
\ No newline at end of file
+
+	@Override
+	public final void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		IdMapProperty idMapProperty = (IdMapProperty) property;
+		worldObject.getProperty(idMapProperty).listenToIds(idReferenceListener);
+	}
+}
@@ -34,5 +34,7 @@ public interface Background extends IdContainer {
 	public WorldObject getRevengeTarget(World world);
 	public void checkForNewGoals(WorldObject performer, World world);
 	public void remove(int id);
+	public void listenToIds(IdReferenceListener idReferenceListener);
 	public Background copy();
+	public Background copyForSave();
 }
@@ -41,6 +41,7 @@ public class BackgroundImpl implements Background, Serializable {
 
 	private final Map<Integer, List<AngryReason>> angryReasons = new HashMap<>();
 	private final List<Integer> revengeTargets = new ArrayList<>();
+	private transient IdReferenceListener idReferenceListener;
 	
 	@Override
 	public ProfessionExplanation chooseProfession(WorldObject performer, World world) {
@@ -99,11 +100,11 @@ public class BackgroundImpl implements Background, Serializable {
 	}
 	
 	private void checkForNewRevengeTargets(WorldObject backgroundPerformer, World world) {
-		Collection<OperationInfo> importantOperationInfos = world.getHistory().getAllLastPerformedOperations();
+		Collection<OperationInfo> importantOperationInfos = world.getHistory().getLastPerformedOperationsOnTarget(backgroundPerformer);
 		for(OperationInfo operationInfo : importantOperationInfos) {
 			// performer should exist, this method can be called in the onTurn method
 			// during the onTurn method the performer may have been deleted
-			if (operationInfo.getTarget().equals(backgroundPerformer) && world.exists(backgroundPerformer) && world.exists(operationInfo.getPerformer())) {
+			if (world.exists(backgroundPerformer) && world.exists(operationInfo.getPerformer())) {
 				handlePerformerWasAttacked(backgroundPerformer, operationInfo);
 			}
 		}
@@ -124,7 +125,9 @@ public class BackgroundImpl implements Background, Serializable {
 	private void handlePerformerWasAttacked(WorldObject backgroundPerformer, OperationInfo operationInfo) {
 		PerformerWasAttacked performerWasAttacked = new PerformerWasAttacked(backgroundPerformer);
 		if (operationInfo.evaluate(performerWasAttacked) && !DefaultGoalObstructedHandler.isLegallyFighting(backgroundPerformer, operationInfo.getTarget(), operationInfo.getManagedOperation())) {
-			revengeTargets.add(operationInfo.getPerformer().getProperty(Constants.ID));
+			int revengeTargetId = operationInfo.getPerformer().getProperty(Constants.ID);
+			revengeTargets.add(revengeTargetId);
+			idReferenced(revengeTargetId);
 		}
 	}
 	
@@ -155,6 +158,7 @@ public class BackgroundImpl implements Background, Serializable {
 		if (angryReasonList == null) {
 			angryReasonList = new ArrayList<>();
 			angryReasons.put(performerId, angryReasonList);
+			idReferenced(performerId);
 		}
 		
 		String angryReason = managedOperation.getDescription(performer, actionTarget, args, world);
@@ -239,6 +243,29 @@ public class BackgroundImpl implements Background, Serializable {
 		revengeTargets.remove(key);
 	}
 
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		BackgroundProperty backgroundProperty = (BackgroundProperty) property;
+		worldObject.getProperty(backgroundProperty).listenToIds(idReferenceListener);
+	}
+	
+	@Override
+	public void listenToIds(IdReferenceListener idReferenceListener) {
+		this.idReferenceListener = idReferenceListener;
+		for(int id : angryReasons.keySet()) {
+			idReferenceListener.idReferenced(id);
+		}
+		for(int id : revengeTargets) {
+			idReferenceListener.idReferenced(id);
+		}
+	}
+	
+	private void idReferenced(int id) {
+		if (idReferenceListener != null) {
+			idReferenceListener.idReferenced(id);
+		}
+	}
+	
 	@Override
 	public Background copy() {
 		BackgroundImpl backgroundImpl = new BackgroundImpl();
@@ -247,6 +274,16 @@ public class BackgroundImpl implements Background, Serializable {
 		return backgroundImpl;
 	}
 	
+	@Override
+	public Background copyForSave() {
+		BackgroundImpl backgroundImpl = new BackgroundImpl();
+		for(Entry<Integer, List<AngryReason>> entry : angryReasons.entrySet()) {
+			backgroundImpl.angryReasons.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+		}
+		backgroundImpl.revengeTargets.addAll(revengeTargets);
+		return backgroundImpl;
+	}
+	
 	@Override
 	public String toStringAngryReasons() {
 		StringBuilder angryReasonsStringBuilder = new StringBuilder();
@@ -66,4 +66,10 @@ public class BackgroundProperty implements ManagedProperty<Background>, IdContai
 		worldObject.getProperty(idMapProperty).remove(id);
 		
 	}
+
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		BackgroundProperty backgroundProperty = (BackgroundProperty) property;
+		worldObject.getProperty(backgroundProperty).listenToIds(idReferenceListener);
+	}
 }
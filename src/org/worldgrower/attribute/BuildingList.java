@@ -26,9 +26,13 @@ import org.worldgrower.WorldObject;
 
 public class BuildingList implements Serializable, IdContainer {
 	private List<Building> buildings = new ArrayList<>();
+	private transient IdReferenceListener idReferenceListener;
 	
 	public BuildingList add(int id, BuildingType buildingType) {
 		buildings.add(new Building(id, buildingType));
+		if (idReferenceListener != null) {
+			idReferenceListener.idReferenced(id);
+		}
 		return this;
 	}
 	
@@ -98,6 +102,19 @@ public class BuildingList implements Serializable, IdContainer {
 		
 	}
 
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		BuildingsListProperty buildingProperty = (BuildingsListProperty) property;
+		worldObject.getProperty(buildingProperty).listenToIds(idReferenceListener);
+	}
+	
+	public void listenToIds(IdReferenceListener idReferenceListener) {
+		this.idReferenceListener = idReferenceListener;
+		for(Building building : buildings) {
+			idReferenceListener.idReferenced(building.getId());
+		}
+	}
+
 	public BuildingList copy() {
 		BuildingList buildingList = new BuildingList();
 		buildingList.buildings.addAll(buildings);
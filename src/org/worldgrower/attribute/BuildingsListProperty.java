@@ -65,4 +65,10 @@ public class BuildingsListProperty implements ManagedProperty<BuildingList>, IdC
 		BuildingsListProperty idMapProperty = (BuildingsListProperty) property;
 		worldObject.getProperty(idMapProperty).remove(id);
 	}
+
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		BuildingsListProperty buildingsListProperty = (BuildingsListProperty) property;
+		worldObject.getProperty(buildingsListProperty).listenToIds(idReferenceListener);
+	}
 }
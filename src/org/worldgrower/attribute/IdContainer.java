@@ -23,4 +23,10 @@ import org.worldgrower.WorldObject;
 public interface IdContainer {
 
 	public void remove(WorldObject worldObject, ManagedProperty<?> property, int id);
+	
+	/**
+	 * Passes the ids the property of the given WorldObject refers to to the IdReferenceListener,
+	 * and keeps notifying it when ids are added to the property value in place.
+	 */
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener);
 }
@@ -24,7 +24,15 @@ public class IdContainerUtils {
 
 	public static void removeIdContainers(WorldObject worldObjectToRemove, World world) {
 		int id = worldObjectToRemove.getProperty(Constants.ID);
-		for(WorldObject worldObject : world.getWorldObjects()) {
+		removeIdContainers(id, world.getWorldObjects());
+	}
+	
+	/**
+	 * Removes the given id from the id properties of the given WorldObjects.
+	 * Only WorldObjects that have an id property need to be passed.
+	 */
+	public static void removeIdContainers(int id, List<WorldObject> worldObjects) {
+		for(WorldObject worldObject : worldObjects) {
 			removeIdPropertiesFromWorldObject(id, worldObject);
 		}
 	}
@@ -38,4 +46,18 @@ public class IdContainerUtils {
 			}
 		}
 	}
+	
+	/**
+	 * Passes all ids the id properties of the given WorldObject refer to to the given IdReferenceListener,
+	 * including the ids that are added to these properties in place later on.
+	 */
+	public static void listenToIds(WorldObject worldObject, IdReferenceListener idReferenceListener) {
+		List<IdContainer> worldObjectIds = Constants.getIdProperties();
+		for(IdContainer worldObjectId : worldObjectIds) {
+			ManagedProperty<?> property = (ManagedProperty<?>) worldObjectId;
+			if (worldObject.hasProperty(property) && (worldObject.getProperty(property) != null)) {
+				worldObjectId.listenToIds(worldObject, property, idReferenceListener);
+			}
+		}
+	}
 }
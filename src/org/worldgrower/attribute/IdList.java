@@ -30,44 +30,94 @@ import org.worldgrower.WorldObject;
 public class IdList implements Serializable {
 
 	private final IntList ids = new IntArrayList();
+	private transient IdListChangedListener changedListener;
+	private transient IdReferenceListener idReferenceListener;
 	
 	public IdList add(int id) {
 		ids.add(id);
+		idReferenced(id);
+		idListChanged();
 		return this;
 	}
 	
 	public IdList add(WorldObject worldObject) {
-		ids.add(worldObject.getProperty(Constants.ID).intValue());
-		return this;
+		return add(worldObject.getProperty(Constants.ID).intValue());
 	}
 	
 	public IdList addUnique(WorldObject worldObject) {
 		int id = worldObject.getProperty(Constants.ID).intValue();
 		if (!ids.contains(id)) {
 			ids.add(id);
+			idReferenced(id);
+			idListChanged();
 		}
 		return this;
 	}
 	
 	public IdList addAll(IdList idList) {
 		ids.addAll(idList.ids);
+		for(int id : idList.ids) {
+			idReferenced(id);
+		}
+		idListChanged();
 		return this;
 	}
 	
 	public void remove(WorldObject worldObject) {
-		ids.rem(worldObject.getProperty(Constants.ID).intValue());
+		if (ids.rem(worldObject.getProperty(Constants.ID).intValue())) {
+			idListChanged();
+		}
 	}
 	
 	public void removeAll(List<Integer> idsToRemove) {
-		ids.removeAll(idsToRemove);
+		if (ids.removeAll(idsToRemove)) {
+			idListChanged();
+		}
 	}
 	
 	public void removeAll() {
 		ids.clear();
+		idListChanged();
 	}
 	
 	public void remove(int id) {
-		ids.rem(id);
+		if (ids.rem(id)) {
+			idListChanged();
+		}
+	}
+	
+	/**
+	 * Sets the listener which is notified when ids are added to or removed from this IdList.
+	 * An IdList has at most one listener, the WorldObject holding it.
+	 */
+	public void setChangedListener(IdListChangedListener changedListener) {
+		this.changedListener = changedListener;
+	}
+	
+	public IdListChangedListener getChangedListener() {
+		return changedListener;
+	}
+	
+	/**
+	 * Passes the ids in this IdList to the given listener, and notifies it of ids that are added later on.
+	 */
+	public void listenToIds(IdReferenceListener idReferenceListener) {
+		this.idReferenceListener = idReferenceListener;
+		for(int id : ids) {
+			idReferenceListener.idReferenced(id);
+		}
+	}
+	
+	private void idReferenced(int id) {
+		if (idReferenceListener != null) {
+			idReferenceListener.idReferenced(id);
+		}
+	}
+	
+	private void idListChanged() {
+		if (changedListener != null) {
+			changedListener.idListChanged(this);
+		}
 	}
 
 	public boolean contains(WorldObject worldObject) {
@@ -79,10 +129,12 @@ public class IdList implements Serializable {
 	}
 	
 	public boolean intersects(IdList otherIdList) {
-		IntList copyIds = new IntArrayList(this.ids);
-		copyIds.removeAll(otherIdList.ids);
-		
-		return (copyIds.size() != this.ids.size());
+		for(int i=0; i<ids.size(); i++) {
+			if (otherIdList.ids.contains(ids.getInt(i))) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	public List<Integer> getIdsNotPresentInOther(IdList otherIdList) {
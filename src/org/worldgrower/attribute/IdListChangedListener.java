@@ -12,8 +12,12 @@
  *     You should have received a copy of the GNU General Public License
  *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
  *******************************************************************************/
-package org.worldgrower.gui;
+package org.worldgrower.attribute;
 
-interface DrawFunction {
-	public void draw(int x, int y);
+/**
+ * An IdListChangedListener is notified when ids are added to or removed from an IdList.
+ */
+public interface IdListChangedListener {
+
+	public void idListChanged(IdList idList);
 }
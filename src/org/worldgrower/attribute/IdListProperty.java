@@ -65,4 +65,10 @@ public class IdListProperty implements ManagedProperty<IdList>, IdContainer {
 		IdListProperty idListProperty = (IdListProperty) property;
 		worldObject.getProperty(idListProperty).remove(id);
 	}
+
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		IdListProperty idListProperty = (IdListProperty) property;
+		worldObject.getProperty(idListProperty).listenToIds(idReferenceListener);
+	}
 }
@@ -43,4 +43,6 @@ public interface IdMap extends Serializable, IdContainer {
 
 	public void remove(int id);
 	public void remove(WorldObject worldObject);
+	
+	public void listenToIds(IdReferenceListener idReferenceListener);
 }
@@ -66,4 +66,10 @@ public class IdMapProperty implements ManagedProperty<IdMap>, IdContainer {
 		worldObject.getProperty(idMapProperty).remove(id);
 		
 	}
+
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		IdMapProperty idMapProperty = (IdMapProperty) property;
+		worldObject.getProperty(idMapProperty).listenToIds(idReferenceListener);
+	}
 }
@@ -31,4 +31,12 @@ public class IdProperty extends IntProperty implements IdContainer {
 			worldObject.setProperty(intProperty, null);
 		}
 	}
+
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		Integer id = worldObject.getProperty((IntProperty) property);
+		if (id != null) {
+			idReferenceListener.idReferenced(id);
+		}
+	}
 }
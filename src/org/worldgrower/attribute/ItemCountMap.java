@@ -68,6 +68,12 @@ public class ItemCountMap implements Serializable {
 		return itemCount.size() == 0;
 	}
 	
+	public ItemCountMap copy() {
+		ItemCountMap copy = new ItemCountMap();
+		copy.itemCount.putAll(itemCount);
+		return copy;
+	}
+	
 	@Override
 	public String toString() {
 		return itemCount.toString();
@@ -32,6 +32,7 @@ import org.worldgrower.conversation.KnowledgeSorter;
 public final class KnowledgeMap implements IdContainer, Serializable {
 
 	private final Map<Integer, List<Knowledge>> idsToKnowledge = new HashMap<>();
+	private transient IdReferenceListener idReferenceListener;
 	
 	public KnowledgeMap() {
 	}
@@ -46,7 +47,7 @@ public final class KnowledgeMap implements IdContainer, Serializable {
 			List<Knowledge> knowledgeList = idsToKnowledge.get(id);
 			if (knowledgeList == null) {
 				knowledgeList = new ArrayList<>();
-				idsToKnowledge.put(id, knowledgeList);
+				putKnowledgeList(id, knowledgeList);
 			}
 			addKnowledge(knowledgeList, knowledge);
 		}
@@ -60,7 +61,7 @@ public final class KnowledgeMap implements IdContainer, Serializable {
 		List<Knowledge> knowledgeList = idsToKnowledge.get(subjectId);
 		if (knowledgeList == null) {
 			knowledgeList = new ArrayList<>();
-			idsToKnowledge.put(subjectId, knowledgeList);
+			putKnowledgeList(subjectId, knowledgeList);
 		}
 		return addKnowledge(knowledgeList, new PropertyKnowledge(subjectId, managedProperty, value));
 	}
@@ -73,7 +74,7 @@ public final class KnowledgeMap implements IdContainer, Serializable {
 		List<Knowledge> knowledgeList = idsToKnowledge.get(id);
 		if (knowledgeList == null) {
 			knowledgeList = new ArrayList<>();
-			idsToKnowledge.put(id, knowledgeList);
+			putKnowledgeList(id, knowledgeList);
 		}
 		addKnowledge(knowledgeList, new EventKnowledge(id, world));
 	}
@@ -83,11 +84,18 @@ public final class KnowledgeMap implements IdContainer, Serializable {
 		List<Knowledge> knowledgeList = idsToKnowledge.get(id);
 		if (knowledgeList == null) {
 			knowledgeList = new ArrayList<>();
-			idsToKnowledge.put(id, knowledgeList);
+			putKnowledgeList(id, knowledgeList);
 		}
 		addKnowledge(knowledgeList, knowledge.copy());
 	}
 	
+	private void putKnowledgeList(int id, List<Knowledge> knowledgeList) {
+		idsToKnowledge.put(id, knowledgeList);
+		if (idReferenceListener != null) {
+			idReferenceListener.idReferenced(id);
+		}
+	}
+	
 	private int addKnowledge(List<Knowledge> knowledgeList, Knowledge knowledge) {
 		boolean knowledgeAdded = false;
 		
@@ -165,6 +173,22 @@ public final class KnowledgeMap implements IdContainer, Serializable {
 		removeIdFromIdContainers(idToRemove);
 	}
 
+	@Override
+	public final void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		KnowledgeMapProperty knowledgeMapProperty = (KnowledgeMapProperty) property;
+		worldObject.getProperty(knowledgeMapProperty).listenToIds(idReferenceListener);
+	}
+	
+	/**
+	 * Passes the ids of the subjects of this KnowledgeMap to the given listener, and notifies it of new subjects later on.
+	 */
+	public void listenToIds(IdReferenceListener idReferenceListener) {
+		this.idReferenceListener = idReferenceListener;
+		for(int id : idsToKnowledge.keySet()) {
+			idReferenceListener.idReferenced(id);
+		}
+	}
+
 	private void removeIdFromIdContainers(int idToRemove) {
 		Iterator<Entry<Integer, List<Knowledge>>> entryIterator = idsToKnowledge.entrySet().iterator();
 		while(entryIterator.hasNext()) {
@@ -187,6 +211,18 @@ public final class KnowledgeMap implements IdContainer, Serializable {
 		KnowledgeMap copy = new KnowledgeMap(idsToKnowledge);
 		return copy;
 	}
+	
+	/**
+	 * Returns a copy that doesn't share its knowledge lists with this KnowledgeMap,
+	 * so that it can be saved while this KnowledgeMap keeps changing.
+	 */
+	public KnowledgeMap copyForSave() {
+		KnowledgeMap copy = new KnowledgeMap();
+		for(Entry<Integer, List<Knowledge>> entry : idsToKnowledge.entrySet()) {
+			copy.idsToKnowledge.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+		}
+		return copy;
+	}
 
 	public KnowledgeMap subtract(KnowledgeMap knowledgeMapToSubtract) {
 		Map<Integer, List<Knowledge>> resultMap = new HashMap<>(idsToKnowledge);
@@ -245,7 +281,7 @@ public final class KnowledgeMap implements IdContainer, Serializable {
 			List<Knowledge> knowledgeList = idsToKnowledge.get(id);
 			if (knowledgeList == null) {
 				knowledgeList = new ArrayList<>();
-				idsToKnowledge.put(id, knowledgeList);
+				putKnowledgeList(id, knowledgeList);
 			}
 			
 			for(Knowledge knowledge : entry.getValue()) {
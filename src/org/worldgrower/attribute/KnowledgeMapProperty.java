@@ -66,4 +66,10 @@ public class KnowledgeMapProperty implements ManagedProperty<KnowledgeMap>, IdCo
 		worldObject.getProperty(idMapProperty).remove(id);
 		
 	}
+
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		KnowledgeMapProperty knowledgeMapProperty = (KnowledgeMapProperty) property;
+		worldObject.getProperty(knowledgeMapProperty).listenToIds(idReferenceListener);
+	}
 }
@@ -18,4 +18,5 @@ public interface Reasons {
 
 	public String getReason(ManagedProperty<?> property);
 	public void addReason(ManagedProperty<?> property, String reason);
+	public Reasons copy();
 }
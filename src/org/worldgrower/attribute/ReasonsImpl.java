@@ -32,6 +32,13 @@ public class ReasonsImpl implements Reasons, Serializable {
 		reasons.put(property, reason);
 	}
 	
+	@Override
+	public Reasons copy() {
+		ReasonsImpl copy = new ReasonsImpl();
+		copy.reasons.putAll(reasons);
+		return copy;
+	}
+	
 	@Override
 	public String toString() {
 		return reasons.toString();
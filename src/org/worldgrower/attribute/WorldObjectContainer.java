@@ -14,27 +14,42 @@
  *******************************************************************************/
 package org.worldgrower.attribute;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 import org.worldgrower.Constants;
+import org.worldgrower.PropertyAccessRecorder;
 import org.worldgrower.WorldObject;
 
 /**
  * A WorldObjectContainer holds a list of WorldObjects and provides methods for manipulating them.
+ * Removing a WorldObject leaves an empty slot, so the index of a WorldObject doesn't change while it is in the container.
+ * Lookups by property, item id or name use an index of the slots instead of looking at every WorldObject.
+ * Changes to the sellable WorldObjects in the container are reported to its changed listener.
  */
 public class WorldObjectContainer implements Serializable {
 
 	private final List<WorldObject> worldObjects = new ArrayList<>(); 
+	private transient WorldObjectContainerIndex containerIndex = new WorldObjectContainerIndex(worldObjects, this::sellableWorldObjectsChanged);
+	private transient SellableWorldObjectsChangedListener changedListener;
 	
 	public void add(WorldObject worldObject) {
 		worldObjects.add(worldObject);
+		containerIndex.slotAdded(worldObjects.size() - 1);
 	}
 	
 	public WorldObject remove(int index) {
-		return worldObjects.set(index, null);
+		WorldObject removedWorldObject = worldObjects.set(index, null);
+		if (removedWorldObject != null) {
+			containerIndex.slotRemoved(index, removedWorldObject);
+		}
+		return removedWorldObject;
 	}
 	
 	public int size() {
@@ -60,53 +75,85 @@ public class WorldObjectContainer implements Serializable {
 	
 	public void addQuantity(WorldObject worldObject, int quantity) {
 		String name = worldObject.getProperty(Constants.NAME);
-		boolean found = false;
-		for(WorldObject object : worldObjects) {
-			if (object != null) {
-				if (object.getProperty(Constants.NAME).equals(name)) {
-					object.setProperty(Constants.QUANTITY, object.getProperty(Constants.QUANTITY) + quantity);
-					found = true;
-					return;
-				}
-			}
-		}
-		
-		if (!found) {
+		int index = getIndexForName(name);
+		if (index != -1) {
+			WorldObject object = worldObjects.get(index);
+			object.setProperty(Constants.QUANTITY, object.getProperty(Constants.QUANTITY) + quantity);
+		} else {
 			worldObject.setProperty(Constants.QUANTITY, quantity);
 			add(worldObject);
 		}
 	}
 	
-	public<T> void removeQuantity(ManagedProperty<T> propertyKey, int quantity) {
-		for(int i=0; i<worldObjects.size(); i++) {
-			WorldObject object = worldObjects.get(i);
-			if (object != null) {
-				if (object.hasProperty(propertyKey)) {
-					object.increment(Constants.QUANTITY, -quantity);
-					
-					if (object.getProperty(Constants.QUANTITY) == 0) {
-						worldObjects.set(i, null);
+	private int getIndexForName(String name) {
+		if (containerIndex.canBeUsedFor(Constants.NAME)) {
+			recordPropertyRead(Constants.NAME);
+			return name != null ? containerIndex.getSlotsByName(name).nextSetBit(0) : -1;
+		} else {
+			for(int index=0; index<worldObjects.size(); index++) {
+				WorldObject object = worldObjects.get(index);
+				if (object != null) {
+					if (object.getProperty(Constants.NAME).equals(name)) {
+						return index;
 					}
-					
-					return;
 				}
 			}
+			return -1;
 		}
 	}
 	
-	public<T> int getQuantityFor(ManagedProperty<T> propertyKey) {
-		for(WorldObject worldObject : worldObjects) {
-			if (worldObject != null) {
-				if (worldObject.hasProperty(propertyKey)) {
-					return worldObject.getProperty(Constants.QUANTITY);
-				}
+	// the index doesn't read the properties of the WorldObjects, so the property read by a linear search is recorded here
+	private void recordPropertyRead(ManagedProperty<?> propertyKey) {
+		if (!containerIndex.isEmpty()) {
+			PropertyAccessRecorder.propertyRead(propertyKey, null);
+		}
+	}
+	
+	/**
+	 * Returns the slots which may hold a WorldObject with the given property, in ascending order.
+	 * If the index can't be used for the property, all slots are returned.
+	 */
+	private BitSet getCandidateSlots(ManagedProperty<?> propertyKey) {
+		if (containerIndex.canBeUsedFor(propertyKey)) {
+			recordPropertyRead(propertyKey);
+			return containerIndex.getSlots(propertyKey);
+		} else {
+			BitSet allSlots = new BitSet();
+			allSlots.set(0, worldObjects.size());
+			return allSlots;
+		}
+	}
+	
+	private int getFirstIndexFor(ManagedProperty<?> propertyKey) {
+		BitSet candidateSlots = getCandidateSlots(propertyKey);
+		for(int index = candidateSlots.nextSetBit(0); index >= 0; index = candidateSlots.nextSetBit(index + 1)) {
+			WorldObject worldObject = worldObjects.get(index);
+			if (worldObject != null && worldObject.hasProperty(propertyKey)) {
+				return index;
 			}
 		}
+		return -1;
+	}
+	
+	public<T> void removeQuantity(ManagedProperty<T> propertyKey, int quantity) {
+		int index = getFirstIndexFor(propertyKey);
+		if (index != -1) {
+			removeQuantity(index, quantity);
+		}
+	}
+	
+	public<T> int getQuantityFor(ManagedProperty<T> propertyKey) {
+		int index = getFirstIndexFor(propertyKey);
+		if (index != -1) {
+			return worldObjects.get(index).getProperty(Constants.QUANTITY);
+		}
 		return 0;
 	}
 	
 	public int getQuantityFor(ManagedProperty<?> propertyKey1, ManagedProperty<?> propertyKey2, Function<WorldObject, Boolean> testFunction) {
-		for(WorldObject worldObject : worldObjects) {
+		BitSet candidateSlots = getCandidateSlots(propertyKey1);
+		for(int index = candidateSlots.nextSetBit(0); index >= 0; index = candidateSlots.nextSetBit(index + 1)) {
+			WorldObject worldObject = worldObjects.get(index);
 			if (worldObject != null) {
 				if (worldObject.hasProperty(propertyKey1) && worldObject.hasProperty(propertyKey2)) {
 					if (testFunction.apply(worldObject)) {
@@ -125,7 +172,9 @@ public class WorldObjectContainer implements Serializable {
 	
 	public<T> List<WorldObject> getWorldObjects(ManagedProperty<T> propertyKey, T value) {
 		List<WorldObject> result = new ArrayList<>();
-		for(WorldObject worldObject : worldObjects) {
+		BitSet candidateSlots = getCandidateSlots(propertyKey);
+		for(int index = candidateSlots.nextSetBit(0); index >= 0; index = candidateSlots.nextSetBit(index + 1)) {
+			WorldObject worldObject = worldObjects.get(index);
 			if (worldObject != null) {
 				if (worldObject.hasProperty(propertyKey)) {
 					if (worldObject.getProperty(propertyKey) == value) {
@@ -139,7 +188,9 @@ public class WorldObjectContainer implements Serializable {
 	
 	public List<WorldObject> getWorldObjectsByFunction(ManagedProperty<?> propertyKey, Function<WorldObject, Boolean> testFunction) {
 		List<WorldObject> result = new ArrayList<>();
-		for(WorldObject worldObject : worldObjects) {
+		BitSet candidateSlots = getCandidateSlots(propertyKey);
+		for(int index = candidateSlots.nextSetBit(0); index >= 0; index = candidateSlots.nextSetBit(index + 1)) {
+			WorldObject worldObject = worldObjects.get(index);
 			if (worldObject != null) {
 				if (worldObject.hasProperty(propertyKey)) {
 					if (testFunction.apply(worldObject)) {
@@ -170,53 +221,39 @@ public class WorldObjectContainer implements Serializable {
 	}
 	
 	public<T> int getIndexFor(ManagedProperty<T> propertyKey) {
-		int index = 0; 
-		for(WorldObject worldObject : worldObjects) {
-			if (worldObject != null) {
-				if (worldObject.hasProperty(propertyKey)) {
-					return index;
-				}
-			}
-			index++;
-		}
-		return -1;
+		return getFirstIndexFor(propertyKey);
 	}
 	
 	public<T> int getIndexFor(ManagedProperty<T> propertyKey, T value) {
-		int index = 0; 
-		for(WorldObject worldObject : worldObjects) {
-			if (worldObject != null) {
-				if (worldObject.hasProperty(propertyKey) && worldObject.getProperty(propertyKey) == value) {
-					return index;
-				}
-			}
-			index++;
-		}
-		return -1;
+		return getIndexFor(propertyKey, value, w -> true);
 	}
 	
 	public<T> int getIndexFor(ManagedProperty<T> propertyKey, T value, Function<WorldObject, Boolean> testFunction) {
-		int index = 0; 
-		for(WorldObject worldObject : worldObjects) {
+		BitSet candidateSlots = getCandidateSlots(propertyKey, value);
+		for(int index = candidateSlots.nextSetBit(0); index >= 0; index = candidateSlots.nextSetBit(index + 1)) {
+			WorldObject worldObject = worldObjects.get(index);
 			if (worldObject != null) {
 				if (worldObject.hasProperty(propertyKey) && (worldObject.getProperty(propertyKey) == value) && testFunction.apply(worldObject)) {
 					return index;
 				}
 			}
-			index++;
 		}
 		return -1;
 	}
+	
+	private BitSet getCandidateSlots(ManagedProperty<?> propertyKey, Object value) {
+		if (propertyKey == Constants.ITEM_ID && containerIndex.canBeUsedFor(propertyKey)) {
+			recordPropertyRead(propertyKey);
+			return containerIndex.getSlotsByItemId(value);
+		} else {
+			return getCandidateSlots(propertyKey);
+		}
+	}
 
 	public<T> void removeAllQuantity(ManagedProperty<T> propertyKey) {
-		for(int i=0; i<worldObjects.size(); i++) {
-			WorldObject object = worldObjects.get(i);
-			if (object != null) {
-				if (object.hasProperty(propertyKey)) {
-					worldObjects.set(i, null);
-					return;
-				}
-			}
+		int index = getFirstIndexFor(propertyKey);
+		if (index != -1) {
+			remove(index);
 		}
 	}
 
@@ -235,14 +272,33 @@ public class WorldObjectContainer implements Serializable {
 		}
 		return result;
 	}
+	
+	/**
+	 * Returns a copy in which every item is replaced by the result of copyFunction.
+	 * Unlike copy, empty slots are kept, so that indices into the copy refer to the same items.
+	 */
+	public WorldObjectContainer copy(UnaryOperator<WorldObject> copyFunction) {
+		WorldObjectContainer result = new WorldObjectContainer();
+		for(WorldObject worldObject : worldObjects) {
+			result.add(worldObject != null ? copyFunction.apply(worldObject) : null);
+		}
+		return result;
+	}
 
 	public <T> void setProperty(int index, ManagedProperty<T> propertyKey, T value) {
 		worldObjects.get(index).setProperty(propertyKey, value);
 	}
 
 	public int getIndexFor(StringProperty property, String value, Function<WorldObject, Boolean> testFunction) {
-		int index = 0;
-		for(WorldObject worldObject : worldObjects) {
+		BitSet candidateSlots;
+		if (property == Constants.NAME && containerIndex.canBeUsedFor(property)) {
+			recordPropertyRead(property);
+			candidateSlots = (value != null ? containerIndex.getSlotsByName(value) : new BitSet());
+		} else {
+			candidateSlots = getCandidateSlots(property);
+		}
+		for(int index = candidateSlots.nextSetBit(0); index >= 0; index = candidateSlots.nextSetBit(index + 1)) {
+			WorldObject worldObject = worldObjects.get(index);
 			if (worldObject != null) {
 				if (worldObject.hasProperty(property) && worldObject.getProperty(property).equals(value)) {
 					if (testFunction.apply(worldObject)) {
@@ -250,7 +306,6 @@ public class WorldObjectContainer implements Serializable {
 					}
 				}
 			}
-			index++;
 		}
 		return -1;
 	}
@@ -271,7 +326,7 @@ public class WorldObjectContainer implements Serializable {
 		object.increment(Constants.QUANTITY, -quantity);
 			
 		if (object.getProperty(Constants.QUANTITY) == 0) {
-			worldObjects.set(index, null);
+			remove(index);
 		}
 	}
 
@@ -287,4 +342,31 @@ public class WorldObjectContainer implements Serializable {
 			}
 		}
 	}
+	
+	/**
+	 * Sets the listener which is notified when sellable WorldObjects are added to or removed from this container,
+	 * or when a property of one of them is set. A WorldObjectContainer has at most one listener, the WorldObject holding it.
+	 */
+	public void setChangedListener(SellableWorldObjectsChangedListener changedListener) {
+		this.changedListener = changedListener;
+	}
+	
+	/**
+	 * Returns false if this container holds WorldObjects whose properties can't be listened to,
+	 * for which a change to their SELLABLE property isn't reported.
+	 */
+	public boolean reportsSellableWorldObjectsChanges() {
+		return containerIndex.canBeUsedFor(Constants.SELLABLE);
+	}
+	
+	private void sellableWorldObjectsChanged() {
+		if (changedListener != null) {
+			changedListener.sellableWorldObjectsChanged(this);
+		}
+	}
+	
+	private void readObject(ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		objectInputStream.defaultReadObject();
+		containerIndex = new WorldObjectContainerIndex(worldObjects, this::sellableWorldObjectsChanged);
+	}
 }
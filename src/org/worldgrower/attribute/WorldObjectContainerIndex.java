@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.attribute;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.worldgrower.Constants;
+import org.worldgrower.PropertyChangedListener;
+import org.worldgrower.WorldObject;
+import org.worldgrower.WorldObjectImpl;
+
+/**
+ * Keeps track of which slots of a WorldObjectContainer hold a WorldObject with a given property, item id or name.
+ * The index listens to the WorldObjects in the container, so it stays correct when their properties change.
+ * The quantity isn't indexed, because it changes too often and is never searched for.
+ * WorldObjects which can't be listened to aren't indexed, and while the container holds any of them the index can't be used.
+ * Because the index listens to the WorldObjects anyway, it also tells the container when its sellable WorldObjects change.
+ */
+class WorldObjectContainerIndex implements PropertyChangedListener {
+
+	private static final BitSet NO_SLOTS = new BitSet();
+	
+	private final List<WorldObject> worldObjects;
+	private final Runnable sellableWorldObjectsChanged;
+	private final BitSet occupiedSlots = new BitSet();
+	private final BitSet unindexedSlots = new BitSet();
+	private BitSet[] slotsByProperty = new BitSet[0];
+	private final Map<Object, BitSet> slotsByItemId = new HashMap<>();
+	private final Map<Object, BitSet> slotsByName = new HashMap<>();
+	
+	public WorldObjectContainerIndex(List<WorldObject> worldObjects, Runnable sellableWorldObjectsChanged) {
+		this.worldObjects = worldObjects;
+		this.sellableWorldObjectsChanged = sellableWorldObjectsChanged;
+		for(int slot=0; slot<worldObjects.size(); slot++) {
+			slotAdded(slot);
+		}
+	}
+	
+	public void slotAdded(int slot) {
+		WorldObject worldObject = worldObjects.get(slot);
+		if (worldObject == null) {
+			return;
+		}
+		occupiedSlots.set(slot);
+		if (worldObject instanceof WorldObjectImpl) {
+			((WorldObjectImpl) worldObject).addContainerListener(this);
+			for(ManagedProperty<?> managedProperty : worldObject.getPropertyKeys()) {
+				updateSlot(slot, worldObject, managedProperty);
+			}
+		} else {
+			unindexedSlots.set(slot);
+		}
+		if (isSellable(worldObject)) {
+			sellableWorldObjectsChanged.run();
+		}
+	}
+	
+	public void slotRemoved(int slot, WorldObject worldObject) {
+		occupiedSlots.clear(slot);
+		if (unindexedSlots.get(slot)) {
+			unindexedSlots.clear(slot);
+		} else {
+			((WorldObjectImpl) worldObject).removeContainerListener(this);
+			for(BitSet slots : slotsByProperty) {
+				if (slots != null) {
+					slots.clear(slot);
+				}
+			}
+			removeValueSlot(slotsByItemId, slot);
+			removeValueSlot(slotsByName, slot);
+		}
+		if (isSellable(worldObject)) {
+			sellableWorldObjectsChanged.run();
+		}
+	}
+	
+	private void updateSlot(int slot, WorldObject worldObject, ManagedProperty<?> managedProperty) {
+		if (managedProperty == Constants.QUANTITY) {
+			return;
+		}
+		boolean hasProperty = worldObject.hasProperty(managedProperty);
+		int ordinal = managedProperty.getOrdinal();
+		if (hasProperty) {
+			getOrCreateSlots(ordinal).set(slot);
+		} else if (ordinal < slotsByProperty.length && slotsByProperty[ordinal] != null) {
+			slotsByProperty[ordinal].clear(slot);
+		}
+		
+		if (managedProperty == Constants.ITEM_ID) {
+			updateValueSlot(slotsByItemId, slot, hasProperty, worldObject.getProperty(Constants.ITEM_ID));
+		} else if (managedProperty == Constants.NAME) {
+			updateValueSlot(slotsByName, slot, hasProperty, worldObject.getProperty(Constants.NAME));
+		}
+	}
+	
+	private BitSet getOrCreateSlots(int ordinal) {
+		if (ordinal >= slotsByProperty.length) {
+			BitSet[] newSlotsByProperty = new BitSet[Math.max(ordinal + 1, OrdinalGenerator.getNumberOfProperties())];
+			System.arraycopy(slotsByProperty, 0, newSlotsByProperty, 0, slotsByProperty.length);
+			slotsByProperty = newSlotsByProperty;
+		}
+		if (slotsByProperty[ordinal] == null) {
+			slotsByProperty[ordinal] = new BitSet();
+		}
+		return slotsByProperty[ordinal];
+	}
+	
+	private static void updateValueSlot(Map<Object, BitSet> slotsByValue, int slot, boolean hasProperty, Object value) {
+		removeValueSlot(slotsByValue, slot);
+		if (hasProperty) {
+			BitSet slots = slotsByValue.get(value);
+			if (slots == null) {
+				slots = new BitSet();
+				slotsByValue.put(value, slots);
+			}
+			slots.set(slot);
+		}
+	}
+	
+	private static void removeValueSlot(Map<Object, BitSet> slotsByValue, int slot) {
+		slotsByValue.values().removeIf(slots -> { slots.clear(slot); return slots.isEmpty(); });
+	}
+	
+	public boolean canBeUsedFor(ManagedProperty<?> managedProperty) {
+		return unindexedSlots.isEmpty() && managedProperty != Constants.QUANTITY;
+	}
+	
+	public boolean isEmpty() {
+		return occupiedSlots.isEmpty();
+	}
+	
+	/**
+	 * Returns the slots holding a WorldObject with the given property, the result shouldn't be changed.
+	 */
+	public BitSet getSlots(ManagedProperty<?> managedProperty) {
+		int ordinal = managedProperty.getOrdinal();
+		if (ordinal < slotsByProperty.length && slotsByProperty[ordinal] != null) {
+			return slotsByProperty[ordinal];
+		} else {
+			return NO_SLOTS;
+		}
+	}
+	
+	public BitSet getSlotsByItemId(Object itemId) {
+		BitSet slots = slotsByItemId.get(itemId);
+		return slots != null ? slots : NO_SLOTS;
+	}
+	
+	public BitSet getSlotsByName(String name) {
+		BitSet slots = slotsByName.get(name);
+		return slots != null ? slots : NO_SLOTS;
+	}
+
+	@Override
+	public boolean isListeningTo(ManagedProperty<?> managedProperty) {
+		return managedProperty != Constants.QUANTITY;
+	}
+
+	@Override
+	public void propertyChanged(WorldObject worldObject, ManagedProperty<?> managedProperty, Object oldValue) {
+		boolean slotUpdated = false;
+		for(int slot = occupiedSlots.nextSetBit(0); slot >= 0; slot = occupiedSlots.nextSetBit(slot + 1)) {
+			if (worldObjects.get(slot) == worldObject) {
+				updateSlot(slot, worldObject, managedProperty);
+				slotUpdated = true;
+			}
+		}
+		
+		boolean wasSellable = (managedProperty == Constants.SELLABLE) ? Boolean.TRUE.equals(oldValue) : isSellable(worldObject);
+		if (slotUpdated && (wasSellable || isSellable(worldObject))) {
+			sellableWorldObjectsChanged.run();
+		}
+	}
+	
+	private static boolean isSellable(WorldObject worldObject) {
+		return worldObject.hasProperty(Constants.SELLABLE) && Boolean.TRUE.equals(worldObject.getProperty(Constants.SELLABLE));
+	}
+}
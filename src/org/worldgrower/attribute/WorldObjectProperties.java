@@ -17,13 +17,25 @@ package org.worldgrower.attribute;
 import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.BiConsumer;
 
+import org.worldgrower.PropertyAccessRecorder;
+
+/**
+ * WorldObjectProperties holds the property values of a WorldObject.
+ * It counts the number of times a property is set or removed, values which are changed in place
+ * are only counted when modified is called for them.
+ * The WorldObject holding these properties can mark properties as changed during the current turn.
+ */
 public class WorldObjectProperties implements Serializable {
 
 	private final WorldObjectProperty[] properties;
+	private transient int modificationCount = 0;
+	private transient BitSet changedProperties = null;
 	
 	public WorldObjectProperties(Map<ManagedProperty<?>, Object> properties) {
 		this.properties = new WorldObjectProperty[OrdinalGenerator.getNumberOfProperties()];
@@ -41,22 +53,60 @@ public class WorldObjectProperties implements Serializable {
 	public<T> T get(ManagedProperty<T> propertyKey) {
 		WorldObjectProperty worldObjectProperty = this.properties[propertyKey.getOrdinal()];
 		if (worldObjectProperty != null) {
+			PropertyAccessRecorder.propertyRead(propertyKey, worldObjectProperty.value);
 			return (T) worldObjectProperty.value;
 		} else {
+			PropertyAccessRecorder.propertyRead(propertyKey, null);
 			return null;
 		}
 	}
 	
 	public<T> void put(ManagedProperty<T> propertyKey, T value) {
+		PropertyAccessRecorder.propertyWritten(propertyKey);
 		WorldObjectProperty worldObjectProperty = this.properties[propertyKey.getOrdinal()];
 		if (worldObjectProperty != null) {
 			worldObjectProperty.value = value;
 		} else {
 			this.properties[propertyKey.getOrdinal()] = new WorldObjectProperty(propertyKey, value);
 		}
+		modificationCount++;
+	}
+	
+	/**
+	 * Counts a modification, this should be called when a property value is changed in place.
+	 */
+	public void modified() {
+		modificationCount++;
+	}
+	
+	public int getModificationCount() {
+		return modificationCount;
+	}
+	
+	/**
+	 * Marks the given property as changed during the current turn and returns true if it's the first changed property.
+	 */
+	public boolean markChanged(ManagedProperty<?> propertyKey) {
+		if (changedProperties == null) {
+			changedProperties = new BitSet();
+		}
+		boolean firstChange = changedProperties.isEmpty();
+		changedProperties.set(propertyKey.getOrdinal());
+		return firstChange;
+	}
+	
+	public BitSet getChangedProperties() {
+		return changedProperties != null ? (BitSet) changedProperties.clone() : new BitSet();
+	}
+	
+	public void clearChangedProperties() {
+		if (changedProperties != null) {
+			changedProperties.clear();
+		}
 	}
 	
 	public boolean containsKey(ManagedProperty<?> propertyKey) {
+		PropertyAccessRecorder.propertyRead(propertyKey, null);
 		return this.properties[propertyKey.getOrdinal()] != null;
 	}
 
@@ -64,6 +114,7 @@ public class WorldObjectProperties implements Serializable {
 		WorldObjectProperty[] copyOfProperties = new WorldObjectProperty[properties.length];
 		for(int i=0; i<properties.length; i++) {
 			if (properties[i] != null) {
+				PropertyAccessRecorder.propertyRead(properties[i].managedProperty, properties[i].value);
 				copyOfProperties[i] = new WorldObjectProperty(properties[i].managedProperty, properties[i].value);
 			}
 		}
@@ -76,6 +127,7 @@ public class WorldObjectProperties implements Serializable {
 		for(int i=0; i<properties.length; i++) {
 			if (properties[i] != null) {
 				ManagedProperty<?> managedProperty = properties[i].managedProperty;
+				PropertyAccessRecorder.propertyRead(managedProperty, properties[i].value);
 				copyOfProperties[i] = new WorldObjectProperty(managedProperty, managedProperty.copy(properties[i].value));
 			}
 		}
@@ -87,6 +139,7 @@ public class WorldObjectProperties implements Serializable {
 		List<ManagedProperty<?>> keySet = new ArrayList<>();
 		for(int i=0; i<properties.length; i++) {
 			if (properties[i] != null) {
+				PropertyAccessRecorder.propertyRead(properties[i].managedProperty, null);
 				keySet.add(properties[i].managedProperty);
 			}
 		}
@@ -97,12 +150,33 @@ public class WorldObjectProperties implements Serializable {
 		List<Entry<ManagedProperty<?>, Object>> entrySet = new ArrayList<>();
 		for(int i=0; i<properties.length; i++) {
 			if (properties[i] != null) {
+				PropertyAccessRecorder.propertyRead(properties[i].managedProperty, properties[i].value);
 				entrySet.add(new AbstractMap.SimpleEntry(properties[i].managedProperty, properties[i].value));
 			}
 		}
 		return entrySet;
 	}
 	
+	/**
+	 * Calls the given consumer for every property with an IdList value.
+	 * This isn't recorded as property access, it is only used to keep track of changes to IdLists.
+	 */
+	public void forEachIdList(BiConsumer<ManagedProperty<?>, IdList> consumer) {
+		for(int i=0; i<properties.length; i++) {
+			if (properties[i] != null && properties[i].value instanceof IdList) {
+				consumer.accept(properties[i].managedProperty, (IdList) properties[i].value);
+			}
+		}
+	}
+	
+	public void forEachWorldObjectContainer(BiConsumer<ManagedProperty<?>, WorldObjectContainer> consumer) {
+		for(int i=0; i<properties.length; i++) {
+			if (properties[i] != null && properties[i].value instanceof WorldObjectContainer) {
+				consumer.accept(properties[i].managedProperty, (WorldObjectContainer) properties[i].value);
+			}
+		}
+	}
+	
 	@Override
 	public String toString() {
 		StringBuilder result = new StringBuilder();
@@ -129,6 +203,8 @@ public class WorldObjectProperties implements Serializable {
 
 
 	public<T> void remove(ManagedProperty<T> propertyKey) {
+		PropertyAccessRecorder.propertyWritten(propertyKey);
 		this.properties[propertyKey.getOrdinal()] = null;
+		modificationCount++;
 	}
 }
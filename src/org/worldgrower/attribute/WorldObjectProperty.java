@@ -80,4 +80,15 @@ public class WorldObjectProperty implements ManagedProperty<WorldObject>, IdCont
 			}
 		}
 	}
+
+	@Override
+	public void listenToIds(WorldObject worldObject, ManagedProperty<?> property, IdReferenceListener idReferenceListener) {
+		WorldObject innerWorldObject = worldObject.getProperty((WorldObjectProperty) property);
+		if (innerWorldObject != null) {
+			if (innerWorldObject.hasProperty(Constants.ID)) {
+				idReferenceListener.idReferenced(innerWorldObject.getProperty(Constants.ID));
+			}
+			IdContainerUtils.listenToIds(innerWorldObject, idReferenceListener);
+		}
+	}
 }
@@ -41,9 +41,17 @@ public class Conditions implements Serializable {
 			
 		if (add) {
 			conditions.put(condition, new ConditionInfo(turns, world.getCurrentTurn().getValue()));
+			changed(worldObject);
 			conditionGained(worldObject, condition, world.getWorldStateChangedListeners());
 		}
 	}
+	
+	// Conditions are changed in place, so they report their changes as the CONDITIONS property being set to the same Conditions
+	private void changed(WorldObject worldObject) {
+		if (worldObject != null && worldObject.getProperty(Constants.CONDITIONS) == this) {
+			worldObject.setProperty(Constants.CONDITIONS, this);
+		}
+	}
 
 	boolean shouldAddCondition(Condition condition) {
 		boolean add = true;
@@ -63,11 +71,13 @@ public class Conditions implements Serializable {
 	
 	private void removeConditionFromWorldObject(WorldObject worldObject, Condition condition, WorldStateChangedListeners worldStateChangedListeners, World world) {
 		conditions.remove(condition);
+		changed(worldObject);
 		conditionEnds(worldObject, condition, worldStateChangedListeners, world);
 	}
 	
 	private void removeConditionFromWorldObjectWhileIterating(WorldObject worldObject, Condition condition, Iterator<Entry<Condition, ConditionInfo>> conditionIterator, WorldStateChangedListeners worldStateChangedListeners, World world) {
 		conditionIterator.remove();
+		changed(worldObject);
 		conditionEnds(worldObject, condition, worldStateChangedListeners, world);
 	}
 
@@ -164,15 +174,19 @@ public class Conditions implements Serializable {
 			int turnsItWillLast = entry.getValue().getTurnsItWillLast();
 			turnsItWillLast--;
 			if (turnsItWillLast != 0) {
-				entry.getValue().setTurnsItWillLast(turnsItWillLast);
+				if (!entry.getValue().isConditionPermanent()) {
+					entry.getValue().setTurnsItWillLast(turnsItWillLast);
+					changed(worldObject);
+				}
 			} else {
 				removeConditionFromWorldObjectWhileIterating(worldObject, entry.getKey(), conditionIterator, world.getWorldStateChangedListeners(), world);
 			}
 		}
 	}
 	
-	void setConditionToEndOnNextOnTurn(Condition condition) {
+	void setConditionToEndOnNextOnTurn(WorldObject worldObject, Condition condition) {
 		conditions.get(condition).setTurnsItWillLast(1);
+		changed(worldObject);
 	}
 
 	public boolean hasCondition(Condition condition) {
@@ -245,6 +259,7 @@ public class Conditions implements Serializable {
 			if (function.apply(conditionEntry.getKey())) {
 				conditionLost(worldObject, conditionEntry.getKey(), worldStateChangedListeners);
 				conditionIterator.remove();
+				changed(worldObject);
 			}
 		}
 	}
@@ -272,4 +287,17 @@ public class Conditions implements Serializable {
 		copy.conditions.putAll(conditions);
 		return copy;
 	}
+	
+	/**
+	 * Returns a copy that doesn't share its ConditionInfos with these Conditions,
+	 * so that it can be saved while these Conditions keep changing.
+	 */
+	public Conditions copyForSave() {
+		Conditions copy = new Conditions();
+		for(Entry<Condition, ConditionInfo> entry : conditions.entrySet()) {
+			ConditionInfo conditionInfo = entry.getValue();
+			copy.conditions.put(entry.getKey(), new ConditionInfo(conditionInfo.getTurnsItWillLast(), conditionInfo.getStartTurn()));
+		}
+		return copy;
+	}
 }
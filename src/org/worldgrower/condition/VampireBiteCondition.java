@@ -49,7 +49,7 @@ public class VampireBiteCondition implements Condition {
 		
 		if (currentTurn - startTurn > 1000) {
 			VampireUtils.vampirizePerson(worldObject, creatureTypeChangedListeners);
-			worldObject.getProperty(Constants.CONDITIONS).setConditionToEndOnNextOnTurn(this);
+			worldObject.getProperty(Constants.CONDITIONS).setConditionToEndOnNextOnTurn(worldObject, this);
 		}
 	}
 	
@@ -134,4 +134,10 @@ public class DeityAttributes implements Serializable {
 	public boolean isUnHappy(Deity deity) {
 		return getHappiness(deity) == MIN_HAPINESS_VALUE;
 	}
+	
+	public DeityAttributes copy() {
+		DeityAttributes copy = new DeityAttributes();
+		copy.deityHapinessMap.putAll(deityHapinessMap);
+		return copy;
+	}
 }
@@ -88,7 +88,7 @@ public class DeityPropertyUtils {
 	}
 	
 	public static List<WorldObject> getWorshippersFor(Deity deity, World world) {
-		List<WorldObject> targets = world.findWorldObjectsByProperty(Constants.STRENGTH, w -> w.hasProperty(Constants.DEITY) && w.getProperty(Constants.DEITY) == deity);
+		List<WorldObject> targets = world.findWorldObjectsByPropertyValue(Constants.DEITY, deity, w -> w.hasProperty(Constants.STRENGTH));
 		return targets;
 	}
 	
@@ -80,7 +80,7 @@ public class Poseidon implements Deity {
 	}
 
 	private void killFish(World world) {
-		List<WorldObject> fishCreatures = world.findWorldObjectsByProperty(Constants.CREATURE_TYPE, w -> w.getProperty(Constants.CREATURE_TYPE) == CreatureType.FISH_CREATURE_TYPE);
+		List<WorldObject> fishCreatures = world.findWorldObjectsByPropertyValue(Constants.CREATURE_TYPE, CreatureType.FISH_CREATURE_TYPE, w -> true);
 		for(int i=0; i<fishCreatures.size(); i++) {
 			WorldObject fish = fishCreatures.get(i);
 			if (i % 2 == 0) {
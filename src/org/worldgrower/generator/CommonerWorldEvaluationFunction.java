@@ -16,22 +16,52 @@ package org.worldgrower.generator;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.worldgrower.Constants;
 import org.worldgrower.World;
 import org.worldgrower.WorldObject;
 import org.worldgrower.WorldObjectPriorities;
+import org.worldgrower.attribute.ManagedProperty;
 import org.worldgrower.curse.Curse;
 import org.worldgrower.goal.Goal;
 import org.worldgrower.goal.Goals;
 import org.worldgrower.goal.GroupPropertyUtils;
 import org.worldgrower.profession.Profession;
 
+/**
+ * The priorities of a commoner are cached, they only change when one of the PRIORITY_PROPERTIES of the commoner changes
+ * or when the personal goals of its background change.
+ * The goals of the organizations the commoner belongs to are set when the organization is created.
+ */
 public class CommonerWorldEvaluationFunction implements WorldObjectPriorities {
 
+	private static final List<ManagedProperty<?>> PRIORITY_PROPERTIES = Arrays.asList(Constants.PROFESSION, Constants.GROUP, Constants.CURSE, Constants.GIVEN_ORDER, Constants.BACKGROUND);
+	
+	private transient volatile CachedPriorities cachedPriorities;
+	
 	@Override
 	public List<Goal> getPriorities(WorldObject performer, World world) {
+		List<Goal> backgroundGoals = performer.getProperty(Constants.BACKGROUND).getPersonalGoals(performer, world);
+		CachedPriorities currentCachedPriorities = cachedPriorities;
+		if (currentCachedPriorities != null && currentCachedPriorities.isValidFor(performer, backgroundGoals)) {
+			return currentCachedPriorities.getPriorities();
+		}
+		
+		List<Goal> priorities = Collections.unmodifiableList(calculatePriorities(performer, backgroundGoals, world));
+		cachedPriorities = new CachedPriorities(performer, backgroundGoals, priorities);
+		return priorities;
+	}
+	
+	@Override
+	public void propertyChanged(WorldObject performer, ManagedProperty<?> managedProperty) {
+		if (PRIORITY_PROPERTIES.contains(managedProperty)) {
+			cachedPriorities = null;
+		}
+	}
+	
+	private List<Goal> calculatePriorities(WorldObject performer, List<Goal> backgroundGoals, World world) {
 		ProfessionalGoals professionalGoals = new ProfessionalGoals(performer);
 		
 		List<Goal> professionGoals = professionalGoals.getProfessionGoals();
@@ -67,8 +97,6 @@ public class CommonerWorldEvaluationFunction implements WorldObjectPriorities {
 		
 		List<Goal> givenOrderGoals = getGivenOrderGoals(performer, world);
 		
-		List<Goal> backgroundGoals = performer.getProperty(Constants.BACKGROUND).getPersonalGoals(performer, world);
-		
 		List<Goal> personalGoals = Arrays.asList(
 				Goals.SOCIALIZE_GOAL,
 				Goals.MATE_GOAL,
@@ -124,6 +152,26 @@ public class CommonerWorldEvaluationFunction implements WorldObjectPriorities {
 		return religionOrganizationGoals;
 	}
 	
+	private static class CachedPriorities {
+		private final WorldObject performer;
+		private final List<Goal> backgroundGoals;
+		private final List<Goal> priorities;
+		
+		public CachedPriorities(WorldObject performer, List<Goal> backgroundGoals, List<Goal> priorities) {
+			this.performer = performer;
+			this.backgroundGoals = backgroundGoals;
+			this.priorities = priorities;
+		}
+		
+		public boolean isValidFor(WorldObject performer, List<Goal> backgroundGoals) {
+			return (this.performer == performer) && this.backgroundGoals.equals(backgroundGoals);
+		}
+
+		public List<Goal> getPriorities() {
+			return priorities;
+		}
+	}
+	
 	private static class ProfessionalGoals {
 		private final List<Goal> professionGoals;
 		private final List<Goal> professionOrganizationGoals;
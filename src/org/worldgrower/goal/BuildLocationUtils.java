@@ -76,7 +76,7 @@ public class BuildLocationUtils {
 		for(int x=0; x < world.getWidth(); x++) {
 			for(int y=0; y<world.getHeight(); y++) {
 				if ((zone.value(x, y) > 10) && zone.value(x, y) < 15) {
-					if (GoalUtils.isOpenSpace(x, y, width, height, world)) {
+					if (world.isOpenNonWaterSpace(x, y, width, height)) {
 						bestLocation = new int[]{ x, y };
 					}
 				}
@@ -88,13 +88,11 @@ public class BuildLocationUtils {
 
 	private static WorldObject createTargetWorldObject(WorldObject performer, int width, int height, World world, int[] bestLocation) {
 		if (bestLocation == null) {
-			bestLocation = GoalUtils.findOpenSpace(performer, width, height, world);
-			if (bestLocation == null) {
+			Position nearestLocation = world.findNearestOpenNonWaterSpace(performer.getProperty(Constants.X), performer.getProperty(Constants.Y), width, height);
+			if (nearestLocation == null) {
 				return null;
 			}
-			int bestLocationX = performer.getProperty(Constants.X) + bestLocation[0];
-			int bestLocationY = performer.getProperty(Constants.Y) + bestLocation[1];
-			bestLocation = new int[] { bestLocationX, bestLocationY };
+			bestLocation = new int[] { nearestLocation.getX(), nearestLocation.getY() };
 		}
 		
 		Map<ManagedProperty<?>, Object> properties = new HashMap<>();
@@ -119,7 +117,7 @@ public class BuildLocationUtils {
 		for(int x=0; x < world.getWidth(); x++) {
 			for(int y=0; y<world.getHeight(); y++) {
 				if ((zone.value(x, y) > bestValue)) {
-					if (GoalUtils.isOpenSpace(x, y, width, height, world)) {
+					if (world.isOpenNonWaterSpace(x, y, width, height)) {
 						bestLocation = new int[]{ x, y };
 						bestValue = zone.value(x, y);
 					}
@@ -33,9 +33,15 @@ import org.worldgrower.profession.Professions;
 public class BuySellUtils {
 
 	public static List<WorldObject> findBuyTargets(WorldObject performer, ManagedProperty<?> property, int quantity, World world) {
-		List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.BUY_ACTION, Constants.STRENGTH, w -> isBuyTarget(performer, property, quantity, w), world);
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		List<WorldObject> targets = world.findNearestSellers(performerX, performerY, Integer.MAX_VALUE, property, w -> isValidBuyTarget(performer, w, world) && isBuyTarget(performer, property, quantity, w));
 		return targets;
 	}
+	
+	private static boolean isValidBuyTarget(WorldObject performer, WorldObject w, World world) {
+		return w.hasProperty(Constants.STRENGTH) && Actions.BUY_ACTION.isValidTarget(performer, w, world);
+	}
 
 	private static boolean isBuyTarget(WorldObject performer, ManagedProperty<?> property, int quantity, WorldObject w) {
 		return targetHasSufficientQuantity(property, quantity, w) && buyerCanPay(performer, w, property, quantity) && !GroupPropertyUtils.isWorldObjectPotentialEnemy(performer, w);
@@ -46,7 +52,9 @@ public class BuySellUtils {
 	}
 	
 	public static List<WorldObject> findBuyTargets(WorldObject performer, Item item, int quantity, World world) {
-		List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.BUY_ACTION, Constants.STRENGTH, w -> targetHasSellableItem(w, item) && buyerCanPay(performer, w, item, quantity), world);
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		List<WorldObject> targets = world.findNearestSellers(performerX, performerY, Integer.MAX_VALUE, item, w -> isValidBuyTarget(performer, w, world) && targetHasSellableItem(w, item) && buyerCanPay(performer, w, item, quantity));
 		return targets;
 	}
 	
@@ -109,20 +117,27 @@ public class BuySellUtils {
 	}
 	
 	public static boolean buyerWillBuyGoods(WorldObject seller, WorldObject buyer, int indexOfItemsToSell, World world) {
+		return buyerWillBuyGoods(seller, buyer, indexOfItemsToSell, world, new LowestPriceCache(world));
+	}
+	
+	private static boolean buyerWillBuyGoods(WorldObject seller, WorldObject buyer, int indexOfItemsToSell, World world, LowestPriceCache lowestPriceCache) {
 		WorldObject inventoryItem = getInventoryItem(seller, indexOfItemsToSell);
-		return buyerWillBuyGoods(seller, buyer, inventoryItem, world);
+		return buyerWillBuyGoods(seller, buyer, inventoryItem, world, lowestPriceCache);
 	}
 	
 	public static boolean sellerWillSellGoods(WorldObject buyer, WorldObject seller, int indexOfItemsToSell, World world) {
-		WorldObject inventoryItem = getInventoryItem(seller, indexOfItemsToSell);
-		return buyerWillBuyGoods(seller, buyer, inventoryItem, world);
+		return buyerWillBuyGoods(seller, buyer, indexOfItemsToSell, world);
 	}
 	
 	public static boolean buyerWillBuyGoods(WorldObject seller, WorldObject buyer, WorldObject worldObjectToBuy, World world) {
+		return buyerWillBuyGoods(seller, buyer, worldObjectToBuy, world, new LowestPriceCache(world));
+	}
+	
+	static boolean buyerWillBuyGoods(WorldObject seller, WorldObject buyer, WorldObject worldObjectToBuy, World world, LowestPriceCache lowestPriceCache) {
 		boolean demandsGoods = hasDemandForInventoryItemGoods(buyer, worldObjectToBuy) || buyer.getProperty(Constants.PROFESSION) == Professions.MERCHANT_PROFESSION;
 		
 		int price = BuySellUtils.getPrice(seller, worldObjectToBuy);
-		boolean betterPriceExists = betterPriceExists(seller, worldObjectToBuy, world, price);
+		boolean betterPriceExists = lowestPriceCache.betterPriceExists(worldObjectToBuy.getProperty(Constants.ITEM_ID), price);
 		
 		boolean hasMoneyToBuyGoods = (price <= buyer.getProperty(Constants.GOLD));
 		
@@ -158,23 +173,7 @@ public class BuySellUtils {
 
 	static boolean betterPriceExists(WorldObject performer, WorldObject worldObjectToBuy, World world, int price) {
 		Item itemToBuy = worldObjectToBuy.getProperty(Constants.ITEM_ID);
-		boolean betterPriceExists = false;
-		List<WorldObject> targets = world.findWorldObjectsByProperty(Constants.STRENGTH, w -> hasSellableItem(w));
-		for(WorldObject target : targets) {
-			WorldObjectContainer targetInventory = target.getProperty(Constants.INVENTORY);
-			int indexForItem = targetInventory.getIndexFor(Constants.ITEM_ID, itemToBuy, w -> w.getProperty(Constants.SELLABLE));
-			if (indexForItem != -1) {
-				int priceTarget = getPrice(target, indexForItem);
-				if (priceTarget < price) {
-					betterPriceExists = true;
-				}
-			}
-		}
-		return betterPriceExists;
-	}
-
-	private static boolean hasSellableItem(WorldObject w) {
-		return  w.hasProperty(Constants.INVENTORY) && w.getProperty(Constants.INVENTORY).getWorldObjects(Constants.SELLABLE, Boolean.TRUE).size() > 0;
+		return new LowestPriceCache(world).betterPriceExists(itemToBuy, price);
 	}
 
 	public static int getIndexFor(WorldObject target, Item item) {
@@ -249,10 +248,11 @@ public class BuySellUtils {
     
     public static OperationInfo getSellOperationInfo(WorldObject seller, World world, int distance) {
 		List<WorldObject> buyers = GoalUtils.findNearestTargetsByProperty(seller, Actions.SELL_ACTION, Constants.STRENGTH, w -> Reach.distance(seller, w) <= distance, world);
+		LowestPriceCache lowestPriceCache = new LowestPriceCache(world);
 		for(WorldObject buyer : buyers) {
 			List<ManagedProperty<?>> buyingProperties = getBuyingProperties(buyer);
 			int indexOfSellableObject = getIndexOfSellableWorldObject(seller, buyingProperties);
-			if (indexOfSellableObject != -1 && buyerWillBuyGoods(seller, buyer, indexOfSellableObject, world)) {
+			if (indexOfSellableObject != -1 && buyerWillBuyGoods(seller, buyer, indexOfSellableObject, world, lowestPriceCache)) {
 				int price = calculatePrice(seller, indexOfSellableObject);
 				int quantity = calculateQuantity(buyer, seller, indexOfSellableObject);
 				int itemId = seller.getProperty(Constants.INVENTORY).get(indexOfSellableObject).getProperty(Constants.ITEM_ID).ordinal();
@@ -266,9 +266,10 @@ public class BuySellUtils {
     
     public static OperationInfo getBuyOperationInfo(WorldObject buyer, List<ManagedProperty<?>> performerBuyingProperties, World world) {
 		List<WorldObject> sellers = GoalUtils.findNearestTargetsByProperty(buyer, Actions.BUY_ACTION, Constants.STRENGTH, w -> true, world);
+		LowestPriceCache lowestPriceCache = new LowestPriceCache(world);
 		for(WorldObject seller : sellers) {
 			int indexOfSellableObject = getIndexOfSellableWorldObject(seller, performerBuyingProperties);
-			if (indexOfSellableObject != -1 && sellerWillSellGoods(buyer, seller, indexOfSellableObject, world)) {
+			if (indexOfSellableObject != -1 && buyerWillBuyGoods(seller, buyer, indexOfSellableObject, world, lowestPriceCache)) {
 				int price = calculatePrice(seller, indexOfSellableObject);
 				int quantity = calculateQuantity(buyer, seller, indexOfSellableObject);
 				int itemId = seller.getProperty(Constants.INVENTORY).get(indexOfSellableObject).getProperty(Constants.ITEM_ID).ordinal();
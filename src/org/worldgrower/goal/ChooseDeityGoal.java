@@ -78,7 +78,7 @@ public class ChooseDeityGoal implements Goal {
 	}
 	
 	private int evaluateDeity(Deity deity, World world) {
-		List<WorldObject> worshippers = world.findWorldObjectsByProperty(Constants.STRENGTH, w -> w.hasProperty(Constants.DEITY) &&  w.getProperty(Constants.DEITY) == deity);
+		List<WorldObject> worshippers = world.findWorldObjectsByPropertyValue(Constants.DEITY, deity, w -> w.hasProperty(Constants.STRENGTH));
 		int priestWorshipperCount = worshippers.stream().filter(w -> w.getProperty(Constants.PROFESSION) == Professions.PRIEST_PROFESSION).collect(Collectors.toList()).size();
 		int nonPriestWorshipperCount = worshippers.size() - priestWorshipperCount;
 		return (100 * nonPriestWorshipperCount) / (1 + priestWorshipperCount);
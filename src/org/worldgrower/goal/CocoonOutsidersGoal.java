@@ -35,9 +35,9 @@ public class CocoonOutsidersGoal implements Goal {
 
 	@Override
 	public OperationInfo calculateGoal(WorldObject performer, World world) {
-		List<WorldObject> targets = GoalUtils.findNearestTargets(performer, Actions.COCOON_ACTION, w -> GroupPropertyUtils.isWorldObjectPotentialEnemy(performer, w) && Reach.distance(performer, w) < 10 && w.getProperty(Constants.CONDITIONS).hasCondition(Condition.PARALYZED_CONDITION) && !w.getProperty(Constants.CONDITIONS).hasCondition(Condition.COCOONED_CONDITION), world);
-		if (targets.size() > 0) {
-			return new OperationInfo(performer, targets.get(0), Args.EMPTY, Actions.COCOON_ACTION);
+		WorldObject target = GoalUtils.findNearestTarget(performer, Actions.COCOON_ACTION, w -> GroupPropertyUtils.isWorldObjectPotentialEnemy(performer, w) && Reach.distance(performer, w) < 10 && w.getProperty(Constants.CONDITIONS).hasCondition(Condition.PARALYZED_CONDITION) && !w.getProperty(Constants.CONDITIONS).hasCondition(Condition.COCOONED_CONDITION), world);
+		if (target != null) {
+			return new OperationInfo(performer, target, Args.EMPTY, Actions.COCOON_ACTION);
 		} else {
 			return null;
 		}
@@ -52,13 +52,13 @@ public class CreateFoodSourcesGoal implements Goal {
 
 	@Override
 	public boolean isGoalMet(WorldObject performer, World world) {
-		List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(
+		WorldObject target = GoalUtils.findNearestTargetByProperty(
 				performer, 
 				Actions.HARVEST_FOOD_ACTION, 
 				Constants.FOOD_SOURCE,
 				w -> (w.getProperty(Constants.FOOD_SOURCE) > 100) && (Reach.distance(performer, w) < 20), 
 				world);
-		return targets.size() > 0;
+		return target != null;
 	}
 	
 	@Override
@@ -14,8 +14,6 @@
  *******************************************************************************/
 package org.worldgrower.goal;
 
-import java.util.List;
-
 import org.worldgrower.Args;
 import org.worldgrower.Constants;
 import org.worldgrower.OperationInfo;
@@ -40,9 +38,9 @@ public class DeityBoonGoal implements Goal {
 	@Override
 	public OperationInfo calculateGoal(WorldObject performer, World world) {
 		if (performer.getProperty(Constants.DEITY) == deity && isWorshipAllowed(deity, world)) {
-			List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.WORSHIP_DEITY_ACTION, Constants.CAN_BE_WORSHIPPED, w -> w.getProperty(Constants.DEITY) == deity, world);
-			if (targets.size() > 0) {
-				return new OperationInfo(performer, targets.get(0), Args.EMPTY, Actions.WORSHIP_DEITY_ACTION);
+			WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.WORSHIP_DEITY_ACTION, Constants.CAN_BE_WORSHIPPED, w -> w.getProperty(Constants.DEITY) == deity, world);
+			if (target != null) {
+				return new OperationInfo(performer, target, Args.EMPTY, Actions.WORSHIP_DEITY_ACTION);
 			}
 		}
 		return null;
@@ -53,9 +53,9 @@ public class GetDiseaseCuredGoal implements Goal {
 				return buyCureDiseasePotionOperationInfo;
 			}
 			
-			List<WorldObject> targets = GoalUtils.findNearestTargets(performer, Actions.TALK_ACTION, w -> isTargetForCureDiseaseConversation(performer, w, world), world);
-			if (targets.size() > 0) {
-				return new OperationInfo(performer, targets.get(0), Conversations.createArgs(Conversations.CURE_DISEASE_CONVERSATION), Actions.TALK_ACTION);
+			WorldObject target = GoalUtils.findNearestTarget(performer, Actions.TALK_ACTION, w -> isTargetForCureDiseaseConversation(performer, w, world), world);
+			if (target != null) {
+				return new OperationInfo(performer, target, Conversations.createArgs(Conversations.CURE_DISEASE_CONVERSATION), Actions.TALK_ACTION);
 			}
 		}
 		return null;
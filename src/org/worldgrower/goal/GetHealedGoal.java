@@ -53,9 +53,9 @@ public class GetHealedGoal implements Goal {
 				return buyHealingPotionOperationInfo;
 			}
 			
-			List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> isTargetForMinorHealConversation(performer, w, world), world);
-			if (targets.size() > 0) {
-				return new OperationInfo(performer, targets.get(0), Conversations.createArgs(Conversations.MINOR_HEAL_CONVERSATION), Actions.TALK_ACTION);
+			WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> isTargetForMinorHealConversation(performer, w, world), world);
+			if (target != null) {
+				return new OperationInfo(performer, target, Conversations.createArgs(Conversations.MINOR_HEAL_CONVERSATION), Actions.TALK_ACTION);
 			}
 		}
 		return null;
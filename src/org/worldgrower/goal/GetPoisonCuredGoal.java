@@ -54,9 +54,9 @@ public class GetPoisonCuredGoal implements Goal {
 				return buyCurePoisonPotionOperationInfo;
 			}
 			
-			List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> isTargetForCurePoisonConversation(performer, w, world), world);
-			if (targets.size() > 0) {
-				return new OperationInfo(performer, targets.get(0), Conversations.createArgs(Conversations.CURE_POISON_CONVERSATION), Actions.TALK_ACTION);
+			WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> isTargetForCurePoisonConversation(performer, w, world), world);
+			if (target != null) {
+				return new OperationInfo(performer, target, Conversations.createArgs(Conversations.CURE_POISON_CONVERSATION), Actions.TALK_ACTION);
 			}
 		}
 		return null;
@@ -33,9 +33,9 @@ public class GhoulMeatLevelGoal implements Goal {
 
 	@Override
 	public OperationInfo calculateGoal(WorldObject performer, World world) {
-		List<WorldObject> deceasedWorldObjects = GoalUtils.findNearestTargetsByProperty(performer, Actions.EAT_REMAINS_ACTION, Constants.DECEASED_WORLD_OBJECT, w -> true, world);
-		if (deceasedWorldObjects.size() > 0) {
-			return new OperationInfo(performer, deceasedWorldObjects.get(0), Args.EMPTY, Actions.EAT_REMAINS_ACTION);
+		WorldObject deceasedWorldObject = GoalUtils.findNearestTargetByProperty(performer, Actions.EAT_REMAINS_ACTION, Constants.DECEASED_WORLD_OBJECT, w -> true, world);
+		if (deceasedWorldObject != null) {
+			return new OperationInfo(performer, deceasedWorldObject, Args.EMPTY, Actions.EAT_REMAINS_ACTION);
 		}
 		
 		return null;
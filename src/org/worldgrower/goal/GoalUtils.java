@@ -31,7 +31,6 @@ import org.worldgrower.attribute.ManagedProperty;
 import org.worldgrower.generator.BuildingDimensions;
 import org.worldgrower.gui.ImageIds;
 import org.worldgrower.terrain.TerrainInfo;
-import org.worldgrower.terrain.TerrainType;
 
 public class GoalUtils {
 
@@ -50,41 +49,51 @@ public class GoalUtils {
 	}
 	
 	public static WorldObject findNearestTarget(WorldObject performer, ManagedOperation action, World world) {
-		List<WorldObject> worldObjects = world.findWorldObjects(w -> action.isValidTarget(performer, w, world));
-		
-		if (worldObjects.size() > 0) {
-			WorldObject closestWorldObject = null;
-			int closestDistance = Integer.MAX_VALUE;
-			for(WorldObject worldObject : worldObjects) {
-				int distance = Reach.distance(performer, worldObject);
-				if (distance < closestDistance) {
-					closestWorldObject = worldObject;
-					closestDistance = distance;
-				}
-			}
-
-			return closestWorldObject;
-		} else {
-			return null;
-		}
+		return findNearestTarget(performer, action, w -> true, world);
+	}
+	
+	public static WorldObject findNearestTarget(WorldObject performer, ManagedOperation action, Predicate<WorldObject> condition, World world) {
+		List<WorldObject> targets = findNearestTargets(performer, action, condition, 1, world);
+		return getFirst(targets);
 	}
 	
 	public static List<WorldObject> findNearestTargets(WorldObject performer, ManagedOperation action, Predicate<WorldObject> condition, World world) {
-		List<WorldObject> targets =  world.findWorldObjects(w -> action.isValidTarget(performer, w, world) && condition.test(w));
-		Collections.sort(targets, new WorldObjectDistanceComparator(performer));
-		return targets;
+		return findNearestTargets(performer, action, condition, Integer.MAX_VALUE, world);
+	}
+	
+	private static List<WorldObject> findNearestTargets(WorldObject performer, ManagedOperation action, Predicate<WorldObject> condition, int maxCount, World world) {
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		return world.findNearestWorldObjects(performerX, performerY, maxCount, w -> action.isValidTarget(performer, w, world) && condition.test(w));
+	}
+	
+	public static WorldObject findNearestTargetByProperty(WorldObject performer, ManagedOperation action, ManagedProperty<?> property, Predicate<WorldObject> condition, World world) {
+		List<WorldObject> targets = findNearestTargetsByProperty(performer, action, property, condition, 1, world);
+		return getFirst(targets);
 	}
 	
 	public static List<WorldObject> findNearestTargetsByProperty(WorldObject performer, ManagedOperation action, ManagedProperty<?> property, Predicate<WorldObject> condition, World world) {
-		List<WorldObject> targets = world.findWorldObjectsByProperty(property, w -> action.isValidTarget(performer, w, world) && condition.test(w));
-		Collections.sort(targets, new WorldObjectDistanceComparator(performer));
-		return targets;
+		return findNearestTargetsByProperty(performer, action, property, condition, Integer.MAX_VALUE, world);
+	}
+	
+	private static List<WorldObject> findNearestTargetsByProperty(WorldObject performer, ManagedOperation action, ManagedProperty<?> property, Predicate<WorldObject> condition, int maxCount, World world) {
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		return world.findNearestWorldObjectsByProperty(performerX, performerY, maxCount, property, w -> action.isValidTarget(performer, w, world) && condition.test(w));
+	}
+	
+	private static WorldObject getFirst(List<WorldObject> worldObjects) {
+		if (worldObjects.size() > 0) {
+			return worldObjects.get(0);
+		} else {
+			return null;
+		}
 	}
 	
 	public static OperationInfo createOperationInfo(WorldObject performer, ManagedOperation action, int[] args, World world) {
-		List<WorldObject> targets = findNearestTargets(performer, action, w -> world.getHistory().findHistoryItem(performer, w, args, action) == null, world);
-		if (targets.size() > 0) {
-			return new OperationInfo(performer, targets.get(0), args, action);
+		WorldObject target = findNearestTarget(performer, action, w -> world.getHistory().findHistoryItem(performer, w, args, action) == null, world);
+		if (target != null) {
+			return new OperationInfo(performer, target, args, action);
 		}
 		return null;
 	}
@@ -109,22 +118,7 @@ public class GoalUtils {
 	}
 	
 	public static Position findOpenNonWaterSpace(int performerX, int performerY, int width, int height, World world) {
-		Position currentLocation = null;
-		int currentDistance = Integer.MAX_VALUE;
-		for(int x=0; x<=world.getWidth()-width; x++) {
-			for(int y=0; y<=world.getHeight()-height; y++) {
-				if (world.getTerrain().getTerrainInfo(x, y).getTerrainType() != TerrainType.WATER) {
-					if (isOpenSpace(x, y, width, height, world)) {
-						int distance = Reach.distance(x, y, performerY, performerY);
-						if (distance < currentDistance) {
-							currentLocation = new Position(x, y);
-							currentDistance = distance;
-						}
-					}
-				}
-			}
-		}
-		return currentLocation;
+		return world.findNearestOpenNonWaterSpace(performerX, performerY, width, height);
 	}
 	
 	public static boolean isOpenSpace(int openSpaceX, int openSpaceY, BuildingDimensions buildingDimensions, World world) {
@@ -132,22 +126,11 @@ public class GoalUtils {
 	}
 	
 	public static boolean isNonWaterOpenSpace(int openSpaceX, int openSpaceY, int width, int height, World world) {
-		return isOpenSpace(openSpaceX, openSpaceY, width, height, world) && world.getTerrain().getTerrainInfo(openSpaceX, openSpaceY).getTerrainType() != TerrainType.WATER;
+		return world.isOpenNonWaterSpace(openSpaceX, openSpaceY, width, height);
 	}
 	
 	public static boolean isOpenSpace(int openSpaceX, int openSpaceY, int width, int height, World world) {
-		for(int x=openSpaceX; x<openSpaceX+width; x++) {
-			for(int y=openSpaceY; y<openSpaceY+height; y++) {
-				if (LocationUtils.areInvalidCoordinates(x, y, world)) {
-					return false;
-				} else {
-					if (LocationPropertyUtils.getWorldObjects(x, y, world).size() > 0) {
-						return false;
-					}
-				}
-			}
-		}
-		return true;
+		return world.isOpenSpace(openSpaceX, openSpaceY, width, height);
 	}
 	
 	public static boolean actionAlreadyPerformed(WorldObject performer, WorldObject target, ManagedOperation action, int[] args, World world) {
@@ -207,9 +190,9 @@ public class GoalUtils {
 	}
 
 	public static List<WorldObject> findNearestTargets(WorldObject performer, Predicate<WorldObject> condition, World world) {
-		List<WorldObject> targets = world.findWorldObjects(w -> condition.test(w));
-		Collections.sort(targets, new WorldObjectDistanceComparator(performer));
-		return targets;
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		return world.findNearestWorldObjects(performerX, performerY, Integer.MAX_VALUE, w -> condition.test(w));
 	}
 	
 	public static WorldObject findNearestPersonLookingLike(WorldObject performer, int targetId, World world) {
@@ -57,7 +57,10 @@ public class GroupPropertyUtils {
 	
 	public static List<WorldObject> findWorldObjectsInSameGroup(WorldObject performer, World world) {
 		IdList performerOrganizationIdList = performer.getProperty(Constants.GROUP);
-		return world.findWorldObjects(w -> w.hasIntelligence() && (w.getProperty(Constants.GROUP).intersects(performerOrganizationIdList)));
+		if (performerOrganizationIdList == null) {
+			return new ArrayList<>();
+		}
+		return world.findWorldObjectsContainingAnyId(Constants.GROUP, performerOrganizationIdList, w -> w.hasIntelligence());
 	}
 	
 	public static void throwPerformerOutGroup(WorldObject performer, WorldObject w, World world) {
@@ -78,7 +81,7 @@ public class GroupPropertyUtils {
 	}
 	
 	public static boolean isOrganizationNameInUse(String organizationName, World world) {
-		List<WorldObject> organizations = world.findWorldObjects(w -> w.hasProperty(Constants.ORGANIZATION_LEADER_ID) && w.getProperty(Constants.NAME).equals(organizationName));
+		List<WorldObject> organizations = world.findWorldObjectsByProperty(Constants.ORGANIZATION_LEADER_ID, w -> w.getProperty(Constants.NAME).equals(organizationName));
 		return organizations.size() > 0;
 	}
 	
@@ -93,25 +96,25 @@ public class GroupPropertyUtils {
 	public static List<WorldObject> findProfessionOrganizationsInWorld(WorldObject performer, World world) {
 		Profession performerProfession = performer.getProperty(Constants.PROFESSION);
 		
-		List<WorldObject> organisations = world.findWorldObjects(w -> w.hasProperty(Constants.ORGANIZATION_LEADER_ID) && w.getProperty(Constants.PROFESSION) == performerProfession);
+		List<WorldObject> organisations = world.findWorldObjectsByProperty(Constants.ORGANIZATION_LEADER_ID, w -> w.getProperty(Constants.PROFESSION) == performerProfession);
 		return organisations;
 	}
 	
 	public static List<WorldObject> findReligionOrganizationsInWorld(WorldObject performer, World world) {
 		Deity performerDeity = performer.getProperty(Constants.DEITY);
 		
-		List<WorldObject> organisations = world.findWorldObjects(w -> w.hasProperty(Constants.ORGANIZATION_LEADER_ID) && w.getProperty(Constants.DEITY) == performerDeity);
+		List<WorldObject> organisations = world.findWorldObjectsByProperty(Constants.ORGANIZATION_LEADER_ID, w -> w.getProperty(Constants.DEITY) == performerDeity);
 		return organisations;
 	}
 	
 	public static List<WorldObject> findOrganizationMembers(WorldObject organization, World world) {
-		List<WorldObject> members = world.findWorldObjectsByProperty(Constants.STRENGTH, w -> worldObjectIsMemberOfOrganization(organization, w));
+		IdList organizationIdList = new IdList().add(organization);
+		List<WorldObject> members = world.findWorldObjectsContainingAnyId(Constants.GROUP, organizationIdList, w -> worldObjectIsMember(w));
 		return members;
 	}
 
-	private static boolean worldObjectIsMemberOfOrganization(WorldObject organization, WorldObject w) {
-		IdList group = w.getProperty(Constants.GROUP);
-		return ((group != null) && (group.contains(organization) && w.getProperty(Constants.CREATURE_TYPE) == CreatureType.HUMAN_CREATURE_TYPE));
+	private static boolean worldObjectIsMember(WorldObject w) {
+		return w.hasProperty(Constants.STRENGTH) && w.getProperty(Constants.CREATURE_TYPE) == CreatureType.HUMAN_CREATURE_TYPE;
 	}
 	
 	public static WorldObject findProfessionOrganization(WorldObject performer, World world) {
@@ -434,7 +437,7 @@ public class GroupPropertyUtils {
 	
 	public static WorldObject createMinionOrganization(WorldObject performer, World world) {
 		final WorldObject minionOrganization;
-		List<WorldObject> minionOrganizations = world.findWorldObjects(w -> GroupPropertyUtils.isMinionOrganization(w) && GroupPropertyUtils.performerIsLeaderOfOrganization(performer, w, world));
+		List<WorldObject> minionOrganizations = world.findWorldObjectsByProperty(Constants.MINION_ORGANIZATION, w -> GroupPropertyUtils.isMinionOrganization(w) && GroupPropertyUtils.performerIsLeaderOfOrganization(performer, w, world));
 		if (minionOrganizations.size() > 0) {
 			minionOrganization = minionOrganizations.get(0);
 		} else {
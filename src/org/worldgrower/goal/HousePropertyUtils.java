@@ -110,9 +110,9 @@ public class HousePropertyUtils {
 	}
 	
 	public static OperationInfo createBuyBuildingOperationInfo(WorldObject performer, BuildingType buildingType, World world) {
-		List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> hasBuildingForSale(w, buildingType, world), world);
-		if (targets.size() > 0) {
-			return new OperationInfo(performer, targets.get(0), Conversations.createArgs(Conversations.getBuyBuildingConversation(buildingType)), Actions.TALK_ACTION);
+		WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> hasBuildingForSale(w, buildingType, world), world);
+		if (target != null) {
+			return new OperationInfo(performer, target, Conversations.createArgs(Conversations.getBuyBuildingConversation(buildingType)), Actions.TALK_ACTION);
 		} else {
 			return null;
 		}
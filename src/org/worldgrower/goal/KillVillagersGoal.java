@@ -37,9 +37,9 @@ public class KillVillagersGoal implements Goal {
 		if (performer.getProperty(Constants.INVENTORY).getQuantityFor(Constants.POISON_DAMAGE) == 0) {
 			return Goals.CREATE_POISON_GOAL.calculateGoal(performer, world);
 		} else {
-			List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.POISON_ACTION, Constants.WATER_SOURCE, w -> !w.hasIntelligence(), world);
-			if (targets.size() > 0) {
-				return new OperationInfo(performer, targets.get(0), Args.EMPTY, Actions.POISON_ACTION);
+			WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.POISON_ACTION, Constants.WATER_SOURCE, w -> !w.hasIntelligence(), world);
+			if (target != null) {
+				return new OperationInfo(performer, target, Args.EMPTY, Actions.POISON_ACTION);
 			} else {
 				return null;
 			}
@@ -47,7 +47,10 @@ public class KnowledgeMapPropertyUtils {
 	}
 
 	private static List<WorldObject> getPeopleInVicinity(WorldObject performer, World world) {
-		List<WorldObject> peopleThatknow = world.findWorldObjects(w -> w.hasIntelligence() && w.hasProperty(Constants.KNOWLEDGE_MAP) && Reach.distance(performer, w) < PerceptionPropertyUtils.calculateRadius(w, world));
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		// only WorldObjects within the largest possible perception radius can perceive the performer
+		List<WorldObject> peopleThatknow = world.findWorldObjectsWithinDistance(performerX, performerY, PerceptionPropertyUtils.MAX_RADIUS - 1, w -> w.hasIntelligence() && w.hasProperty(Constants.KNOWLEDGE_MAP) && Reach.distance(performer, w) < PerceptionPropertyUtils.calculateRadius(w, world));
 		return peopleThatknow;
 	}
 	
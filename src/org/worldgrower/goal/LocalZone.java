@@ -0,0 +1,82 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.goal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.worldgrower.Constants;
+import org.worldgrower.WorldObject;
+
+/**
+ * A LocalZone holds the same values as a Zone, but only for the squares around a center location.
+ * This avoids allocating and filling an overlay of the whole world when only the neighbourhood of a WorldObject is needed.
+ */
+public class LocalZone {
+
+	private final int[] zone;
+	private final int minX;
+	private final int minY;
+	private final int maxX;
+	private final int maxY;
+	
+	public LocalZone(int centerX, int centerY, int radius, int worldWidth, int worldHeight) {
+		this.minX = Math.max(0, centerX - radius);
+		this.minY = Math.max(0, centerY - radius);
+		this.maxX = Math.min(worldWidth - 1, centerX + radius);
+		this.maxY = Math.min(worldHeight - 1, centerY + radius);
+		this.zone = new int[Math.max(0, maxX - minX + 1) * Math.max(0, maxY - minY + 1)];
+	}
+	
+	public void addValues(List<WorldObject> worldObjects, int zoneLimit, int increment) {
+		for(WorldObject target : worldObjects) {
+			int targetX = target.getProperty(Constants.X);
+			int targetY = target.getProperty(Constants.Y);
+
+			for(int x=Math.max(minX, targetX - zoneLimit); x<=Math.min(maxX, targetX + zoneLimit); x++) {
+				for(int y=Math.max(minY, targetY - zoneLimit); y<=Math.min(maxY, targetY + zoneLimit); y++) {
+					zone[index(x, y)] += increment;
+				}
+			}
+		}
+	}
+	
+	private int index(int x, int y) {
+		return (x - minX) * (maxY - minY + 1) + (y - minY);
+	}
+	
+	public int value(int x, int y) {
+		if (x < minX || x > maxX || y < minY || y > maxY) {
+			throw new IllegalArgumentException("Location " + x + "," + y + " is outside of the LocalZone");
+		}
+		return zone[index(x, y)];
+	}
+	
+	public List<Integer> getValuesX() {
+		List<Integer> result = new ArrayList<Integer>();
+		for(int x=minX; x<=maxX; x++) {
+			result.add(x);
+		}
+		return result;
+	}
+	
+	public List<Integer> getValuesY() {
+		List<Integer> result = new ArrayList<Integer>();
+		for(int y=minY; y<=maxY; y++) {
+			result.add(y);
+		}
+		return result;
+	}
+}
@@ -49,9 +49,13 @@ public class LocationPropertyUtils {
 		
 		worldObject.setProperty(Constants.X, -10);
 		worldObject.setProperty(Constants.Y, -10);
+		
+		world.getWorldObjectsCache(Constants.X, Constants.Y).add(worldObject);
 	}
 	
 	public static void moveOnscreen(WorldObject worldObject, int x, int y, World world) {
+		world.getWorldObjectsCache(Constants.X, Constants.Y).remove(worldObject);
+		
 		worldObject.setProperty(Constants.X, x);
 		worldObject.setProperty(Constants.Y, y);
 		
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.goal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.worldgrower.Constants;
+import org.worldgrower.World;
+import org.worldgrower.WorldObject;
+import org.worldgrower.attribute.WorldObjectContainer;
+import org.worldgrower.generator.Item;
+
+/**
+ * A LowestPriceCache keeps the lowest price for which each Item is offered for sale.
+ * The sellers of an Item and their prices are looked up once, the first time they are needed,
+ * so a LowestPriceCache should only be used while inventories and prices can't change, for example while calculating a goal.
+ */
+class LowestPriceCache {
+
+	private final World world;
+	private final Map<Item, Integer> lowestPrices = new HashMap<>();
+	
+	public LowestPriceCache(World world) {
+		this.world = world;
+	}
+	
+	public boolean betterPriceExists(Item item, int price) {
+		return getLowestPrice(item) < price;
+	}
+	
+	private int getLowestPrice(Item item) {
+		Integer lowestPrice = lowestPrices.get(item);
+		if (lowestPrice == null) {
+			lowestPrice = calculateLowestPrice(item);
+			lowestPrices.put(item, lowestPrice);
+		}
+		return lowestPrice;
+	}
+	
+	private int calculateLowestPrice(Item item) {
+		int lowestPrice = Integer.MAX_VALUE;
+		for(WorldObject seller : world.findSellers(item, w -> w.hasProperty(Constants.STRENGTH))) {
+			WorldObjectContainer sellerInventory = seller.getProperty(Constants.INVENTORY);
+			int indexForItem = sellerInventory.getIndexFor(Constants.ITEM_ID, item, w -> w.getProperty(Constants.SELLABLE));
+			if (indexForItem != -1) {
+				lowestPrice = Math.min(lowestPrice, BuySellUtils.getPrice(seller, indexForItem));
+			}
+		}
+		return lowestPrice;
+	}
+}
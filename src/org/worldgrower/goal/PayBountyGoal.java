@@ -33,9 +33,9 @@ public class PayBountyGoal implements Goal {
 
 	@Override
 	public OperationInfo calculateGoal(WorldObject performer, World world) {
-		List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> Conversations.PAY_BOUNTY_CONVERSATION.isConversationAvailable(performer, w, null, world), world);
-		if (targets.size() > 0) {
-			return new OperationInfo(performer, targets.get(0), Conversations.createArgs(Conversations.PAY_BOUNTY_CONVERSATION), Actions.TALK_ACTION);
+		WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> Conversations.PAY_BOUNTY_CONVERSATION.isConversationAvailable(performer, w, null, world), world);
+		if (target != null) {
+			return new OperationInfo(performer, target, Conversations.createArgs(Conversations.PAY_BOUNTY_CONVERSATION), Actions.TALK_ACTION);
 		}
 		
 		return null;
@@ -21,19 +21,57 @@ import org.worldgrower.condition.Condition;
 
 public class PerceptionPropertyUtils {
 
+	private static final int[] PERCEPTION_RADIUS = createPerceptionRadius(256);
+	private static final int MAX_DARKNESS_RADIUS = 5;
+	
+	/**
+	 * No perception radius is larger than this, even for the highest perception skill.
+	 */
+	public static final int MAX_RADIUS = 13 + MAX_DARKNESS_RADIUS + (int) Math.log(Integer.MAX_VALUE);
+	
+	private static volatile DarknessRadius darknessRadius = new DarknessRadius(0);
+	
 	public static int calculateRadius(WorldObject worldObject, World world) {
 		int currentTurn = world.getCurrentTurn().getValue();
 		int perception = worldObject.getProperty(Constants.PERCEPTION_SKILL).getLevel(worldObject);
-		int perceptionRadius = (int) Math.log(perception + 1);
-		double darknessModifier = Math.sin(currentTurn * Math.PI / 100);
+		int perceptionRadius = calculatePerceptionRadius(perception);
+		final int darknessRadiusForTurn;
 		if (hasDarkVision(worldObject) || hasLightSource(worldObject)) {
-			darknessModifier = 1.0f;
+			darknessRadiusForTurn = MAX_DARKNESS_RADIUS;
+		} else {
+			darknessRadiusForTurn = getDarknessRadius(currentTurn);
 		}
 		
-		int radius = 13 + (int)(darknessModifier * 5) + perceptionRadius;
+		int radius = 13 + darknessRadiusForTurn + perceptionRadius;
 		return radius;
 	}
 	
+	private static int calculatePerceptionRadius(int perception) {
+		if (perception >= 0 && perception < PERCEPTION_RADIUS.length) {
+			return PERCEPTION_RADIUS[perception];
+		} else {
+			return (int) Math.log(perception + 1);
+		}
+	}
+	
+	private static int[] createPerceptionRadius(int maxPerception) {
+		int[] perceptionRadius = new int[maxPerception];
+		for(int perception = 0; perception < maxPerception; perception++) {
+			perceptionRadius[perception] = (int) Math.log(perception + 1);
+		}
+		return perceptionRadius;
+	}
+	
+	// the darkness radius only changes each turn, so it is calculated once per turn
+	private static int getDarknessRadius(int currentTurn) {
+		DarknessRadius currentDarknessRadius = darknessRadius;
+		if (currentDarknessRadius.turn != currentTurn) {
+			currentDarknessRadius = new DarknessRadius(currentTurn);
+			darknessRadius = currentDarknessRadius;
+		}
+		return currentDarknessRadius.radius;
+	}
+	
 	private static boolean hasDarkVision(WorldObject target) {
 		return target.hasProperty(Constants.CONDITIONS) && target.getProperty(Constants.CONDITIONS).hasCondition(Condition.DARK_VISION_CONDITION);
 	}
@@ -53,4 +91,14 @@ public class PerceptionPropertyUtils {
 		}
 		return false;
 	}
+	
+	private static class DarknessRadius {
+		private final int turn;
+		private final int radius;
+		
+		public DarknessRadius(int turn) {
+			this.turn = turn;
+			this.radius = (int)(Math.sin(turn * Math.PI / 100) * MAX_DARKNESS_RADIUS);
+		}
+	}
 }
@@ -70,17 +70,18 @@ public class ProtectOneSelfGoal implements Goal {
 	}
 
 	public MoveArgsResult calculateMoveArgs(WorldObject performer, World world, List<WorldObject> targets) {
-		Zone zone = new Zone(world.getWidth(), world.getHeight());
+		int performerX = performer.getProperty(Constants.X);
+		int performerY = performer.getProperty(Constants.Y);
+		// only the squares next to the performer are considered, so the danger values are only needed there
+		LocalZone zone = new LocalZone(performerX, performerY, 1, world.getWidth(), world.getHeight());
 		for(int i=1; i<RANGE; i++) {
 			zone.addValues(targets, i, 1);
 		}
 		
 		int lowestDangerValue = Integer.MAX_VALUE;
-		int performerX = performer.getProperty(Constants.X);
-		int performerY = performer.getProperty(Constants.Y);
 		int[] bestArgs = null;
-		for(int x : zone.getValuesX(performerX)) { // x = performerX -1 to performerX +1
-			for(int y : zone.getValuesY(performerY)) { // y = performerY -1 to performerY +1
+		for(int x : zone.getValuesX()) { // x = performerX -1 to performerX +1
+			for(int y : zone.getValuesY()) { // y = performerY -1 to performerY +1
 				if (!((x == performerX) && (y == performerY))) {
 					//System.out.println("x=" + x + ",y="+y+",zone.value(x, y)="+zone.value(x, y));
 					if ((zone.value(x, y) < lowestDangerValue) && movementIsPossible(performer, x, y, world)) {
@@ -39,10 +39,10 @@ public class RebellionGoal implements Goal {
 		
 		int relationshipValue = performer.getProperty(Constants.RELATIONSHIPS).getValue(leader);
 		if (Constants.RELATIONSHIP_VALUE.isAtMin(relationshipValue)) {
-			List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> isTargetForRebellionConversation(performer, w, leader, rebels, world) && Constants.RELATIONSHIP_VALUE.isAtMin(w.getProperty(Constants.RELATIONSHIPS).getValue(leader)), world);
-			if (targets.size() > 0) {
+			WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> isTargetForRebellionConversation(performer, w, leader, rebels, world) && Constants.RELATIONSHIP_VALUE.isAtMin(w.getProperty(Constants.RELATIONSHIPS).getValue(leader)), world);
+			if (target != null) {
 				int[] args = Conversations.createArgs(Conversations.START_REBELLION_CONVERSATION);
-				return new OperationInfo(performer, targets.get(0), args, Actions.TALK_ACTION);
+				return new OperationInfo(performer, target, args, Actions.TALK_ACTION);
 			}
 		}
 		return null;
@@ -63,9 +63,9 @@ public class RemoveCurseGoal implements Goal {
 				return buyRemoveCursePotionOperationInfo;
 			}
 			
-			List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> isTargetForRemoveCurseConversation(performer, w, world), world);
-			if (targets.size() > 0) {
-				return new OperationInfo(performer, targets.get(0), Conversations.createArgs(Conversations.REMOVE_CURSE_CONVERSATION), Actions.TALK_ACTION);
+			WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.TALK_ACTION, Constants.STRENGTH, w -> isTargetForRemoveCurseConversation(performer, w, world), world);
+			if (target != null) {
+				return new OperationInfo(performer, target, Conversations.createArgs(Conversations.REMOVE_CURSE_CONVERSATION), Actions.TALK_ACTION);
 			}
 		}
 		return null;
@@ -64,9 +64,9 @@ public class SacrificePeopleToDeityGoal implements Goal {
 		for(WorldObject sacrificialAltar : sacrificialAltars) {
 			int altarX = sacrificialAltar.getProperty(Constants.X);
 			int altarY = sacrificialAltar.getProperty(Constants.Y);
-			List<WorldObject> personsOnAltar = GoalUtils.findNearestTargetsByProperty(performer, Actions.MELEE_ATTACK_ACTION, Constants.STRENGTH, w -> isAltarVictim(altarX, altarY, w), world);
-			if (personsOnAltar.size() > 0) {
-				return personsOnAltar.get(0);
+			WorldObject personOnAltar = GoalUtils.findNearestTargetByProperty(performer, Actions.MELEE_ATTACK_ACTION, Constants.STRENGTH, w -> isAltarVictim(altarX, altarY, w), world);
+			if (personOnAltar != null) {
+				return personOnAltar;
 			}
 		}
 		return null;
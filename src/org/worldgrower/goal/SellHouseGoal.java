@@ -38,16 +38,17 @@ public class SellHouseGoal implements Goal {
 		if (houseIds.size() > 0) {
 			int houseId = houseIds.get(0);
 			WorldObject house = world.findWorldObjectById(houseId);
-			List<WorldObject> targets = GoalUtils.findNearestTargets(performer, Actions.SELL_ACTION, w -> isSellHouseTarget(performer, world, house, w) , world);
-			if (targets.size() > 0) {
-				return new OperationInfo(performer, targets.get(0), Conversations.createArgs(Conversations.SELL_HOUSE_CONVERSATION), Actions.TALK_ACTION);
+			LowestPriceCache lowestPriceCache = new LowestPriceCache(world);
+			WorldObject target = GoalUtils.findNearestTarget(performer, Actions.SELL_ACTION, w -> isSellHouseTarget(performer, world, house, w, lowestPriceCache) , world);
+			if (target != null) {
+				return new OperationInfo(performer, target, Conversations.createArgs(Conversations.SELL_HOUSE_CONVERSATION), Actions.TALK_ACTION);
 			}
 		}
 		return null;
 	}
 
-	private boolean isSellHouseTarget(WorldObject performer, World world, WorldObject house, WorldObject w) {
-		return BuySellUtils.buyerWillBuyGoods(performer, w, house, world) && Actions.TALK_ACTION.canExecuteIgnoringDistance(performer, w, Conversations.createArgs(Conversations.SELL_HOUSE_CONVERSATION), world);
+	private boolean isSellHouseTarget(WorldObject performer, World world, WorldObject house, WorldObject w, LowestPriceCache lowestPriceCache) {
+		return BuySellUtils.buyerWillBuyGoods(performer, w, house, world, lowestPriceCache) && Actions.TALK_ACTION.canExecuteIgnoringDistance(performer, w, Conversations.createArgs(Conversations.SELL_HOUSE_CONVERSATION), world);
 	}
 	
 	@Override
@@ -35,9 +35,9 @@ public class StartBrawlGoal implements Goal {
 	public OperationInfo calculateGoal(WorldObject performer, World world) {
 		if (performerHasTalentForBrawling(performer) && isAtMaximumHealth(performer)) {
 			if (!BrawlPropertyUtils.isBrawling(performer)) {
-				List<WorldObject> targets = GoalUtils.findNearestTargetsByProperty(performer, Actions.NON_LETHAL_MELEE_ATTACK_ACTION, Constants.STRENGTH, w -> isBrawlTarget(performer, w, world), world);
-				if (targets.size() > 0) {
-					return new OperationInfo(performer, targets.get(0), Conversations.createArgs(Conversations.BRAWL_CONVERSATION), Actions.TALK_ACTION);
+				WorldObject target = GoalUtils.findNearestTargetByProperty(performer, Actions.NON_LETHAL_MELEE_ATTACK_ACTION, Constants.STRENGTH, w -> isBrawlTarget(performer, w, world), world);
+				if (target != null) {
+					return new OperationInfo(performer, target, Conversations.createArgs(Conversations.BRAWL_CONVERSATION), Actions.TALK_ACTION);
 				}
 			}
 		}
@@ -34,9 +34,9 @@ public class SubdueOutsidersGoal implements Goal {
 
 	@Override
 	public OperationInfo calculateGoal(WorldObject performer, World world) {
-		List<WorldObject> targets = GoalUtils.findNearestTargets(performer, Actions.POISON_ATTACK_ACTION, w -> isTarget(performer, w), world);
-		if (targets.size() > 0) {
-			return new OperationInfo(performer, targets.get(0), Args.EMPTY, Actions.POISON_ATTACK_ACTION);
+		WorldObject target = GoalUtils.findNearestTarget(performer, Actions.POISON_ATTACK_ACTION, w -> isTarget(performer, w), world);
+		if (target != null) {
+			return new OperationInfo(performer, target, Args.EMPTY, Actions.POISON_ATTACK_ACTION);
 		} else {
 			return null;
 		}
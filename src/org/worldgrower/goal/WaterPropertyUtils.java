@@ -14,8 +14,6 @@
  *******************************************************************************/
 package org.worldgrower.goal;
 
-import java.util.List;
-
 import org.worldgrower.Constants;
 import org.worldgrower.Reach;
 import org.worldgrower.World;
@@ -32,12 +30,7 @@ public class WaterPropertyUtils {
 
 	public static WorldObject findWaterSource(WorldObject performer, World world) {
 		KnowledgeMap knowledgeMap = performer.getProperty(Constants.KNOWLEDGE_MAP);
-		List<WorldObject> targets = GoalUtils.findNearestTargets(performer, Actions.DRINK_ACTION, w -> !knowledgeMap.hasProperty(w, Constants.POISON_DAMAGE) && Reach.distance(performer, w) < 15, world);
-		if (targets.size() > 0) {
-			return targets.get(0);
-		} else {
-			return null;
-		}
+		return GoalUtils.findNearestTarget(performer, Actions.DRINK_ACTION, w -> !knowledgeMap.hasProperty(w, Constants.POISON_DAMAGE) && Reach.distance(performer, w) < 15, world);
 	}
 
 	public static void everyoneInVicinityKnowsOfPoisoning(WorldObject performer, WorldObject target, World world) {
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui;
+
+/**
+ * Decides which step of an animation is shown at a given time and when the next frame should be painted.
+ * The animation takes the same time however long frames take to paint, slow frames cause steps to be skipped.
+ * When painting a frame takes longer than the frame budget, the next frame is delayed by the same amount of time,
+ * so that at least half of the time remains available for handling user input.
+ * 
+ * Times are in nanoseconds, as returned by System.nanoTime.
+ */
+class AnimationFrameScheduler {
+
+	static final int LAST_STEP = 48;
+	
+	private final long animationDuration;
+	private final long frameBudget;
+	
+	private long animationStart;
+	private boolean framePending = false;
+	private long earliestNextFrame = 0;
+	
+	private long framesPainted = 0;
+	private long framesDropped = 0;
+	private long totalFrameTime = 0;
+	private long maxFrameTime = 0;
+	
+	public AnimationFrameScheduler(long animationDuration, long frameBudget) {
+		this.animationDuration = animationDuration;
+		this.frameBudget = frameBudget;
+	}
+	
+	public void start(long now) {
+		animationStart = now;
+		framePending = false;
+		earliestNextFrame = now;
+	}
+	
+	/**
+	 * Returns the even step between 0 and LAST_STEP which should be shown at the given time.
+	 */
+	public int getStep(long now) {
+		long elapsed = Math.max(0, now - animationStart);
+		if (elapsed >= animationDuration) {
+			return LAST_STEP;
+		} else {
+			int step = (int) (elapsed * LAST_STEP / animationDuration);
+			return step - (step % 2);
+		}
+	}
+	
+	public boolean isFinished(long now) {
+		return getStep(now) == LAST_STEP;
+	}
+	
+	/**
+	 * Returns whether a new frame should be requested at the given time.
+	 * If a new frame is requested, framePainted should be called once it has been painted.
+	 */
+	public boolean requestFrame(long now) {
+		if (framePending || now < earliestNextFrame) {
+			framesDropped++;
+			return false;
+		} else {
+			framePending = true;
+			return true;
+		}
+	}
+	
+	public void framePainted(long paintStart, long paintEnd) {
+		long frameTime = paintEnd - paintStart;
+		framePending = false;
+		framesPainted++;
+		totalFrameTime += frameTime;
+		maxFrameTime = Math.max(maxFrameTime, frameTime);
+		
+		if (frameTime > frameBudget) {
+			earliestNextFrame = paintEnd + frameTime;
+		} else {
+			earliestNextFrame = paintEnd;
+		}
+	}
+	
+	/**
+	 * Called instead of framePainted when nothing needed to be painted for a requested frame.
+	 */
+	public void cancelFrame() {
+		framePending = false;
+	}
+	
+	public boolean isFramePending() {
+		return framePending;
+	}
+
+	public long getFramesPainted() {
+		return framesPainted;
+	}
+
+	public long getFramesDropped() {
+		return framesDropped;
+	}
+	
+	public double getAverageFrameTimeInMilliseconds() {
+		if (framesPainted == 0) {
+			return 0;
+		} else {
+			return totalFrameTime / (framesPainted * 1000000.0);
+		}
+	}
+	
+	public double getMaxFrameTimeInMilliseconds() {
+		return maxFrameTime / 1000000.0;
+	}
+
+	@Override
+	public String toString() {
+		return "framesPainted=" + framesPainted + ", framesDropped=" + framesDropped 
+				+ String.format(", averageFrameTime=%.2fms, maxFrameTime=%.2fms", getAverageFrameTimeInMilliseconds(), getMaxFrameTimeInMilliseconds());
+	}
+}
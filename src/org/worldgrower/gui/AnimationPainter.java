@@ -5,6 +5,7 @@ import java.awt.Composite;
 import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -13,6 +14,8 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.swing.Timer;
+
 import org.worldgrower.Constants;
 import org.worldgrower.OperationInfo;
 import org.worldgrower.World;
@@ -21,11 +24,23 @@ import org.worldgrower.actions.AnimatedAction;
 import org.worldgrower.actions.magic.MagicSpell;
 import org.worldgrower.attribute.LookDirection;
 
+/**
+ * Animates the world objects on screen after the player character performs an action.
+ * A timer advances the animation and only repaints the area in which something changes.
+ */
 public class AnimationPainter {
+	private static final long MOVE_DURATION_IN_NANOSECONDS = 300000000L;
+	private static final long FRAME_BUDGET_IN_NANOSECONDS = 12000000L;
+	private static final int FRAME_INTERVAL_IN_MILLISECONDS = 10;
+	
+	private final WorldPanel worldPanel;
+	private final Timer frameTimer;
+	private final AnimationFrameScheduler frameScheduler = new AnimationFrameScheduler(MOVE_DURATION_IN_NANOSECONDS, FRAME_BUDGET_IN_NANOSECONDS);
 	private ActionListener guiAfterMoveAction;
 	private boolean moveMode = false;
 	private int moveStep = 0;
 	private int moveIndex = 0;
+	private Rectangle animatedArea = null;
 	
 	private List<WorldObject> worldObjects = new ArrayList<>();
 	private List<WorldObject> deadWorldObjects = new ArrayList<>();
@@ -36,6 +51,8 @@ public class AnimationPainter {
 	private List<MagicTarget> magicTargets = new ArrayList<>();
 	
 	public AnimationPainter(WorldPanel worldPanel) {
+		this.worldPanel = worldPanel;
+		this.frameTimer = new Timer(FRAME_INTERVAL_IN_MILLISECONDS, e -> nextFrame());
 		initializeWorldObjects(worldPanel);
 	}
 	
@@ -56,6 +73,104 @@ public class AnimationPainter {
 		//System.out.println("startMove: moveStep = " + moveStep);
 		
 		initializeMovingWorldObjects(guiMoveAction, world, imageInfoReader, worldPanel);
+		animatedArea = calculateAnimatedArea(imageInfoReader);
+		
+		frameScheduler.start(System.nanoTime());
+		frameTimer.start();
+	}
+	
+	private void nextFrame() {
+		long now = System.nanoTime();
+		if (frameScheduler.isFinished(now)) {
+			endMove();
+		} else if (frameScheduler.requestFrame(now)) {
+			moveStep = frameScheduler.getStep(now);
+			moveIndex = ((moveStep + 15) / 16) % 3;
+			if (!worldPanel.repaintAnimationFrame(animatedArea)) {
+				frameScheduler.cancelFrame();
+			}
+		}
+	}
+	
+	private void endMove() {
+		frameTimer.stop();
+		moveMode = false;
+		moveIndex = 0;
+		moveStep = 0;
+		animatedArea = null;
+		worldPanel.repaintWorldView();
+		if (this.guiAfterMoveAction != null) {
+			this.guiAfterMoveAction.actionPerformed(null);
+		}
+	}
+	
+	/**
+	 * Called after the world view has been painted, so that the time spent painting is taken into account
+	 * when scheduling the next frame.
+	 */
+	public void framePainted(long paintStart, long paintEnd) {
+		if (frameScheduler.isFramePending()) {
+			frameScheduler.framePainted(paintStart, paintEnd);
+		}
+	}
+	
+	public String getFrameStatistics() {
+		return frameScheduler.toString();
+	}
+	
+	/**
+	 * Returns the area in squares containing the old and new positions of moving world objects
+	 * and the world objects which have effects drawn on them, or null if there is no such area.
+	 */
+	private Rectangle calculateAnimatedArea(ImageInfoReader imageInfoReader) {
+		Rectangle area = null;
+		for(WorldObject worldObject : worldObjects) {
+			int id = worldObject.getProperty(Constants.ID);
+			if (!positionRemainsSame(id)) {
+				int width = worldObject.getProperty(Constants.WIDTH);
+				int height = worldObject.getProperty(Constants.HEIGHT);
+				Point oldPosition = oldPositions.get(id);
+				Point newPosition = newPositions.get(id);
+				area = union(area, new Rectangle(oldPosition.x, oldPosition.y, width, height));
+				area = union(area, new Rectangle(newPosition.x, newPosition.y, width, height));
+			}
+		}
+		for(WorldObject worldObject : deadWorldObjects) {
+			area = union(area, getArea(worldObject, 0, null));
+		}
+		for(WorldObject worldObject : newWorldObjects) {
+			area = union(area, getArea(worldObject, 0, null));
+		}
+		for(WorldObject magicCaster : magicCasters) {
+			area = union(area, getArea(magicCaster, -1, imageInfoReader.getImage(ImageIds.MAGIC1, 0)));
+		}
+		for(MagicTarget magicTarget : magicTargets) {
+			area = union(area, getArea(magicTarget.getTarget(), 0, imageInfoReader.getImage(magicTarget.getImageId(), 0)));
+		}
+		return area;
+	}
+	
+	private static Rectangle getArea(WorldObject worldObject, int delta, Image image) {
+		int x = worldObject.getProperty(Constants.X) + delta;
+		int y = worldObject.getProperty(Constants.Y) + delta;
+		final int width;
+		final int height;
+		if (image != null) {
+			width = (image.getWidth(null) + 47) / 48;
+			height = (image.getHeight(null) + 47) / 48;
+		} else {
+			width = worldObject.getProperty(Constants.WIDTH);
+			height = worldObject.getProperty(Constants.HEIGHT);
+		}
+		return new Rectangle(x, y, width, height);
+	}
+	
+	private static Rectangle union(Rectangle area, Rectangle otherArea) {
+		if (area == null) {
+			return otherArea;
+		} else {
+			return area.union(otherArea);
+		}
 	}
 
 	private void initializeMovingWorldObjects(ActionListener guiMoveAction, World world, ImageInfoReader imageInfoReader, WorldPanel worldPanel) {
@@ -151,14 +266,6 @@ public class AnimationPainter {
 	
 	public void drawWorldObjects(Graphics g, WorldPanel worldPanel, ImageInfoReader imageInfoReader, World world) {
 		//System.out.println("drawWorldObjects: moveStep = " + moveStep + ", moveMode = " + moveMode);
-		if (moveStep > 0 && moveStep < 48) {
-			try {
-				Thread.sleep(8);
-			} catch (InterruptedException e) {
-				throw new IllegalStateException(e);
-			}
-		}
-		
 		boolean drawAnimation = moveMode && moveStep < 48;
 		paintWorldObjects(worldObjects, g, worldPanel, imageInfoReader, world, drawAnimation);
 		if (!drawAnimation) {
@@ -174,17 +281,6 @@ public class AnimationPainter {
 				paintMagicTargetForWorldObject(g, worldPanel, magicTarget, imageInfoReader, moveStep, moveIndex, world);
 			}
 		}
-		if (drawAnimation) {
-			moveStep += 2;
-			worldPanel.repaintWorldView();
-		} else {
-			moveMode = false;
-			moveIndex = 0;
-			moveStep = 0;
-			if (this.guiAfterMoveAction != null) {
-				this.guiAfterMoveAction.actionPerformed(null);
-			}
-		}
 	}
 	
 	public int getDeltaX(WorldObject playerCharacter) {
@@ -225,10 +321,6 @@ public class AnimationPainter {
 					if (drawAnimation && !positionRemainsSame) {
 						
 						paintMovingWorldObject(g, worldPanel, worldObject, imageInfoReader, id, lookDirection, worldObject.getProperty(Constants.ID), moveStep, moveIndex);
-						
-						if (moveStep % 16 == 0) {
-							moveIndex = (moveIndex + 1) % 3;
-						}
 					} else {
 						//System.out.println("drawWorldObjects.notMoving: moveStep = " + moveStep + ", moveMode = " + moveMode);
 						if (!moveMode || positionRemainsSame) {
@@ -350,7 +442,6 @@ public class AnimationPainter {
 				
 				Composite composite = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha);
 				worldPanel.drawWorldObjectInPixels(g, worldObject, lookDirection, image, x, y, 0, 0, false, composite);
-				worldPanel.repaintAround(x, y, worldObject);				
 			}
 		}
 	}
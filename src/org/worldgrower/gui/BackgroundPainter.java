@@ -18,6 +18,7 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.awt.image.FilteredImageSource;
@@ -40,6 +41,9 @@ import org.worldgrower.terrain.TerrainType;
 
 public class BackgroundPainter {
 
+	// enough chunks to cover a large screen and scroll back and forth without rendering them again
+	private static final int MAX_CACHED_CHUNKS = 24;
+
 	private final Map<TerrainType, Color> terrainTypesToColor = new HashMap<>();
 	private final Image[] backgroundImages = new Image[TerrainType.values().length];
 	private final Map<BackgroundTransitionKey, Image> backgroundTransitionMap = new HashMap<>();
@@ -47,6 +51,8 @@ public class BackgroundPainter {
 	
 	private boolean[][] hasFlowers;
 	private Image[] flowerImages = new Image[TerrainType.values().length];
+	private Image[][] tileImages;
+	private final TerrainChunkCache terrainChunkCache;
 	
 	public BackgroundPainter(Image grassBackgroundImage, Image grassFlowerImage, ImageInfoReader imageInfoReader, World world) {
 		terrainTypesToColor.put(TerrainType.WATER, new Color(0, 0, 163));
@@ -60,6 +66,9 @@ public class BackgroundPainter {
 		fillBackgroundImagesMap(grassBackgroundImage, grassFlowerImage);
 		fillBackgroundTransitionMap(world);
 		fillFlowersMap(world);
+		fillTileImages(world);
+		
+		this.terrainChunkCache = new TerrainChunkCache(world.getWidth(), world.getHeight(), MAX_CACHED_CHUNKS, this::paintTile);
 	}
 
 	private void fillFlowersMap(World world) {
@@ -80,6 +89,25 @@ public class BackgroundPainter {
 		}
 	}
 	
+	private void fillTileImages(World world) {
+		Terrain terrain = world.getTerrain();
+		tileImages = new Image[world.getWidth()][world.getHeight()];
+		for(int x = 0; x<world.getWidth() ;x++) {
+			for(int y = 0; y<world.getHeight(); y++) {
+				if (hasFlowers[x][y]) {
+					tileImages[x][y] = getFlowerImage(terrain.getTerrainInfo(x, y).getTerrainType());
+				} else {
+					int index = calculateIndex(x, y);
+					tileImages[x][y] = backgroundTransitionMap.get(getKeyForBackgroundTransitionMap(index, terrain, x, y, world));
+				}
+			}
+		}
+	}
+	
+	private void paintTile(Graphics g, int x, int y, int xInPixels, int yInPixels) {
+		g.drawImage(tileImages[x][y], xInPixels, yInPixels, null);
+	}
+	
 	private boolean terrainTypeHasFlowers(TerrainType terrainType) {
 		return terrainType == TerrainType.GRASLAND;
 	}
@@ -348,37 +376,15 @@ public class BackgroundPainter {
 	    return bimage;
 	}
 
+	/**
+	 * Paints the explored tiles which are visible in the worldPanel.
+	 * Terrain is explored in a square, so only the explored bounds are painted.
+	 */
 	public void paint(Graphics g, World world, WorldPanel worldPanel) {
-		Terrain terrain = world.getTerrain();
-		worldPanel.iterateOverVisibleTiles(new DrawFunctionImpl(g, world, worldPanel, terrain));
-	}
-	
-	private class DrawFunctionImpl implements DrawFunction {
-
-		private final Graphics g;
-		private final World world;
-		private final WorldPanel worldPanel;
-		private final Terrain terrain;
-		
-		public DrawFunctionImpl(Graphics g, World world, WorldPanel worldPanel, Terrain terrain) {
-			super();
-			this.g = g;
-			this.world = world;
-			this.worldPanel = worldPanel;
-			this.terrain = terrain;
-		}
-
-		@Override
-		public void draw(int x, int y) {
-			if (terrain.isExplored(x, y)) {
-				if (hasFlowers[x][y]) {
-					worldPanel.drawBackgroundImage(g, getFlowerImage(terrain.getTerrainInfo(x, y).getTerrainType()), x, y);
-				} else {
-					int index = calculateIndex(x, y);
-					Image image = backgroundTransitionMap.get(getKeyForBackgroundTransitionMap(index, terrain, x, y, world));
-					worldPanel.drawBackgroundImage(g, image, x, y);
-				}
-			}
+		Rectangle exploredBounds = world.getTerrain().getExploredBoundsInSquares();
+		if (exploredBounds != null) {
+			Rectangle tilesToPaint = worldPanel.getVisibleTilesInSquares().intersection(exploredBounds);
+			terrainChunkCache.paint(g, tilesToPaint, worldPanel.getScreenX(0), worldPanel.getScreenY(0));
 		}
 	}
 
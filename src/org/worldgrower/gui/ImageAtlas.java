@@ -0,0 +1,276 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.PixelGrabber;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import org.worldgrower.gui.font.Fonts;
+
+/**
+ * An ImageAtlas file contains the pixels of all images of an ImageInfoReader,
+ * so that the sprite sheets don't need to be decoded and the images don't need to be created again.
+ *
+ * The file contains the CRC32 of the image resources and of the classes that create the images,
+ * it is only read when these still match.
+ * The pixels are memory-mapped and an image is only copied out of the file when it's first used.
+ */
+final class ImageAtlas {
+
+	private static final int MAGIC = 0x57474941;
+	private static final int FORMAT_VERSION = 1;
+	private static final String[] IMAGE_CLASSES = {
+			"/org/worldgrower/gui/ImageInfoReader.class",
+			"/org/worldgrower/gui/ImageIds.class",
+			"/org/worldgrower/gui/util/ImageUtils.class",
+			"/org/worldgrower/gui/BlendComposite.class"
+	};
+
+	private final List<ImageIds> characterImageIds;
+	private final Map<ImageIds, Supplier<List<Image>>> images;
+
+	private ImageAtlas(List<ImageIds> characterImageIds, Map<ImageIds, Supplier<List<Image>>> images) {
+		this.characterImageIds = characterImageIds;
+		this.images = images;
+	}
+
+	public List<ImageIds> getCharacterImageIds() {
+		return characterImageIds;
+	}
+
+	public Map<ImageIds, Supplier<List<Image>>> getImages() {
+		return images;
+	}
+
+	/**
+	 * Writes the given images to the image atlas file.
+	 * The image filenames are the sprite sheets and backgrounds the images were created from.
+	 */
+	public static void write(Map<ImageIds, List<Image>> images, List<ImageIds> characterImageIds, Collection<String> imageFilenames, File imageAtlasFile) throws IOException {
+		List<String> resourceNames = getResourceNames(imageFilenames);
+		String key = computeKey(resourceNames);
+		if (key == null) {
+			throw new IllegalStateException("Resources " + resourceNames + " not found");
+		}
+
+		List<BufferedImage> pixelImages = new ArrayList<>();
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		try (DataOutputStream header = new DataOutputStream(headerBytes)) {
+			header.writeInt(resourceNames.size());
+			for(String resourceName : resourceNames) {
+				header.writeUTF(resourceName);
+			}
+			header.writeUTF(key);
+			header.writeInt(characterImageIds.size());
+			for(ImageIds imageId : characterImageIds) {
+				header.writeUTF(imageId.name());
+			}
+
+			int offset = 0;
+			header.writeInt(images.size());
+			for(Map.Entry<ImageIds, List<Image>> entry : images.entrySet()) {
+				header.writeUTF(entry.getKey().name());
+				header.writeInt(entry.getValue().size());
+				for(Image image : entry.getValue()) {
+					BufferedImage pixelImage = toBufferedImage(image);
+					header.writeInt(pixelImage.getWidth());
+					header.writeInt(pixelImage.getHeight());
+					header.writeInt(offset);
+					offset += pixelImage.getWidth() * pixelImage.getHeight();
+					pixelImages.add(pixelImage);
+				}
+			}
+		}
+
+		File temporaryFile = File.createTempFile(imageAtlasFile.getName(), ".tmp", imageAtlasFile.getAbsoluteFile().getParentFile());
+		try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+			outputStream.writeInt(MAGIC);
+			outputStream.writeInt(FORMAT_VERSION);
+			outputStream.writeInt(headerBytes.size());
+			headerBytes.writeTo(outputStream);
+			for(BufferedImage pixelImage : pixelImages) {
+				int width = pixelImage.getWidth();
+				int height = pixelImage.getHeight();
+				for(int pixel : pixelImage.getRGB(0, 0, width, height, null, 0, width)) {
+					outputStream.writeInt(pixel);
+				}
+			}
+		}
+		Files.move(temporaryFile.toPath(), imageAtlasFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Returns the images of the given image atlas file,
+	 * or null if it doesn't exist or if it was written for other images.
+	 */
+	public static ImageAtlas read(File imageAtlasFile) throws IOException {
+		if (!imageAtlasFile.exists()) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(imageAtlasFile.toPath(), StandardOpenOption.READ)) {
+			DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(readBytes(channel, 0, 12)));
+			if (inputStream.readInt() != MAGIC || inputStream.readInt() != FORMAT_VERSION) {
+				return null;
+			}
+			int headerSize = inputStream.readInt();
+			DataInputStream header = new DataInputStream(new ByteArrayInputStream(readBytes(channel, 12, headerSize)));
+
+			List<String> resourceNames = new ArrayList<>();
+			int numberOfResourceNames = header.readInt();
+			for(int i = 0; i < numberOfResourceNames; i++) {
+				resourceNames.add(header.readUTF());
+			}
+			if (!header.readUTF().equals(computeKey(resourceNames))) {
+				return null;
+			}
+
+			List<ImageIds> characterImageIds = new ArrayList<>();
+			int numberOfCharacterImageIds = header.readInt();
+			for(int i = 0; i < numberOfCharacterImageIds; i++) {
+				characterImageIds.add(ImageIds.valueOf(header.readUTF()));
+			}
+
+			Map<ImageIds, int[]> framesByImageId = new HashMap<>();
+			long numberOfPixels = 0;
+			int numberOfImageIds = header.readInt();
+			for(int i = 0; i < numberOfImageIds; i++) {
+				ImageIds imageId = ImageIds.valueOf(header.readUTF());
+				int numberOfFrames = header.readInt();
+				int[] frames = new int[numberOfFrames * 3];
+				for(int j = 0; j < frames.length; j++) {
+					frames[j] = header.readInt();
+				}
+				for(int j = 0; j < frames.length; j += 3) {
+					numberOfPixels = Math.max(numberOfPixels, (long) frames[j + 2] + frames[j] * frames[j + 1]);
+				}
+				framesByImageId.put(imageId, frames);
+			}
+
+			long pixelsPosition = 12 + headerSize;
+			if (channel.size() < pixelsPosition + numberOfPixels * 4) {
+				return null;
+			}
+			IntBuffer pixels = channel.map(FileChannel.MapMode.READ_ONLY, pixelsPosition, numberOfPixels * 4).asIntBuffer();
+			Map<ImageIds, Supplier<List<Image>>> images = new HashMap<>();
+			for(Map.Entry<ImageIds, int[]> entry : framesByImageId.entrySet()) {
+				int[] frames = entry.getValue();
+				images.put(entry.getKey(), () -> readImages(pixels, frames));
+			}
+			return new ImageAtlas(characterImageIds, images);
+		}
+	}
+
+	private static byte[] readBytes(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of image atlas");
+			}
+		}
+		return buffer.array();
+	}
+
+	// frames contains the width, height and pixel offset of each frame
+	private static List<Image> readImages(IntBuffer pixels, int[] frames) {
+		List<Image> images = new ArrayList<>();
+		for(int i = 0; i < frames.length; i += 3) {
+			int width = frames[i];
+			int height = frames[i + 1];
+			int[] imagePixels = new int[width * height];
+			IntBuffer imagePixelBuffer = pixels.duplicate();
+			imagePixelBuffer.position(frames[i + 2]);
+			imagePixelBuffer.get(imagePixels);
+
+			BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			image.getRaster().setDataElements(0, 0, width, height, imagePixels);
+			images.add(image);
+		}
+		return images;
+	}
+
+	private static BufferedImage toBufferedImage(Image image) {
+		if (image instanceof BufferedImage) {
+			return (BufferedImage) image;
+		}
+		PixelGrabber pixelGrabber = new PixelGrabber(image, 0, 0, -1, -1, true);
+		try {
+			pixelGrabber.grabPixels();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		int width = pixelGrabber.getWidth();
+		int height = pixelGrabber.getHeight();
+		BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		bufferedImage.setRGB(0, 0, width, height, (int[]) pixelGrabber.getPixels(), 0, width);
+		return bufferedImage;
+	}
+
+	private static List<String> getResourceNames(Collection<String> imageFilenames) {
+		List<String> resourceNames = new ArrayList<>();
+		for(String imageClass : IMAGE_CLASSES) {
+			resourceNames.add(imageClass);
+		}
+		List<String> sortedImageFilenames = new ArrayList<>(imageFilenames);
+		sortedImageFilenames.sort(null);
+		for(String imageFilename : sortedImageFilenames) {
+			resourceNames.add("/" + imageFilename);
+		}
+		return resourceNames;
+	}
+
+	// the key contains the font size and the CRC32 of every resource, it's null if a resource doesn't exist anymore
+	private static String computeKey(List<String> resourceNames) throws IOException {
+		StringBuilder key = new StringBuilder(Integer.toString(Fonts.getFontSize()));
+		byte[] buffer = new byte[8192];
+		for(String resourceName : resourceNames) {
+			try (InputStream inputStream = ImageAtlas.class.getResourceAsStream(resourceName)) {
+				if (inputStream == null) {
+					return null;
+				}
+				CRC32 crc = new CRC32();
+				int bytesRead;
+				while ((bytesRead = inputStream.read(buffer)) >= 0) {
+					crc.update(buffer, 0, bytesRead);
+				}
+				key.append(',').append(Long.toHexString(crc.getValue()));
+			}
+		}
+		return key.toString();
+	}
+}
@@ -26,13 +26,23 @@ import java.awt.image.FilteredImageSource;
 import java.awt.image.ImageFilter;
 import java.awt.image.ImageProducer;
 import java.awt.image.RGBImageFilter;
+import java.io.File;
 import java.io.IOException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import javax.imageio.ImageIO;
 
@@ -43,10 +53,58 @@ import org.worldgrower.gui.util.ImageUtils;
 
 public class ImageInfoReader implements SmallImageTagFactory {
 
-	private final Map<ImageIds, List<Image>> idToImages = new HashMap<>();
+	// sprite sheets are decoded in parallel, the threads stop when they have been idle for a second
+	private static final ExecutorService IMAGE_DECODER = createImageDecoder();
+	// the sprite sheets and backgrounds that were decoded, these are the resources an image atlas depends on
+	private static final Set<String> IMAGE_FILENAMES = ConcurrentHashMap.newKeySet();
+	
+	private final Map<ImageIds, List<Image>> idToImages = new ConcurrentHashMap<>();
+	private final Map<ImageIds, Supplier<List<Image>>> lazyImages = new ConcurrentHashMap<>();
 	private final List<ImageIds> characterImageIds = new ArrayList<>();
 	private ToolTipImageHandler toolTipImageHandler;
 	
+	/**
+	 * Returns an ImageInfoReader with the images of the given image atlas file, if it was written for the current images.
+	 * Otherwise the images are created and the image atlas file is written in the background, so the next start can read it.
+	 */
+	public static ImageInfoReader readOrCreate(File imageAtlasFile) throws IOException {
+		ImageAtlas imageAtlas = null;
+		try {
+			imageAtlas = ImageAtlas.read(imageAtlasFile);
+		} catch (IOException | RuntimeException e) {
+			e.printStackTrace();
+		}
+		
+		if (imageAtlas != null) {
+			return new ImageInfoReader(imageAtlas);
+		} else {
+			ImageInfoReader imageInfoReader = new ImageInfoReader();
+			IMAGE_DECODER.execute(() -> {
+				try {
+					imageInfoReader.writeImageAtlas(imageAtlasFile);
+				} catch (IOException | RuntimeException e) {
+					e.printStackTrace();
+				}
+			});
+			return imageInfoReader;
+		}
+	}
+	
+	private ImageInfoReader(ImageAtlas imageAtlas) {
+		lazyImages.putAll(imageAtlas.getImages());
+		characterImageIds.addAll(imageAtlas.getCharacterImageIds());
+	}
+	
+	/**
+	 * Creates all lazy images and writes all images to the given image atlas file.
+	 */
+	void writeImageAtlas(File imageAtlasFile) throws IOException {
+		for(ImageIds imageId : lazyImages.keySet()) {
+			getImages(imageId);
+		}
+		ImageAtlas.write(idToImages, characterImageIds, IMAGE_FILENAMES, imageAtlasFile);
+	}
+	
     public ImageInfoReader() throws IOException {
     	Sprites sprites = readSprites();
     	Sprites spritesb = readSpritesB();
@@ -147,12 +205,12 @@ public class ImageInfoReader implements SmallImageTagFactory {
     	Sprites greenOrb = readSpritesGreenOrb();
     	Sprites yellowOrb = readSpritesYellowOrb();
     	
-    	BufferedImage screenBackground = readScreenBackground();
-    	BufferedImage healthBackground = readHealthBackground();
-    	BufferedImage foodBackground = readFoodBackground();
-    	BufferedImage waterBackground = readWaterBackground();
-    	BufferedImage energyBackground = readEnergyBackground();
-    	BufferedImage progressBarBackground = readProgressBarBackground();
+    	Future<BufferedImage> screenBackground = readScreenBackground();
+    	Future<BufferedImage> healthBackground = readHealthBackground();
+    	Future<BufferedImage> foodBackground = readFoodBackground();
+    	Future<BufferedImage> waterBackground = readWaterBackground();
+    	Future<BufferedImage> energyBackground = readEnergyBackground();
+    	Future<BufferedImage> progressBarBackground = readProgressBarBackground();
     	
     	Sprites strengthIcon = readStrengthIcon();
     	Sprites dexterityIcon = readDexterityIcon();
@@ -666,12 +724,12 @@ public class ImageInfoReader implements SmallImageTagFactory {
         add(ImageIds.FREEDOM_OF_MOVEMENT_MAGIC_SPELL, sprites420.getSubImage(10, 26, 1, 1));
         createAnimation(ImageIds.FREEDOM_OF_MOVEMENT_MAGIC_SPELL_ANIMATION, ImageIds.FREEDOM_OF_MOVEMENT_MAGIC_SPELL, 10);
 
-        add(ImageIds.SCREEN_BACKGROUND, screenBackground);
+        add(ImageIds.SCREEN_BACKGROUND, waitForImage(screenBackground));
         
-        add(ImageIds.HEALTH_BACKGROUND, healthBackground);
-        add(ImageIds.FOOD_BACKGROUND, foodBackground);
-        add(ImageIds.WATER_BACKGROUND, waterBackground);
-        add(ImageIds.ENERGY_BACKGROUND, energyBackground);
+        add(ImageIds.HEALTH_BACKGROUND, waitForImage(healthBackground));
+        add(ImageIds.FOOD_BACKGROUND, waitForImage(foodBackground));
+        add(ImageIds.WATER_BACKGROUND, waitForImage(waterBackground));
+        add(ImageIds.ENERGY_BACKGROUND, waitForImage(energyBackground));
         
         add(ImageIds.HEALING_POTION, sprites420.getSubImage(0, 2, 1, 1));
         createAnimation(ImageIds.HEALING_POTION_ANIMATION, ImageIds.HEALING_POTION, 10);
@@ -699,7 +757,7 @@ public class ImageInfoReader implements SmallImageTagFactory {
 		createAnimation(ImageIds.LEATHER_ARMS_ANIMATION, ImageIds.LEATHER_ARMS, 10);
 		createAnimation(ImageIds.LEATHER_PANTS_ANIMATION, ImageIds.LEATHER_PANTS, 10);
 
-		add(ImageIds.PROGRESSBAR_BACKGROUND, progressBarBackground);
+		add(ImageIds.PROGRESSBAR_BACKGROUND, waitForImage(progressBarBackground));
 		add(ImageIds.LEATHER, sprites420.getSubImage(10, 18, 1, 1));
 		add(ImageIds.DROP_ITEM, sprites420.getSubImage(8, 29, 1, 1));
 		
@@ -898,12 +956,18 @@ public class ImageInfoReader implements SmallImageTagFactory {
 		return ImageUtils.dye((BufferedImage)getImage(imageId, null), color);
 	}
 
+	// animation frames are only created when the animation is used
 	private void createAnimation(ImageIds animationImageId, ImageIds imageId, int numberOfFrames) {
+		checkUniqueId(animationImageId);
+		Image image = idToImages.get(imageId).get(0);
+		lazyImages.put(animationImageId, () -> createAnimationFrames(image, numberOfFrames));
+	}
+	
+	private static List<Image> createAnimationFrames(Image image, int numberOfFrames) {
 		List<Image> images = new ArrayList<>();
     	for(int i=0; i<numberOfFrames; i++) {
     		BufferedImage newImage = new BufferedImage(48, 48, BufferedImage.TYPE_INT_ARGB);
     		Graphics2D g2 = (Graphics2D) newImage.getGraphics();
-    		Image image = idToImages.get(imageId).get(0);
     		g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.1f * i));
     		g2.drawImage(image, 0, 0, null);
     		
@@ -911,8 +975,7 @@ public class ImageInfoReader implements SmallImageTagFactory {
     		
     		images.add(newImage);
     	}
-    	
-    	idToImages.put(animationImageId, images);
+    	return images;
 	}
 
 	private void resizeSmallFlowers() {
@@ -1039,9 +1102,7 @@ public class ImageInfoReader implements SmallImageTagFactory {
     }
     
     private void addCharacter(ImageIds imageId, Sprites sprites, int x, int y, int width, int height) {
-    	if (idToImages.containsKey(imageId)) {
-    		throw new IllegalStateException("Id " + imageId + " exists in map " + idToImages);
-    	}
+    	checkUniqueId(imageId);
     	
     	List<Image> images = new ArrayList<>();
     	images.add(sprites.getSubImage(x, y, width, height));
@@ -1063,10 +1124,13 @@ public class ImageInfoReader implements SmallImageTagFactory {
     	characterImageIds.add(imageId);
 	}
     
+    // animation frames are only cut from the sprite sheet when the animation is used
     private void addAnimation(ImageIds imageId, Sprites sprites, int width, int height) {
-    	if (idToImages.containsKey(imageId)) {
-    		throw new IllegalStateException("Id " + imageId + " exists in map " + idToImages);
-    	}
+    	checkUniqueId(imageId);
+    	lazyImages.put(imageId, () -> createAnimationFrames(sprites, width, height));
+	}
+    
+    private static List<Image> createAnimationFrames(Sprites sprites, int width, int height) {
     	List<Image> images = new ArrayList<>();
     	
     	for(int j=0; j<height; j++) {
@@ -1074,18 +1138,21 @@ public class ImageInfoReader implements SmallImageTagFactory {
     			images.add(sprites.getSubImage(i, j, 1, 1));
     		}
     	}
-    	
-    	idToImages.put(imageId, images);
-	}
+    	return images;
+    }
 
 	private void add(ImageIds id, Image image) {
-    	if (idToImages.containsKey(id)) {
-    		throw new IllegalStateException("Id " + id + " exists in map " + idToImages);
-    	}
+    	checkUniqueId(id);
     	
     	idToImages.put(id, Arrays.asList(image));
     }
 	
+	private void checkUniqueId(ImageIds id) {
+		if (idToImages.containsKey(id) || lazyImages.containsKey(id)) {
+    		throw new IllegalStateException("Id " + id + " exists in map " + idToImages.keySet() + " or " + lazyImages.keySet());
+    	}
+	}
+	
     public List<ImageIds> getCharacterImageIds() {
 		return Collections.unmodifiableList(characterImageIds);
 	}
@@ -1525,33 +1592,65 @@ public class ImageInfoReader implements SmallImageTagFactory {
 		return readImages("yellow_orb.png", 48, 48, 1, 1);
 	}
     
-    private static BufferedImage readScreenBackground() throws IOException {
-		return ImageIO.read(ImageInfoReader.class.getResource("/conc_patchwork_c.png"));
+    private static Future<BufferedImage> readScreenBackground() {
+		return decodeImage("conc_patchwork_c.png");
 	}
     
-    private static BufferedImage readHealthBackground() throws IOException {
-		return ImageIO.read(ImageInfoReader.class.getResource("/461223163.jpg"));
+    private static Future<BufferedImage> readHealthBackground() {
+		return decodeImage("461223163.jpg");
 	}
     
-    private static BufferedImage readFoodBackground() throws IOException {
-		return ImageIO.read(ImageInfoReader.class.getResource("/461223162.jpg"));
+    private static Future<BufferedImage> readFoodBackground() {
+		return decodeImage("461223162.jpg");
 	}
     
-    private static BufferedImage readWaterBackground() throws IOException {
-		return ImageIO.read(ImageInfoReader.class.getResource("/461223133.jpg"));
+    private static Future<BufferedImage> readWaterBackground() {
+		return decodeImage("461223133.jpg");
 	}
     
-    private static BufferedImage readEnergyBackground() throws IOException {
-		return ImageIO.read(ImageInfoReader.class.getResource("/461223169.jpg"));
+    private static Future<BufferedImage> readEnergyBackground() {
+		return decodeImage("461223169.jpg");
 	}
     
-    private static BufferedImage readProgressBarBackground() throws IOException {
-		return ImageIO.read(ImageInfoReader.class.getResource("/461223108.jpg"));
+    private static Future<BufferedImage> readProgressBarBackground() {
+		return decodeImage("461223108.jpg");
 	}
     
 	private static Sprites readImages(String imageFilename, int width, int height, int rows, int cols) throws IOException {
-		BufferedImage bigImg = ImageIO.read(ImageInfoReader.class.getResource("/" + imageFilename));
-		return new Sprites(bigImg, width, height);
+		return new Sprites(decodeImage(imageFilename), width, height);
+	}
+	
+	private static Future<BufferedImage> decodeImage(String imageFilename) {
+		IMAGE_FILENAMES.add(imageFilename);
+		return IMAGE_DECODER.submit(() -> {
+			URL url = ImageInfoReader.class.getResource("/" + imageFilename);
+			if (url == null) {
+				throw new IllegalStateException("Image " + imageFilename + " not found");
+			}
+			return ImageIO.read(url);
+		});
+	}
+	
+	private static BufferedImage waitForImage(Future<BufferedImage> image) {
+		try {
+			return image.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+	
+	private static ExecutorService createImageDecoder() {
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		ThreadPoolExecutor imageDecoder = new ThreadPoolExecutor(threadCount, threadCount, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "ImageDecoder");
+			thread.setDaemon(true);
+			return thread;
+		});
+		imageDecoder.allowCoreThreadTimeOut(true);
+		return imageDecoder;
 	}
 	
    public Image getImage(ImageIds id, LookDirection lookDirection) {
@@ -1559,7 +1658,7 @@ public class ImageInfoReader implements SmallImageTagFactory {
    }
    
    public Image getImage(ImageIds id, LookDirection lookDirection, int moveIndex) {
-	   List<Image> images = idToImages.get(id);
+	   List<Image> images = getImages(id);
 	   
 	   if (images == null) {
 		   throw new IllegalStateException("No image found for imageId " + id);
@@ -1576,7 +1675,7 @@ public class ImageInfoReader implements SmallImageTagFactory {
    }
    
    public Image getImage(ImageIds id, int index) {
-	   List<Image> images = idToImages.get(id);
+	   List<Image> images = getImages(id);
 	   
 	   if (images == null) {
 		   throw new IllegalStateException("No image found for imageId " + id);
@@ -1585,19 +1684,27 @@ public class ImageInfoReader implements SmallImageTagFactory {
 	   return images.get(index);
    }
    
+   /**
+    * A sprite sheet which is decoded in the background,
+    * getSubImage waits until decoding is finished.
+    */
    private static class Sprites {
+	   private final Future<BufferedImage> decodedImage;
 	   private BufferedImage bufferedImage;
 	   private int imageWidth;
 	   private int imageHeight;
 	   
-	   public Sprites(BufferedImage bufferedImage, int imageWidth, int imageHeight) {
+	   public Sprites(Future<BufferedImage> decodedImage, int imageWidth, int imageHeight) {
 		super();
-		this.bufferedImage = bufferedImage;
+		this.decodedImage = decodedImage;
 		this.imageWidth = imageWidth;
 		this.imageHeight = imageHeight;
 	   }
 
 	public Image getSubImage(int x, int y, int width, int height) {
+		if (bufferedImage == null) {
+			bufferedImage = waitForImage(decodedImage);
+		}
 		return bufferedImage.getSubimage(
 			        	x * imageWidth,
 			            y * imageHeight,
@@ -1608,10 +1715,26 @@ public class ImageInfoReader implements SmallImageTagFactory {
    }
    
    public int getNumberOfFrames(ImageIds id) {
-	   if (idToImages.get(id) == null) {
+	   List<Image> images = getImages(id);
+	   if (images == null) {
 		   throw new IllegalStateException("Id " + id + " isn't found in idToImages map");
 	   }
-	   return idToImages.get(id).size();
+	   return images.size();
+   }
+   
+   // only the first call for a lazy image creates it, the lazy image is removed once it's in idToImages
+   private List<Image> getImages(ImageIds id) {
+	   List<Image> images = idToImages.get(id);
+	   if (images == null) {
+		   Supplier<List<Image>> lazyImage = lazyImages.get(id);
+		   if (lazyImage != null) {
+			   images = idToImages.computeIfAbsent(id, imageId -> lazyImage.get());
+			   lazyImages.remove(id);
+		   } else {
+			   images = idToImages.get(id);
+		   }
+	   }
+	   return images;
    }
 	
    @Override
@@ -39,6 +39,7 @@ public class PlayerCharacterVisionPainter {
 	private final PlayerCharacterPosition playerCharacterPosition;
 	private int lastCircleRadius = 0;
 	private BufferedImage lastImage = null;
+	private Rectangle lastPaintedBounds = null;
 	
 	private final Map<Integer, BufferedImage> playerVisionImages = new HashMap<>();
 	
@@ -66,6 +67,22 @@ public class PlayerCharacterVisionPainter {
 		
 		lastCircleRadius = circleRadius;
 		lastImage = playerVisionImage;
+		lastPaintedBounds = new Rectangle(circleLeft, circleTop, circleRadius * 2, circleRadius * 2);
+	}
+	
+	/**
+	 * Returns the bounds of the circle in which the player character can see.
+	 * Outside of these bounds the vision is painted black, so only these bounds change when the player character moves.
+	 */
+	public Rectangle calculateBounds(WorldObject playerCharacter, World world) {
+		int circleRadius = (PerceptionPropertyUtils.calculateRadius(playerCharacter, world)) * 48;
+		int playerCharacterX = playerCharacterPosition.getScreenX(playerCharacter);
+		int playerCharacterY = playerCharacterPosition.getScreenY(playerCharacter);
+		return new Rectangle(playerCharacterX - circleRadius, playerCharacterY - circleRadius, circleRadius * 2, circleRadius * 2);
+	}
+	
+	public Rectangle getLastPaintedBounds() {
+		return lastPaintedBounds;
 	}
 
 	private void paintUnexploredTerrain(Graphics worldPanelGraphics, WorldPanel worldPanel, int circleRadius, int circleLeft, int circleTop) {
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui;
+
+import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps pre-rendered chunks of terrain tiles, so that painting the background
+ * is a few large image copies instead of drawing every visible tile.
+ * Only chunks that are painted are rendered, and the least recently used chunks are dropped
+ * once more than maxCachedChunks are cached.
+ */
+class TerrainChunkCache {
+
+	static final int TILE_SIZE = 48;
+	static final int CHUNK_SIZE_IN_TILES = 16;
+	
+	private final int widthInTiles;
+	private final int heightInTiles;
+	private final TilePainter tilePainter;
+	private final Map<Integer, BufferedImage> chunks;
+	private int chunksRendered = 0;
+	
+	public TerrainChunkCache(int widthInTiles, int heightInTiles, int maxCachedChunks, TilePainter tilePainter) {
+		this.widthInTiles = widthInTiles;
+		this.heightInTiles = heightInTiles;
+		this.tilePainter = tilePainter;
+		this.chunks = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, BufferedImage> eldest) {
+				return size() > maxCachedChunks;
+			}
+		};
+	}
+
+	/**
+	 * Paints the given tiles, with tile (x, y) drawn at ((x + offsetX) * TILE_SIZE, (y + offsetY) * TILE_SIZE).
+	 */
+	public void paint(Graphics g, Rectangle tiles, int offsetX, int offsetY) {
+		Rectangle tilesToPaint = tiles.intersection(new Rectangle(0, 0, widthInTiles, heightInTiles));
+		if (tilesToPaint.isEmpty()) {
+			return;
+		}
+		int startChunkX = tilesToPaint.x / CHUNK_SIZE_IN_TILES;
+		int startChunkY = tilesToPaint.y / CHUNK_SIZE_IN_TILES;
+		int endChunkX = (tilesToPaint.x + tilesToPaint.width - 1) / CHUNK_SIZE_IN_TILES;
+		int endChunkY = (tilesToPaint.y + tilesToPaint.height - 1) / CHUNK_SIZE_IN_TILES;
+		
+		for(int chunkX = startChunkX; chunkX <= endChunkX; chunkX++) {
+			for(int chunkY = startChunkY; chunkY <= endChunkY; chunkY++) {
+				Rectangle chunkTiles = getChunkTiles(chunkX, chunkY);
+				Rectangle area = chunkTiles.intersection(tilesToPaint);
+				BufferedImage chunkImage = getChunkImage(chunkX, chunkY, chunkTiles);
+				
+				int sourceX = (area.x - chunkTiles.x) * TILE_SIZE;
+				int sourceY = (area.y - chunkTiles.y) * TILE_SIZE;
+				int destinationX = (area.x + offsetX) * TILE_SIZE;
+				int destinationY = (area.y + offsetY) * TILE_SIZE;
+				int width = area.width * TILE_SIZE;
+				int height = area.height * TILE_SIZE;
+				g.drawImage(chunkImage, destinationX, destinationY, destinationX + width, destinationY + height, sourceX, sourceY, sourceX + width, sourceY + height, null);
+			}
+		}
+	}
+	
+	private Rectangle getChunkTiles(int chunkX, int chunkY) {
+		int x = chunkX * CHUNK_SIZE_IN_TILES;
+		int y = chunkY * CHUNK_SIZE_IN_TILES;
+		int width = Math.min(CHUNK_SIZE_IN_TILES, widthInTiles - x);
+		int height = Math.min(CHUNK_SIZE_IN_TILES, heightInTiles - y);
+		return new Rectangle(x, y, width, height);
+	}
+	
+	private int getChunkKey(int chunkX, int chunkY) {
+		int chunksHigh = (heightInTiles + CHUNK_SIZE_IN_TILES - 1) / CHUNK_SIZE_IN_TILES;
+		return chunkX * chunksHigh + chunkY;
+	}
+	
+	private BufferedImage getChunkImage(int chunkX, int chunkY, Rectangle chunkTiles) {
+		int key = getChunkKey(chunkX, chunkY);
+		BufferedImage chunkImage = chunks.get(key);
+		if (chunkImage == null) {
+			chunkImage = renderChunk(chunkTiles);
+			chunks.put(key, chunkImage);
+		}
+		return chunkImage;
+	}
+
+	private BufferedImage renderChunk(Rectangle chunkTiles) {
+		BufferedImage chunkImage = createChunkImage(chunkTiles.width * TILE_SIZE, chunkTiles.height * TILE_SIZE);
+		Graphics g = chunkImage.createGraphics();
+		for(int x = chunkTiles.x; x < chunkTiles.x + chunkTiles.width; x++) {
+			for(int y = chunkTiles.y; y < chunkTiles.y + chunkTiles.height; y++) {
+				tilePainter.paintTile(g, x, y, (x - chunkTiles.x) * TILE_SIZE, (y - chunkTiles.y) * TILE_SIZE);
+			}
+		}
+		g.dispose();
+		chunksRendered++;
+		return chunkImage;
+	}
+	
+	// a compatible image can be accelerated by the graphics pipeline,
+	// the panel background is black so the chunk doesn't need transparency
+	private static BufferedImage createChunkImage(int width, int height) {
+		if (GraphicsEnvironment.isHeadless()) {
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		} else {
+			return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration().createCompatibleImage(width, height, Transparency.OPAQUE);
+		}
+	}
+	
+	int getChunksRendered() {
+		return chunksRendered;
+	}
+	
+	int getCachedChunkCount() {
+		return chunks.size();
+	}
+	
+	interface TilePainter {
+		public void paintTile(Graphics g, int x, int y, int xInPixels, int yInPixels);
+	}
+}
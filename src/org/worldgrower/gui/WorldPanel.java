@@ -251,14 +251,17 @@ public final class WorldPanel extends JPanel implements ImageFactory, MouseLocat
     
     @Override
     protected void paintComponent(Graphics g) {
+    	long paintStart = System.nanoTime();
         super.paintComponent(g);
         
         backgroundPainter.paint(g, world, this);
         
-		Shape clipShape = calculateClipShape();
-		g.setClip(clipShape);
+        // the original clip is restored, because only part of the panel may be repainted
+        Shape originalClip = g.getClip();
+        Rectangle clipBounds = calculateClipBounds();
+		g.clipRect(clipBounds.x, clipBounds.y, clipBounds.width, clipBounds.height);
 		animationPainter.drawWorldObjects(g, this, imageInfoReader, world);
-		g.setClip(null);
+		g.setClip(originalClip);
 		
 		goToPainter.paint(g, world, this);
 		
@@ -268,6 +271,7 @@ public final class WorldPanel extends JPanel implements ImageFactory, MouseLocat
 		
 		buildModeOutline.repaintBuildMode(g, this, offsetX, offsetY, playerCharacter, world);
 		infoPanel.updatePlayerCharacterValues();
+		animationPainter.framePainted(paintStart, System.nanoTime());
     }
 	
 	public List<WorldObject> getWorldObjectsOnScreen(Function<WorldObject, Boolean> worldObjectAcceptancefunction) {
@@ -307,7 +311,7 @@ public final class WorldPanel extends JPanel implements ImageFactory, MouseLocat
 		return worldObjectIsExplored(x, y, width, height) && isWorldObjectVisible(worldObject);
 	}
 	
-	private Shape calculateClipShape() {
+	private Rectangle calculateClipBounds() {
 		Rectangle exploredBoundsInSquares = world.getTerrain().getExploredBoundsInSquares();
 		return new Rectangle((exploredBoundsInSquares.x+offsetX) * 48, (exploredBoundsInSquares.y+offsetY) * 48, exploredBoundsInSquares.width * 48, exploredBoundsInSquares.height * 48);
 	}
@@ -572,10 +576,12 @@ public final class WorldPanel extends JPanel implements ImageFactory, MouseLocat
 	}
 
 	public void repaintAround(int x, int y, WorldObject worldObject) {
+		repaintAround(x, y, worldObject.getProperty(Constants.WIDTH), worldObject.getProperty(Constants.HEIGHT));
+	}
+	
+	private void repaintAround(int x, int y, int worldObjectWidth, int worldObjectHeight) {
 		int worldObjectX = x + offsetX;
 		int worldObjectY = y + offsetY;
-		int worldObjectWidth = worldObject.getProperty(Constants.WIDTH);
-		int worldObjectHeight = worldObject.getProperty(Constants.HEIGHT);
 		
 		int repaintX = worldObjectX * 48 - 48;
 		int repaintY = worldObjectY * 48 - 48;
@@ -584,6 +590,28 @@ public final class WorldPanel extends JPanel implements ImageFactory, MouseLocat
 		WorldPanel.this.repaint(repaintX, repaintY, repaintWidth, repaintHeight);
 	}
 	
+	/**
+	 * Repaints the given area in squares and the player character vision if it moved.
+	 * Returns whether anything was repainted.
+	 */
+	boolean repaintAnimationFrame(Rectangle animatedArea) {
+		boolean repainted = false;
+		if (animatedArea != null) {
+			repaintAround(animatedArea.x, animatedArea.y, animatedArea.width, animatedArea.height);
+			repainted = true;
+		}
+		Rectangle lastVisionBounds = playerCharacterVisionPainter.getLastPaintedBounds();
+		Rectangle visionBounds = playerCharacterVisionPainter.calculateBounds(playerCharacter, world);
+		if (lastVisionBounds == null) {
+			repaintWorldView();
+			repainted = true;
+		} else if (!visionBounds.equals(lastVisionBounds)) {
+			WorldPanel.this.repaint(visionBounds.union(lastVisionBounds));
+			repainted = true;
+		}
+		return repainted;
+	}
+	
 	@Override
 	public Point getToolTipLocation(MouseEvent event) {
 		final int mouseCutoff = 20;
@@ -670,14 +698,10 @@ public final class WorldPanel extends JPanel implements ImageFactory, MouseLocat
 		}
 	}
 	
-	public void iterateOverVisibleTiles(DrawFunction drawFunction) {
+	public Rectangle getVisibleTilesInSquares() {
 		int widthInTiles = (getWidth() / 48) + 1;
 		int heightInTiles = getHeight() / 48;
-		for(int x = -offsetX; x<-offsetX+widthInTiles ;x++) {
-			for(int y = -offsetY; y<-offsetY+heightInTiles; y++) {
-				drawFunction.draw(x, y);
-			}
-		}
+		return new Rectangle(-offsetX, -offsetY, widthInTiles, heightInTiles);
 	}
 
 	public void playSound(ManagedOperation action) {
@@ -723,6 +747,14 @@ public final class WorldPanel extends JPanel implements ImageFactory, MouseLocat
 	public List<AnimationDescription> getAnimatedWorldObjects() {
 		return animationPainter.getAnimatedWorldObjects();
 	}
+	
+	public String getAnimationFrameStatistics() {
+		return animationPainter.getFrameStatistics();
+	}
+	
+	public String getSoundEffectStatistics() {
+		return soundIdReader.getStatistics();
+	}
 
 	public void updateAndRepaintWorldView() {
 		animationPainter.viewChanged(this);
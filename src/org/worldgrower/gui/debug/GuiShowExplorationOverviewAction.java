@@ -53,6 +53,12 @@ public class GuiShowExplorationOverviewAction extends AbstractAction {
 		JLabel infoLabel = new JLabel("offSetX=" + worldPanel.getScreenX(0) + ",OffSetY="+worldPanel.getScreenY(0) + ",screenWidth=" + screenWidth + ",screenHeight=" + screenHeight);
 		contentPanel.add(infoLabel);
 		
+		JLabel animationLabel = new JLabel(worldPanel.getAnimationFrameStatistics());
+		contentPanel.add(animationLabel);
+		
+		JLabel soundEffectLabel = new JLabel(worldPanel.getSoundEffectStatistics());
+		contentPanel.add(soundEffectLabel);
+		
 		JButton isWorldObjectExploredButton = new JButton("WorldObject Explored?");
 		contentPanel.add(isWorldObjectExploredButton);
 		isWorldObjectExploredButton.addActionListener(ev -> showWorldObjectExploredGui());
@@ -26,11 +26,16 @@ public class SaveFileUtils {
 
 	private static final String FILE_DATE_TIME_FORMAT = "yyyyMMddHHmmss";
 	private static final File SAVE_DIRECTORY = new File(System.getProperty("user.home"));
+	private static final String AUTO_SAVE_FILENAME = "autosave.sav";
 	
 	public static File createNewSaveFile() {
 		return new File(SAVE_DIRECTORY, getDefaultFilename());
 	}
 	
+	public static File getAutoSaveFile() {
+		return new File(SAVE_DIRECTORY, AUTO_SAVE_FILENAME);
+	}
+	
 	private static String getDefaultFilename() {
 		Date currentTime = new Date();
 		SimpleDateFormat format = new SimpleDateFormat(FILE_DATE_TIME_FORMAT);
@@ -38,6 +43,9 @@ public class SaveFileUtils {
 	}
 	
 	public static Date getSaveTime(File file) {
+		if (file.getName().equals(AUTO_SAVE_FILENAME)) {
+			return new Date(file.lastModified());
+		}
 		try {
 			String saveTime = file.getName().substring(0, 14);
 			SimpleDateFormat format = new SimpleDateFormat(FILE_DATE_TIME_FORMAT);
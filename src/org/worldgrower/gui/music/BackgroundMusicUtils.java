@@ -20,22 +20,86 @@ import java.io.InputStream;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.sound.sampled.DataLine;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
 public class BackgroundMusicUtils {
 	
-	public static Clip readMusicFile(InputStream audioFilePath, SoundOutput soundOutput) throws UnsupportedAudioFileException, IOException, LineUnavailableException {
-		AudioInputStream audioStream = AudioSystem.getAudioInputStream(audioFilePath);
-		AudioFormat format = audioStream.getFormat();
-		DataLine.Info info = new DataLine.Info(Clip.class, format);
+	// the line buffers half a second of music
+	private static final int LINE_BUFFER_IN_MILLISECONDS = 500;
+	
+	public static AudioInputStream readMusicFile(InputStream audioFilePath) throws UnsupportedAudioFileException, IOException {
+		return AudioSystem.getAudioInputStream(audioFilePath);
+	}
+	
+	public static SourceDataLine openMusicLine(AudioFormat format, SoundOutput soundOutput) throws LineUnavailableException {
+		return openLine(format, soundOutput, LINE_BUFFER_IN_MILLISECONDS);
+	}
+	
+	static SourceDataLine openLine(AudioFormat format, SoundOutput soundOutput, int bufferInMilliseconds) throws LineUnavailableException {
+		DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
 		
 		Mixer mixer = soundOutput.getMixer();
-		Clip audioClip = (Clip) mixer.getLine(info);
-		audioClip.open(audioStream);
-		return audioClip;
+		SourceDataLine line = (SourceDataLine) mixer.getLine(info);
+		int bufferSize = (int) (format.getFrameRate() * bufferInMilliseconds / 1000) * format.getFrameSize();
+		line.open(format, bufferSize);
+		line.start();
+		return line;
+	}
+	
+	/**
+	 * Returns true if music in the given formats can be written to the same line.
+	 */
+	public static boolean canPlayGapless(AudioFormat format, AudioFormat otherFormat) {
+		return format.matches(otherFormat);
+	}
+	
+	/**
+	 * Returns true if music in the given formats can be mixed by crossfade.
+	 */
+	public static boolean canCrossfade(AudioFormat format, AudioFormat otherFormat) {
+		return canPlayGapless(format, otherFormat)
+				&& format.getEncoding() == AudioFormat.Encoding.PCM_SIGNED
+				&& format.getSampleSizeInBits() == 16;
+	}
+	
+	/**
+	 * Mixes length bytes of fadingIn into fadingOut.
+	 * The first frame in the buffers is frame startFrame of a crossfade lasting crossfadeFrames frames,
+	 * fadingOut is faded out and fadingIn is faded in linearly over the crossfade.
+	 */
+	public static void crossfade(byte[] fadingOut, byte[] fadingIn, int length, AudioFormat format, long startFrame, long crossfadeFrames) {
+		int frameSize = format.getFrameSize();
+		boolean bigEndian = format.isBigEndian();
+		for(int frameStart = 0; frameStart + frameSize <= length; frameStart += frameSize) {
+			long frame = startFrame + frameStart / frameSize;
+			float fadeIn = Math.min(1f, (float) frame / crossfadeFrames);
+			for(int i = frameStart; i < frameStart + frameSize; i += 2) {
+				int mixedSample = Math.round(getSample(fadingOut, i, bigEndian) * (1f - fadeIn) + getSample(fadingIn, i, bigEndian) * fadeIn);
+				setSample(fadingOut, i, mixedSample, bigEndian);
+			}
+		}
+	}
+	
+	private static int getSample(byte[] buffer, int index, boolean bigEndian) {
+		if (bigEndian) {
+			return (buffer[index] << 8) | (buffer[index + 1] & 0xff);
+		} else {
+			return (buffer[index + 1] << 8) | (buffer[index] & 0xff);
+		}
+	}
+	
+	private static void setSample(byte[] buffer, int index, int sample, boolean bigEndian) {
+		sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+		if (bigEndian) {
+			buffer[index] = (byte) (sample >> 8);
+			buffer[index + 1] = (byte) sample;
+		} else {
+			buffer[index] = (byte) sample;
+			buffer[index + 1] = (byte) (sample >> 8);
+		}
 	}
 }
@@ -16,17 +16,27 @@ package org.worldgrower.gui.music;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.LineEvent;
-import javax.sound.sampled.LineListener;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
-public class MusicPlayer implements LineListener {
-	private boolean enabled;
-	private Clip audioClip;
-	private SoundOutput soundOutput;
+/**
+ * Plays the background music by streaming it to a SourceDataLine, so only a small buffer of each track is in memory.
+ * Tracks follow each other without a gap and when possible the end of a track crossfades into the next track.
+ * All music is played by one daemon thread, which waits while the music is stopped.
+ */
+public class MusicPlayer {
+	private static final int CHUNK_SIZE = 8192;
+	private static final int CROSSFADE_IN_MILLISECONDS = 2000;
+	
+	private volatile boolean enabled;
+	private volatile boolean playing = false;
+	private final SoundOutput soundOutput;
 	private final MusicLoader musicLoader;
 	private MusicThread musicThread = null;
 	
@@ -36,62 +46,122 @@ public class MusicPlayer implements LineListener {
 		this.musicLoader = new MusicLoader();
 	}
 	
-	private void play(InputStream audioFilePath) {
-		try {
-			audioClip = BackgroundMusicUtils.readMusicFile(audioFilePath, soundOutput);
-			audioClip.addLineListener(this);
-			audioClip.start();
-			
-		} catch (UnsupportedAudioFileException | LineUnavailableException | IOException ex) {
-			throw new IllegalStateException(ex);
-		}
-	}
-	
-	public void play() {
+	public synchronized void play() {
 		if (enabled) {
+			playing = true;
 			if (musicThread == null) {
 				musicThread = new MusicThread();
 				musicThread.start();
 			}
+			notifyAll();
 		}
 	}
 	
 	private class MusicThread extends Thread {
+		public MusicThread() {
+			super("MusicPlayer");
+			setDaemon(true);
+		}
+		
 		@Override
     	public void run() {
-    		play(musicLoader.getNextFile());
+			try {
+				while (true) {
+					waitUntilPlaying();
+					playUntilStopped();
+				}
+			} catch (InterruptedException e) {
+				// the music thread only ends when it's interrupted
+			} catch (UnsupportedAudioFileException | LineUnavailableException | IOException ex) {
+				throw new IllegalStateException(ex);
+			} finally {
+				musicThreadEnded(this);
+			}
     	}
 	}
 	
-	@Override
-	public void update(LineEvent event) {
-		LineEvent.Type type = event.getType();
-		if (type == LineEvent.Type.STOP) {
-			if (audioClip != null) {
-				audioClip.close();
-				audioClip.removeLineListener(this);
-				audioClip = null;
+	// a new music thread is started by the next call to play
+	private synchronized void musicThreadEnded(MusicThread endedMusicThread) {
+		if (musicThread == endedMusicThread) {
+			musicThread = null;
+		}
+	}
+	
+	private synchronized void waitUntilPlaying() throws InterruptedException {
+		while (!isPlaying()) {
+			wait();
+		}
+	}
+	
+	private boolean isPlaying() {
+		return enabled && playing;
+	}
+	
+	private void playUntilStopped() throws UnsupportedAudioFileException, IOException, LineUnavailableException {
+		MusicTrack track = new MusicTrack(musicLoader.getNextFile());
+		MusicTrack nextTrack = null;
+		SourceDataLine line = BackgroundMusicUtils.openMusicLine(track.getFormat(), soundOutput);
+		byte[] buffer = new byte[CHUNK_SIZE];
+		byte[] nextBuffer = new byte[CHUNK_SIZE];
+		try {
+			while (isPlaying()) {
+				if (nextTrack == null && track.getFramesLeft() <= getCrossfadeFrames(track.getFormat())) {
+					nextTrack = new MusicTrack(musicLoader.getNextFile());
+					if (BackgroundMusicUtils.canCrossfade(track.getFormat(), nextTrack.getFormat())) {
+						crossfade(track, nextTrack, line, buffer, nextBuffer);
+						track = nextTrack;
+						nextTrack = null;
+					}
+				} else {
+					int bytesRead = track.read(buffer, buffer.length);
+					if (bytesRead == -1) {
+						if (nextTrack == null) {
+							nextTrack = new MusicTrack(musicLoader.getNextFile());
+						}
+						if (!BackgroundMusicUtils.canPlayGapless(track.getFormat(), nextTrack.getFormat())) {
+							line.drain();
+							line.close();
+							line = BackgroundMusicUtils.openMusicLine(nextTrack.getFormat(), soundOutput);
+						}
+						track.close();
+						track = nextTrack;
+						nextTrack = null;
+					} else {
+						line.write(buffer, 0, bytesRead);
+					}
+				}
 			}
-			if (enabled) {
-				sleep(500);
-				play(musicLoader.getNextFile());
+		} finally {
+			track.close();
+			if (nextTrack != null) {
+				nextTrack.close();
 			}
+			line.stop();
+			line.flush();
+			line.close();
 		}
 	}
-
-	private void sleep(int millis) {
-		try {
-			Thread.sleep(millis);
-		} catch (InterruptedException e) {
-			throw new IllegalStateException(e);
+	
+	private void crossfade(MusicTrack track, MusicTrack nextTrack, SourceDataLine line, byte[] buffer, byte[] nextBuffer) throws IOException {
+		AudioFormat format = track.getFormat();
+		long crossfadeFrames = track.getFramesLeft();
+		long frame = 0;
+		int bytesRead;
+		while (isPlaying() && (bytesRead = track.read(buffer, buffer.length)) != -1) {
+			nextTrack.readFully(nextBuffer, bytesRead);
+			BackgroundMusicUtils.crossfade(buffer, nextBuffer, bytesRead, format, frame, crossfadeFrames);
+			line.write(buffer, 0, bytesRead);
+			frame += bytesRead / format.getFrameSize();
 		}
+		track.close();
+	}
+	
+	private static long getCrossfadeFrames(AudioFormat format) {
+		return (long) (format.getFrameRate() * CROSSFADE_IN_MILLISECONDS / 1000);
 	}
 
-	public void stop() {
-		audioClip.stop();
-		audioClip.close();
-		audioClip.removeLineListener(this);
-		audioClip = null;
+	public synchronized void stop() {
+		playing = false;
 	}
 
 	public void setEnabled(boolean enabled) {
@@ -99,7 +169,7 @@ public class MusicPlayer implements LineListener {
 		
 		if (enabled) {
 			play();
-		} else if (audioClip != null){
+		} else {
 			stop();
 		}
 	}
@@ -107,4 +177,52 @@ public class MusicPlayer implements LineListener {
 	public boolean isEnabled() {
 		return enabled;
 	}
-}
\ No newline at end of file
+	
+	private static class MusicTrack {
+		private final AudioInputStream audioStream;
+		private long framesRead = 0;
+		
+		public MusicTrack(InputStream inputStream) throws UnsupportedAudioFileException, IOException {
+			this.audioStream = BackgroundMusicUtils.readMusicFile(inputStream);
+		}
+		
+		public AudioFormat getFormat() {
+			return audioStream.getFormat();
+		}
+		
+		public int read(byte[] buffer, int length) throws IOException {
+			int bytesRead = audioStream.read(buffer, 0, length);
+			if (bytesRead > 0) {
+				framesRead += bytesRead / getFormat().getFrameSize();
+			}
+			return bytesRead;
+		}
+		
+		// the part of the buffer after the end of the track is filled with silence
+		public void readFully(byte[] buffer, int length) throws IOException {
+			int totalBytesRead = 0;
+			int bytesRead = 0;
+			while (totalBytesRead < length && bytesRead != -1) {
+				bytesRead = audioStream.read(buffer, totalBytesRead, length - totalBytesRead);
+				if (bytesRead > 0) {
+					totalBytesRead += bytesRead;
+				}
+			}
+			framesRead += totalBytesRead / getFormat().getFrameSize();
+			Arrays.fill(buffer, totalBytesRead, length, (byte) 0);
+		}
+		
+		public long getFramesLeft() {
+			long frameLength = audioStream.getFrameLength();
+			if (frameLength == AudioSystem.NOT_SPECIFIED) {
+				return Long.MAX_VALUE;
+			} else {
+				return frameLength - framesRead;
+			}
+		}
+		
+		public void close() throws IOException {
+			audioStream.close();
+		}
+	}
+}
@@ -1,108 +1,103 @@
-package org.worldgrower.gui.music;
-
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.zip.GZIPInputStream;
-
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.DataLine;
-import javax.sound.sampled.LineEvent;
-import javax.sound.sampled.LineListener;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.UnsupportedAudioFileException;
-
-import org.worldgrower.gui.start.Game;
-
-public class Sound {
-
-	private static final boolean CLOSE_AFTER_PLAYING = true;
-	private static final boolean DONT_CLOSE_AFTER_PLAYING = false;
-	
-	private final byte[] audioFilePath;
-	private final Clip preLoadedClip;
-	
-	public Sound(String path) {
-		try {
-			audioFilePath = readFully(new BufferedInputStream(new GZIPInputStream(Game.class.getResourceAsStream(path))));
-			if (isNumberOfLinesUnlimited(audioFilePath)) {
-				preLoadedClip = openClip(DONT_CLOSE_AFTER_PLAYING);
-			} else {
-				preLoadedClip = null;
-			}
-			
-		} catch (IOException | UnsupportedAudioFileException | LineUnavailableException e) {
-			throw new IllegalStateException(e);
-		}
-	}
-	
-	private static byte[] readFully(InputStream input) throws IOException
-	{
-	    byte[] buffer = new byte[8192];
-	    int bytesRead;
-	    ByteArrayOutputStream output = new ByteArrayOutputStream();
-	    while ((bytesRead = input.read(buffer)) != -1)
-	    {
-	        output.write(buffer, 0, bytesRead);
-	    }
-	    return output.toByteArray();
-	}
-	
-	private static boolean isNumberOfLinesUnlimited(byte[] audioFilePath) {
-		AudioInputStream audioStream;
-		try {
-			audioStream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(audioFilePath));
-			DataLine.Info info = getLineInfo(audioStream);
-			return AudioSystem.getMixer(null).getMaxLines(info) == AudioSystem.NOT_SPECIFIED;
-		} catch (UnsupportedAudioFileException | IOException e) {
-			throw new IllegalStateException(e);
-		}
-		
-	}
-	
-	public void play() {
-		try {
-			final Clip clipToPlay;
-			if (preLoadedClip != null) {
-				clipToPlay = preLoadedClip;
-				clipToPlay.setFramePosition(0);
-			} else {
-				clipToPlay = openClip(CLOSE_AFTER_PLAYING);
-			}
-			clipToPlay.start();
-
-		} catch (IOException | LineUnavailableException | UnsupportedAudioFileException e) {
-			throw new IllegalStateException(e);
-		}
-	}
-
-	private Clip openClip(boolean closeAfterPlaying) throws UnsupportedAudioFileException, IOException, LineUnavailableException {
-		AudioInputStream audioStream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(audioFilePath));
-		DataLine.Info info = getLineInfo(audioStream);
-		Clip audioClip = (Clip) AudioSystem.getLine(info);
-
-		if (closeAfterPlaying) {
-			audioClip.addLineListener(new LineListener() {
-				@Override
-				public void update(LineEvent myLineEvent) {
-					if (myLineEvent.getType() == LineEvent.Type.STOP)
-						audioClip.close();
-				}
-			});
-		}
-
-		audioClip.open(audioStream);
-		return audioClip;
-	}
-
-	private static DataLine.Info getLineInfo(AudioInputStream audioStream) {
-		AudioFormat format = audioStream.getFormat();
-		DataLine.Info info = new DataLine.Info(Clip.class, format, 100000);
-		return info;
-	}
-}
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui.music;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.worldgrower.gui.start.Game;
+
+/**
+ * A sound effect decoded into the format of the SoundEffectMixer:
+ * interleaved 16-bit stereo samples at SoundEffectMixer.SAMPLE_RATE.
+ */
+public class Sound {
+
+	private final short[] samples;
+	
+	public Sound(String path) {
+		try (InputStream input = new BufferedInputStream(new GZIPInputStream(Game.class.getResourceAsStream(path)))) {
+			samples = readSamples(AudioSystem.getAudioInputStream(input));
+		} catch (IOException | UnsupportedAudioFileException e) {
+			throw new IllegalStateException("Problem reading sound " + path, e);
+		}
+	}
+	
+	Sound(short[] samples) {
+		this.samples = samples;
+	}
+	
+	private static short[] readSamples(AudioInputStream audioStream) throws IOException {
+		AudioFormat format = audioStream.getFormat();
+		AudioFormat pcmFormat = new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+		if (!format.matches(pcmFormat)) {
+			audioStream = AudioSystem.getAudioInputStream(pcmFormat, audioStream);
+		}
+		return convertToMixerFormat(readFully(audioStream), pcmFormat);
+	}
+	
+	private static byte[] readFully(InputStream input) throws IOException
+	{
+	    byte[] buffer = new byte[8192];
+	    int bytesRead;
+	    ByteArrayOutputStream output = new ByteArrayOutputStream();
+	    while ((bytesRead = input.read(buffer)) != -1)
+	    {
+	        output.write(buffer, 0, bytesRead);
+	    }
+	    return output.toByteArray();
+	}
+	
+	/**
+	 * Converts little-endian 16-bit pcm data in the given format to stereo samples at SoundEffectMixer.SAMPLE_RATE.
+	 * Mono sounds are played on both channels, other sample rates are resampled by linear interpolation.
+	 */
+	static short[] convertToMixerFormat(byte[] pcm, AudioFormat format) {
+		int channels = format.getChannels();
+		int frameCount = pcm.length / (2 * channels);
+		double step = format.getSampleRate() / SoundEffectMixer.SAMPLE_RATE;
+		int mixerFrameCount = (int) (frameCount / step);
+		short[] samples = new short[mixerFrameCount * SoundEffectMixer.CHANNELS];
+		for(int mixerFrame = 0; mixerFrame < mixerFrameCount; mixerFrame++) {
+			double position = mixerFrame * step;
+			int frame = (int) position;
+			int nextFrame = Math.min(frame + 1, frameCount - 1);
+			double fraction = position - frame;
+			for(int channel = 0; channel < SoundEffectMixer.CHANNELS; channel++) {
+				int sourceChannel = Math.min(channel, channels - 1);
+				int sample = getSample(pcm, frame * channels + sourceChannel);
+				int nextSample = getSample(pcm, nextFrame * channels + sourceChannel);
+				samples[mixerFrame * SoundEffectMixer.CHANNELS + channel] = (short) Math.round(sample + (nextSample - sample) * fraction);
+			}
+		}
+		return samples;
+	}
+	
+	private static int getSample(byte[] pcm, int sampleIndex) {
+		return (pcm[2 * sampleIndex + 1] << 8) | (pcm[2 * sampleIndex] & 0xff);
+	}
+	
+	short[] getSamples() {
+		return samples;
+	}
+}
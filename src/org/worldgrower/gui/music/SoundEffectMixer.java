@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui.music;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Mixes all playing sound effects in software and writes them to a single SourceDataLine,
+ * so that playing a sound effect doesn't open a line of its own.
+ * When more than maxVoices sound effects are playing, the oldest one is stopped.
+ */
+class SoundEffectMixer implements Runnable {
+
+	static final float SAMPLE_RATE = 44100f;
+	static final int CHANNELS = 2;
+	static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+	
+	// the mixer writes 10 milliseconds of sound at a time
+	static final int CHUNK_SIZE = 441 * CHANNELS * 2;
+	private static final int LINE_BUFFER_IN_MILLISECONDS = 60;
+	
+	private final int maxVoices;
+	private final List<Voice> voices = new ArrayList<>();
+	private final int[] mixBuffer = new int[CHUNK_SIZE / 2];
+	private SourceDataLine line;
+	private Thread mixerThread;
+	
+	private int voicesStarted = 0;
+	private int voicesDropped = 0;
+	private int peakVoices = 0;
+	
+	SoundEffectMixer(int maxVoices) {
+		this.maxVoices = maxVoices;
+	}
+	
+	synchronized void open(SoundOutput soundOutput) throws LineUnavailableException {
+		if (line == null) {
+			line = BackgroundMusicUtils.openLine(FORMAT, soundOutput, LINE_BUFFER_IN_MILLISECONDS);
+			mixerThread = new Thread(this, "SoundEffectMixer");
+			mixerThread.setDaemon(true);
+			mixerThread.start();
+		}
+	}
+	
+	/**
+	 * Stops all sound effects, the mixer thread closes the line after writing its current chunk.
+	 */
+	synchronized void close() {
+		voices.clear();
+		line = null;
+		mixerThread = null;
+		notifyAll();
+	}
+	
+	synchronized boolean isOpen() {
+		return line != null;
+	}
+	
+	synchronized void play(Sound sound) {
+		if (voices.size() >= maxVoices) {
+			voices.remove(0);
+			voicesDropped++;
+		}
+		voices.add(new Voice(sound.getSamples()));
+		voicesStarted++;
+		peakVoices = Math.max(peakVoices, voices.size());
+		notifyAll();
+	}
+	
+	@Override
+	public void run() {
+		SourceDataLine mixerLine = getLine();
+		byte[] chunk = new byte[CHUNK_SIZE];
+		try {
+			while (waitForVoices()) {
+				mix(chunk);
+				mixerLine.write(chunk, 0, chunk.length);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			mixerLine.close();
+		}
+	}
+	
+	private synchronized SourceDataLine getLine() {
+		return line;
+	}
+	
+	private synchronized boolean waitForVoices() throws InterruptedException {
+		while (mixerThread == Thread.currentThread() && voices.isEmpty()) {
+			wait();
+		}
+		return mixerThread == Thread.currentThread();
+	}
+	
+	/**
+	 * Mixes the next CHUNK_SIZE bytes of all playing sound effects into chunk
+	 * and returns the number of sound effects that were mixed.
+	 */
+	synchronized int mix(byte[] chunk) {
+		int voiceCount = voices.size();
+		for(int i = 0; i < mixBuffer.length; i++) {
+			mixBuffer[i] = 0;
+		}
+		Iterator<Voice> voiceIterator = voices.iterator();
+		while (voiceIterator.hasNext()) {
+			if (voiceIterator.next().mixInto(mixBuffer)) {
+				voiceIterator.remove();
+			}
+		}
+		for(int i = 0; i < mixBuffer.length; i++) {
+			int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBuffer[i]));
+			chunk[2 * i] = (byte) sample;
+			chunk[2 * i + 1] = (byte) (sample >> 8);
+		}
+		return voiceCount;
+	}
+	
+	synchronized int getActiveVoiceCount() {
+		return voices.size();
+	}
+
+	synchronized int getVoicesStarted() {
+		return voicesStarted;
+	}
+
+	synchronized int getVoicesDropped() {
+		return voicesDropped;
+	}
+
+	synchronized int getPeakVoices() {
+		return peakVoices;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return "activeVoices=" + voices.size() + ", peakVoices=" + peakVoices + ", voicesStarted=" + voicesStarted + ", voicesDropped=" + voicesDropped;
+	}
+
+	private static class Voice {
+		private final short[] samples;
+		private int position = 0;
+		
+		public Voice(short[] samples) {
+			this.samples = samples;
+		}
+		
+		/**
+		 * Adds the next samples to mixBuffer and returns true if the sound effect has finished.
+		 */
+		public boolean mixInto(int[] mixBuffer) {
+			int length = Math.min(mixBuffer.length, samples.length - position);
+			for(int i = 0; i < length; i++) {
+				mixBuffer[i] += samples[position + i];
+			}
+			position += length;
+			return position >= samples.length;
+		}
+	}
+}
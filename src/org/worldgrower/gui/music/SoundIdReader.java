@@ -14,16 +14,43 @@
  *******************************************************************************/
 package org.worldgrower.gui.music;
 
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * Plays sound effects through a SoundEffectMixer.
+ * Sound effects are decoded on a loader thread the first time they're played,
+ * and only the most recently played sound effects are kept in memory.
+ * All SoundIdReaders share the same loader thread, so replacing a SoundIdReader doesn't leave a thread behind.
+ */
 public class SoundIdReader {
 
-	private SoundOutput soundOutput;
-	private boolean enabled;
-	private final Map<SoundIds, Sound> sounds = new HashMap<>();
+	private static final int MAX_LOADED_SOUNDS = 24;
+	private static final int MAX_VOICES = 16;
+	private static final SoundIds[] PRELOADED_SOUNDS = { SoundIds.ROLLOVER, SoundIds.CLICK };
+	private static final ExecutorService SOUND_LOADER = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "SoundLoader");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private final SoundOutput soundOutput;
+	private volatile boolean enabled;
+	private final Map<SoundIds, String> soundPaths = new EnumMap<>(SoundIds.class);
+	private final Map<SoundIds, Sound> sounds;
+	private final SoundEffectMixer mixer = new SoundEffectMixer(MAX_VOICES);
+	
+	private int soundsLoaded = 0;
+	private int soundsEvicted = 0;
+	private long loadTimeInNanoseconds = 0;
 
-	private void initialize() throws SoundException {
+	private void initialize() {
 		readSound(SoundIds.CUT_WOOD, "/sound/workshop - wood clap8bit.wav.gz");
 		readSound(SoundIds.MINE, "/sound/workshop - metal tapping8bit.wav.gz");
 		readSound(SoundIds.FLAMES, "/sound/flames8bit.wav.gz");
@@ -96,35 +123,123 @@ public class SoundIdReader {
 	public SoundIdReader(SoundOutput soundOutput, boolean enabled) throws SoundException {
 		this.soundOutput = soundOutput;
 		this.enabled = enabled;
+		this.sounds = new LinkedHashMap<SoundIds, Sound>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<SoundIds, Sound> eldest) {
+				boolean evict = size() > MAX_LOADED_SOUNDS;
+				if (evict) {
+					soundsEvicted++;
+				}
+				return evict;
+			}
+		};
 		
+		initialize();
 		if (enabled) {
-			initialize();
+			openMixer();
+			preloadSounds();
 		}
 	}
 
-	private void readSound(SoundIds soundIds, String path) throws SoundException {
-		Sound audioClip = new Sound(path);
-		sounds.put(soundIds, audioClip);
+	private void readSound(SoundIds soundIds, String path) {
+		soundPaths.put(soundIds, path);
+	}
+	
+	private void openMixer() throws SoundException {
+		if (soundOutput == null || !soundOutput.supportsSound()) {
+			throw new SoundException("No audio device found");
+		}
+		try {
+			mixer.open(soundOutput);
+		} catch (LineUnavailableException | IllegalArgumentException e) {
+			throw new SoundException(e);
+		}
+	}
+	
+	// the menu sounds are played first, so they're decoded before they're needed
+	private void preloadSounds() {
+		for(SoundIds soundIds : PRELOADED_SOUNDS) {
+			loadSound(soundIds);
+		}
 	}
 	
 	public void playSoundEffect(SoundIds soundIds) {
 		if (enabled) {
-			Sound sound = sounds.get(soundIds);
-			sound.play();
+			Sound sound = getLoadedSound(soundIds);
+			if (sound != null) {
+				mixer.play(sound);
+			} else {
+				SOUND_LOADER.execute(() -> playLoadedSoundEffect(getSound(soundIds)));
+			}
+		}
+	}
+	
+	private void playLoadedSoundEffect(Sound sound) {
+		if (enabled) {
+			mixer.play(sound);
 		}
 	}
+	
+	Future<Sound> loadSound(SoundIds soundIds) {
+		return SOUND_LOADER.submit(() -> getSound(soundIds));
+	}
+	
+	private synchronized Sound getLoadedSound(SoundIds soundIds) {
+		return sounds.get(soundIds);
+	}
+	
+	// the sound is decoded without holding the lock, so playSoundEffect doesn't wait for it
+	Sound getSound(SoundIds soundIds) {
+		Sound sound = getLoadedSound(soundIds);
+		if (sound == null) {
+			String path = soundPaths.get(soundIds);
+			if (path == null) {
+				throw new IllegalStateException("No sound found for " + soundIds);
+			}
+			long loadStart = System.nanoTime();
+			sound = new Sound(path);
+			sound = addLoadedSound(soundIds, sound, System.nanoTime() - loadStart);
+		}
+		return sound;
+	}
+	
+	private synchronized Sound addLoadedSound(SoundIds soundIds, Sound sound, long loadTimeInNanoseconds) {
+		Sound loadedSound = sounds.get(soundIds);
+		if (loadedSound != null) {
+			return loadedSound;
+		}
+		this.loadTimeInNanoseconds += loadTimeInNanoseconds;
+		soundsLoaded++;
+		sounds.put(soundIds, sound);
+		return sound;
+	}
 
 	public void setEnabled(boolean enabled) {
 		this.enabled = enabled;
 		
-		try {
-			initialize();
-		} catch (SoundException e) {
-			throw new IllegalStateException(e);
+		if (enabled) {
+			try {
+				openMixer();
+			} catch (SoundException e) {
+				throw new IllegalStateException(e);
+			}
+			preloadSounds();
+		} else {
+			mixer.close();
 		}
 	}
 
 	public boolean isEnabled() {
 		return enabled;
 	}
+	
+	synchronized int getLoadedSoundCount() {
+		return sounds.size();
+	}
+	
+	public synchronized String getStatistics() {
+		double averageLoadTime = soundsLoaded > 0 ? loadTimeInNanoseconds / 1000000.0 / soundsLoaded : 0;
+		return "soundsLoaded=" + soundsLoaded + ", soundsEvicted=" + soundsEvicted
+				+ String.format(", averageLoadTime=%.2fms, ", averageLoadTime) + mixer;
+	}
 }
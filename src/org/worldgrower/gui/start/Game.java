@@ -26,6 +26,8 @@ import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import javax.swing.ToolTipManager;
 
+import org.worldgrower.ArrayTaskCalculator;
+import org.worldgrower.AutoSave;
 import org.worldgrower.CommonerNameGenerator;
 import org.worldgrower.CommonerNameGeneratorImpl;
 import org.worldgrower.Constants;
@@ -60,6 +62,7 @@ import org.worldgrower.gui.ImageIds;
 import org.worldgrower.gui.ImageInfoReader;
 import org.worldgrower.gui.SwingUtils;
 import org.worldgrower.gui.WorldPanel;
+import org.worldgrower.gui.loadsave.SaveFileUtils;
 import org.worldgrower.gui.music.MusicPlayer;
 import org.worldgrower.gui.music.SoundIdReader;
 import org.worldgrower.gui.util.IconUtils;
@@ -75,12 +78,17 @@ import org.worldgrower.terrain.TerrainType;
  */
 public class Game {
 
+	private static final int TURNS_BETWEEN_AUTOSAVES = 20;
+	
 	private static JFrame frame = null;
+	private static final AutoSave AUTO_SAVE = new AutoSave(SaveFileUtils.getAutoSaveFile(), TURNS_BETWEEN_AUTOSAVES);
 	
 	public static void run(CharacterAttributes characterAttributes, ImageInfoReader imageInfoReader, SoundIdReader soundIdReader, MusicPlayer musicPlayer, ImageIds playerCharacterImageId, GameParameters gameParameters, KeyBindings keyBindings) throws Exception {
 		int seed = gameParameters.getSeed();
 		int startTurn = gameParameters.getStartTurn();
 		DungeonMaster dungeonMaster = new DungeonMaster();
+		dungeonMaster.setTaskCalculator(new ArrayTaskCalculator());
+		dungeonMaster.setParallelPlanning(Boolean.getBoolean("PARALLEL_PLANNING"));
 		WorldOnTurnImpl worldOnTurn = new WorldOnTurnImpl(new DeityWorldOnTurn(), new ArenaFightOnTurn(), new OrganizationRebelsOnTurn());
 		Terrain terrain = new TerrainImpl(gameParameters.getWorldWidth(), gameParameters.getWorldHeight(), new TerrainMapper(gameParameters.getWaterCutoff()));
 		World world = new WorldImpl(terrain, dungeonMaster, worldOnTurn);
@@ -214,6 +222,8 @@ public class Game {
 	
 	public static void load(File fileToLoad, ImageInfoReader imageInfoReader, SoundIdReader soundIdReader, MusicPlayer musicPlayer, KeyBindings keyBindings) {
 		DungeonMaster dungeonMaster = new DungeonMaster();
+		dungeonMaster.setTaskCalculator(new ArrayTaskCalculator());
+		dungeonMaster.setParallelPlanning(Boolean.getBoolean("PARALLEL_PLANNING"));
 		World world = WorldImpl.load(fileToLoad);
 		final WorldObject playerCharacter = world.findWorldObjectById(0);
 		NameRequesterImpl nameRequester = new NameRequesterImpl(imageInfoReader, soundIdReader);
@@ -352,6 +362,7 @@ public class Game {
 	private static void runWorld(WorldObject playerCharacter, World world, DungeonMaster dungeonMaster, WorldPanel worldPanel) {
 		dungeonMaster.runWorld(world, worldPanel.getWorldStateChangedListeners());
 		exploreWorld(playerCharacter, world);
+		AUTO_SAVE.turnFinished(world);
 		worldPanel.centerViewOnPlayerCharacter();
 		worldPanel.repaintWorldView();
 	}
@@ -76,6 +76,7 @@ public class StartScreen implements SaveGameHandler {
 	private static final String PLAY_MUSIC = "playMusic";
 	private static final String PLAY_SOUNDS = "playSounds";
 	private static final String SOUND_OUTPUT = "soundOutput";
+	private static final File IMAGE_ATLAS_FILE = new File(System.getProperty("user.home"), "worldgrower-images.atlas");
 	private StartScreenDialog frame;
 	private JButton btnSaveGame;
 	private World world;
@@ -141,7 +142,7 @@ public class StartScreen implements SaveGameHandler {
 
 	private static void loadImages() {
 		try {
-			imageInfoReader = new ImageInfoReader();
+			imageInfoReader = ImageInfoReader.readOrCreate(IMAGE_ATLAS_FILE);
 			TiledImageComboPopup.initializeImageInfoReader(imageInfoReader);
 		} catch (Exception e) {
 			ExceptionHandler.handle(e);
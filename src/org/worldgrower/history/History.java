@@ -36,6 +36,12 @@ public interface History {
 	public List<HistoryItem> findHistoryItemsForPerformer(WorldObject worldObject);
 	public OperationInfo getLastPerformedOperation(WorldObject worldObject);
 	public Collection<OperationInfo> getAllLastPerformedOperations();
+	
+	/**
+	 * Returns the last performed operations of all performers whose last operation had the given target,
+	 * ordered by performer id.
+	 */
+	public Collection<OperationInfo> getLastPerformedOperationsOnTarget(WorldObject target);
 	public List<HistoryItem> findHistoryItems(ManagedOperation managedOperation);
 	public HistoryItem getHistoryItem(int historyItemId);
 	public int size();
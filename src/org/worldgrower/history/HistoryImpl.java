@@ -14,34 +14,65 @@
  *******************************************************************************/
 package org.worldgrower.history;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import org.worldgrower.Constants;
 import org.worldgrower.ManagedOperation;
 import org.worldgrower.OperationInfo;
+import org.worldgrower.PropertyAccessRecorder;
 import org.worldgrower.WorldObject;
 import org.worldgrower.actions.Actions;
 
+/**
+ * HistoryImpl stores HistoryItems in columns of ints, indexed by history id.
+ * HistoryItems are created when they are retrieved.
+ * Queries are answered by lists of history ids per performer, per performer and target and per operation.
+ * The last performed operation of each performer is also indexed by the id of its target.
+ */
 public class HistoryImpl implements History, Serializable {
 
-	private final List<HistoryItem> historyItems = new ArrayList<>();
+	private static final int NO_ARGS = -1;
+	
+	private final IntArrayList turns = new IntArrayList();
+	private final IntArrayList performerIds = new IntArrayList();
+	private final IntArrayList performerIdFacades = new IntArrayList();
+	private final IntArrayList targetIds = new IntArrayList();
+	private final IntArrayList operationIndices = new IntArrayList();
+	private final IntArrayList argsOffsets = new IntArrayList();
+	private final IntArrayList argsLengths = new IntArrayList();
+	private final IntArrayList packedArgs = new IntArrayList();
+	private final Map<Integer, Object> additionalValues = new HashMap<>();
 	
-	private final Map<Integer, HistoryItemsForTarget> historyItemsByPerformer = new HashMap<>();
-	private final Map<ManagedOperation, List<HistoryItem>> historyItemsByOperations = new HashMap<>();
+	private final List<ManagedOperation> operations = new ArrayList<>();
+	private final Map<ManagedOperation, Integer> operationIndicesByOperation = new HashMap<>();
+	
+	private final Map<Integer, IntArrayList> historyIdsByPerformer = new HashMap<>();
+	private final Map<Long, IntArrayList> historyIdsByPerformerAndTarget = new HashMap<>();
+	private final List<IntArrayList> historyIdsByOperation = new ArrayList<>();
 	
 	private final Map<Integer, OperationInfo> lastPerformedOperationMap = new HashMap<>();
+	private final Map<Integer, Map<Integer, OperationInfo>> lastPerformedOperationsByTarget = new HashMap<>();
 	private Object currentAdditionalValue = null;
 	
 	private final HistoryWorldObjects historyWorldObjects = new HistoryWorldObjects();
+	// only a copy for save can start after the first history id
+	private int firstHistoryId = 0;
 	
 	@Override
 	public HistoryItem actionPerformed(OperationInfo operationInfo, Turn turn) {
+		PropertyAccessRecorder.historyChanged();
 		HistoryItem historyItem = null;
 		ManagedOperation action = operationInfo.getManagedOperation();
 		boolean shouldLogAction = shouldLogAction(action);
@@ -64,29 +95,88 @@ public class HistoryImpl implements History, Serializable {
 	}
 
 	private void addAsLastPerformedOperation(OperationInfo operationInfo) {
-		Integer performerId = operationInfo.getPerformer().getProperty(Constants.ID);
-		lastPerformedOperationMap.put(performerId, operationInfo);
+		addAsLastPerformedOperation(operationInfo.getPerformer().getProperty(Constants.ID), operationInfo);
+	}
+	
+	private void addAsLastPerformedOperation(Integer performerId, OperationInfo operationInfo) {
+		OperationInfo previousOperationInfo = lastPerformedOperationMap.put(performerId, operationInfo);
+		
+		if (previousOperationInfo != null) {
+			Map<Integer, OperationInfo> previousOperationInfos = getLastPerformedOperationsByTarget(previousOperationInfo.getTarget());
+			if (previousOperationInfos != null) {
+				previousOperationInfos.remove(performerId);
+				if (previousOperationInfos.isEmpty()) {
+					lastPerformedOperationsByTarget.remove(previousOperationInfo.getTarget().getProperty(Constants.ID));
+				}
+			}
+		}
+		
+		Integer targetId = operationInfo.getTarget().getProperty(Constants.ID);
+		if (targetId != null) {
+			Map<Integer, OperationInfo> operationInfos = lastPerformedOperationsByTarget.get(targetId);
+			if (operationInfos == null) {
+				operationInfos = new TreeMap<>();
+				lastPerformedOperationsByTarget.put(targetId, operationInfos);
+			}
+			operationInfos.put(performerId, operationInfo);
+		}
+	}
+	
+	private Map<Integer, OperationInfo> getLastPerformedOperationsByTarget(WorldObject target) {
+		Integer targetId = target.getProperty(Constants.ID);
+		return targetId != null ? lastPerformedOperationsByTarget.get(targetId) : null;
 	}
 
 	private void addHistoryItem(HistoryItem historyItem) {
-		ManagedOperation action = historyItem.getManagedOperation();
-
-		historyItems.add(historyItem);
+		int historyId = historyItem.getHistoryId();
+		int performerId = historyItem.getPerformerId();
+		int targetId = historyItem.getTargetId();
+		int operationIndex = getOrCreateOperationIndex(historyItem.getManagedOperation());
 		
-		Integer performerId = historyItem.getPerformerId();
-		HistoryItemsForTarget historyItemsForTarget = historyItemsByPerformer.get(performerId);
-		if (historyItemsForTarget == null) {
-			historyItemsForTarget = new HistoryItemsForTarget();
-			historyItemsByPerformer.put(performerId, historyItemsForTarget);
+		turns.add(historyItem.getTurn().getValue());
+		performerIds.add(performerId);
+		performerIdFacades.add(historyItem.getPerformerIdFacade());
+		targetIds.add(targetId);
+		operationIndices.add(operationIndex);
+		addArgs(historyItem.getArgs());
+		if (historyItem.getAdditionalValue() != null) {
+			additionalValues.put(historyId, historyItem.getAdditionalValue());
 		}
-		historyItemsForTarget.addHistoryItem(historyItem);
 		
-		List<HistoryItem> historyItemsByOperationsList = historyItemsByOperations.get(action);
-		if (historyItemsByOperationsList == null) {
-			historyItemsByOperationsList = new ArrayList<>();
-			historyItemsByOperations.put(action, historyItemsByOperationsList);
+		addToIndices(historyId, performerId, targetId, operationIndex);
+	}
+	
+	private void addToIndices(int historyId, int performerId, int targetId, int operationIndex) {
+		historyIdsByPerformer.computeIfAbsent(performerId, k -> new IntArrayList()).add(historyId);
+		historyIdsByPerformerAndTarget.computeIfAbsent(getPerformerAndTargetKey(performerId, targetId), k -> new IntArrayList()).add(historyId);
+		historyIdsByOperation.get(operationIndex).add(historyId);
+	}
+	
+	private void addArgs(int[] args) {
+		argsOffsets.add(packedArgs.size());
+		if (args != null) {
+			argsLengths.add(args.length);
+			for(int arg : args) {
+				packedArgs.add(arg);
+			}
+		} else {
+			argsLengths.add(NO_ARGS);
 		}
-		historyItemsByOperationsList.add(historyItem);
+	}
+	
+	private int getOrCreateOperationIndex(ManagedOperation managedOperation) {
+		Integer operationIndex = operationIndicesByOperation.get(managedOperation);
+		if (operationIndex == null) {
+			operationIndex = operations.size();
+			operations.add(managedOperation);
+			operationIndicesByOperation.put(managedOperation, operationIndex);
+			historyIdsByOperation.add(new IntArrayList());
+		}
+		return operationIndex;
+	}
+	
+	private static long getPerformerAndTargetKey(int performerId, int targetId) {
+		return ((long) performerId << 32) | (targetId & 0xFFFFFFFFL);
 	}
 
 	private boolean shouldLogAction(ManagedOperation action) {
@@ -101,43 +191,58 @@ public class HistoryImpl implements History, Serializable {
 	
 	@Override
 	public HistoryItem findHistoryItem(WorldObject performer, WorldObject target, int[] args, ManagedOperation managedOperation) {
-		List<HistoryItem> foundItems = findHistoryItems(performer, target, args, managedOperation);
-		if (foundItems.size() > 0) {
-			return foundItems.get(0);
-		} else {
-			return null;
+		IntArrayList historyIds = getHistoryIds(performer, target);
+		int operationIndex = getOperationIndex(managedOperation);
+		if (historyIds != null && operationIndex != -1) {
+			for(int i=0; i<historyIds.size(); i++) {
+				int historyId = historyIds.getInt(i);
+				if (operationIndices.getInt(historyId) == operationIndex && argsEqual(historyId, args)) {
+					return getHistoryItem(historyId);
+				}
+			}
 		}
+		return null;
 	}
 	
 	@Override
 	public List<HistoryItem> findHistoryItems(WorldObject performer, WorldObject target, int[] args, ManagedOperation managedOperation) {
-		
-		Integer performerId = performer.getProperty(Constants.ID);
-		HistoryItemsForTarget historyItemsForTarget = historyItemsByPerformer.get(performerId);
-		if (historyItemsForTarget != null) {
-			List<HistoryItem> foundItems = historyItemsForTarget.findHistoryItems(performer, target, args, managedOperation);
-			return foundItems;			
-		} else {
-			return new ArrayList<>();
+		IntArrayList historyIds = getHistoryIds(performer, target);
+		int operationIndex = getOperationIndex(managedOperation);
+		List<HistoryItem> foundItems = new ArrayList<>();
+		if (historyIds != null && operationIndex != -1) {
+			for(int i=0; i<historyIds.size(); i++) {
+				int historyId = historyIds.getInt(i);
+				if (operationIndices.getInt(historyId) == operationIndex && argsEqual(historyId, args)) {
+					foundItems.add(getHistoryItem(historyId));
+				}
+			}
 		}
+		return foundItems;
 	}
 	
 	@Override
 	public List<HistoryItem> findHistoryItemsForAnyPerformer(WorldObject performer, WorldObject target, int[] args, ManagedOperation managedOperation) {
-		Integer performerId = performer.getProperty(Constants.ID);
-		HistoryItemsForTarget historyItemsForTarget = historyItemsByPerformer.get(performerId);
-		if (historyItemsForTarget != null) {
-			List<HistoryItem> foundItems = historyItemsForTarget.findHistoryItemsForAnyPerformer(performer, target, args, managedOperation);
-			return foundItems;			
-		} else {
-			return new ArrayList<>();
+		int performerId = performer.getProperty(Constants.ID).intValue();
+		IntArrayList historyIds = getHistoryIds(performer, target);
+		int operationIndex = getOperationIndex(managedOperation);
+		List<HistoryItem> foundItems = new ArrayList<>();
+		if (historyIds != null && operationIndex != -1) {
+			for(int i=0; i<historyIds.size(); i++) {
+				int historyId = historyIds.getInt(i);
+				int performerIdFacade = performerIdFacades.getInt(historyId);
+				boolean isPerformerEqual = (performerIdFacade == -1 || performerIdFacade == performerId);
+				if (isPerformerEqual && operationIndices.getInt(historyId) == operationIndex && argsEqual(historyId, args)) {
+					foundItems.add(getHistoryItem(historyId));
+				}
+			}
 		}
+		return foundItems;
 	}
 	
 	@Override
 	public List<HistoryItem> findHistoryItemsForPerformer(WorldObject performer) {
 		int performerId = performer.getProperty(Constants.ID).intValue();
-		return historyItems.stream().filter(h -> h.getPerformerId() == performerId).collect(Collectors.toList());
+		return getHistoryItems(historyIdsByPerformer.get(performerId));
 	}
 	
 	@Override
@@ -149,12 +254,22 @@ public class HistoryImpl implements History, Serializable {
 	public Collection<OperationInfo> getAllLastPerformedOperations() {
 		return lastPerformedOperationMap.values();
 	}
+	
+	@Override
+	public Collection<OperationInfo> getLastPerformedOperationsOnTarget(WorldObject target) {
+		Map<Integer, OperationInfo> operationInfos = getLastPerformedOperationsByTarget(target);
+		if (operationInfos != null) {
+			return new ArrayList<>(operationInfos.values());
+		} else {
+			return new ArrayList<>();
+		}
+	}
 
 	@Override
 	public List<HistoryItem> findHistoryItems(ManagedOperation managedOperationToFind) {
-		List<HistoryItem> foundItems = historyItemsByOperations.get(managedOperationToFind);
-		if (foundItems != null) {
-			return foundItems;
+		int operationIndex = getOperationIndex(managedOperationToFind);
+		if (operationIndex != -1) {
+			return getHistoryItems(historyIdsByOperation.get(operationIndex));
 		} else {
 			return new ArrayList<>();
 		}
@@ -162,134 +277,104 @@ public class HistoryImpl implements History, Serializable {
 
 	@Override
 	public HistoryItem getHistoryItem(int historyItemId) {
-		return historyItems.get(historyItemId);
+		if (historyItemId < 0 || historyItemId >= size()) {
+			throw new IndexOutOfBoundsException("History id " + historyItemId + " not found, size is " + size());
+		}
+		return new HistoryItem(
+				historyItemId, 
+				performerIds.getInt(historyItemId), 
+				performerIdFacades.getInt(historyItemId), 
+				targetIds.getInt(historyItemId), 
+				getArgs(historyItemId), 
+				operations.get(operationIndices.getInt(historyItemId)), 
+				turns.getInt(historyItemId), 
+				additionalValues.get(historyItemId), 
+				historyWorldObjects);
 	}
 	
-	private static class HistoryItemsForTarget implements Serializable {
-		private final Map<Integer, HistoryItemsForAction> historyItemsByTarget = new HashMap<>();
-		
-		public void addHistoryItem(HistoryItem historyItem) {
-				
-			Integer targetId = historyItem.getTargetId();
-			HistoryItemsForAction historyItemsByTargetList = historyItemsByTarget.get(targetId);
-			if (historyItemsByTargetList == null) {
-				historyItemsByTargetList = new HistoryItemsForAction();
-				historyItemsByTarget.put(targetId, historyItemsByTargetList);
-			}
-			historyItemsByTargetList.addHistoryItem(historyItem);
+	private int[] getArgs(int historyId) {
+		int argsLength = argsLengths.getInt(historyId);
+		if (argsLength == NO_ARGS) {
+			return null;
 		}
-		
-		public List<HistoryItem> findHistoryItemsForAnyPerformer(WorldObject performer, WorldObject target, int[] args, ManagedOperation action) {
-			HistoryItemsForAction historyItemsByTargetList = getHistoryItemsByTargetList(target);
-			if (historyItemsByTargetList != null) {
-				List<HistoryItem> foundItems = historyItemsByTargetList.findHistoryItemsForAnyPerformer(performer, target, args, action);
-				return foundItems;			
-			} else {
-				return new ArrayList<>();
-			}
+		int[] args = new int[argsLength];
+		packedArgs.getElements(argsOffsets.getInt(historyId), args, 0, argsLength);
+		return args;
+	}
+	
+	private boolean argsEqual(int historyId, int[] args) {
+		int argsLength = argsLengths.getInt(historyId);
+		if (args == null || argsLength == NO_ARGS) {
+			return args == null && argsLength == NO_ARGS;
 		}
-
-		public List<HistoryItem> findHistoryItems(WorldObject performer, WorldObject target, int[] args, ManagedOperation action) {
-			HistoryItemsForAction historyItemsByTargetList = getHistoryItemsByTargetList(target);
-			if (historyItemsByTargetList != null) {
-				List<HistoryItem> foundItems = historyItemsByTargetList.findHistoryItems(performer, target, args, action);
-				return foundItems;			
-			} else {
-				return new ArrayList<>();
-			}
+		if (args.length != argsLength) {
+			return false;
 		}
-
-		public List<HistoryItem> findHistoryItems(WorldObject performer, WorldObject target, ManagedOperation action) {
-			HistoryItemsForAction historyItemsByTargetList = getHistoryItemsByTargetList(target);
-			if (historyItemsByTargetList != null) {
-				List<HistoryItem> foundItems = historyItemsByTargetList.findHistoryItems(performer, target, action);
-				return foundItems;			
-			} else {
-				return new ArrayList<>();
+		int argsOffset = argsOffsets.getInt(historyId);
+		for(int i=0; i<argsLength; i++) {
+			if (packedArgs.getInt(argsOffset + i) != args[i]) {
+				return false;
 			}
 		}
-
-		private HistoryItemsForAction getHistoryItemsByTargetList(WorldObject target) {
-			Integer targetId = target.getProperty(Constants.ID);
-			HistoryItemsForAction historyItemsByTargetList = historyItemsByTarget.get(targetId);
-			return historyItemsByTargetList;
-		}
+		return true;
 	}
 	
-	private static class HistoryItemsForAction implements Serializable {
-		private final Map<ManagedOperation, List<HistoryItem>> historyItemsByAction = new HashMap<>();
-		
-		public void addHistoryItem(HistoryItem historyItem) {
-				
-			ManagedOperation action = historyItem.getManagedOperation();
-			List<HistoryItem> historyItemsByActionList = historyItemsByAction.get(action);
-			if (historyItemsByActionList == null) {
-				historyItemsByActionList = new ArrayList<>();
-				historyItemsByAction.put(action, historyItemsByActionList);
-			}
-			historyItemsByActionList.add(historyItem);
-		}
-		
-		public List<HistoryItem> findHistoryItemsForAnyPerformer(WorldObject performer, WorldObject target, int[] args, ManagedOperation action) {
-			int performerId = performer.getProperty(Constants.ID).intValue();
-			int targetId = target.getProperty(Constants.ID).intValue();
-			
-			List<HistoryItem> historyItemsByTargetList = getHistoryItemsByActionList(action);
-			if (historyItemsByTargetList != null) {
-				List<HistoryItem> foundItems = historyItemsByTargetList.stream().filter(h -> h.isEqualUsingFacade(performerId, targetId, args, action)).collect(Collectors.toList());
-				return foundItems;			
-			} else {
-				return new ArrayList<>();
-			}
-		}
-
-		public List<HistoryItem> findHistoryItems(WorldObject performer, WorldObject target, int[] args, ManagedOperation action) {
-			HistoryItem searchHistoryItem = new HistoryItem(-1, new OperationInfo(performer, target, args, action), new Turn(), null, null);
-			
-			List<HistoryItem> historyItemsByTargetList = getHistoryItemsByActionList(action);
-			if (historyItemsByTargetList != null) {
-				List<HistoryItem> foundItems = historyItemsByTargetList.stream().filter(h -> h.isEqual(searchHistoryItem)).collect(Collectors.toList());
-				return foundItems;			
-			} else {
-				return new ArrayList<>();
-			}
+	private int getOperationIndex(ManagedOperation managedOperation) {
+		Integer operationIndex = operationIndicesByOperation.get(managedOperation);
+		return operationIndex != null ? operationIndex.intValue() : -1;
+	}
+	
+	private IntArrayList getHistoryIds(WorldObject performer, WorldObject target) {
+		int performerId = performer.getProperty(Constants.ID).intValue();
+		Integer targetId = target.getProperty(Constants.ID);
+		if (targetId != null) {
+			return historyIdsByPerformerAndTarget.get(getPerformerAndTargetKey(performerId, targetId.intValue()));
+		} else {
+			return null;
 		}
-
-		public List<HistoryItem> findHistoryItems(WorldObject performer, WorldObject target, ManagedOperation action) {
-			int performerId = performer.getProperty(Constants.ID).intValue();
-			int targetId = target.getProperty(Constants.ID).intValue();
-			List<HistoryItem> historyItemsByTargetList = getHistoryItemsByActionList(action);
-			if (historyItemsByTargetList != null) {
-				List<HistoryItem> foundItems = historyItemsByTargetList.stream().filter(h -> h.matches(performerId, targetId, action)).collect(Collectors.toList());
-				return foundItems;			
-			} else {
-				return new ArrayList<>();
+	}
+	
+	private List<HistoryItem> getHistoryItems(IntArrayList historyIds) {
+		List<HistoryItem> historyItems = new ArrayList<>();
+		if (historyIds != null) {
+			for(int i=0; i<historyIds.size(); i++) {
+				historyItems.add(getHistoryItem(historyIds.getInt(i)));
 			}
 		}
-
-		private List<HistoryItem> getHistoryItemsByActionList(ManagedOperation action) {
-			List<HistoryItem> historyItemsByTargetList = historyItemsByAction.get(action);
-			return historyItemsByTargetList;
-		}
+		return historyItems;
 	}
 
 	@Override
 	public List<HistoryItem> findHistoryItems(WorldObject performer, ManagedOperation managedOperation) {
-		List<HistoryItem> historyItems = findHistoryItems(managedOperation);
-		historyItems = historyItems.stream().filter(h -> h.getPerformerId() == performer.getProperty(Constants.ID)).collect(Collectors.toList());
-		return historyItems;
+		int performerId = performer.getProperty(Constants.ID).intValue();
+		IntArrayList historyIds = historyIdsByPerformer.get(performerId);
+		int operationIndex = getOperationIndex(managedOperation);
+		List<HistoryItem> foundItems = new ArrayList<>();
+		if (historyIds != null && operationIndex != -1) {
+			for(int i=0; i<historyIds.size(); i++) {
+				int historyId = historyIds.getInt(i);
+				if (operationIndices.getInt(historyId) == operationIndex) {
+					foundItems.add(getHistoryItem(historyId));
+				}
+			}
+		}
+		return foundItems;
 	}
 
 	@Override
 	public List<HistoryItem> findHistoryItems(WorldObject performer,WorldObject target, ManagedOperation managedOperation) {
-		Integer performerId = performer.getProperty(Constants.ID);
-		HistoryItemsForTarget historyItemsForTarget = historyItemsByPerformer.get(performerId);
-		if (historyItemsForTarget != null) {
-			List<HistoryItem> foundItems = historyItemsForTarget.findHistoryItems(performer, target, managedOperation);
-			return foundItems;			
-		} else {
-			return new ArrayList<>();
-		}		
+		IntArrayList historyIds = getHistoryIds(performer, target);
+		int operationIndex = getOperationIndex(managedOperation);
+		List<HistoryItem> foundItems = new ArrayList<>();
+		if (historyIds != null && operationIndex != -1) {
+			for(int i=0; i<historyIds.size(); i++) {
+				int historyId = historyIds.getInt(i);
+				if (operationIndices.getInt(historyId) == operationIndex) {
+					foundItems.add(getHistoryItem(historyId));
+				}
+			}
+		}
+		return foundItems;
 	}
 
 	@Override
@@ -299,11 +384,156 @@ public class HistoryImpl implements History, Serializable {
 	
 	@Override
 	public int getNextHistoryId() {
-		return this.historyItems.size();
+		return size();
 	}
 
 	@Override
 	public int size() {
-		return historyItems.size();
+		return turns.size();
+	}
+	
+	/**
+	 * Returns a copy of the columns and last performed operations of this HistoryImpl,
+	 * which can be written by writeHistory while this HistoryImpl keeps changing.
+	 * The indices aren't copied, so the copy can't be queried.
+	 */
+	public HistoryImpl copyForSave() {
+		HistoryImpl copy = new HistoryImpl();
+		copy.turns.addAll(turns);
+		copy.performerIds.addAll(performerIds);
+		copy.performerIdFacades.addAll(performerIdFacades);
+		copy.targetIds.addAll(targetIds);
+		copy.operationIndices.addAll(operationIndices);
+		copy.argsOffsets.addAll(argsOffsets);
+		copy.argsLengths.addAll(argsLengths);
+		copy.packedArgs.addAll(packedArgs);
+		copy.additionalValues.putAll(additionalValues);
+		copy.operations.addAll(operations);
+		copy.lastPerformedOperationMap.putAll(lastPerformedOperationMap);
+		copy.currentAdditionalValue = currentAdditionalValue;
+		copy.historyWorldObjects.addAll(historyWorldObjects);
+		return copy;
+	}
+	
+	/**
+	 * Returns a copy like copyForSave, which only contains the history items from the given history id on.
+	 * Writing it with writeHistory allows appendHistory to add these history items to a history
+	 * that was read up to the given history id.
+	 */
+	public HistoryImpl copyForSave(int firstHistoryId) {
+		int size = size();
+		if (firstHistoryId < 0 || firstHistoryId > size) {
+			throw new IllegalStateException("History id " + firstHistoryId + " isn't between 0 and " + size);
+		}
+		int firstArgsOffset = firstHistoryId < size ? argsOffsets.getInt(firstHistoryId) : packedArgs.size();
+		
+		HistoryImpl copy = new HistoryImpl();
+		copy.firstHistoryId = firstHistoryId;
+		copy.turns.addAll(turns.subList(firstHistoryId, size));
+		copy.performerIds.addAll(performerIds.subList(firstHistoryId, size));
+		copy.performerIdFacades.addAll(performerIdFacades.subList(firstHistoryId, size));
+		copy.targetIds.addAll(targetIds.subList(firstHistoryId, size));
+		copy.operationIndices.addAll(operationIndices.subList(firstHistoryId, size));
+		for(int historyId = firstHistoryId; historyId < size; historyId++) {
+			copy.argsOffsets.add(argsOffsets.getInt(historyId) - firstArgsOffset);
+		}
+		copy.argsLengths.addAll(argsLengths.subList(firstHistoryId, size));
+		copy.packedArgs.addAll(packedArgs.subList(firstArgsOffset, packedArgs.size()));
+		for(int historyId = firstHistoryId; historyId < size; historyId++) {
+			Object additionalValue = additionalValues.get(historyId);
+			if (additionalValue != null) {
+				copy.additionalValues.put(historyId, additionalValue);
+			}
+		}
+		copy.operations.addAll(operations);
+		copy.lastPerformedOperationMap.putAll(lastPerformedOperationMap);
+		copy.currentAdditionalValue = currentAdditionalValue;
+		copy.historyWorldObjects.addAll(historyWorldObjects, copy.performerIds);
+		copy.historyWorldObjects.addAll(historyWorldObjects, copy.targetIds);
+		return copy;
+	}
+	
+	/**
+	 * Writes the columns of this HistoryImpl one history item at a time.
+	 * The indices aren't written, they are rebuilt by readHistory.
+	 */
+	public void writeHistory(ObjectOutputStream objectOutputStream) throws IOException {
+		objectOutputStream.writeObject(operations);
+		objectOutputStream.writeInt(firstHistoryId);
+		int size = turns.size();
+		objectOutputStream.writeInt(size);
+		for(int historyId = 0; historyId < size; historyId++) {
+			objectOutputStream.writeInt(turns.getInt(historyId));
+			objectOutputStream.writeInt(performerIds.getInt(historyId));
+			objectOutputStream.writeInt(performerIdFacades.getInt(historyId));
+			objectOutputStream.writeInt(targetIds.getInt(historyId));
+			objectOutputStream.writeInt(operationIndices.getInt(historyId));
+			int argsLength = argsLengths.getInt(historyId);
+			objectOutputStream.writeInt(argsLength);
+			int argsOffset = argsOffsets.getInt(historyId);
+			for(int i = 0; i < argsLength; i++) {
+				objectOutputStream.writeInt(packedArgs.getInt(argsOffset + i));
+			}
+		}
+		objectOutputStream.writeObject(additionalValues);
+		objectOutputStream.writeObject(currentAdditionalValue);
+		
+		objectOutputStream.writeInt(lastPerformedOperationMap.size());
+		for(Entry<Integer, OperationInfo> entry : lastPerformedOperationMap.entrySet()) {
+			objectOutputStream.writeInt(entry.getKey());
+			objectOutputStream.writeObject(entry.getValue());
+		}
+		historyWorldObjects.writeWorldObjects(objectOutputStream);
+	}
+	
+	public static HistoryImpl readHistory(ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		HistoryImpl history = new HistoryImpl();
+		history.appendHistory(objectInputStream);
+		return history;
+	}
+	
+	/**
+	 * Reads history written by writeHistory, which should start at the next history id of this HistoryImpl.
+	 * The last performed operations are replaced by the ones that are read.
+	 */
+	@SuppressWarnings("unchecked")
+	public void appendHistory(ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		for(ManagedOperation managedOperation : (List<ManagedOperation>) objectInputStream.readObject()) {
+			getOrCreateOperationIndex(managedOperation);
+		}
+		int firstHistoryIdFromStream = objectInputStream.readInt();
+		if (firstHistoryIdFromStream != size()) {
+			throw new IllegalStateException("History starts at history id " + firstHistoryIdFromStream + " instead of " + size());
+		}
+		int size = objectInputStream.readInt();
+		for(int i = 0; i < size; i++) {
+			int historyId = size();
+			turns.add(objectInputStream.readInt());
+			int performerId = objectInputStream.readInt();
+			performerIds.add(performerId);
+			performerIdFacades.add(objectInputStream.readInt());
+			int targetId = objectInputStream.readInt();
+			targetIds.add(targetId);
+			int operationIndex = objectInputStream.readInt();
+			operationIndices.add(operationIndex);
+			int argsLength = objectInputStream.readInt();
+			argsOffsets.add(packedArgs.size());
+			argsLengths.add(argsLength);
+			for(int j = 0; j < argsLength; j++) {
+				packedArgs.add(objectInputStream.readInt());
+			}
+			addToIndices(historyId, performerId, targetId, operationIndex);
+		}
+		additionalValues.putAll((Map<Integer, Object>) objectInputStream.readObject());
+		currentAdditionalValue = objectInputStream.readObject();
+		
+		lastPerformedOperationMap.clear();
+		lastPerformedOperationsByTarget.clear();
+		int numberOfLastPerformedOperations = objectInputStream.readInt();
+		for(int i = 0; i < numberOfLastPerformedOperations; i++) {
+			int performerId = objectInputStream.readInt();
+			addAsLastPerformedOperation(performerId, (OperationInfo) objectInputStream.readObject());
+		}
+		historyWorldObjects.readWorldObjects(objectInputStream);
 	}
 }
@@ -56,6 +56,18 @@ public class HistoryItem implements Serializable {
 		this.historyWorldObjects = historyWorldObjects;
 	}
 	
+	HistoryItem(int historyId, int performerId, int performerIdFacade, int targetId, int[] args, ManagedOperation action, int turnValue, Object additionalValue, HistoryWorldObjects historyWorldObjects) {
+		this.historyId = historyId;
+		this.performerId = performerId;
+		this.performerIdFacade = performerIdFacade;
+		this.targetId = targetId;
+		this.args = args;
+		this.action = action;
+		this.turnValue = turnValue;
+		this.additionalValue = additionalValue;
+		this.historyWorldObjects = historyWorldObjects;
+	}
+	
 	public int getHistoryId() {
 		return historyId;
 	}
@@ -75,6 +87,10 @@ public class HistoryItem implements Serializable {
 	int getTargetId() {
 		return targetId;
 	}
+	
+	int getPerformerIdFacade() {
+		return performerIdFacade;
+	}
 
 	public int[] getArgs() {
 		return args;
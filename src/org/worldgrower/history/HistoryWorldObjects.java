@@ -14,6 +14,11 @@
  *******************************************************************************/
 package org.worldgrower.history;
 
+import it.unimi.dsi.fastutil.ints.IntList;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -35,4 +40,32 @@ class HistoryWorldObjects implements Serializable {
 	public WorldObject get(int id) {
 		return worldObjectsMapping.get(id);
 	}
+	
+	public void addAll(HistoryWorldObjects historyWorldObjects) {
+		worldObjectsMapping.putAll(historyWorldObjects.worldObjectsMapping);
+	}
+	
+	public void addAll(HistoryWorldObjects historyWorldObjects, IntList ids) {
+		for(int i = 0; i < ids.size(); i++) {
+			int id = ids.getInt(i);
+			WorldObject worldObject = historyWorldObjects.get(id);
+			if (worldObject != null && !worldObjectsMapping.containsKey(id)) {
+				worldObjectsMapping.put(id, worldObject);
+			}
+		}
+	}
+	
+	public void writeWorldObjects(ObjectOutputStream objectOutputStream) throws IOException {
+		objectOutputStream.writeInt(worldObjectsMapping.size());
+		for(WorldObject worldObject : worldObjectsMapping.values()) {
+			objectOutputStream.writeObject(worldObject);
+		}
+	}
+	
+	public void readWorldObjects(ObjectInputStream objectInputStream) throws IOException, ClassNotFoundException {
+		int numberOfWorldObjects = objectInputStream.readInt();
+		for(int i = 0; i < numberOfWorldObjects; i++) {
+			add((WorldObject) objectInputStream.readObject());
+		}
+	}
 }
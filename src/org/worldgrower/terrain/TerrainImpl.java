@@ -35,6 +35,24 @@ public class TerrainImpl implements Terrain, Serializable {
 		this.explored = new boolean[width][height];
 	}
 
+	private TerrainImpl(TerrainImpl terrain) {
+		this.width = terrain.width;
+		this.height = terrain.height;
+		this.terrainInfos = terrain.terrainInfos;
+		this.explored = new boolean[width][];
+		for(int x=0; x<width; x++) {
+			this.explored[x] = terrain.explored[x].clone();
+		}
+		this.exploredBounds = terrain.exploredBounds != null ? new Rectangle(terrain.exploredBounds) : null;
+	}
+	
+	/**
+	 * Returns a copy which shares the TerrainInfos, since they don't change, but not the explored state.
+	 */
+	public TerrainImpl copy() {
+		return new TerrainImpl(this);
+	}
+
 	private void fillTerrainInfo(TerrainMapper terrainMapper) {
 		Noise noise = new Noise(666);
 		double[] heights = noise.normalize(noise.smoothNoise(width, height, 32));
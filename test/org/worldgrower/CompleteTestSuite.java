@@ -183,6 +183,7 @@ import org.worldgrower.generator.UTestBerryBushOnTurn;
 import org.worldgrower.generator.UTestBuildingGenerator;
 import org.worldgrower.generator.UTestCommonerGenerator;
 import org.worldgrower.generator.UTestCommonerOnTurn;
+import org.worldgrower.generator.UTestCommonerWorldEvaluationFunction;
 import org.worldgrower.generator.UTestCowOnTurn;
 import org.worldgrower.generator.UTestCreatureGenerator;
 import org.worldgrower.generator.UTestFiretrapOnTurn;
@@ -198,7 +199,12 @@ import org.worldgrower.gui.UTestBonusDescriptions;
 import org.worldgrower.gui.UTestTooltipImages;
 import org.worldgrower.gui.UTestGuiShowEventHappenedAction;
 import org.worldgrower.gui.UTestImageInfoReader;
+import org.worldgrower.gui.UTestTerrainChunkCache;
+import org.worldgrower.gui.UTestAnimationFrameScheduler;
 import org.worldgrower.gui.music.UTestSoundIdReader;
+import org.worldgrower.gui.music.UTestBackgroundMusicUtils;
+import org.worldgrower.gui.music.UTestSound;
+import org.worldgrower.gui.music.UTestSoundEffectMixer;
 import org.worldgrower.gui.start.UTestGame;
 import org.worldgrower.history.UTestHistoryImpl;
 import org.worldgrower.history.UTestHistoryItem;
@@ -853,7 +859,24 @@ import org.worldgrower.util.UTestObjectUtils;
 	UTestWiltingCondition.class,
 	UTestDeityRetribution.class,
 	UTestDeityAttributes.class,
-	UTestTaxesAndWagesCalculator.class
+	UTestTaxesAndWagesCalculator.class,
+	UTestPropertyAccessRecorder.class,
+	UTestArrayTaskCalculator.class,
+	UTestTurnPlan.class,
+	UTestRegionGraph.class,
+	UTestWorldObjectsGrid.class,
+	UTestAutoSave.class,
+	UTestFreeSpaceIndex.class,
+	UTestLocalZone.class,
+	UTestLowestPriceCache.class,
+	UTestWorldObjectContainer.class,
+	UTestCommonerWorldEvaluationFunction.class,
+	UTestGoalEvaluationCache.class,
+	UTestTerrainChunkCache.class,
+	UTestAnimationFrameScheduler.class,
+	UTestBackgroundMusicUtils.class,
+	UTestSoundEffectMixer.class,
+	UTestSound.class
 })
 public class CompleteTestSuite {
 }
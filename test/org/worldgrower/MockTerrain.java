@@ -24,12 +24,18 @@ public class MockTerrain implements Terrain {
 	private static final int DIMENSION = 10;
 	
 	private final TerrainType[][] terrainTypes;
+	private final int dimension;
 	
 	public MockTerrain(TerrainType terrainType) {
+		this(terrainType, DIMENSION);
+	}
+	
+	public MockTerrain(TerrainType terrainType, int dimension) {
 		super();
-		terrainTypes = new TerrainType[DIMENSION][DIMENSION];
-		for(int i=0; i<DIMENSION; i++) {
-			for(int j=0; j<DIMENSION; j++) {
+		this.dimension = dimension;
+		terrainTypes = new TerrainType[dimension][dimension];
+		for(int i=0; i<dimension; i++) {
+			for(int j=0; j<dimension; j++) {
 				terrainTypes[i][j] = terrainType;
 			}
 		}
@@ -42,12 +48,12 @@ public class MockTerrain implements Terrain {
 
 	@Override
 	public int getWidth() {
-		return DIMENSION;
+		return dimension;
 	}
 
 	@Override
 	public int getHeight() {
-		return DIMENSION;
+		return dimension;
 	}
 
 	@Override
@@ -15,13 +15,17 @@
 package org.worldgrower;
 
 import java.io.File;
+import java.util.BitSet;
 import java.util.List;
 
+import org.worldgrower.attribute.IdList;
 import org.worldgrower.attribute.IntProperty;
 import org.worldgrower.attribute.ManagedProperty;
 import org.worldgrower.condition.WorldStateChangedListener;
 import org.worldgrower.condition.WorldStateChangedListeners;
+import org.worldgrower.generator.Item;
 import org.worldgrower.goal.Goal;
+import org.worldgrower.goal.Position;
 import org.worldgrower.history.History;
 import org.worldgrower.history.Turn;
 import org.worldgrower.terrain.Terrain;
@@ -79,6 +83,61 @@ public class MockWorld implements World {
 	public List<WorldObject> findWorldObjectsByProperty(ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition) {
 		return world.findWorldObjectsByProperty(managedProperty, worldObjectCondition);
 	}
+	
+	@Override
+	public <T> List<WorldObject> findWorldObjectsByPropertyValue(ManagedProperty<T> managedProperty, T value, WorldObjectCondition worldObjectCondition) {
+		return world.findWorldObjectsByPropertyValue(managedProperty, value, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsContainingAnyId(ManagedProperty<IdList> managedProperty, IdList ids, WorldObjectCondition worldObjectCondition) {
+		return world.findWorldObjectsContainingAnyId(managedProperty, ids, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findNearestWorldObjects(int x, int y, int maxCount, WorldObjectCondition worldObjectCondition) {
+		return world.findNearestWorldObjects(x, y, maxCount, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findNearestWorldObjectsByProperty(int x, int y, int maxCount, ManagedProperty<?> managedProperty, WorldObjectCondition worldObjectCondition) {
+		return world.findNearestWorldObjectsByProperty(x, y, maxCount, managedProperty, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findNearestSellers(int x, int y, int maxCount, ManagedProperty<?> sellableProperty, WorldObjectCondition worldObjectCondition) {
+		return world.findNearestSellers(x, y, maxCount, sellableProperty, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findNearestSellers(int x, int y, int maxCount, Item item, WorldObjectCondition worldObjectCondition) {
+		return world.findNearestSellers(x, y, maxCount, item, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findSellers(Item item, WorldObjectCondition worldObjectCondition) {
+		return world.findSellers(item, worldObjectCondition);
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsWithinDistance(int x, int y, int distance, WorldObjectCondition worldObjectCondition) {
+		return world.findWorldObjectsWithinDistance(x, y, distance, worldObjectCondition);
+	}
+	
+	@Override
+	public boolean isOpenSpace(int x, int y, int width, int height) {
+		return world.isOpenSpace(x, y, width, height);
+	}
+	
+	@Override
+	public boolean isOpenNonWaterSpace(int x, int y, int width, int height) {
+		return world.isOpenNonWaterSpace(x, y, width, height);
+	}
+	
+	@Override
+	public Position findNearestOpenNonWaterSpace(int x, int y, int width, int height) {
+		return world.findNearestOpenNonWaterSpace(x, y, width, height);
+	}
 
 	@Override
 	public int generateUniqueId() {
@@ -143,6 +202,21 @@ public class MockWorld implements World {
 	public void nextTurn() {
 		world.nextTurn();
 	}
+	
+	@Override
+	public long getEpoch() {
+		return world.getEpoch();
+	}
+	
+	@Override
+	public List<WorldObject> findWorldObjectsChangedThisTurn() {
+		return world.findWorldObjectsChangedThisTurn();
+	}
+	
+	@Override
+	public BitSet getPropertiesChangedThisTurn(WorldObject worldObject) {
+		return world.getPropertiesChangedThisTurn(worldObject);
+	}
 
 	@Override
 	public History getHistory() {
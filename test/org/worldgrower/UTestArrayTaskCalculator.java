@@ -0,0 +1,189 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import static org.junit.Assert.assertEquals;
+import static org.worldgrower.TestUtils.createWorldObject;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.worldgrower.actions.Actions;
+import org.worldgrower.actions.CutWoodAction;
+import org.worldgrower.actions.TalkAction;
+import org.worldgrower.condition.Condition;
+import org.worldgrower.attribute.WorldObjectContainer;
+import org.worldgrower.condition.Conditions;
+import org.worldgrower.generator.PlantGenerator;
+import org.worldgrower.terrain.TerrainType;
+
+public class UTestArrayTaskCalculator {
+
+	private TaskCalculator taskCalculator = new ArrayTaskCalculator();
+	private TaskCalculator referenceTaskCalculator = new TaskCalculatorImpl();
+	
+	@Test
+	public void testPathFindingNoObstacle() {
+		WorldObject performer = createWorldObject(5, 5, 1, 1, Constants.ID, 2);
+		WorldObject target = createWorldObject(2, 2, 1, 1, Constants.ID, 3);
+		World world = new WorldImpl(10, 10, null, null);
+		world.addWorldObject(performer);
+		world.addWorldObject(target);
+		
+		assertSameTasks(performer, world, new OperationInfo(performer, target, Args.EMPTY, new CutWoodAction()), 3);
+	}
+	
+	@Test
+	public void testPathFindingUShapedObstacle() {
+		WorldObject performer = createWorldObject(0, 10, 1, 1, Constants.ID, 2);
+		WorldObject target = createWorldObject(0, 5, 2, 2, Constants.ID, 3);
+		WorldObject obstacle1 = createWorldObject(0, 7, 2, 2, Constants.ID, 4);
+		WorldObject obstacle2 = createWorldObject(1, 9, 2, 2, Constants.ID, 5);
+
+		World world = new WorldImpl(15, 15, null, null);
+		world.addWorldObject(performer);
+		world.addWorldObject(target);
+		world.addWorldObject(obstacle1);
+		world.addWorldObject(obstacle2);
+		
+		assertSameTasks(performer, world, new OperationInfo(performer, target, Args.EMPTY, new CutWoodAction()), 7);
+	}
+	
+	@Test
+	public void testPathFindingWater() {
+		WorldObject performer = createWorldObject(5, 5, 1, 1, Constants.ID, 2);
+		WorldObject target = createWorldObject(2, 2, 1, 1, Constants.ID, 3);
+
+		MockTerrain terrain = new MockTerrain(TerrainType.GRASLAND);
+		terrain.setTerrainType(2, 3, TerrainType.WATER);
+		terrain.setTerrainType(3, 3, TerrainType.WATER);
+		terrain.setTerrainType(3, 4, TerrainType.WATER);
+		terrain.setTerrainType(4, 4, TerrainType.WATER);
+		
+		World world = new WorldImpl(terrain, null, null);
+		world.addWorldObject(performer);
+		world.addWorldObject(target);
+		OperationInfo goal = new OperationInfo(performer, target, Args.EMPTY, new CutWoodAction());
+		
+		assertSameTasks(performer, world, goal, 5);
+		
+		Conditions.add(performer, Condition.WATER_WALK_CONDITION, 8, world);
+		assertSameTasks(performer, world, goal, 3);
+	}
+	
+	@Test
+	public void testPathFindingNoPath() {
+		WorldObject performer = createWorldObject(25, 25, 1, 1, Constants.ID, 2);
+		WorldObject target = createWorldObject(2, 2, 1, 1, Constants.ID, 3);
+		
+		World world = new WorldImpl(30, 30, null, null);
+		world.addWorldObject(performer);
+		world.addWorldObject(target);
+		
+		PlantGenerator.generateBerryBush(1, 1, world);
+		PlantGenerator.generateBerryBush(1, 2, world);
+		PlantGenerator.generateBerryBush(1, 3, world);
+		PlantGenerator.generateBerryBush(2, 1, world);
+		PlantGenerator.generateBerryBush(3, 1, world);
+		PlantGenerator.generateBerryBush(3, 2, world);
+		PlantGenerator.generateBerryBush(3, 3, world);
+		PlantGenerator.generateBerryBush(2, 3, world);
+		
+		assertSameTasks(performer, world, new OperationInfo(performer, target, Args.EMPTY, new TalkAction()), 0);
+	}
+	
+	@Test
+	public void testPathFindingOverLongDistance() {
+		WorldObject performer = createWorldObject(5, 5, 1, 1, Constants.ID, 2);
+		WorldObject target = createWorldObject(140, 130, 1, 1, Constants.ID, 3);
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 150), null, null);
+		world.addWorldObject(performer);
+		world.addWorldObject(target);
+		OperationInfo goal = new OperationInfo(performer, target, Args.EMPTY, new CutWoodAction());
+		
+		assertEquals(0, referenceTaskCalculator.calculateTask(performer, world, goal).size());
+		
+		List<OperationInfo> tasks = taskCalculator.calculateTask(performer, world, goal);
+		assertEquals(true, tasks.size() > 1);
+		assertEquals(goal, tasks.get(tasks.size() - 1));
+		
+		int steps = 0;
+		while (steps < 200 && tasks.size() > 1) {
+			for(int i=0; i<tasks.size() - 1; i++) {
+				tasks.get(i).perform(world);
+				steps++;
+			}
+			tasks = taskCalculator.calculateTask(performer, world, goal);
+		}
+		assertEquals(1, tasks.size());
+		assertEquals(0, goal.distance(performer, world));
+	}
+	
+	@Test
+	public void testPathFindingRandomObstacles() {
+		Random random = new Random(0);
+		for(int i=0; i<50; i++) {
+			World world = new WorldImpl(40, 40, null, null);
+			WorldObject performer = createWorldObject(random.nextInt(40), random.nextInt(40), 1, 1, Constants.ID, 2);
+			WorldObject target = createWorldObject(random.nextInt(40), random.nextInt(40), 1, 1, Constants.ID, 3);
+			world.addWorldObject(performer);
+			world.addWorldObject(target);
+			
+			for(int obstacleId=4; obstacleId<250; obstacleId++) {
+				world.addWorldObject(createWorldObject(random.nextInt(40), random.nextInt(40), 1, 1, Constants.ID, obstacleId));
+			}
+			
+			OperationInfo goal = new OperationInfo(performer, target, Args.EMPTY, new CutWoodAction());
+			assertEquals(toString(referenceTaskCalculator.calculateTask(performer, world, goal)), toString(taskCalculator.calculateTask(performer, world, goal)));
+		}
+	}
+	
+	@Test
+	public void testMaxActionDistance() {
+		World world = new WorldImpl(50, 50, null, null);
+		for(ManagedOperation action : Actions.ALL_ACTIONS) {
+			// actions which can be performed from anywhere don't depend on the target distance
+			if (actionDistance(action, 49, world) > 0) {
+				assertEquals(action.getSimpleDescription(), true, actionDistance(action, ArrayTaskCalculator.MAX_ACTION_DISTANCE + 1, world) > 0);
+			}
+		}
+	}
+	
+	private int actionDistance(ManagedOperation action, int targetLocation, World world) {
+		WorldObject performer = TestUtils.createSkilledWorldObject(2);
+		performer.setProperty(Constants.INVENTORY, new WorldObjectContainer());
+		WorldObject target = TestUtils.createSkilledWorldObject(3);
+		target.setProperty(Constants.INVENTORY, new WorldObjectContainer());
+		target.setProperty(Constants.X, targetLocation);
+		target.setProperty(Constants.Y, targetLocation);
+		// MoveAction is the only action which uses its arguments to calculate its distance
+		return action.distance(performer, target, new int[] { 0, 0 }, world);
+	}
+	
+	private void assertSameTasks(WorldObject performer, World world, OperationInfo goal, int expectedSize) {
+		List<OperationInfo> tasks = taskCalculator.calculateTask(performer, world, goal);
+		assertEquals(expectedSize, tasks.size());
+		assertEquals(toString(referenceTaskCalculator.calculateTask(performer, world, goal)), toString(tasks));
+	}
+	
+	private static String toString(List<OperationInfo> tasks) {
+		StringBuilder builder = new StringBuilder();
+		for(OperationInfo task : tasks) {
+			builder.append(task.toString()).append('\n');
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.worldgrower.attribute.WorldObjectContainer;
+import org.worldgrower.generator.Item;
+
+public class UTestAutoSave {
+
+	@Test
+	public void testSave() throws IOException {
+		File autoSaveFile = File.createTempFile("worldgrower", ".sav");
+		AutoSave autoSave = new AutoSave(autoSaveFile, 1);
+		World world = createWorld();
+		
+		autoSave.save(world);
+		autoSave.waitForPendingSave();
+		
+		World loadedWorld = WorldImpl.load(autoSaveFile);
+		assertEquals(1, loadedWorld.getWorldObjects().size());
+		assertEquals("test", loadedWorld.findWorldObjectById(7).getProperty(Constants.NAME));
+	}
+	
+	@Test
+	public void testSaveUsesSnapshot() throws IOException {
+		File autoSaveFile = File.createTempFile("worldgrower", ".sav");
+		AutoSave autoSave = new AutoSave(autoSaveFile, 1);
+		World world = createWorld();
+		
+		autoSave.save(world);
+		world.findWorldObjectById(7).setProperty(Constants.NAME, "changed");
+		autoSave.waitForPendingSave();
+		
+		World loadedWorld = WorldImpl.load(autoSaveFile);
+		assertEquals("test", loadedWorld.findWorldObjectById(7).getProperty(Constants.NAME));
+	}
+	
+	@Test
+	public void testSnapshotIsNotChangedByWorld() throws IOException {
+		File saveFile = File.createTempFile("worldgrower", ".sav");
+		WorldImpl world = (WorldImpl) createWorld();
+		WorldObject person = world.findWorldObjectById(7);
+		WorldObject cuirass = Item.IRON_CUIRASS.generate(1f);
+		WorldObjectContainer inventory = new WorldObjectContainer();
+		inventory.add(Item.IRON_CUIRASS.generate(1f));
+		inventory.add(cuirass);
+		inventory.remove(0);
+		person.setProperty(Constants.INVENTORY, inventory);
+		person.setProperty(Constants.TORSO_EQUIPMENT, cuirass);
+		
+		SaveGameFormat.Snapshot snapshot = SaveGameFormat.createSnapshot(world);
+		inventory.remove(1);
+		person.setProperty(Constants.TORSO_EQUIPMENT, null);
+		person.getProperty(Constants.KNOWLEDGE_MAP).addKnowledge(7, Constants.GOLD, 5);
+		person.getProperty(Constants.GROUP).add(8);
+		SaveGameFormat.write(snapshot, saveFile, true);
+		
+		WorldObject loadedPerson = WorldImpl.load(saveFile).findWorldObjectById(7);
+		WorldObjectContainer loadedInventory = loadedPerson.getProperty(Constants.INVENTORY);
+		assertEquals(2, loadedInventory.size());
+		assertEquals(null, loadedInventory.get(0));
+		assertSame(loadedInventory.get(1), loadedPerson.getProperty(Constants.TORSO_EQUIPMENT));
+		assertEquals(false, loadedPerson.getProperty(Constants.KNOWLEDGE_MAP).hasKnowledge(7));
+		assertEquals(false, loadedPerson.getProperty(Constants.GROUP).contains(8));
+	}
+	
+	@Test
+	public void testTurnFinished() throws IOException {
+		File autoSaveFile = File.createTempFile("worldgrower", ".sav");
+		autoSaveFile.delete();
+		AutoSave autoSave = new AutoSave(autoSaveFile, 5);
+		World world = createWorld();
+		
+		autoSave.turnFinished(world);
+		autoSave.waitForPendingSave();
+		assertEquals(true, autoSaveFile.exists());
+	}
+	
+	@Test
+	public void testSaveDelta() throws IOException, IncompatibleVersionException {
+		File autoSaveFile = File.createTempFile("worldgrower", ".sav");
+		AutoSave autoSave = new AutoSave(autoSaveFile, 1);
+		World world = createWorld();
+		WorldObject removedPerson = TestUtils.createIntelligentWorldObject(8, Constants.LEVEL, 1);
+		world.addWorldObject(removedPerson);
+		autoSave.save(world);
+		autoSave.waitForPendingSave();
+		long checkpointLength = autoSaveFile.length();
+		
+		world.nextTurn();
+		world.findWorldObjectById(7).setProperty(Constants.LEVEL, 2);
+		world.removeWorldObject(removedPerson);
+		world.addWorldObject(TestUtils.createIntelligentWorldObject(9, Constants.LEVEL, 1));
+		autoSave.save(world);
+		autoSave.waitForPendingSave();
+		
+		assertEquals(checkpointLength, autoSaveFile.length());
+		assertEquals(true, SaveGameFormat.getDeltaFile(autoSaveFile).exists());
+		World loadedWorld = WorldImpl.load(autoSaveFile);
+		assertEquals(2, loadedWorld.getWorldObjects().size());
+		assertEquals(2, loadedWorld.findWorldObjectById(7).getProperty(Constants.LEVEL).intValue());
+		assertEquals(false, loadedWorld.exists(8));
+		assertEquals(true, loadedWorld.exists(9));
+		assertEquals(1, loadedWorld.getCurrentTurn().getValue());
+		assertEquals(2, WorldImpl.getSaveGameStatistics(autoSaveFile).getPlayerCharacterLevel());
+	}
+	
+	@Test
+	public void testSaveCheckpointAfterDeltas() throws IOException {
+		File autoSaveFile = File.createTempFile("worldgrower", ".sav");
+		AutoSave autoSave = new AutoSave(autoSaveFile, 1, 1);
+		World world = createWorld();
+		
+		autoSave.save(world);
+		autoSave.waitForPendingSave();
+		autoSave.save(world);
+		autoSave.waitForPendingSave();
+		assertEquals(true, SaveGameFormat.getDeltaFile(autoSaveFile).exists());
+		
+		world.findWorldObjectById(7).setProperty(Constants.LEVEL, 2);
+		autoSave.save(world);
+		autoSave.waitForPendingSave();
+		assertEquals(false, SaveGameFormat.getDeltaFile(autoSaveFile).exists());
+		assertEquals(2, WorldImpl.load(autoSaveFile).findWorldObjectById(7).getProperty(Constants.LEVEL).intValue());
+	}
+	
+	@Test
+	public void testFailedSaveDoesntThrow() throws IOException {
+		File directory = File.createTempFile("worldgrower", "");
+		AutoSave autoSave = new AutoSave(new File(directory, "autosave.sav"), 1);
+		World world = createWorld();
+		
+		autoSave.save(world);
+		autoSave.waitForPendingSave();
+		autoSave.save(world);
+		autoSave.waitForPendingSave();
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidTurnsBetweenSaves() {
+		new AutoSave(new File("autosave.sav"), 0);
+	}
+	
+	private World createWorld() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject person = TestUtils.createIntelligentWorldObject(7, Constants.LEVEL, 1);
+		person.setProperty(Constants.NAME, "test");
+		world.addWorldObject(person);
+		return world;
+	}
+}
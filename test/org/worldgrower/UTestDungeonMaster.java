@@ -16,12 +16,14 @@ package org.worldgrower;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.worldgrower.actions.Actions;
+import org.worldgrower.condition.WorldStateChangedListeners;
 import org.worldgrower.curse.Curse;
 import org.worldgrower.deity.Deity;
 import org.worldgrower.generator.BuildingGenerator;
@@ -32,6 +34,8 @@ import org.worldgrower.goal.Goals;
 import org.worldgrower.goal.GroupPropertyUtils;
 import org.worldgrower.gui.ImageIds;
 import org.worldgrower.gui.start.CharacterAttributes;
+import org.worldgrower.history.History;
+import org.worldgrower.history.HistoryItem;
 import org.worldgrower.history.Turn;
 import org.worldgrower.personality.Personality;
 
@@ -137,6 +141,125 @@ public class UTestDungeonMaster {
 		assertEquals(Actions.CUT_WOOD_ACTION, world.getImmediateGoal(commoner, world).getManagedOperation());
 	}
 	
+	@Test
+	public void testRunWorldWithParallelPlanning() {
+		DungeonMaster dungeonMaster = new DungeonMaster();
+		dungeonMaster.setParallelPlanning(true);
+		World world = new WorldImpl(10, 10, dungeonMaster, new DoNothingWorldOnTurn());
+		WorldObject commoner = TestUtils.createIntelligentWorldObject(1, Goals.DRINK_WATER_GOAL);
+		commoner.setProperty(Constants.NAME, "performer");
+		commoner.setProperty(Constants.PERSONALITY, new Personality());
+		commoner.setProperty(Constants.X, 5);
+		commoner.setProperty(Constants.Y, 5);
+		world.addWorldObject(commoner);
+		int wellId = BuildingGenerator.buildWell(2, 2, world, 1f);
+		PlantGenerator.generateOldTree(8, 8, world);
+		
+		dungeonMaster.runWorld(world, new WorldStateChangedListeners());
+		
+		assertEquals(4, commoner.getProperty(Constants.X).intValue());
+		assertEquals(4, commoner.getProperty(Constants.Y).intValue());
+		assertEquals(Goals.DRINK_WATER_GOAL, world.getGoal(commoner));
+		assertEquals(Actions.DRINK_ACTION, world.getImmediateGoal(commoner, world).getManagedOperation());
+		
+		commoner.getProperty(Constants.KNOWLEDGE_MAP).addKnowledge(wellId, Constants.POISON_DAMAGE, 5);
+		
+		dungeonMaster.runWorld(world, new WorldStateChangedListeners());
+
+		assertEquals(5, commoner.getProperty(Constants.X).intValue());
+		assertEquals(5, commoner.getProperty(Constants.Y).intValue());
+		assertEquals(Goals.DRINK_WATER_GOAL, world.getGoal(commoner));
+		assertEquals(Actions.CUT_WOOD_ACTION, world.getImmediateGoal(commoner, world).getManagedOperation());
+	}
+	
+	@Test
+	public void testParallelPlanningMatchesSequentialPlanning() {
+		DungeonMaster dungeonMaster = new DungeonMaster();
+		dungeonMaster.setPlanningThreadCount(4);
+		World world = createVillage(dungeonMaster);
+		List<WorldObject> worldObjects = new ArrayList<>(world.getWorldObjects());
+		
+		TurnPlan[] turnPlans = dungeonMaster.planTurns(worldObjects, world);
+		dungeonMaster.shutdownPlanning();
+		
+		int plannedCount = 0;
+		for(int i=0; i<worldObjects.size(); i++) {
+			if (turnPlans[i] != null) {
+				TurnPlan sequentialTurnPlan = new TurnPlan(worldObjects.get(i));
+				sequentialTurnPlan.plan(dungeonMaster, world);
+				assertEquals(describe(sequentialTurnPlan), describe(turnPlans[i]));
+				plannedCount++;
+			}
+		}
+		assertEquals(6, plannedCount);
+	}
+	
+	@Test
+	public void testParallelPlanningDoesntDependOnThreadCount() {
+		DungeonMaster singleThreadDungeonMaster = new DungeonMaster();
+		singleThreadDungeonMaster.setParallelPlanning(true);
+		singleThreadDungeonMaster.setPlanningThreadCount(1);
+		World singleThreadWorld = createVillage(singleThreadDungeonMaster);
+		
+		DungeonMaster multiThreadDungeonMaster = new DungeonMaster();
+		multiThreadDungeonMaster.setParallelPlanning(true);
+		multiThreadDungeonMaster.setPlanningThreadCount(4);
+		World multiThreadWorld = createVillage(multiThreadDungeonMaster);
+		
+		for(int i=0; i<30; i++) {
+			singleThreadDungeonMaster.runWorld(singleThreadWorld, new WorldStateChangedListeners());
+			multiThreadDungeonMaster.runWorld(multiThreadWorld, new WorldStateChangedListeners());
+		}
+		singleThreadDungeonMaster.setParallelPlanning(false);
+		multiThreadDungeonMaster.setParallelPlanning(false);
+		
+		assertEquals(describe(singleThreadWorld), describe(multiThreadWorld));
+	}
+	
+	private static World createVillage(DungeonMaster dungeonMaster) {
+		World world = new WorldImpl(20, 20, dungeonMaster, new DoNothingWorldOnTurn());
+		world.generateUniqueId();
+		WorldObject organization = GroupPropertyUtils.createVillagersOrganization(world);
+		GroupPropertyUtils.create(null, "vermin", world);
+		CommonerGenerator commonerGenerator = new MockCommonerGenerator();
+		for(int i=0; i<6; i++) {
+			commonerGenerator.generateCommoner(2 + 3 * i, 2 + 2 * i, world, organization, CommonerGenerator.NO_PARENT);
+		}
+		BuildingGenerator.buildWell(10, 2, world, 1f);
+		PlantGenerator.generateOldTree(2, 15, world);
+		PlantGenerator.generateOldTree(15, 15, world);
+		PlantGenerator.generateBerryBush(5, 10, world);
+		return world;
+	}
+	
+	private static String describe(TurnPlan turnPlan) {
+		MetaInformation metaInformation = turnPlan.getPlannedMetaInformation();
+		StringBuilder builder = new StringBuilder(String.valueOf(metaInformation.getFinalGoal()));
+		for(OperationInfo operationInfo : metaInformation.getCurrentTask()) {
+			builder.append(" ").append(describe(operationInfo.getManagedOperation(), operationInfo.getTarget().getProperty(Constants.ID), operationInfo.getArgs()));
+		}
+		return builder.toString();
+	}
+	
+	private static String describe(World world) {
+		StringBuilder builder = new StringBuilder();
+		for(WorldObject worldObject : world.getWorldObjects()) {
+			builder.append(worldObject.getProperty(Constants.ID)).append("@").append(worldObject.getProperty(Constants.X)).append(",").append(worldObject.getProperty(Constants.Y)).append("\n");
+		}
+		History history = world.getHistory();
+		for(int i=0; i<history.size(); i++) {
+			HistoryItem historyItem = history.getHistoryItem(i);
+			builder.append(historyItem.getTurn().getValue()).append(":").append(historyItem.getPerformer().getProperty(Constants.ID)).append(" ");
+			WorldObject target = historyItem.getTarget();
+			builder.append(describe(historyItem.getManagedOperation(), target != null ? target.getProperty(Constants.ID) : null, historyItem.getArgs())).append("\n");
+		}
+		return builder.toString();
+	}
+	
+	private static String describe(ManagedOperation managedOperation, Integer targetId, int[] args) {
+		return managedOperation.getClass().getSimpleName() + "(" + targetId + ", " + Arrays.toString(args) + ")";
+	}
+	
 	@Test
 	public void testRunWorldObjectWithImpossibleAction() {
 		DungeonMaster dungeonMaster = new DungeonMaster();
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.worldgrower.goal.Position;
+import org.worldgrower.terrain.TerrainType;
+
+public class UTestFreeSpaceIndex {
+
+	@Test
+	public void testIsFree() {
+		FreeSpaceIndex freeSpaceIndex = new FreeSpaceIndex(10, 10);
+		freeSpaceIndex.locationOccupied(5, 5);
+		
+		assertEquals(true, freeSpaceIndex.isFree(0, 0, 5, 5));
+		assertEquals(false, freeSpaceIndex.isFree(4, 4, 2, 2));
+		assertEquals(true, freeSpaceIndex.isFree(6, 0, 4, 10));
+		
+		freeSpaceIndex.locationFreed(5, 5);
+		assertEquals(true, freeSpaceIndex.isFree(4, 4, 2, 2));
+	}
+	
+	@Test
+	public void testIsFreeOutsideWorld() {
+		FreeSpaceIndex freeSpaceIndex = new FreeSpaceIndex(10, 10);
+		
+		assertEquals(true, freeSpaceIndex.isFree(0, 0, 10, 10));
+		assertEquals(false, freeSpaceIndex.isFree(-1, 0, 2, 2));
+		assertEquals(false, freeSpaceIndex.isFree(9, 9, 2, 2));
+	}
+	
+	@Test
+	public void testIsFreeMatchesOccupiedLocations() {
+		Random random = new Random(0);
+		int width = 30;
+		int height = 20;
+		FreeSpaceIndex freeSpaceIndex = new FreeSpaceIndex(width, height);
+		boolean[][] occupied = new boolean[width][height];
+		for(int i=0; i<100; i++) {
+			int x = random.nextInt(width);
+			int y = random.nextInt(height);
+			if (occupied[x][y]) {
+				freeSpaceIndex.locationFreed(x, y);
+			} else {
+				freeSpaceIndex.locationOccupied(x, y);
+			}
+			occupied[x][y] = !occupied[x][y];
+		}
+		
+		for(int i=0; i<500; i++) {
+			int x = random.nextInt(width);
+			int y = random.nextInt(height);
+			int rectangleWidth = random.nextInt(width - x) + 1;
+			int rectangleHeight = random.nextInt(height - y) + 1;
+			
+			boolean expectedFree = true;
+			for(int rx=x; rx<x+rectangleWidth; rx++) {
+				for(int ry=y; ry<y+rectangleHeight; ry++) {
+					expectedFree = expectedFree && !occupied[rx][ry];
+				}
+			}
+			assertEquals(expectedFree, freeSpaceIndex.isFree(x, y, rectangleWidth, rectangleHeight));
+		}
+	}
+	
+	@Test
+	public void testIsFreeOfWater() {
+		MockTerrain terrain = new MockTerrain(TerrainType.GRASLAND);
+		terrain.setTerrainType(6, 6, TerrainType.WATER);
+		FreeSpaceIndex freeSpaceIndex = new FreeSpaceIndex(terrain);
+		freeSpaceIndex.locationOccupied(2, 2);
+		
+		assertEquals(true, freeSpaceIndex.isFreeOfWater(0, 0, 2, 2));
+		assertEquals(false, freeSpaceIndex.isFreeOfWater(1, 1, 2, 2));
+		assertEquals(true, freeSpaceIndex.isFree(5, 5, 2, 2));
+		assertEquals(false, freeSpaceIndex.isFreeOfWater(5, 5, 2, 2));
+		assertEquals(true, freeSpaceIndex.isFreeOfWater(7, 7, 3, 3));
+	}
+	
+	@Test
+	public void testFindNearestFreeOfWater() {
+		MockTerrain terrain = new MockTerrain(TerrainType.GRASLAND);
+		terrain.setTerrainType(6, 6, TerrainType.WATER);
+		FreeSpaceIndex freeSpaceIndex = new FreeSpaceIndex(terrain);
+		freeSpaceIndex.locationOccupied(5, 5);
+		
+		assertPosition(6, 7, freeSpaceIndex.findNearestFreeOfWater(6, 7, 1, 1));
+		assertPosition(5, 6, freeSpaceIndex.findNearestFreeOfWater(6, 6, 1, 1));
+		assertPosition(4, 6, freeSpaceIndex.findNearestFreeOfWater(5, 5, 2, 2));
+		assertEquals(null, freeSpaceIndex.findNearestFreeOfWater(5, 5, 10, 10));
+	}
+	
+	@Test
+	public void testFindNearestFreeOfWaterMatchesLocations() {
+		Random random = new Random(0);
+		int dimension = 20;
+		MockTerrain terrain = new MockTerrain(TerrainType.GRASLAND, dimension);
+		for(int i=0; i<40; i++) {
+			terrain.setTerrainType(random.nextInt(dimension), random.nextInt(dimension), TerrainType.WATER);
+		}
+		FreeSpaceIndex freeSpaceIndex = new FreeSpaceIndex(terrain);
+		boolean[][] occupied = new boolean[dimension][dimension];
+		for(int i=0; i<60; i++) {
+			int x = random.nextInt(dimension);
+			int y = random.nextInt(dimension);
+			if (!occupied[x][y]) {
+				freeSpaceIndex.locationOccupied(x, y);
+				occupied[x][y] = true;
+			}
+		}
+		
+		for(int i=0; i<200; i++) {
+			int x = random.nextInt(dimension);
+			int y = random.nextInt(dimension);
+			int rectangleWidth = random.nextInt(4) + 1;
+			int rectangleHeight = random.nextInt(4) + 1;
+			
+			Position expectedPosition = null;
+			int expectedDistance = Integer.MAX_VALUE;
+			for(int rx=0; rx<=dimension-rectangleWidth; rx++) {
+				for(int ry=0; ry<=dimension-rectangleHeight; ry++) {
+					boolean free = true;
+					for(int px=rx; px<rx+rectangleWidth; px++) {
+						for(int py=ry; py<ry+rectangleHeight; py++) {
+							free = free && !occupied[px][py] && terrain.getTerrainInfo(px, py).getTerrainType() != TerrainType.WATER;
+						}
+					}
+					int distance = Reach.distance(x, y, rx, ry);
+					if (free && distance < expectedDistance) {
+						expectedPosition = new Position(rx, ry);
+						expectedDistance = distance;
+					}
+				}
+			}
+			
+			Position position = freeSpaceIndex.findNearestFreeOfWater(x, y, rectangleWidth, rectangleHeight);
+			if (expectedPosition == null) {
+				assertEquals(null, position);
+			} else {
+				assertPosition(expectedPosition.getX(), expectedPosition.getY(), position);
+			}
+		}
+	}
+	
+	private void assertPosition(int expectedX, int expectedY, Position position) {
+		assertEquals(expectedX, position.getX());
+		assertEquals(expectedY, position.getY());
+	}
+}
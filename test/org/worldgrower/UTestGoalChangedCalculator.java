@@ -15,9 +15,13 @@
 package org.worldgrower;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
 
 import org.junit.Test;
+import org.worldgrower.actions.Actions;
+import org.worldgrower.attribute.IntProperty;
 import org.worldgrower.goal.Goal;
+import org.worldgrower.goal.Goals;
 
 public class UTestGoalChangedCalculator {
 
@@ -33,6 +37,60 @@ public class UTestGoalChangedCalculator {
 		goalChangedCalculator.recordEndState(t1, t2, null, null, world);
 		assertEquals(false, goalObstructedHandler.isGoalHindered());
 	}
+	
+	@Test
+	public void testGoalHindered() {
+		assertEquals(true, isFoodGoalHindered(false, Constants.FOOD, 0));
+	}
+	
+	@Test
+	public void testGoalNotHindered() {
+		assertEquals(false, isFoodGoalHindered(false, Constants.WATER, 0));
+		assertEquals(false, isFoodGoalHindered(false, Constants.FOOD, 100));
+	}
+	
+	@Test
+	public void testGoalHinderedWhenTrackingChanges() {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		assertEquals(true, isFoodGoalHindered(true, Constants.FOOD, 0));
+		assertEquals(false, isFoodGoalHindered(true, Constants.WATER, 0));
+		assertEquals(false, isFoodGoalHindered(true, Constants.FOOD, 100));
+	}
+	
+	@Test
+	public void testStopRecordingChanges() {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		GoalObstructedHandlerImpl goalObstructedHandler = new GoalObstructedHandlerImpl();
+		GoalChangedCalculator goalChangedCalculator = new GoalChangedCalculator(goalObstructedHandler, true);
+		World world = new WorldImpl(10, 10, null, null);
+		WorldObject performer = TestUtils.createIntelligentWorldObject(1, Goals.FOOD_GOAL);
+		WorldObject actor = TestUtils.createIntelligentWorldObject(2, Goals.FOOD_GOAL);
+		world.addWorldObject(performer);
+		world.addWorldObject(actor);
+		
+		goalChangedCalculator.recordStartState(performer, actor, world);
+		goalChangedCalculator.stopRecordingChanges();
+		actor.setProperty(Constants.FOOD, 0);
+		goalChangedCalculator.recordEndState(performer, actor, Actions.MELEE_ATTACK_ACTION, new int[0], world);
+		
+		assertEquals(false, goalObstructedHandler.isGoalHindered());
+	}
+	
+	private boolean isFoodGoalHindered(boolean trackChanges, IntProperty changedProperty, int newValue) {
+		GoalObstructedHandlerImpl goalObstructedHandler = new GoalObstructedHandlerImpl();
+		GoalChangedCalculator goalChangedCalculator = new GoalChangedCalculator(goalObstructedHandler, trackChanges);
+		World world = new WorldImpl(10, 10, null, null);
+		WorldObject performer = TestUtils.createIntelligentWorldObject(1, Goals.FOOD_GOAL);
+		WorldObject actor = TestUtils.createIntelligentWorldObject(2, Goals.FOOD_GOAL);
+		world.addWorldObject(performer);
+		world.addWorldObject(actor);
+		
+		goalChangedCalculator.recordStartState(performer, actor, world);
+		actor.setProperty(changedProperty, newValue);
+		goalChangedCalculator.recordEndState(performer, actor, Actions.MELEE_ATTACK_ACTION, new int[0], world);
+		
+		return goalObstructedHandler.isGoalHindered();
+	}
 
 	private static class GoalObstructedHandlerImpl implements GoalObstructedHandler {
 
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+import org.worldgrower.actions.Actions;
+import org.worldgrower.goal.Goal;
+import org.worldgrower.text.FormattableText;
+
+public class UTestGoalEvaluationCache {
+
+	@Test
+	public void testResultsAreCached() {
+		World world = new WorldImpl(10, 10, null, null);
+		WorldObject performer = TestUtils.createIntelligentWorldObject(1, Constants.FOOD, 1000);
+		GoalEvaluationCache goalEvaluationCache = new GoalEvaluationCache(performer, world, false);
+		FoodGoal goal = new FoodGoal();
+		long hitCount = GoalEvaluationCache.getHitCount();
+		
+		assertEquals(true, goalEvaluationCache.isGoalMet(goal, performer, world));
+		assertEquals(true, goalEvaluationCache.isGoalMet(goal, performer, world));
+		assertEquals(1, goal.getEvaluationCount());
+		assertEquals(hitCount + 1, GoalEvaluationCache.getHitCount());
+		
+		assertEquals(performer, goalEvaluationCache.calculateGoal(goal, performer, world).getPerformer());
+		assertEquals(performer, goalEvaluationCache.calculateGoal(goal, performer, world).getPerformer());
+		assertEquals(2, goal.getEvaluationCount());
+	}
+	
+	@Test
+	public void testChangeRemovesAffectedResults() {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		World world = new WorldImpl(10, 10, null, null);
+		WorldObject performer = TestUtils.createIntelligentWorldObject(1, Constants.FOOD, 1000);
+		GoalEvaluationCache goalEvaluationCache = new GoalEvaluationCache(performer, world, true);
+		FoodGoal goal = new FoodGoal();
+		
+		assertEquals(true, goalEvaluationCache.isGoalMet(goal, performer, world));
+		goalEvaluationCache.change(() -> performer.setProperty(Constants.FOOD, 0));
+		assertEquals(false, goalEvaluationCache.isGoalMet(goal, performer, world));
+		assertEquals(2, goal.getEvaluationCount());
+	}
+	
+	@Test
+	public void testChangeKeepsUnaffectedResults() {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		World world = new WorldImpl(10, 10, null, null);
+		WorldObject performer = TestUtils.createIntelligentWorldObject(1, Constants.FOOD, 1000);
+		GoalEvaluationCache goalEvaluationCache = new GoalEvaluationCache(performer, world, true);
+		FoodGoal goal = new FoodGoal();
+		
+		assertEquals(true, goalEvaluationCache.isGoalMet(goal, performer, world));
+		goalEvaluationCache.change(() -> performer.setProperty(Constants.WATER, 0));
+		goalEvaluationCache.propertyChanged(Constants.META_INFORMATION);
+		assertEquals(true, goalEvaluationCache.isGoalMet(goal, performer, world));
+		assertEquals(1, goal.getEvaluationCount());
+	}
+	
+	@Test
+	public void testChangeRemovesAllResultsWithoutTracking() {
+		assumeFalse(PropertyAccessRecorder.isTrackingEnabled());
+		World world = new WorldImpl(10, 10, null, null);
+		WorldObject performer = TestUtils.createIntelligentWorldObject(1, Constants.FOOD, 1000);
+		GoalEvaluationCache goalEvaluationCache = new GoalEvaluationCache(performer, world, true);
+		FoodGoal goal = new FoodGoal();
+		
+		assertEquals(true, goalEvaluationCache.isGoalMet(goal, performer, world));
+		goalEvaluationCache.change(() -> performer.setProperty(Constants.WATER, 0));
+		assertEquals(true, goalEvaluationCache.isGoalMet(goal, performer, world));
+		goalEvaluationCache.propertyChanged(Constants.META_INFORMATION);
+		assertEquals(true, goalEvaluationCache.isGoalMet(goal, performer, world));
+		assertEquals(3, goal.getEvaluationCount());
+	}
+	
+	@Test
+	public void testOnlyCachedForPerformerAndWorld() {
+		World world = new WorldImpl(10, 10, null, null);
+		WorldObject performer = TestUtils.createIntelligentWorldObject(1, Constants.FOOD, 1000);
+		WorldObject otherPerformer = TestUtils.createIntelligentWorldObject(2, Constants.FOOD, 1000);
+		GoalEvaluationCache goalEvaluationCache = new GoalEvaluationCache(performer, world, false);
+		FoodGoal goal = new FoodGoal();
+		
+		goalEvaluationCache.isGoalMet(goal, otherPerformer, world);
+		goalEvaluationCache.isGoalMet(goal, otherPerformer, world);
+		goalEvaluationCache.isGoalMet(goal, performer, new WorldFacade(performer, world));
+		assertEquals(3, goal.getEvaluationCount());
+	}
+	
+	private static class FoodGoal implements Goal {
+
+		private int evaluationCount = 0;
+		
+		@Override
+		public OperationInfo calculateGoal(WorldObject performer, World world) {
+			evaluationCount++;
+			return new OperationInfo(performer, performer, Args.EMPTY, Actions.CUT_WOOD_ACTION);
+		}
+
+		@Override
+		public void goalMetOrNot(WorldObject performer, World world, boolean goalMet) {
+		}
+		
+		@Override
+		public boolean isGoalMet(WorldObject performer, World world) {
+			evaluationCount++;
+			return performer.getProperty(Constants.FOOD) >= 500;
+		}
+
+		@Override
+		public boolean isUrgentGoalMet(WorldObject performer, World world) {
+			return isGoalMet(performer, world);
+		}
+		
+		@Override
+		public FormattableText getDescription() {
+			return null;
+		}
+
+		@Override
+		public int evaluate(WorldObject performer, World world) {
+			return 0;
+		}
+		
+		public int getEvaluationCount() {
+			return evaluationCount;
+		}
+	}
+}
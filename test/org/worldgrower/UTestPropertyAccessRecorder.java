@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+import org.worldgrower.attribute.IdList;
+
+public class UTestPropertyAccessRecorder {
+
+	@Test
+	public void testAffectsPropertyRead() {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		WorldObject worldObject = TestUtils.createIntelligentWorldObject(1, Constants.GROUP, new IdList());
+		
+		PropertyAccessRecorder readRecorder = recordRead(() -> worldObject.getProperty(Constants.FOOD));
+		
+		assertEquals(true, recordWrite(() -> worldObject.setProperty(Constants.FOOD, 5)).affects(readRecorder));
+		assertEquals(true, recordWrite(() -> worldObject.removeProperty(Constants.FOOD)).affects(readRecorder));
+		assertEquals(false, recordWrite(() -> worldObject.setProperty(Constants.WATER, 5)).affects(readRecorder));
+	}
+	
+	@Test
+	public void testAffectsMutablePropertyRead() {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		WorldObject worldObject = TestUtils.createIntelligentWorldObject(1, Constants.GROUP, new IdList());
+		
+		PropertyAccessRecorder readRecorder = recordRead(() -> worldObject.getProperty(Constants.GROUP).size());
+		
+		assertEquals(true, recordWrite(() -> worldObject.getProperty(Constants.GROUP).add(7)).affects(readRecorder));
+		assertEquals(false, recordWrite(() -> worldObject.getProperty(Constants.ID)).affects(readRecorder));
+	}
+	
+	@Test
+	public void testAffectsWorldObjectsSearched() {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		World world = new WorldImpl(10, 10, null, null);
+		WorldObject worldObject = TestUtils.createIntelligentWorldObject(1, Constants.GROUP, new IdList());
+		
+		PropertyAccessRecorder readRecorder = recordRead(() -> world.findWorldObjects(w -> true));
+		
+		assertEquals(true, recordWrite(() -> world.addWorldObject(worldObject)).affects(readRecorder));
+		assertEquals(false, recordWrite(() -> world.findWorldObjects(w -> true)).affects(readRecorder));
+	}
+	
+	@Test
+	public void testDeactivate() {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		PropertyAccessRecorder recorder = PropertyAccessRecorder.createReadRecorder();
+		PropertyAccessRecorder previousRecorder = recorder.activate();
+		recorder.deactivate(previousRecorder);
+		
+		WorldObject worldObject = TestUtils.createIntelligentWorldObject(1, Constants.GROUP, new IdList());
+		worldObject.getProperty(Constants.FOOD);
+		
+		assertEquals(false, recordWrite(() -> worldObject.setProperty(Constants.FOOD, 5)).affects(recorder));
+	}
+	
+	@Test
+	public void testRecordersArePerThread() throws InterruptedException {
+		assumeTrue(PropertyAccessRecorder.isTrackingEnabled());
+		WorldObject worldObject = TestUtils.createIntelligentWorldObject(1, Constants.GROUP, new IdList());
+		PropertyAccessRecorder recorder = PropertyAccessRecorder.createReadRecorder();
+		PropertyAccessRecorder previousRecorder = recorder.activate();
+		try {
+			boolean[] otherThreadIsRecording = new boolean[1];
+			Thread otherThread = new Thread(() -> {
+				worldObject.getProperty(Constants.FOOD);
+				otherThreadIsRecording[0] = PropertyAccessRecorder.isRecording();
+			});
+			otherThread.start();
+			otherThread.join();
+			
+			assertEquals(true, PropertyAccessRecorder.isRecording());
+			assertEquals(false, otherThreadIsRecording[0]);
+		} finally {
+			recorder.deactivate(previousRecorder);
+		}
+		
+		assertEquals(false, recordWrite(() -> worldObject.setProperty(Constants.FOOD, 5)).affects(recorder));
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testActivateWithoutTracking() {
+		assumeFalse(PropertyAccessRecorder.isTrackingEnabled());
+		PropertyAccessRecorder.createReadRecorder().activate();
+	}
+	
+	private PropertyAccessRecorder recordRead(Runnable runnable) {
+		return record(PropertyAccessRecorder.createReadRecorder(), runnable);
+	}
+	
+	private PropertyAccessRecorder recordWrite(Runnable runnable) {
+		return record(PropertyAccessRecorder.createWriteRecorder(), runnable);
+	}
+	
+	private PropertyAccessRecorder record(PropertyAccessRecorder recorder, Runnable runnable) {
+		PropertyAccessRecorder previousRecorder = recorder.activate();
+		try {
+			runnable.run();
+		} finally {
+			recorder.deactivate(previousRecorder);
+		}
+		return recorder;
+	}
+}
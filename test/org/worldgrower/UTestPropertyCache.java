@@ -19,6 +19,12 @@ import static org.junit.Assert.assertEquals;
 import java.util.Arrays;
 
 import org.junit.Test;
+import org.worldgrower.attribute.BuildingList;
+import org.worldgrower.attribute.BuildingType;
+import org.worldgrower.attribute.IdList;
+import org.worldgrower.attribute.IdRelationshipMap;
+import org.worldgrower.attribute.KnowledgeMap;
+import org.worldgrower.deity.Deity;
 
 public class UTestPropertyCache {
 
@@ -31,6 +37,116 @@ public class UTestPropertyCache {
 		assertEquals(Arrays.asList(person), world.findWorldObjectsByProperty(Constants.FOOD, w -> true));
 	}
 	
+	@Test
+	public void testIdRemoved() {
+		World world = createWorld();
+		WorldObject person = TestUtils.createIntelligentWorldObject(2, Constants.FOOD, 500);
+		world.addWorldObject(person);
+		assertEquals(Arrays.asList(person), world.findWorldObjectsByProperty(Constants.FOOD, w -> true));
+		
+		world.removeWorldObject(person);
+		assertEquals(Arrays.asList(), world.findWorldObjectsByProperty(Constants.FOOD, w -> true));
+	}
+	
+	@Test
+	public void testPropertyChanged() {
+		World world = createWorld();
+		WorldObject person = TestUtils.createIntelligentWorldObject(2, Constants.FOOD, 500);
+		world.addWorldObject(person);
+		assertEquals(Arrays.asList(), world.findWorldObjectsByProperty(Constants.GOLD, w -> true));
+		
+		person.setProperty(Constants.GOLD, 10);
+		assertEquals(Arrays.asList(person), world.findWorldObjectsByProperty(Constants.GOLD, w -> true));
+		
+		person.removeProperty(Constants.GOLD);
+		assertEquals(Arrays.asList(), world.findWorldObjectsByProperty(Constants.GOLD, w -> true));
+	}
+	
+	@Test
+	public void testFindWorldObjectsInWorldOrder() {
+		World world = createWorld();
+		WorldObject person1 = TestUtils.createIntelligentWorldObject(7, Constants.FOOD, 500);
+		WorldObject person2 = TestUtils.createIntelligentWorldObject(3, Constants.FOOD, 500);
+		world.addWorldObject(person1);
+		world.addWorldObject(person2);
+		
+		assertEquals(Arrays.asList(person1, person2), world.findWorldObjectsByProperty(Constants.FOOD, w -> true));
+	}
+	
+	@Test
+	public void testFindWorldObjectsByPropertyValue() {
+		World world = createWorld();
+		WorldObject person1 = TestUtils.createIntelligentWorldObject(2, Constants.DEITY, Deity.ARES);
+		WorldObject person2 = TestUtils.createIntelligentWorldObject(3, Constants.DEITY, Deity.HADES);
+		world.addWorldObject(person1);
+		world.addWorldObject(person2);
+		assertEquals(Arrays.asList(person1), world.findWorldObjectsByPropertyValue(Constants.DEITY, Deity.ARES, w -> true));
+		
+		person2.setProperty(Constants.DEITY, Deity.ARES);
+		assertEquals(Arrays.asList(person1, person2), world.findWorldObjectsByPropertyValue(Constants.DEITY, Deity.ARES, w -> true));
+		assertEquals(Arrays.asList(), world.findWorldObjectsByPropertyValue(Constants.DEITY, Deity.HADES, w -> true));
+		
+		world.removeWorldObject(person1);
+		assertEquals(Arrays.asList(person2), world.findWorldObjectsByPropertyValue(Constants.DEITY, Deity.ARES, w -> true));
+	}
+	
+	@Test
+	public void testFindWorldObjectsContainingAnyId() {
+		World world = createWorld();
+		WorldObject person1 = TestUtils.createIntelligentWorldObject(2, Constants.GROUP, new IdList().add(10));
+		WorldObject person2 = TestUtils.createIntelligentWorldObject(3, Constants.GROUP, new IdList().add(11));
+		world.addWorldObject(person1);
+		world.addWorldObject(person2);
+		assertEquals(Arrays.asList(person1), world.findWorldObjectsContainingAnyId(Constants.GROUP, new IdList().add(10), w -> true));
+		assertEquals(Arrays.asList(person1, person2), world.findWorldObjectsContainingAnyId(Constants.GROUP, new IdList().add(10).add(11), w -> true));
+		
+		person2.getProperty(Constants.GROUP).add(10);
+		assertEquals(Arrays.asList(person1, person2), world.findWorldObjectsContainingAnyId(Constants.GROUP, new IdList().add(10), w -> true));
+		
+		person1.getProperty(Constants.GROUP).remove(10);
+		assertEquals(Arrays.asList(person2), world.findWorldObjectsContainingAnyId(Constants.GROUP, new IdList().add(10), w -> true));
+		
+		person2.setProperty(Constants.GROUP, new IdList());
+		assertEquals(Arrays.asList(), world.findWorldObjectsContainingAnyId(Constants.GROUP, new IdList().add(10).add(11), w -> true));
+		
+		person2.getProperty(Constants.GROUP).add(12);
+		assertEquals(Arrays.asList(person2), world.findWorldObjectsContainingAnyId(Constants.GROUP, new IdList().add(12), w -> true));
+		
+		world.removeWorldObject(person2);
+		assertEquals(Arrays.asList(), world.findWorldObjectsContainingAnyId(Constants.GROUP, new IdList().add(12), w -> true));
+	}
+	
+	@Test
+	public void testRemoveWorldObjectReferredToByIdContainers() {
+		World world = createWorld();
+		WorldObject target = TestUtils.createWorldObject(2, "target");
+		WorldObject unrelated = TestUtils.createWorldObject(3, "unrelated");
+		WorldObject person1 = TestUtils.createIntelligentWorldObject(4, Constants.RELATIONSHIPS, new IdRelationshipMap());
+		WorldObject person2 = TestUtils.createIntelligentWorldObject(5, Constants.BUILDINGS, new BuildingList());
+		WorldObject person3 = TestUtils.createIntelligentWorldObject(6, Constants.KNOWLEDGE_MAP, new KnowledgeMap());
+		WorldObject person4 = TestUtils.createIntelligentWorldObject(7, Constants.GROUP, new IdList());
+		WorldObject person5 = TestUtils.createIntelligentWorldObject(8, Constants.ARENA_OPPONENT_ID, null);
+		for(WorldObject worldObject : Arrays.asList(target, unrelated, person1, person2, person3, person4, person5)) {
+			world.addWorldObject(worldObject);
+		}
+		
+		// removing a WorldObject creates the reference index
+		world.removeWorldObject(unrelated);
+		
+		person1.getProperty(Constants.RELATIONSHIPS).incrementValue(target, 10);
+		person2.getProperty(Constants.BUILDINGS).add(target, BuildingType.SHACK);
+		person3.getProperty(Constants.KNOWLEDGE_MAP).addKnowledge(target, Constants.FOOD, 10);
+		person4.getProperty(Constants.GROUP).add(target);
+		person5.setProperty(Constants.ARENA_OPPONENT_ID, 2);
+		
+		world.removeWorldObject(target);
+		assertEquals(false, person1.getProperty(Constants.RELATIONSHIPS).contains(target));
+		assertEquals(false, person2.getProperty(Constants.BUILDINGS).contains(target));
+		assertEquals(false, person3.getProperty(Constants.KNOWLEDGE_MAP).hasKnowledge(target));
+		assertEquals(false, person4.getProperty(Constants.GROUP).contains(target));
+		assertEquals(null, person5.getProperty(Constants.ARENA_OPPONENT_ID));
+	}
+	
 	private WorldImpl createWorld() {
 		return new WorldImpl(1, 1, null, null);
 	}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.worldgrower.TestUtils.createWorldObject;
+
+import org.junit.Test;
+import org.worldgrower.RegionGraph.RegionPath;
+import org.worldgrower.terrain.TerrainType;
+
+public class UTestRegionGraph {
+
+	@Test
+	public void testFindPath() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 40), null, null);
+		LocationWorldObjectsCache zone = getZone(world);
+		
+		RegionPath regionPath = zone.getRegionGraph().findPath(0, 0, 35, 35, 1, 1, zone, world.getTerrain());
+		
+		int last = regionPath.size() - 1;
+		assertEquals(true, Reach.distance(regionPath.getX(last), regionPath.getY(last), 35, 35) <= RegionGraph.CLUSTER_SIZE);
+		assertEquals(Reach.distance(0, 0, regionPath.getX(0), regionPath.getY(0)), regionPath.getCost(0));
+		for(int i=1; i<regionPath.size(); i++) {
+			int distance = Reach.distance(regionPath.getX(i - 1), regionPath.getY(i - 1), regionPath.getX(i), regionPath.getY(i));
+			assertEquals(regionPath.getCost(i - 1) + distance, regionPath.getCost(i));
+		}
+	}
+	
+	@Test
+	public void testFindPathAroundWall() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 40), null, null);
+		for(int y=0; y<39; y++) {
+			world.addWorldObject(createWorldObject(20, y, 1, 1, Constants.ID, y + 1));
+		}
+		LocationWorldObjectsCache zone = getZone(world);
+		
+		RegionPath regionPath = zone.getRegionGraph().findPath(5, 5, 35, 5, 1, 1, zone, world.getTerrain());
+		
+		boolean passesOpening = false;
+		for(int i=0; i<regionPath.size(); i++) {
+			passesOpening |= regionPath.getY(i) == 39;
+		}
+		assertEquals(true, passesOpening);
+	}
+	
+	@Test
+	public void testFindPathUpdatedWhenObstacleIsAdded() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 40), null, null);
+		for(int y=0; y<39; y++) {
+			world.addWorldObject(createWorldObject(20, y, 1, 1, Constants.ID, y + 1));
+		}
+		LocationWorldObjectsCache zone = getZone(world);
+		RegionGraph regionGraph = zone.getRegionGraph();
+		regionGraph.findPath(5, 5, 35, 5, 1, 1, zone, world.getTerrain());
+		
+		world.addWorldObject(createWorldObject(20, 39, 1, 1, Constants.ID, 100));
+		
+		assertNull(regionGraph.findPath(5, 5, 35, 5, 1, 1, zone, world.getTerrain()));
+	}
+	
+	@Test
+	public void testFindPathOverWater() {
+		MockTerrain terrain = new MockTerrain(TerrainType.GRASLAND, 40);
+		for(int y=0; y<40; y++) {
+			terrain.setTerrainType(20, y, TerrainType.WATER);
+		}
+		World world = new WorldImpl(terrain, null, null);
+		LocationWorldObjectsCache zone = getZone(world);
+		
+		assertNull(zone.getRegionGraph().findPath(5, 5, 35, 5, 1, 1, zone, world.getTerrain()));
+	}
+
+	private LocationWorldObjectsCache getZone(World world) {
+		return (LocationWorldObjectsCache) world.getWorldObjectsCache(Constants.X, Constants.Y);
+	}
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.worldgrower.actions.Actions;
+import org.worldgrower.generator.BuildingGenerator;
+import org.worldgrower.goal.Goals;
+import org.worldgrower.personality.Personality;
+
+public class UTestTurnPlan {
+
+	@Test
+	public void testPlanAndApply() {
+		DungeonMaster dungeonMaster = new DungeonMaster();
+		World world = new WorldImpl(10, 10, dungeonMaster, null);
+		WorldObject commoner = createCommoner(world);
+		BuildingGenerator.buildWell(2, 2, world, 1f);
+		
+		TurnPlan turnPlan = new TurnPlan(commoner);
+		turnPlan.plan(dungeonMaster, world);
+		
+		assertEquals(null, commoner.getProperty(Constants.META_INFORMATION));
+		assertEquals(true, turnPlan.isStillValid(world));
+		
+		MetaInformation metaInformation = new MetaInformation(commoner);
+		turnPlan.apply(metaInformation, world);
+		
+		assertEquals(Goals.DRINK_WATER_GOAL, metaInformation.getFinalGoal());
+		assertEquals(Actions.DRINK_ACTION, metaInformation.getImmediateGoal().getManagedOperation());
+		assertEquals(GoalChangedReason.EMPTY_META_INFORMATION, metaInformation.getGoalChangedReason());
+	}
+	
+	@Test
+	public void testIsStillValidTargetRemoved() {
+		DungeonMaster dungeonMaster = new DungeonMaster();
+		World world = new WorldImpl(10, 10, dungeonMaster, null);
+		WorldObject commoner = createCommoner(world);
+		int wellId = BuildingGenerator.buildWell(2, 2, world, 1f);
+		
+		TurnPlan turnPlan = new TurnPlan(commoner);
+		turnPlan.plan(dungeonMaster, world);
+		assertEquals(true, turnPlan.isStillValid(world));
+		
+		world.removeWorldObject(world.findWorldObjectById(wellId));
+		assertEquals(false, turnPlan.isStillValid(world));
+	}
+
+	private WorldObject createCommoner(World world) {
+		WorldObject commoner = TestUtils.createIntelligentWorldObject(1, Goals.DRINK_WATER_GOAL);
+		commoner.setProperty(Constants.NAME, "performer");
+		commoner.setProperty(Constants.PERSONALITY, new Personality());
+		commoner.setProperty(Constants.X, 5);
+		commoner.setProperty(Constants.Y, 5);
+		world.addWorldObject(commoner);
+		return commoner;
+	}
+}
@@ -15,10 +15,15 @@
 package org.worldgrower;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -26,7 +31,11 @@ import org.worldgrower.actions.Actions;
 import org.worldgrower.actions.BrawlListener;
 import org.worldgrower.attribute.IdMap;
 import org.worldgrower.attribute.IdRelationshipMap;
+import org.worldgrower.attribute.Skill;
+import org.worldgrower.attribute.WorldObjectContainer;
+import org.worldgrower.creaturetype.CreatureType;
 import org.worldgrower.curse.CurseListener;
+import org.worldgrower.generator.Item;
 import org.worldgrower.history.Turn;
 
 public class UTestWorldImpl {
@@ -76,6 +85,66 @@ public class UTestWorldImpl {
 		assertEquals(0, world.findWorldObjects(w -> w.getProperty(Constants.ID).intValue() == id).size());
 	}
 	
+	@Test
+	public void testRemoveWorldObjectKeepsOrder() {
+		World world = createWorld();
+		for(int i=0; i<5; i++) {
+			world.addWorldObject(TestUtils.createWorldObject(world.generateUniqueId(), "test"));
+		}
+		WorldObject worldObjectToRemove = world.getWorldObjects().get(1);
+		List<WorldObject> expectedWorldObjects = new ArrayList<>(world.getWorldObjects());
+		expectedWorldObjects.remove(worldObjectToRemove);
+		
+		world.removeWorldObject(worldObjectToRemove);
+		assertEquals(expectedWorldObjects, world.getWorldObjects());
+		for(WorldObject worldObject : expectedWorldObjects) {
+			int id = worldObject.getProperty(Constants.ID);
+			assertEquals(worldObject, world.findWorldObjectById(id));
+		}
+	}
+	
+	@Test
+	public void testGetWorldObjectsAfterRemoveIsReused() {
+		World world = createWorld();
+		for(int i=0; i<5; i++) {
+			world.addWorldObject(TestUtils.createWorldObject(world.generateUniqueId(), "test"));
+		}
+		world.removeWorldObject(world.getWorldObjects().get(1));
+		List<WorldObject> worldObjects = world.getWorldObjects();
+		assertEquals(4, worldObjects.size());
+		assertSame(worldObjects, world.getWorldObjects());
+		
+		world.removeWorldObject(worldObjects.get(0));
+		assertEquals(4, worldObjects.size());
+		assertEquals(3, world.getWorldObjects().size());
+		
+		world.addWorldObject(TestUtils.createWorldObject(world.generateUniqueId(), "test"));
+		assertEquals(4, world.getWorldObjects().size());
+	}
+	
+	@Test
+	public void testRemoveDeadWorldObjects() {
+		World world = createWorld();
+		for(int i=0; i<5; i++) {
+			WorldObject worldObject = TestUtils.createWorldObject(world.generateUniqueId(), "test");
+			worldObject.setProperty(Constants.HIT_POINTS, i % 2);
+			worldObject.setProperty(Constants.CREATURE_TYPE, CreatureType.RAT_CREATURE_TYPE);
+			world.addWorldObject(worldObject);
+		}
+		WorldObject deadWorldObject = world.getWorldObjects().get(0);
+		WorldObject person = TestUtils.createIntelligentWorldObject(world.generateUniqueId(), Constants.ARENA_OPPONENT_ID, deadWorldObject.getProperty(Constants.ID));
+		world.addWorldObject(person);
+		
+		world.removeDeadWorldObjects();
+		
+		assertEquals(3, world.getWorldObjects().size());
+		for(WorldObject worldObject : world.getWorldObjects()) {
+			int id = worldObject.getProperty(Constants.ID);
+			assertEquals(worldObject, world.findWorldObjectById(id));
+		}
+		assertEquals(null, person.getProperty(Constants.ARENA_OPPONENT_ID));
+	}
+	
 	@Test
 	public void testRemoveDependentWorldObject() {
 		World world = createWorld();
@@ -129,6 +198,106 @@ public class UTestWorldImpl {
 		assertEquals(Actions.MELEE_ATTACK_ACTION, world.getHistory().getHistoryItem(0).getManagedOperation());
 	}
 	
+	@Test
+	public void testSaveLoadUncompressed() throws IOException {
+		File fileToSave = File.createTempFile("worldgrower", ".sav");
+		WorldImpl world = (WorldImpl) createWorld();
+		WorldObject house = TestUtils.createWorldObject(6, "test");
+		WorldObject person = TestUtils.createIntelligentWorldObject(7, Constants.ARENA_OPPONENT_ID, 6);
+		
+		world.addWorldObject(house);
+		world.addWorldObject(person);
+		house.setProperty(Constants.LEVEL, 1);
+		world.generateUniqueId();
+		
+		world.save(fileToSave, false);
+		World loadedWorld = WorldImpl.load(fileToSave);
+		
+		assertEquals(2, loadedWorld.getWorldObjects().size());
+		assertEquals(6, loadedWorld.findWorldObjectById(7).getProperty(Constants.ARENA_OPPONENT_ID).intValue());
+		assertEquals(world.generateUniqueId(), loadedWorld.generateUniqueId());
+	}
+	
+	@Test
+	public void testSaveLoadKeepsWorldObjectReferences() throws IOException {
+		File fileToSave = File.createTempFile("worldgrower", ".sav");
+		World world = createWorld();
+		WorldObject house = TestUtils.createWorldObject(6, "test");
+		WorldObject person = TestUtils.createIntelligentWorldObject(7, Constants.ARENA_OPPONENT_ID, 6);
+		
+		house.setProperty(Constants.LEVEL, 1);
+		world.addWorldObject(house);
+		world.addWorldObject(person);
+		world.getHistory().actionPerformed(new OperationInfo(person, house, Args.EMPTY, Actions.MELEE_ATTACK_ACTION), new Turn());
+		
+		world.save(fileToSave);
+		world = WorldImpl.load(fileToSave);
+		
+		assertSame(world.findWorldObjectById(7), world.getHistory().getHistoryItem(0).getPerformer());
+		assertSame(world.findWorldObjectById(6), world.getHistory().getHistoryItem(0).getTarget());
+	}
+	
+	@Test
+	public void testSaveLoadKeepsWorldObjectReferencesInMetaInformation() throws IOException {
+		File fileToSave = File.createTempFile("worldgrower", ".sav");
+		World world = createWorld();
+		WorldObject house = TestUtils.createWorldObject(6, "test");
+		WorldObject person = TestUtils.createIntelligentWorldObject(7, Constants.ARENA_OPPONENT_ID, 6);
+		MetaInformation metaInformation = new MetaInformation(person);
+		metaInformation.setCurrentTask(Arrays.asList(new OperationInfo(person, house, Args.EMPTY, Actions.MELEE_ATTACK_ACTION)), GoalChangedReason.EMPTY_META_INFORMATION);
+		person.setProperty(Constants.META_INFORMATION, metaInformation);
+		
+		house.setProperty(Constants.LEVEL, 1);
+		world.addWorldObject(house);
+		world.addWorldObject(person);
+		world.getHistory().actionPerformed(new OperationInfo(person, house, Args.EMPTY, Actions.MELEE_ATTACK_ACTION), new Turn());
+		
+		world.save(fileToSave);
+		world = WorldImpl.load(fileToSave);
+		WorldObject loadedHouse = world.findWorldObjectById(6);
+		WorldObject loadedPerson = world.findWorldObjectById(7);
+		
+		MetaInformation loadedMetaInformation = loadedPerson.getProperty(Constants.META_INFORMATION);
+		assertSame(loadedPerson, loadedMetaInformation.getImmediateGoal().getPerformer());
+		assertSame(loadedHouse, loadedMetaInformation.getImmediateGoal().getTarget());
+		loadedMetaInformation.setNoActionPossible();
+		assertSame(loadedPerson, loadedMetaInformation.getImmediateGoal().getPerformer());
+		
+		assertSame(loadedHouse, world.getHistory().getLastPerformedOperation(loadedPerson).getTarget());
+		assertEquals(1, world.getHistory().findHistoryItems(loadedPerson, loadedHouse, Actions.MELEE_ATTACK_ACTION).size());
+	}
+	
+	@Test
+	public void testGetSaveGameStatistics() throws IOException, IncompatibleVersionException {
+		File fileToSave = File.createTempFile("worldgrower", ".sav");
+		World world = createWorld();
+		WorldObject person = TestUtils.createIntelligentWorldObject(7, Constants.LEVEL, 3);
+		person.setProperty(Constants.NAME, "person");
+		world.addWorldObject(person);
+		
+		world.save(fileToSave);
+		SaveGameStatistics saveGameStatistics = WorldImpl.getSaveGameStatistics(fileToSave);
+		
+		assertEquals("person", saveGameStatistics.getPlayerCharacterName());
+		assertEquals(3, saveGameStatistics.getPlayerCharacterLevel());
+		assertEquals(0, saveGameStatistics.getTurn());
+	}
+	
+	@Test
+	public void testGetSaveGameStatisticsIncompatibleFile() throws IOException {
+		File fileToSave = File.createTempFile("worldgrower", ".sav");
+		try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(fileToSave))) {
+			objectOutputStream.writeObject("0.1");
+		}
+		
+		try {
+			WorldImpl.getSaveGameStatistics(fileToSave);
+			fail("method should fail");
+		} catch(IncompatibleVersionException e) {
+			assertEquals(true, e.getCause() instanceof IllegalStateException);
+		}
+	}
+	
 	@Test
 	public void testIdHigherThan128() {
 		// this test is for java Integer caching, see http://stackoverflow.com/questions/3131136/integers-caching-in-java
@@ -187,6 +356,37 @@ public class UTestWorldImpl {
 		assertEquals(person1, worldObjects.get(0));
 	}
 	
+	@Test
+	public void testFindSellers() {
+		World world = createWorld();
+		WorldObject seller = TestUtils.createIntelligentWorldObject(6, Constants.INVENTORY, new WorldObjectContainer());
+		world.addWorldObject(seller);
+		assertEquals(0, world.findSellers(Item.BERRIES, w -> true).size());
+		
+		WorldObject berries = Item.BERRIES.generate(1f);
+		seller.getProperty(Constants.INVENTORY).addQuantity(berries, 5);
+		assertEquals(0, world.findSellers(Item.BERRIES, w -> true).size());
+		
+		berries.setProperty(Constants.SELLABLE, Boolean.TRUE);
+		assertEquals(Arrays.asList(seller), world.findSellers(Item.BERRIES, w -> true));
+		assertEquals(0, world.findSellers(Item.WATER, w -> true).size());
+		assertEquals(Arrays.asList(seller), world.findNearestSellers(0, 0, 1, Constants.FOOD, w -> true));
+		assertEquals(0, world.findNearestSellers(0, 0, 1, Constants.WATER, w -> true).size());
+		
+		seller.getProperty(Constants.INVENTORY).removeQuantity(0, 5);
+		assertEquals(0, world.findSellers(Item.BERRIES, w -> true).size());
+		
+		WorldObjectContainer inventory = new WorldObjectContainer();
+		WorldObject water = Item.WATER.generate(1f);
+		water.setProperty(Constants.SELLABLE, Boolean.TRUE);
+		inventory.addQuantity(water, 1);
+		seller.setProperty(Constants.INVENTORY, inventory);
+		assertEquals(Arrays.asList(seller), world.findSellers(Item.WATER, w -> true));
+		
+		world.removeWorldObject(seller);
+		assertEquals(0, world.findSellers(Item.WATER, w -> true).size());
+	}
+	
 	@Test
 	public void testGetListenerByClass() {
 		World world = createWorld();
@@ -210,6 +410,60 @@ public class UTestWorldImpl {
 		}
 	}
 
+	@Test
+	public void testFindWorldObjectsChangedThisTurn() {
+		WorldImpl world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject person1 = TestUtils.createWorldObject(0, 0, 1, 1, Constants.FOOD, 500, 1);
+		WorldObject person2 = TestUtils.createWorldObject(0, 0, 1, 1, Constants.FOOD, 500, 2);
+		WorldObject person3 = TestUtils.createWorldObject(0, 0, 1, 1, Constants.FOOD, 500, 3);
+		world.addWorldObject(person2);
+		world.addWorldObject(person1);
+		assertEquals(Arrays.asList(person2, person1), world.findWorldObjectsChangedThisTurn());
+		
+		world.nextTurn();
+		assertEquals(Arrays.asList(), world.findWorldObjectsChangedThisTurn());
+		
+		person1.setProperty(Constants.FOOD, 400);
+		world.addWorldObject(person3);
+		world.removeWorldObject(person3);
+		assertEquals(Arrays.asList(person1), world.findWorldObjectsChangedThisTurn());
+	}
+	
+	@Test
+	public void testFindWorldObjectsChangedThisTurnWithUnreportedChanges() {
+		WorldImpl world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject person = TestUtils.createWorldObject(0, 0, 1, 1, Constants.FOOD, 500, 1);
+		WorldObject personWithSkill = TestUtils.createWorldObject(0, 0, 1, 1, Constants.LUMBERING_SKILL, new Skill(10), 2);
+		world.addWorldObject(person);
+		world.addWorldObject(personWithSkill);
+		world.nextTurn();
+		
+		assertEquals(Arrays.asList(personWithSkill), world.findWorldObjectsChangedThisTurn());
+	}
+	
+	@Test
+	public void testGetEpoch() {
+		WorldImpl world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldImpl otherWorld = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject person = TestUtils.createWorldObject(0, 0, 1, 1, Constants.FOOD, 500, 1);
+		world.addWorldObject(person);
+		world.nextTurn();
+		long epoch = world.getEpoch();
+		
+		otherWorld.addWorldObject(TestUtils.createWorldObject(0, 0, 1, 1, Constants.FOOD, 500, 1));
+		assertEquals(epoch, world.getEpoch());
+		
+		person.setProperty(Constants.FOOD, 400);
+		long changedEpoch = world.getEpoch();
+		assertEquals(true, changedEpoch > epoch);
+		
+		person.setProperty(Constants.FOOD, 300);
+		assertEquals(changedEpoch, world.getEpoch());
+		
+		world.nextTurn();
+		assertEquals(true, world.getEpoch() > changedEpoch);
+	}
+	
 	private WorldImpl createWorld() {
 		return new WorldImpl(1, 1, null, null);
 	}
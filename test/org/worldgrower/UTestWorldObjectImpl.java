@@ -18,12 +18,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Test;
 import org.worldgrower.actions.Actions;
+import org.worldgrower.attribute.IdList;
 import org.worldgrower.attribute.ManagedProperty;
+import org.worldgrower.attribute.Skill;
 import org.worldgrower.condition.Condition;
 import org.worldgrower.condition.Conditions;
 import org.worldgrower.creaturetype.CreatureType;
@@ -147,4 +150,66 @@ public class UTestWorldObjectImpl {
 		person.setProperty(Constants.CURSE, null);
 		assertEquals(true, person.canWorldObjectPerformAction(Actions.TALK_ACTION));
 	}
+	
+	@Test
+	public void testGetPropertiesChangedThisTurn() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObjectImpl person = (WorldObjectImpl) TestUtils.createWorldObject(0, 0, 1, 1, Constants.GROUP, new IdList(), 1);
+		world.addWorldObject(person);
+		assertEquals(new BitSet(), world.getPropertiesChangedThisTurn(person));
+		
+		int modificationCount = person.getModificationCount();
+		person.setProperty(Constants.FOOD, 100);
+		person.removeProperty(Constants.CURSE);
+		person.getProperty(Constants.GROUP).add(3);
+		assertEquals(modificationCount + 3, person.getModificationCount());
+		
+		BitSet expectedProperties = new BitSet();
+		expectedProperties.set(Constants.FOOD.getOrdinal());
+		expectedProperties.set(Constants.CURSE.getOrdinal());
+		expectedProperties.set(Constants.GROUP.getOrdinal());
+		assertEquals(expectedProperties, world.getPropertiesChangedThisTurn(person));
+		
+		world.nextTurn();
+		assertEquals(new BitSet(), world.getPropertiesChangedThisTurn(person));
+	}
+	
+	@Test
+	public void testGetPropertiesChangedThisTurnWithUnreportedChanges() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject person = TestUtils.createWorldObject(0, 0, 1, 1, Constants.LUMBERING_SKILL, new Skill(10), 1);
+		world.addWorldObject(person);
+		world.nextTurn();
+		
+		BitSet expectedProperties = new BitSet();
+		expectedProperties.set(Constants.LUMBERING_SKILL.getOrdinal());
+		assertEquals(expectedProperties, world.getPropertiesChangedThisTurn(person));
+	}
+	
+	@Test
+	public void testConditionsReportChanges() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject person = TestUtils.createWorldObject(0, 0, 1, 1, Constants.CONDITIONS, new Conditions(), 1);
+		world.addWorldObject(person);
+		world.nextTurn();
+		assertEquals(new BitSet(), world.getPropertiesChangedThisTurn(person));
+		
+		Conditions.add(person, Condition.PARALYZED_CONDITION, 5, world);
+		BitSet expectedProperties = new BitSet();
+		expectedProperties.set(Constants.CONDITIONS.getOrdinal());
+		assertEquals(expectedProperties, world.getPropertiesChangedThisTurn(person));
+	}
+	
+	@Test
+	public void testCopyDoesntReportChanges() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject person = TestUtils.createWorldObject(0, 0, 1, 1, Constants.FOOD, 500, 1);
+		world.addWorldObject(person);
+		world.nextTurn();
+		long epoch = world.getEpoch();
+		
+		person.deepCopy().setProperty(Constants.FOOD, 400);
+		assertEquals(epoch, world.getEpoch());
+		assertEquals(new BitSet(), world.getPropertiesChangedThisTurn(person));
+	}
 }
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower;
+
+import static org.junit.Assert.assertEquals;
+import static org.worldgrower.TestUtils.createWorldObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.worldgrower.goal.LocationPropertyUtils;
+import org.worldgrower.terrain.TerrainType;
+
+public class UTestWorldObjectsGrid {
+
+	@Test
+	public void testFindNearestWorldObjects() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		WorldObject worldObject1 = createWorldObject(5, 5, 1, 1, Constants.ID, 1);
+		WorldObject worldObject2 = createWorldObject(30, 30, 1, 1, Constants.ID, 2);
+		WorldObject worldObject3 = createWorldObject(7, 3, 1, 1, Constants.ID, 3);
+		world.addWorldObject(worldObject1);
+		world.addWorldObject(worldObject2);
+		world.addWorldObject(worldObject3);
+		
+		assertEquals(Arrays.asList(worldObject1, worldObject3, worldObject2), world.findNearestWorldObjects(4, 4, 10, w -> true));
+		assertEquals(Arrays.asList(worldObject2), world.findNearestWorldObjects(40, 40, 1, w -> true));
+		assertEquals(Arrays.asList(worldObject3), world.findNearestWorldObjects(4, 4, 1, w -> w.getProperty(Constants.ID) != 1));
+	}
+	
+	@Test
+	public void testFindNearestWorldObjectsSameDistance() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		WorldObject worldObject1 = createWorldObject(20, 20, 1, 1, Constants.ID, 1);
+		WorldObject worldObject2 = createWorldObject(0, 0, 1, 1, Constants.ID, 2);
+		world.addWorldObject(worldObject1);
+		world.addWorldObject(worldObject2);
+		
+		assertEquals(Arrays.asList(worldObject1, worldObject2), world.findNearestWorldObjects(10, 10, 10, w -> true));
+	}
+	
+	@Test
+	public void testFindNearestWorldObjectsAfterMove() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		WorldObject worldObject1 = createWorldObject(5, 5, 1, 1, Constants.ID, 1);
+		WorldObject worldObject2 = createWorldObject(30, 30, 1, 1, Constants.ID, 2);
+		world.addWorldObject(worldObject1);
+		world.addWorldObject(worldObject2);
+		
+		LocationPropertyUtils.updateLocation(worldObject2, 40, 40, world);
+		assertEquals(Arrays.asList(worldObject2, worldObject1), world.findNearestWorldObjects(45, 45, 10, w -> true));
+		
+		LocationPropertyUtils.moveOffscreen(worldObject2, world);
+		assertEquals(Arrays.asList(worldObject1, worldObject2), world.findNearestWorldObjects(45, 45, 10, w -> true));
+		assertEquals(Arrays.asList(worldObject2, worldObject1), world.findNearestWorldObjects(-5, -5, 10, w -> true));
+		
+		LocationPropertyUtils.moveOnscreen(worldObject2, 44, 44, world);
+		assertEquals(Arrays.asList(worldObject2, worldObject1), world.findNearestWorldObjects(45, 45, 10, w -> true));
+		
+		world.removeWorldObject(worldObject2);
+		assertEquals(Arrays.asList(worldObject1), world.findNearestWorldObjects(45, 45, 10, w -> true));
+	}
+	
+	@Test
+	public void testFindNearestWorldObjectsByProperty() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		WorldObject worldObject1 = createWorldObject(5, 5, 1, 1, Constants.ID, 1);
+		WorldObject worldObject2 = createWorldObject(30, 30, 1, 1, Constants.ID, 2);
+		worldObject2.setProperty(Constants.FOOD_SOURCE, 100);
+		world.addWorldObject(worldObject1);
+		world.addWorldObject(worldObject2);
+		
+		assertEquals(Arrays.asList(worldObject2), world.findNearestWorldObjectsByProperty(4, 4, 10, Constants.FOOD_SOURCE, w -> true));
+	}
+	
+	@Test
+	public void testFindNearestWorldObjectsMatchesSortedWorldObjects() {
+		Random random = new Random(0);
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		for(int id=0; id<200; id++) {
+			int size = random.nextInt(3) + 1;
+			world.addWorldObject(createWorldObject(random.nextInt(50 - size), random.nextInt(50 - size), size, size, Constants.ID, id));
+		}
+		
+		for(int i=0; i<200; i++) {
+			int x = random.nextInt(70) - 10;
+			int y = random.nextInt(70) - 10;
+			int maxCount = random.nextInt(20) + 1;
+			int modulo = random.nextInt(5) + 1;
+			WorldObjectCondition condition = w -> w.getProperty(Constants.ID) % modulo == 0;
+			
+			List<WorldObject> expected = new ArrayList<>(world.findWorldObjects(condition));
+			Collections.sort(expected, (w1, w2) -> Integer.compare(Reach.distance(x, y, w1.getProperty(Constants.X), w1.getProperty(Constants.Y)), Reach.distance(x, y, w2.getProperty(Constants.X), w2.getProperty(Constants.Y))));
+			
+			assertEquals(expected.subList(0, Math.min(maxCount, expected.size())), world.findNearestWorldObjects(x, y, maxCount, condition));
+			assertEquals(expected, world.findNearestWorldObjects(x, y, Integer.MAX_VALUE, condition));
+		}
+	}
+	
+	@Test
+	public void testFindNearestWorldObjectsByPropertyMatchesSortedWorldObjects() {
+		Random random = new Random(1);
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		for(int id=0; id<200; id++) {
+			WorldObject worldObject = createWorldObject(random.nextInt(49), random.nextInt(49), 1, 1, Constants.ID, id);
+			if (id % 3 != 0) {
+				worldObject.setProperty(Constants.FOOD_SOURCE, 100);
+			}
+			world.addWorldObject(worldObject);
+		}
+		
+		for(int i=0; i<200; i++) {
+			int x = random.nextInt(70) - 10;
+			int y = random.nextInt(70) - 10;
+			int maxCount = random.nextInt(20) + 1;
+			int modulo = random.nextInt(5) + 1;
+			WorldObjectCondition condition = w -> w.getProperty(Constants.ID) % modulo == 0;
+			
+			List<WorldObject> expected = new ArrayList<>(world.findWorldObjects(w -> w.hasProperty(Constants.FOOD_SOURCE) && condition.isWorldObjectValid(w)));
+			Collections.sort(expected, (w1, w2) -> Integer.compare(Reach.distance(x, y, w1.getProperty(Constants.X), w1.getProperty(Constants.Y)), Reach.distance(x, y, w2.getProperty(Constants.X), w2.getProperty(Constants.Y))));
+			
+			assertEquals(expected.subList(0, Math.min(maxCount, expected.size())), world.findNearestWorldObjectsByProperty(x, y, maxCount, Constants.FOOD_SOURCE, condition));
+		}
+	}
+	
+	@Test
+	public void testFindNearestWorldObjectsByPropertyOffscreen() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		WorldObject worldObject1 = createWorldObject(5, 5, 1, 1, Constants.ID, 1);
+		WorldObject worldObject2 = createWorldObject(30, 30, 1, 1, Constants.ID, 2);
+		WorldObject worldObject3 = createWorldObject(40, 40, 1, 1, Constants.ID, 3);
+		worldObject2.setProperty(Constants.FOOD_SOURCE, 100);
+		world.addWorldObject(worldObject1);
+		world.addWorldObject(worldObject2);
+		world.addWorldObject(worldObject3);
+		
+		LocationPropertyUtils.moveOffscreen(worldObject2, world);
+		assertEquals(Arrays.asList(worldObject2), world.findNearestWorldObjectsByProperty(4, 4, 10, Constants.FOOD_SOURCE, w -> true));
+		
+		// most WorldObjects have the property now
+		worldObject3.setProperty(Constants.FOOD_SOURCE, 100);
+		assertEquals(Arrays.asList(worldObject2, worldObject3), world.findNearestWorldObjectsByProperty(4, 4, 10, Constants.FOOD_SOURCE, w -> true));
+	}
+	
+	@Test
+	public void testFindNearestWorldObjectsByRarePropertyMatchesSortedWorldObjects() {
+		Random random = new Random(2);
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		for(int id=0; id<200; id++) {
+			WorldObject worldObject = createWorldObject(random.nextInt(49), random.nextInt(49), 1, 1, Constants.ID, id);
+			if (id % 5 == 0) {
+				worldObject.setProperty(Constants.FOOD_SOURCE, 100);
+			}
+			world.addWorldObject(worldObject);
+			if (id % 7 == 0) {
+				LocationPropertyUtils.moveOffscreen(worldObject, world);
+			}
+		}
+		
+		for(int i=0; i<200; i++) {
+			int x = random.nextInt(70) - 10;
+			int y = random.nextInt(70) - 10;
+			int maxCount = random.nextInt(20) + 1;
+			int modulo = random.nextInt(3) + 1;
+			WorldObjectCondition condition = w -> w.getProperty(Constants.ID) % modulo == 0;
+			
+			List<WorldObject> expected = new ArrayList<>(world.findWorldObjects(w -> w.hasProperty(Constants.FOOD_SOURCE) && condition.isWorldObjectValid(w)));
+			Collections.sort(expected, (w1, w2) -> Integer.compare(Reach.distance(x, y, w1.getProperty(Constants.X), w1.getProperty(Constants.Y)), Reach.distance(x, y, w2.getProperty(Constants.X), w2.getProperty(Constants.Y))));
+			
+			assertEquals(expected.subList(0, Math.min(maxCount, expected.size())), world.findNearestWorldObjectsByProperty(x, y, maxCount, Constants.FOOD_SOURCE, condition));
+		}
+	}
+	
+	@Test
+	public void testFindWorldObjectsWithinDistance() {
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		WorldObject worldObject1 = createWorldObject(30, 30, 1, 1, Constants.ID, 1);
+		WorldObject worldObject2 = createWorldObject(5, 5, 1, 1, Constants.ID, 2);
+		WorldObject worldObject3 = createWorldObject(8, 5, 1, 1, Constants.ID, 3);
+		WorldObject worldObject4 = createWorldObject(2, 4, 1, 1, Constants.ID, 4);
+		world.addWorldObject(worldObject1);
+		world.addWorldObject(worldObject2);
+		world.addWorldObject(worldObject3);
+		world.addWorldObject(worldObject4);
+		
+		assertEquals(Arrays.asList(worldObject2, worldObject3, worldObject4), world.findWorldObjectsWithinDistance(5, 5, 3, w -> true));
+		assertEquals(Arrays.asList(worldObject2), world.findWorldObjectsWithinDistance(5, 5, 2, w -> true));
+		assertEquals(Arrays.asList(worldObject3, worldObject4), world.findWorldObjectsWithinDistance(5, 5, 3, w -> w != worldObject2));
+	}
+	
+	@Test
+	public void testFindWorldObjectsWithinDistanceMatchesWorldObjects() {
+		Random random = new Random(0);
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 50), null, null);
+		for(int id=0; id<200; id++) {
+			int size = random.nextInt(3) + 1;
+			world.addWorldObject(createWorldObject(random.nextInt(50 - size), random.nextInt(50 - size), size, size, Constants.ID, id));
+		}
+		
+		for(int i=0; i<200; i++) {
+			int x = random.nextInt(70) - 10;
+			int y = random.nextInt(70) - 10;
+			int distance = random.nextInt(40);
+			int modulo = random.nextInt(5) + 1;
+			WorldObjectCondition condition = w -> w.getProperty(Constants.ID) % modulo == 0;
+			WorldObjectCondition expectedCondition = w -> condition.isWorldObjectValid(w) && Reach.distance(x, y, w.getProperty(Constants.X), w.getProperty(Constants.Y)) <= distance;
+			
+			assertEquals(world.findWorldObjects(expectedCondition), world.findWorldObjectsWithinDistance(x, y, distance, condition));
+		}
+	}
+}
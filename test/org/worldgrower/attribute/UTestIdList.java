@@ -16,6 +16,7 @@ package org.worldgrower.attribute;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
@@ -92,4 +93,24 @@ public class UTestIdList {
 		assertEquals(1, worldObjects.size());
 		assertEquals(1, worldObjects.get(0).getProperty(Constants.ID).intValue());
 	}
+	
+	@Test
+	public void testChangedListener() {
+		IdList idList = new IdList().add(1);
+		List<IdList> changedIdLists = new ArrayList<>();
+		idList.setChangedListener(changedIdList -> changedIdLists.add(changedIdList));
+		
+		idList.add(2);
+		assertEquals(1, changedIdLists.size());
+		
+		idList.remove(3);
+		assertEquals(1, changedIdLists.size());
+		
+		idList.remove(1);
+		assertEquals(2, changedIdLists.size());
+		assertEquals(idList, changedIdLists.get(1));
+		
+		idList.copy().add(4);
+		assertEquals(2, changedIdLists.size());
+	}
 }
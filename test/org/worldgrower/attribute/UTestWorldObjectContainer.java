@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.attribute;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+import org.worldgrower.Constants;
+import org.worldgrower.WorldObject;
+import org.worldgrower.generator.Item;
+
+public class UTestWorldObjectContainer {
+
+	@Test
+	public void testAddQuantity() {
+		WorldObjectContainer container = new WorldObjectContainer();
+		container.addQuantity(Item.BERRIES.generate(1f), 3);
+		container.addQuantity(Item.WATER.generate(1f), 2);
+		container.addQuantity(Item.BERRIES.generate(1f), 4);
+		
+		assertEquals(2, container.size());
+		assertEquals(7, container.getQuantityFor(Constants.FOOD));
+		assertEquals(2, container.getQuantityFor(Constants.WATER));
+	}
+	
+	@Test
+	public void testRemoveKeepsIndices() {
+		WorldObjectContainer container = new WorldObjectContainer();
+		container.addQuantity(Item.BERRIES.generate(1f), 1);
+		container.addQuantity(Item.WATER.generate(1f), 2);
+		container.removeQuantity(0, 1);
+		
+		assertEquals(null, container.get(0));
+		assertEquals(1, container.getIndexFor(Constants.WATER));
+		assertEquals(1, container.getIndexFor(Constants.ITEM_ID, Item.WATER));
+		assertEquals(-1, container.getIndexFor(Constants.FOOD));
+		assertEquals(-1, container.getIndexFor(Constants.ITEM_ID, Item.BERRIES));
+		
+		container.addQuantity(Item.BERRIES.generate(1f), 5);
+		assertEquals(2, container.getIndexFor(Constants.ITEM_ID, Item.BERRIES));
+		assertEquals(5, container.getQuantityFor(Constants.FOOD));
+	}
+	
+	@Test
+	public void testPropertyChangedAfterAdd() {
+		WorldObjectContainer container = new WorldObjectContainer();
+		WorldObject berries = Item.BERRIES.generate(1f);
+		container.addQuantity(berries, 1);
+		container.addQuantity(Item.WATER.generate(1f), 1);
+		berries.setProperty(Constants.SELLABLE, Boolean.TRUE);
+		
+		assertEquals(1, container.getWorldObjects(Constants.SELLABLE, Boolean.TRUE).size());
+		
+		berries.removeProperty(Constants.SELLABLE);
+		assertEquals(0, container.getWorldObjects(Constants.SELLABLE, Boolean.TRUE).size());
+		
+		container.setProperty(1, Constants.SELLABLE, Boolean.TRUE);
+		assertEquals(1, container.getIndexFor(Constants.SELLABLE, Boolean.TRUE));
+	}
+	
+	@Test
+	public void testNameChangedAfterAdd() {
+		WorldObjectContainer container = new WorldObjectContainer();
+		WorldObject berries = Item.BERRIES.generate(1f);
+		container.addQuantity(berries, 1);
+		berries.setProperty(Constants.NAME, "renamed");
+		
+		container.addQuantity(Item.BERRIES.generate(1f), 1);
+		assertEquals(2, container.size());
+		assertEquals(0, container.getIndexFor(Constants.NAME, "renamed", w -> true));
+		
+		WorldObject renamed = Item.BERRIES.generate(1f);
+		renamed.setProperty(Constants.NAME, "renamed");
+		container.addQuantity(renamed, 1);
+		assertEquals(2, container.size());
+		assertEquals(2, container.get(0).getProperty(Constants.QUANTITY).intValue());
+	}
+	
+	@Test
+	public void testRemovedWorldObjectIsNoLongerIndexed() {
+		WorldObjectContainer container = new WorldObjectContainer();
+		WorldObject berries = Item.BERRIES.generate(1f);
+		container.addQuantity(berries, 1);
+		container.remove(0);
+		berries.setProperty(Constants.SELLABLE, Boolean.TRUE);
+		
+		assertEquals(0, container.getWorldObjects(Constants.SELLABLE, Boolean.TRUE).size());
+	}
+	
+	@Test
+	public void testSellableWorldObjectsChanged() {
+		WorldObjectContainer container = new WorldObjectContainer();
+		int[] changeCount = new int[1];
+		container.setChangedListener(c -> changeCount[0]++);
+		WorldObject berries = Item.BERRIES.generate(1f);
+		container.addQuantity(berries, 1);
+		assertEquals(0, changeCount[0]);
+		
+		berries.setProperty(Constants.SELLABLE, Boolean.TRUE);
+		assertEquals(1, changeCount[0]);
+		
+		container.addQuantity(Item.BERRIES.generate(1f), 2);
+		assertEquals(1, changeCount[0]);
+		
+		berries.setProperty(Constants.SELLABLE, Boolean.FALSE);
+		assertEquals(2, changeCount[0]);
+		
+		container.setProperty(0, Constants.SELLABLE, Boolean.TRUE);
+		container.remove(0);
+		assertEquals(4, changeCount[0]);
+	}
+	
+	@Test
+	public void testMoveItemsFrom() {
+		WorldObjectContainer container = new WorldObjectContainer();
+		WorldObjectContainer otherContainer = new WorldObjectContainer();
+		WorldObject berries = Item.BERRIES.generate(1f);
+		otherContainer.addQuantity(berries, 2);
+		
+		container.moveItemsFrom(otherContainer);
+		assertEquals(-1, otherContainer.getIndexFor(Constants.FOOD));
+		assertEquals(2, container.getQuantityFor(Constants.FOOD));
+		
+		berries.setProperty(Constants.SELLABLE, Boolean.TRUE);
+		assertEquals(0, container.getIndexFor(Constants.SELLABLE));
+		assertEquals(-1, otherContainer.getIndexFor(Constants.SELLABLE));
+	}
+	
+	@Test
+	public void testSerialization() throws Exception {
+		WorldObjectContainer container = new WorldObjectContainer();
+		container.addQuantity(Item.BERRIES.generate(1f), 1);
+		container.addQuantity(Item.WATER.generate(1f), 2);
+		container.remove(0);
+		
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+			objectOutputStream.writeObject(container);
+		}
+		WorldObjectContainer readContainer;
+		try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))) {
+			readContainer = (WorldObjectContainer) objectInputStream.readObject();
+		}
+		
+		assertEquals(1, readContainer.getIndexFor(Constants.ITEM_ID, Item.WATER));
+		readContainer.get(1).setProperty(Constants.SELLABLE, Boolean.TRUE);
+		assertEquals(1, readContainer.getIndexFor(Constants.SELLABLE));
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.worldgrower.Constants;
+import org.worldgrower.DoNothingWorldOnTurn;
+import org.worldgrower.World;
+import org.worldgrower.WorldImpl;
+import org.worldgrower.WorldObject;
+import org.worldgrower.WorldObjectImpl;
+import org.worldgrower.attribute.BackgroundImpl;
+import org.worldgrower.attribute.IdList;
+import org.worldgrower.attribute.ManagedProperty;
+import org.worldgrower.deity.Deity;
+import org.worldgrower.goal.Goal;
+import org.worldgrower.goal.Goals;
+import org.worldgrower.goal.GroupPropertyUtils;
+import org.worldgrower.profession.Professions;
+
+public class UTestCommonerWorldEvaluationFunction {
+
+	@Test
+	public void testPrioritiesAreCached() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject commoner = createCommoner(world);
+		
+		List<Goal> priorities = commoner.getPriorities(world);
+		assertSame(priorities, commoner.getPriorities(world));
+	}
+	
+	@Test
+	public void testPrioritiesChangeWithProfession() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject commoner = createCommoner(world);
+		
+		List<Goal> priorities = commoner.getPriorities(world);
+		assertEquals(false, priorities.contains(Goals.RECRUIT_PROFESSION_ORGANIZATION_MEMBERS_GOAL));
+		
+		commoner.setProperty(Constants.PROFESSION, Professions.FARMER_PROFESSION);
+		assertNotSame(priorities, commoner.getPriorities(world));
+		assertEquals(true, commoner.getPriorities(world).contains(Goals.RECRUIT_PROFESSION_ORGANIZATION_MEMBERS_GOAL));
+	}
+	
+	@Test
+	public void testPrioritiesChangeWithGroup() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject commoner = createCommoner(world);
+		WorldObject organization = GroupPropertyUtils.createReligionOrganization(null, "TestOrg", Deity.ARES, Goals.CREATE_WOOD_GOAL, world);
+		assertEquals(false, commoner.getPriorities(world).contains(Goals.CREATE_WOOD_GOAL));
+		
+		commoner.getProperty(Constants.GROUP).add(organization);
+		assertEquals(true, commoner.getPriorities(world).contains(Goals.CREATE_WOOD_GOAL));
+		
+		commoner.getProperty(Constants.GROUP).remove(organization);
+		assertEquals(false, commoner.getPriorities(world).contains(Goals.CREATE_WOOD_GOAL));
+	}
+	
+	@Test
+	public void testPrioritiesChangeWithGivenOrder() {
+		World world = new WorldImpl(1, 1, null, new DoNothingWorldOnTurn());
+		WorldObject commoner = createCommoner(world);
+		assertEquals(false, commoner.getPriorities(world).contains(Goals.CREATE_WOOD_GOAL));
+		
+		commoner.setProperty(Constants.GIVEN_ORDER, Goals.CREATE_WOOD_GOAL);
+		assertEquals(true, commoner.getPriorities(world).contains(Goals.CREATE_WOOD_GOAL));
+		
+		commoner.setProperty(Constants.GIVEN_ORDER, null);
+		assertEquals(false, commoner.getPriorities(world).contains(Goals.CREATE_WOOD_GOAL));
+	}
+	
+	private WorldObject createCommoner(World world) {
+		Map<ManagedProperty<?>, Object> properties = new HashMap<>();
+		properties.put(Constants.ID, 7);
+		properties.put(Constants.X, 0);
+		properties.put(Constants.Y, 0);
+		properties.put(Constants.WIDTH, 1);
+		properties.put(Constants.HEIGHT, 1);
+		properties.put(Constants.NAME, "commoner");
+		properties.put(Constants.GROUP, new IdList());
+		properties.put(Constants.BACKGROUND, new BackgroundImpl());
+		WorldObject commoner = new WorldObjectImpl(properties, new CommonerWorldEvaluationFunction());
+		world.addWorldObject(commoner);
+		return commoner;
+	}
+}
@@ -71,8 +71,8 @@ public class UTestBuildLocationUtils {
 		world.addWorldObject(performer);
 		
 		WorldObject location = BuildLocationUtils.findOpenLocationNearExistingProperty(performer, 1, 1, world, new ArrayList<>(), new BuildLocationUtils.DefaultZoneInitializer());
-		assertEquals(4, location.getProperty(Constants.X).intValue());
-		assertEquals(5, location.getProperty(Constants.Y).intValue());
+		assertEquals(3, location.getProperty(Constants.X).intValue());
+		assertEquals(3, location.getProperty(Constants.Y).intValue());
 		assertEquals(1, location.getProperty(Constants.WIDTH).intValue());
 		assertEquals(1, location.getProperty(Constants.HEIGHT).intValue());
 	}
@@ -18,6 +18,7 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 import org.worldgrower.Constants;
+import org.worldgrower.MockTerrain;
 import org.worldgrower.TestUtils;
 import org.worldgrower.World;
 import org.worldgrower.WorldImpl;
@@ -26,6 +27,7 @@ import org.worldgrower.actions.Actions;
 import org.worldgrower.attribute.WorldObjectContainer;
 import org.worldgrower.generator.Item;
 import org.worldgrower.generator.PlantGenerator;
+import org.worldgrower.terrain.TerrainType;
 
 public class UTestCreateOrPlantWoodGoal {
 
@@ -59,7 +61,7 @@ public class UTestCreateOrPlantWoodGoal {
 	
 	@Test
 	public void testCalculateGoalFarAwayTree() {
-		World world = new WorldImpl(5, 30, null, null);
+		World world = new WorldImpl(new MockTerrain(TerrainType.GRASLAND, 30), null, null);
 		WorldObject performer = createPerformer();
 		
 		PlantGenerator.generateTree(0, 25, world);
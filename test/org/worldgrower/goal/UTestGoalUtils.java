@@ -291,6 +291,17 @@ public class UTestGoalUtils {
 		assertEquals(5, position.getY());
 	}
 	
+	@Test
+	public void testFindOpenNonWaterSpaceNearestToStartingLocation() {
+		MockTerrain terrain = new MockTerrain(TerrainType.GRASLAND);
+		terrain.setTerrainType(8, 2, TerrainType.WATER);
+		World world = new WorldImpl(terrain, null, null);
+		
+		Position position = GoalUtils.findOpenNonWaterSpace(8, 2, 1, 1, world);
+		assertEquals(7, position.getX());
+		assertEquals(1, position.getY());
+	}
+	
 	@Test
 	public void testFindOpenNonWaterSpaceOccupiedStartingLocation() {
 		MockTerrain terrain = new MockTerrain(TerrainType.GRASLAND);
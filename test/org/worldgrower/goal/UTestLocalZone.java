@@ -0,0 +1,84 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.goal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.worldgrower.TestUtils;
+import org.worldgrower.WorldObject;
+
+public class UTestLocalZone {
+
+	@Test
+	public void testGetValues() {
+		LocalZone zone = new LocalZone(2, 0, 1, 5, 5);
+		
+		assertEquals(Arrays.asList(1, 2, 3), zone.getValuesX());
+		assertEquals(Arrays.asList(0, 1), zone.getValuesY());
+	}
+	
+	@Test
+	public void testAddValues() {
+		LocalZone zone = new LocalZone(2, 2, 1, 5, 5);
+		List<WorldObject> worldObjects = new ArrayList<>();
+		worldObjects.add(TestUtils.createWorldObject(4, 4, 1, 1));
+		
+		zone.addValues(worldObjects, 1, 5);
+		
+		assertEquals(0, zone.value(1, 1));
+		assertEquals(0, zone.value(2, 2));
+		assertEquals(5, zone.value(3, 3));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testValueOutsideLocalZone() {
+		LocalZone zone = new LocalZone(2, 2, 1, 5, 5);
+		zone.value(4, 4);
+	}
+	
+	@Test
+	public void testAddValuesMatchesZone() {
+		Random random = new Random(0);
+		List<WorldObject> worldObjects = new ArrayList<>();
+		for(int i=0; i<10; i++) {
+			worldObjects.add(TestUtils.createWorldObject(random.nextInt(20), random.nextInt(20), 1, 1));
+		}
+		
+		for(int i=0; i<50; i++) {
+			int centerX = random.nextInt(20);
+			int centerY = random.nextInt(20);
+			Zone zone = new Zone(20, 20);
+			LocalZone localZone = new LocalZone(centerX, centerY, 1, 20, 20);
+			for(int zoneLimit=1; zoneLimit<10; zoneLimit++) {
+				zone.addValues(worldObjects, zoneLimit, 1);
+				localZone.addValues(worldObjects, zoneLimit, 1);
+			}
+			
+			assertEquals(zone.getValuesX(centerX), localZone.getValuesX());
+			assertEquals(zone.getValuesY(centerY), localZone.getValuesY());
+			for(int x : localZone.getValuesX()) {
+				for(int y : localZone.getValuesY()) {
+					assertEquals(zone.value(x, y), localZone.value(x, y));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.goal;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.worldgrower.Constants;
+import org.worldgrower.TestUtils;
+import org.worldgrower.World;
+import org.worldgrower.WorldImpl;
+import org.worldgrower.WorldObject;
+import org.worldgrower.generator.Item;
+
+public class UTestLowestPriceCache {
+
+	@Test
+	public void testBetterPriceExists() {
+		World world = new WorldImpl(1, 1, null, null);
+		world.addWorldObject(createSeller(2, Item.BERRIES, 5));
+		world.addWorldObject(createSeller(3, Item.BERRIES, 3));
+		world.addWorldObject(createSeller(4, Item.WATER, 1));
+		
+		LowestPriceCache lowestPriceCache = new LowestPriceCache(world);
+		assertEquals(true, lowestPriceCache.betterPriceExists(Item.BERRIES, 4));
+		assertEquals(false, lowestPriceCache.betterPriceExists(Item.BERRIES, 3));
+		assertEquals(false, lowestPriceCache.betterPriceExists(Item.WATER, 1));
+		assertEquals(false, lowestPriceCache.betterPriceExists(Item.IRON_CUIRASS, 1000));
+	}
+	
+	@Test
+	public void testNotSellable() {
+		World world = new WorldImpl(1, 1, null, null);
+		WorldObject seller = createSeller(2, Item.BERRIES, 5);
+		WorldObject otherBerries = Item.BERRIES.generate(1f);
+		otherBerries.setProperty(Constants.SELLABLE, Boolean.FALSE);
+		WorldObject target = TestUtils.createIntelligentWorldObject(3, "target");
+		target.getProperty(Constants.INVENTORY).addQuantity(otherBerries);
+		target.getProperty(Constants.PRICES).setPrice(Item.BERRIES, 1);
+		world.addWorldObject(seller);
+		world.addWorldObject(target);
+		
+		LowestPriceCache lowestPriceCache = new LowestPriceCache(world);
+		assertEquals(false, lowestPriceCache.betterPriceExists(Item.BERRIES, 5));
+	}
+	
+	private WorldObject createSeller(int id, Item item, int price) {
+		WorldObject seller = TestUtils.createIntelligentWorldObject(id, "seller");
+		WorldObject sellableItem = item.generate(1f);
+		sellableItem.setProperty(Constants.SELLABLE, Boolean.TRUE);
+		seller.getProperty(Constants.INVENTORY).addQuantity(sellableItem);
+		seller.getProperty(Constants.PRICES).setPrice(item, price);
+		return seller;
+	}
+}
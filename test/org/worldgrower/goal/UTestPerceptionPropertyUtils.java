@@ -15,6 +15,7 @@
 package org.worldgrower.goal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 import org.worldgrower.Constants;
@@ -69,4 +70,17 @@ public class UTestPerceptionPropertyUtils {
 		performer.setProperty(Constants.RIGHT_HAND_EQUIPMENT, Item.LAMP.generate(1f));
 		assertEquals(18, PerceptionPropertyUtils.calculateRadius(performer, world));
 	}
+	
+	@Test
+	public void testCalculateRadiusWithinMaxRadius() {
+		MockWorld world = new MockWorld(new TerrainImpl(0, 0, new TerrainMapper()), new  WorldImpl(0, 0, null, null));
+		WorldObject performer = TestUtils.createSkilledWorldObject(0);
+		performer.setProperty(Constants.CONDITIONS, new Conditions());
+		performer.setProperty(Constants.PERCEPTION_SKILL, new Skill(1000));
+		performer.setProperty(Constants.LEFT_HAND_EQUIPMENT, Item.LAMP.generate(1f));
+		Conditions.add(performer, Condition.DARK_VISION_CONDITION, 8, world);
+		world.setCurrentTurn(50);
+		
+		assertTrue(PerceptionPropertyUtils.calculateRadius(performer, world) <= PerceptionPropertyUtils.MAX_RADIUS);
+	}
 }
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class UTestAnimationFrameScheduler {
+
+	@Test
+	public void testGetStep() {
+		AnimationFrameScheduler scheduler = new AnimationFrameScheduler(480, 10);
+		scheduler.start(1000);
+		
+		assertEquals(0, scheduler.getStep(1000));
+		assertEquals(0, scheduler.getStep(1015));
+		assertEquals(2, scheduler.getStep(1020));
+		assertEquals(2, scheduler.getStep(1030));
+		assertEquals(46, scheduler.getStep(1479));
+		assertEquals(48, scheduler.getStep(1480));
+		assertEquals(48, scheduler.getStep(5000));
+		
+		assertEquals(false, scheduler.isFinished(1479));
+		assertEquals(true, scheduler.isFinished(1480));
+	}
+	
+	@Test
+	public void testRequestFrame() {
+		AnimationFrameScheduler scheduler = new AnimationFrameScheduler(480, 10);
+		scheduler.start(1000);
+		
+		assertEquals(true, scheduler.requestFrame(1000));
+		assertEquals(false, scheduler.requestFrame(1010));
+		
+		scheduler.framePainted(1015, 1020);
+		assertEquals(true, scheduler.requestFrame(1020));
+		
+		assertEquals(1, scheduler.getFramesPainted());
+		assertEquals(1, scheduler.getFramesDropped());
+	}
+	
+	@Test
+	public void testSlowFrameDelaysNextFrame() {
+		AnimationFrameScheduler scheduler = new AnimationFrameScheduler(480, 10);
+		scheduler.start(1000);
+		
+		assertEquals(true, scheduler.requestFrame(1000));
+		scheduler.framePainted(1000, 1030);
+		assertEquals(false, scheduler.requestFrame(1040));
+		assertEquals(true, scheduler.requestFrame(1060));
+	}
+	
+	@Test
+	public void testFrameStatistics() {
+		AnimationFrameScheduler scheduler = new AnimationFrameScheduler(480, 10000000);
+		scheduler.start(0);
+		
+		scheduler.requestFrame(0);
+		scheduler.framePainted(0, 2000000);
+		scheduler.requestFrame(2000000);
+		scheduler.framePainted(2000000, 6000000);
+		
+		assertEquals(2, scheduler.getFramesPainted());
+		assertEquals(3.0, scheduler.getAverageFrameTimeInMilliseconds(), 0.001);
+		assertEquals(4.0, scheduler.getMaxFrameTimeInMilliseconds(), 0.001);
+	}
+}
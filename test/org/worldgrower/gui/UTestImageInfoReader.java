@@ -14,9 +14,16 @@
  *******************************************************************************/
 package org.worldgrower.gui;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 
 import org.junit.Test;
 
@@ -27,4 +34,59 @@ public class UTestImageInfoReader {
 		ImageInfoReader imageInfoReader = new ImageInfoReader();
 		assertEquals(true, imageInfoReader.getCharacterImageIds().size() > 0);
 	}
+	
+	@Test
+	public void testGetAnimation() throws IOException {
+		ImageInfoReader imageInfoReader = new ImageInfoReader();
+		assertEquals(10, imageInfoReader.getNumberOfFrames(ImageIds.IRON_MACE_ANIMATION));
+		assertEquals(48, imageInfoReader.getImage(ImageIds.IRON_MACE_ANIMATION, 9).getWidth(null));
+		assertSame(imageInfoReader.getImage(ImageIds.IRON_MACE_ANIMATION, 9), imageInfoReader.getImage(ImageIds.IRON_MACE_ANIMATION, 9));
+	}
+	
+	@Test
+	public void testGetSpriteAnimation() throws IOException {
+		ImageInfoReader imageInfoReader = new ImageInfoReader();
+		assertEquals(30, imageInfoReader.getNumberOfFrames(ImageIds.MAGIC1));
+		assertEquals(20, imageInfoReader.getNumberOfFrames(ImageIds.FIRE1));
+		assertSame(imageInfoReader.getImage(ImageIds.MAGIC1, 29), imageInfoReader.getImage(ImageIds.MAGIC1, 29));
+	}
+	
+	@Test
+	public void testReadImageAtlas() throws IOException {
+		File imageAtlasFile = File.createTempFile("worldgrower", ".atlas");
+		ImageInfoReader imageInfoReader = new ImageInfoReader();
+		imageInfoReader.writeImageAtlas(imageAtlasFile);
+		
+		ImageInfoReader imageAtlasReader = ImageInfoReader.readOrCreate(imageAtlasFile);
+		assertEquals(imageInfoReader.getCharacterImageIds(), imageAtlasReader.getCharacterImageIds());
+		assertEquals(10, imageAtlasReader.getNumberOfFrames(ImageIds.IRON_MACE_ANIMATION));
+		assertEquals(30, imageAtlasReader.getNumberOfFrames(ImageIds.MAGIC1));
+		assertSamePixels(imageInfoReader.getImage(ImageIds.MAGIC1, 29), imageAtlasReader.getImage(ImageIds.MAGIC1, 29));
+		assertSamePixels(imageInfoReader.getImage(ImageIds.INN, null), imageAtlasReader.getImage(ImageIds.INN, null));
+		assertSame(imageAtlasReader.getImage(ImageIds.INN, null), imageAtlasReader.getImage(ImageIds.INN, null));
+		imageAtlasFile.delete();
+	}
+	
+	@Test
+	public void testReadTruncatedImageAtlas() throws IOException {
+		File imageAtlasFile = File.createTempFile("worldgrower", ".atlas");
+		new ImageInfoReader().writeImageAtlas(imageAtlasFile);
+		assertEquals(true, ImageAtlas.read(imageAtlasFile) != null);
+		
+		try (RandomAccessFile file = new RandomAccessFile(imageAtlasFile, "rw")) {
+			file.setLength(file.length() - 1);
+		}
+		assertNull(ImageAtlas.read(imageAtlasFile));
+		imageAtlasFile.delete();
+	}
+	
+	private void assertSamePixels(Image expected, Image actual) {
+		BufferedImage expectedImage = (BufferedImage) expected;
+		BufferedImage actualImage = (BufferedImage) actual;
+		int width = expectedImage.getWidth();
+		int height = expectedImage.getHeight();
+		assertEquals(width, actualImage.getWidth());
+		assertEquals(height, actualImage.getHeight());
+		assertArrayEquals(expectedImage.getRGB(0, 0, width, height, null, 0, width), actualImage.getRGB(0, 0, width, height, null, 0, width));
+	}
 }
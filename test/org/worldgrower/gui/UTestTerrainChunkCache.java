@@ -0,0 +1,92 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+public class UTestTerrainChunkCache {
+
+	private static final int TILE_SIZE = TerrainChunkCache.TILE_SIZE;
+	
+	@Test
+	public void testPaint() {
+		TerrainChunkCache terrainChunkCache = new TerrainChunkCache(20, 20, 10, this::paintTile);
+		BufferedImage image = new BufferedImage(5 * TILE_SIZE, 5 * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics g = image.createGraphics();
+		terrainChunkCache.paint(g, new Rectangle(14, 14, 4, 4), -13, -13);
+		g.dispose();
+		
+		assertEquals(Color.BLACK.getRGB(), image.getRGB(0, 0));
+		assertEquals(colorFor(14, 14).getRGB(), image.getRGB(TILE_SIZE, TILE_SIZE));
+		assertEquals(colorFor(16, 15).getRGB(), image.getRGB(3 * TILE_SIZE + 1, 2 * TILE_SIZE + 1));
+		assertEquals(colorFor(17, 17).getRGB(), image.getRGB(5 * TILE_SIZE - 1, 5 * TILE_SIZE - 1));
+		assertEquals(4, terrainChunkCache.getChunksRendered());
+	}
+	
+	@Test
+	public void testPaintOutsideTerrain() {
+		TerrainChunkCache terrainChunkCache = new TerrainChunkCache(20, 20, 10, this::paintTile);
+		BufferedImage image = new BufferedImage(5 * TILE_SIZE, 5 * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics g = image.createGraphics();
+		terrainChunkCache.paint(g, new Rectangle(-5, -5, 4, 4), 5, 5);
+		g.dispose();
+		
+		assertEquals(0, terrainChunkCache.getChunksRendered());
+	}
+	
+	@Test
+	public void testChunksAreReused() {
+		TerrainChunkCache terrainChunkCache = new TerrainChunkCache(20, 20, 10, this::paintTile);
+		BufferedImage image = new BufferedImage(5 * TILE_SIZE, 5 * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics g = image.createGraphics();
+		terrainChunkCache.paint(g, new Rectangle(0, 0, 4, 4), 0, 0);
+		terrainChunkCache.paint(g, new Rectangle(1, 1, 4, 4), -1, -1);
+		g.dispose();
+		
+		assertEquals(1, terrainChunkCache.getChunksRendered());
+	}
+	
+	@Test
+	public void testLeastRecentlyUsedChunksAreDropped() {
+		TerrainChunkCache terrainChunkCache = new TerrainChunkCache(40, 40, 2, this::paintTile);
+		BufferedImage image = new BufferedImage(5 * TILE_SIZE, 5 * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics g = image.createGraphics();
+		terrainChunkCache.paint(g, new Rectangle(0, 0, 1, 1), 0, 0);
+		terrainChunkCache.paint(g, new Rectangle(20, 0, 1, 1), -20, 0);
+		terrainChunkCache.paint(g, new Rectangle(0, 20, 1, 1), 0, -20);
+		assertEquals(3, terrainChunkCache.getChunksRendered());
+		assertEquals(2, terrainChunkCache.getCachedChunkCount());
+		
+		terrainChunkCache.paint(g, new Rectangle(0, 0, 1, 1), 0, 0);
+		g.dispose();
+		assertEquals(4, terrainChunkCache.getChunksRendered());
+	}
+	
+	private void paintTile(Graphics g, int x, int y, int xInPixels, int yInPixels) {
+		g.setColor(colorFor(x, y));
+		g.fillRect(xInPixels, yInPixels, TILE_SIZE, TILE_SIZE);
+	}
+	
+	private Color colorFor(int x, int y) {
+		return new Color(x * 5, y * 5, 100);
+	}
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui.music;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.sound.sampled.AudioFormat;
+
+import org.junit.Test;
+
+public class UTestBackgroundMusicUtils {
+
+	private static final AudioFormat STEREO_16_BIT = new AudioFormat(44100, 16, 2, true, false);
+	
+	@Test
+	public void testCanCrossfade() {
+		assertEquals(true, BackgroundMusicUtils.canCrossfade(STEREO_16_BIT, new AudioFormat(44100, 16, 2, true, false)));
+		assertEquals(false, BackgroundMusicUtils.canCrossfade(STEREO_16_BIT, new AudioFormat(22050, 16, 2, true, false)));
+		assertEquals(false, BackgroundMusicUtils.canCrossfade(new AudioFormat(44100, 8, 2, true, false), new AudioFormat(44100, 8, 2, true, false)));
+	}
+	
+	@Test
+	public void testCanPlayGapless() {
+		assertEquals(true, BackgroundMusicUtils.canPlayGapless(STEREO_16_BIT, new AudioFormat(44100, 16, 2, true, false)));
+		assertEquals(false, BackgroundMusicUtils.canPlayGapless(STEREO_16_BIT, new AudioFormat(44100, 16, 1, true, false)));
+	}
+	
+	@Test
+	public void testCrossfade() {
+		byte[] fadingOut = createFrames(STEREO_16_BIT, 1000, 1000, 1000, 1000);
+		byte[] fadingIn = createFrames(STEREO_16_BIT, -1000, -1000, 3000, 3000);
+		
+		BackgroundMusicUtils.crossfade(fadingOut, fadingIn, fadingOut.length, STEREO_16_BIT, 0, 4);
+		assertEquals(1000, getSample(fadingOut, 0));
+		assertEquals(1000, getSample(fadingOut, 1));
+		assertEquals(500, getSample(fadingOut, 2));
+		assertEquals(500, getSample(fadingOut, 3));
+		assertEquals(2000, getSample(fadingOut, 4));
+		assertEquals(2500, getSample(fadingOut, 6));
+	}
+	
+	@Test
+	public void testCrossfadeBigEndian() {
+		AudioFormat bigEndianFormat = new AudioFormat(44100, 16, 1, true, true);
+		byte[] fadingOut = new byte[] { 0x10, 0x00, 0x10, 0x00 };
+		byte[] fadingIn = new byte[] { 0x00, 0x00, 0x00, 0x00 };
+		
+		BackgroundMusicUtils.crossfade(fadingOut, fadingIn, fadingOut.length, bigEndianFormat, 1, 2);
+		assertEquals(0x08, fadingOut[0]);
+		assertEquals(0x00, fadingOut[1]);
+		assertEquals(0x00, fadingOut[2]);
+	}
+	
+	// creates stereo frames with the same sample in both channels
+	private static byte[] createFrames(AudioFormat format, int... samples) {
+		byte[] frames = new byte[samples.length * format.getFrameSize()];
+		for(int i = 0; i < samples.length; i++) {
+			setSample(frames, 2 * i, samples[i]);
+			setSample(frames, 2 * i + 1, samples[i]);
+		}
+		return frames;
+	}
+	
+	private static void setSample(byte[] frames, int sampleIndex, int sample) {
+		frames[2 * sampleIndex] = (byte) sample;
+		frames[2 * sampleIndex + 1] = (byte) (sample >> 8);
+	}
+	
+	private static int getSample(byte[] frames, int sampleIndex) {
+		return (frames[2 * sampleIndex + 1] << 8) | (frames[2 * sampleIndex] & 0xff);
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui.music;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import javax.sound.sampled.AudioFormat;
+
+import org.junit.Test;
+
+public class UTestSound {
+
+	@Test
+	public void testConvertStereo() {
+		AudioFormat format = new AudioFormat(44100f, 16, 2, true, false);
+		byte[] pcm = { 1, 0, -1, -1, 0, 1, 2, 0 };
+		
+		assertArrayEquals(new short[] { 1, -1, 256, 2 }, Sound.convertToMixerFormat(pcm, format));
+	}
+	
+	@Test
+	public void testConvertMono() {
+		AudioFormat format = new AudioFormat(44100f, 16, 1, true, false);
+		byte[] pcm = { 1, 0, -2, -1 };
+		
+		assertArrayEquals(new short[] { 1, 1, -2, -2 }, Sound.convertToMixerFormat(pcm, format));
+	}
+	
+	@Test
+	public void testConvertSampleRate() {
+		AudioFormat format = new AudioFormat(88200f, 16, 1, true, false);
+		byte[] pcm = { 10, 0, 20, 0, 30, 0, 40, 0 };
+		
+		assertArrayEquals(new short[] { 10, 10, 30, 30 }, Sound.convertToMixerFormat(pcm, format));
+	}
+	
+	@Test
+	public void testConvertLowerSampleRate() {
+		AudioFormat format = new AudioFormat(22050f, 16, 1, true, false);
+		byte[] pcm = { 10, 0, 20, 0 };
+		
+		assertArrayEquals(new short[] { 10, 10, 15, 15, 20, 20, 20, 20 }, Sound.convertToMixerFormat(pcm, format));
+	}
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+package org.worldgrower.gui.music;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class UTestSoundEffectMixer {
+
+	@Test
+	public void testMix() {
+		SoundEffectMixer mixer = new SoundEffectMixer(4);
+		mixer.play(new Sound(new short[] { 100, -100, 200, -200 }));
+		mixer.play(new Sound(new short[] { 10, 20 }));
+		
+		byte[] chunk = new byte[SoundEffectMixer.CHUNK_SIZE];
+		assertEquals(2, mixer.mix(chunk));
+		assertEquals(110, getSample(chunk, 0));
+		assertEquals(-80, getSample(chunk, 1));
+		assertEquals(200, getSample(chunk, 2));
+		assertEquals(-200, getSample(chunk, 3));
+		assertEquals(0, getSample(chunk, 4));
+		
+		assertEquals(0, mixer.getActiveVoiceCount());
+		assertEquals(0, mixer.mix(chunk));
+		assertEquals(0, getSample(chunk, 0));
+	}
+	
+	@Test
+	public void testMixClipsSamples() {
+		SoundEffectMixer mixer = new SoundEffectMixer(4);
+		mixer.play(new Sound(new short[] { 30000, -30000 }));
+		mixer.play(new Sound(new short[] { 30000, -30000 }));
+		
+		byte[] chunk = new byte[SoundEffectMixer.CHUNK_SIZE];
+		mixer.mix(chunk);
+		assertEquals(Short.MAX_VALUE, getSample(chunk, 0));
+		assertEquals(Short.MIN_VALUE, getSample(chunk, 1));
+	}
+	
+	@Test
+	public void testMixLongSound() {
+		SoundEffectMixer mixer = new SoundEffectMixer(4);
+		short[] samples = new short[SoundEffectMixer.CHUNK_SIZE / 2 + 2];
+		samples[samples.length - 1] = 5;
+		mixer.play(new Sound(samples));
+		
+		byte[] chunk = new byte[SoundEffectMixer.CHUNK_SIZE];
+		assertEquals(1, mixer.mix(chunk));
+		assertEquals(1, mixer.getActiveVoiceCount());
+		assertEquals(1, mixer.mix(chunk));
+		assertEquals(5, getSample(chunk, 1));
+		assertEquals(0, mixer.getActiveVoiceCount());
+	}
+	
+	@Test
+	public void testPlayDropsOldestVoice() {
+		SoundEffectMixer mixer = new SoundEffectMixer(2);
+		mixer.play(new Sound(new short[] { 1, 1 }));
+		mixer.play(new Sound(new short[] { 2, 2 }));
+		mixer.play(new Sound(new short[] { 4, 4 }));
+		
+		assertEquals(2, mixer.getActiveVoiceCount());
+		assertEquals(3, mixer.getVoicesStarted());
+		assertEquals(1, mixer.getVoicesDropped());
+		assertEquals(2, mixer.getPeakVoices());
+		
+		byte[] chunk = new byte[SoundEffectMixer.CHUNK_SIZE];
+		mixer.mix(chunk);
+		assertEquals(6, getSample(chunk, 0));
+	}
+	
+	private int getSample(byte[] chunk, int index) {
+		return (chunk[2 * index + 1] << 8) | (chunk[2 * index] & 0xff);
+	}
+}
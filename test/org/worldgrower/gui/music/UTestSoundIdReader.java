@@ -14,15 +14,51 @@
  *******************************************************************************/
 package org.worldgrower.gui.music;
 
-import java.io.IOException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.ExecutionException;
 
 import org.junit.Test;
 
 public class UTestSoundIdReader {
 
 	@Test
-	public void testInitialize() throws IOException, SoundException {
-		//SoundIdReader soundIdReader = new SoundIdReader(null, true);
-		//assertEquals(true, soundIdReader.isEnabled());
+	public void testInitialize() throws SoundException {
+		SoundIdReader soundIdReader = new SoundIdReader(null, false);
+		assertEquals(false, soundIdReader.isEnabled());
+		assertEquals(0, soundIdReader.getLoadedSoundCount());
+	}
+	
+	@Test
+	public void testGetSound() throws SoundException {
+		SoundIdReader soundIdReader = new SoundIdReader(null, false);
+		Sound sound = soundIdReader.getSound(SoundIds.CUT_WOOD);
+		
+		assertSame(sound, soundIdReader.getSound(SoundIds.CUT_WOOD));
+		assertEquals(1, soundIdReader.getLoadedSoundCount());
+		assertEquals(0, sound.getSamples().length % 2);
+	}
+	
+	@Test
+	public void testLoadSound() throws SoundException, InterruptedException, ExecutionException {
+		SoundIdReader soundIdReader = new SoundIdReader(null, false);
+		Sound sound = soundIdReader.loadSound(SoundIds.CLICK).get();
+		
+		assertSame(sound, soundIdReader.getSound(SoundIds.CLICK));
+		assertEquals(1, soundIdReader.getLoadedSoundCount());
+	}
+	
+	@Test
+	public void testGetSoundEvictsLeastRecentlyUsed() throws SoundException {
+		SoundIdReader soundIdReader = new SoundIdReader(null, false);
+		Sound firstSound = soundIdReader.getSound(SoundIds.values()[0]);
+		for(int i = 1; i < 30; i++) {
+			soundIdReader.getSound(SoundIds.values()[i]);
+			soundIdReader.getSound(SoundIds.values()[0]);
+		}
+		
+		assertEquals(24, soundIdReader.getLoadedSoundCount());
+		assertSame(firstSound, soundIdReader.getSound(SoundIds.values()[0]));
 	}
 }
@@ -14,8 +14,14 @@
 *******************************************************************************/
 package org.worldgrower.history;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.List;
 
 import org.junit.Test;
@@ -87,6 +93,23 @@ public class UTestHistoryImpl {
 		
 	}
 	
+	@Test
+	public void testGetLastPerformedOperationsOnTarget() {
+		History history = new HistoryImpl();
+		WorldObject otherPerformer = TestUtils.createWorldObject(5, "Test3");
+		
+		history.actionPerformed(new OperationInfo(performer, target, Args.EMPTY, Actions.MELEE_ATTACK_ACTION), new Turn());
+		history.actionPerformed(new OperationInfo(otherPerformer, target, Args.EMPTY, Actions.TALK_ACTION), new Turn());
+		assertEquals(2, history.getLastPerformedOperationsOnTarget(target).size());
+		assertEquals(otherPerformer, history.getLastPerformedOperationsOnTarget(target).iterator().next().getPerformer());
+		assertEquals(0, history.getLastPerformedOperationsOnTarget(performer).size());
+		
+		history.actionPerformed(new OperationInfo(performer, otherPerformer, Args.EMPTY, Actions.MOVE_ACTION), new Turn());
+		assertEquals(1, history.getLastPerformedOperationsOnTarget(target).size());
+		assertEquals(Actions.TALK_ACTION, history.getLastPerformedOperationsOnTarget(target).iterator().next().getManagedOperation());
+		assertEquals(Actions.MOVE_ACTION, history.getLastPerformedOperationsOnTarget(otherPerformer).iterator().next().getManagedOperation());
+	}
+	
 	@Test
 	public void testGetHistoryItem() {
 		assertEquals(Actions.MELEE_ATTACK_ACTION, history.getHistoryItem(0).getManagedOperation());
@@ -127,4 +150,89 @@ public class UTestHistoryImpl {
 		assertEquals(6, historyItems.get(0).getPerformerId());
 
 	}
+	
+	@Test
+	public void testFindHistoryItemsWithArgs() {
+		History history = new HistoryImpl();
+		history.actionPerformed(new OperationInfo(performer, target, new int[] { 1, 2 }, Actions.TALK_ACTION), new Turn());
+		history.actionPerformed(new OperationInfo(performer, target, new int[] { 1, 3 }, Actions.TALK_ACTION), new Turn());
+		history.actionPerformed(new OperationInfo(performer, target, new int[] { 1 }, Actions.TALK_ACTION), new Turn());
+		
+		List<HistoryItem> historyItems = history.findHistoryItems(performer, target, new int[] { 1, 3 }, Actions.TALK_ACTION);
+		assertEquals(1, historyItems.size());
+		assertEquals(1, historyItems.get(0).getHistoryId());
+		assertArrayEquals(new int[] { 1, 3 }, historyItems.get(0).getArgs());
+		
+		assertEquals(2, history.findHistoryItem(performer, target, new int[] { 1 }, Actions.TALK_ACTION).getHistoryId());
+		assertEquals(null, history.findHistoryItem(performer, target, new int[] { 2 }, Actions.TALK_ACTION));
+		assertEquals(3, history.findHistoryItems(performer, target, Actions.TALK_ACTION).size());
+	}
+	
+	@Test
+	public void testFindHistoryItemsForPerformer() {
+		History history = new HistoryImpl();
+		history.actionPerformed(new OperationInfo(performer, target, Args.EMPTY, Actions.TALK_ACTION), new Turn());
+		history.actionPerformed(new OperationInfo(target, performer, Args.EMPTY, Actions.TALK_ACTION), new Turn());
+		history.actionPerformed(new OperationInfo(performer, performer, Args.EMPTY, Actions.MELEE_ATTACK_ACTION), new Turn());
+		
+		List<HistoryItem> historyItems = history.findHistoryItemsForPerformer(performer);
+		assertEquals(2, historyItems.size());
+		assertEquals(0, historyItems.get(0).getHistoryId());
+		assertEquals(2, historyItems.get(1).getHistoryId());
+		
+		historyItems = history.findHistoryItems(performer, Actions.TALK_ACTION);
+		assertEquals(1, historyItems.size());
+		assertEquals(0, historyItems.get(0).getHistoryId());
+	}
+	
+	@Test
+	public void testGetHistoryItemAdditionalValue() {
+		History history = new HistoryImpl();
+		history.setNextAdditionalValue("value");
+		history.actionPerformed(new OperationInfo(performer, target, Args.EMPTY, Actions.TALK_ACTION), new Turn());
+		history.actionPerformed(new OperationInfo(performer, target, Args.EMPTY, Actions.TALK_ACTION), new Turn().next());
+		
+		assertEquals("value", history.getHistoryItem(0).getAdditionalValue());
+		assertEquals(null, history.getHistoryItem(1).getAdditionalValue());
+		assertEquals(1, history.getHistoryItem(1).getTurn().getValue());
+		assertEquals(performer, history.getHistoryItem(1).getPerformer());
+		assertEquals(target, history.getHistoryItem(1).getTarget());
+	}
+	
+	@Test
+	public void testAppendHistory() throws IOException, ClassNotFoundException {
+		HistoryImpl history = new HistoryImpl();
+		history.actionPerformed(new OperationInfo(performer, target, Args.EMPTY, Actions.MELEE_ATTACK_ACTION), new Turn());
+		HistoryImpl loadedHistory = HistoryImpl.readHistory(write(history.copyForSave()));
+		
+		history.setNextAdditionalValue("value");
+		history.actionPerformed(new OperationInfo(target, performer, new int[] { 3 }, Actions.TALK_ACTION), new Turn().next());
+		loadedHistory.appendHistory(write(history.copyForSave(1)));
+		
+		assertEquals(2, loadedHistory.size());
+		HistoryItem historyItem = loadedHistory.getHistoryItem(1);
+		assertEquals(7, historyItem.getPerformerId());
+		assertEquals(1, historyItem.getTurn().getValue());
+		assertEquals("value", historyItem.getAdditionalValue());
+		assertArrayEquals(new int[] { 3 }, historyItem.getArgs());
+		assertEquals(1, loadedHistory.findHistoryItems(Actions.TALK_ACTION).size());
+		assertEquals(Actions.TALK_ACTION, loadedHistory.getLastPerformedOperation(target).getManagedOperation());
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testAppendHistoryWithMissingHistoryItems() throws IOException, ClassNotFoundException {
+		HistoryImpl history = new HistoryImpl();
+		history.actionPerformed(new OperationInfo(performer, target, Args.EMPTY, Actions.MELEE_ATTACK_ACTION), new Turn());
+		history.actionPerformed(new OperationInfo(performer, target, Args.EMPTY, Actions.MELEE_ATTACK_ACTION), new Turn());
+		
+		new HistoryImpl().appendHistory(write(history.copyForSave(1)));
+	}
+	
+	private ObjectInputStream write(HistoryImpl history) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+			history.writeHistory(objectOutputStream);
+		}
+		return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+	}
 }